@@ -19,21 +19,30 @@ package org.n52.gfz.riesgos.algorithm;
 import net.opengis.wps.x100.ProcessDescriptionsDocument;
 import net.opengis.wps.x20.OutputDefinitionType;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.n52.gfz.riesgos.cache.DataWithRecreatorTuple;
 import org.n52.gfz.riesgos.cache.ICacher;
 import org.n52.gfz.riesgos.cache.IDataRecreator;
 import org.n52.gfz.riesgos.cache.RecreateFromByteArray;
 import org.n52.gfz.riesgos.cache.RecreateFromExitValue;
+import org.n52.gfz.riesgos.cache.RecreateFromFileContent;
+import org.n52.gfz.riesgos.cache.RecreateFromIntermediateFile;
 import org.n52.gfz.riesgos.cache.hash.IHasher;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionContextManager;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+import org.n52.gfz.riesgos.cmdexecution.scheduling.ExecutionSchedulerSingleton;
+import org.n52.gfz.riesgos.cmdexecution.scheduling.IExecutionScheduler;
+import org.n52.gfz.riesgos.cmdexecution.scheduling.IExecutionSlot;
 import org.n52.gfz.riesgos.cmdexecution.util.IExecutionContextManagerFactory;
+import org.n52.gfz.riesgos.cmdexecution.util.InputConversionPool;
+import org.n52.gfz.riesgos.cmdexecution.util.StagedInputFiles;
 import org.n52.gfz.riesgos.configuration.IConfiguration;
 import org.n52.gfz.riesgos.configuration.IInputParameter;
 import org.n52.gfz.riesgos.configuration.IOutputParameter;
+import org.n52.gfz.riesgos.configuration.WorkerConfiguration;
 import org.n52.gfz.riesgos.exceptions.ConvertToBytesException;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.exceptions.ConvertToStringCmdException;
@@ -47,6 +56,7 @@ import org.n52.gfz.riesgos.functioninterfaces.IExitValueHandler;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertExitValueToIData;
 import org.n52.gfz.riesgos.functioninterfaces.IReadIDataFromFiles;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
+import org.n52.gfz.riesgos.functioninterfaces.IStderrMonitor;
 import org.n52.gfz.riesgos.functioninterfaces.IStdoutHandler;
 import org.n52.gfz.riesgos.functioninterfaces.IWriteIDataToFiles;
 import org.n52.gfz.riesgos.processdescription.IProcessDescriptionGenerator;
@@ -54,7 +64,9 @@ import org.n52.gfz.riesgos.processdescription.IProcessDescriptionGeneratorData;
 import org.n52.gfz.riesgos.processdescription.IProcessDescriptionGeneratorOutputData;
 import org.n52.gfz.riesgos.processdescription.impl.ProcessDescriptionGeneratorDataConfigImpl;
 import org.n52.gfz.riesgos.processdescription.impl.ProcessDescriptionGeneratorImpl;
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
 import org.n52.gfz.riesgos.util.Tuple;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
 import org.n52.wps.commons.context.ExecutionContext;
 import org.n52.wps.commons.context.ExecutionContextFactory;
 import org.n52.wps.commons.context.OutputTypeWrapper;
@@ -64,15 +76,30 @@ import org.n52.wps.server.ExceptionReport;
 import org.n52.wps.server.ProcessDescription;
 import org.slf4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -86,6 +113,22 @@ public class BaseGfzRiesgosService
         extends AbstractSelfDescribingAlgorithm
         implements ICachableProcess {
 
+    /**
+     * Prefix for the files with the raw outputs of pipeline steps.
+     */
+    private static final String INTERMEDIATE_PREFIX = "intermediate";
+
+    /**
+     * Suffix for the files with the raw outputs of pipeline steps.
+     */
+    private static final String INTERMEDIATE_SUFFIX = ".bin";
+
+    /**
+     * Time between the checks for a fatal error on stderr while
+     * waiting for the run (in millis).
+     */
+    private static final long FATAL_ERROR_CHECK_MILLIS = 50;
+
     /**
      * The hasher to compute a hash for saving it in the cache.
      */
@@ -103,6 +146,11 @@ public class BaseGfzRiesgosService
      */
     private final IExecutionContextManagerFactory executionContextFactory;
 
+    /**
+     * Scheduler that limits the number of runs at the same time.
+     */
+    private final IExecutionScheduler executionScheduler;
+
     /**
      * Configuration to run the process.
      */
@@ -155,10 +203,35 @@ public class BaseGfzRiesgosService
             final IHasher aHasher,
             final ICacher aCache,
             final IExecutionContextManagerFactory aExecutionContextFactory) {
+        this(aConfiguration, aLogger, aHasher, aCache,
+                aExecutionContextFactory,
+                ExecutionSchedulerSingleton.INSTANCE);
+    }
+
+    /**
+     * Constructor that  gets a configuration, a logger,
+     * a hasher, a cache, a execution context factory and a scheduler.
+     * @param aConfiguration configuration to use for the executable
+     * @param aLogger logger to log some messages
+     * @param aHasher function to compute stable hashes for the inputs and
+     *               configuration
+     * @param aCache implementation of the cache
+     * @param aExecutionContextFactory factory for creating execution contexts
+     *                                (like running in docker or not)
+     * @param aExecutionScheduler scheduler that all the runs go through
+     */
+    public BaseGfzRiesgosService(
+            final IConfiguration aConfiguration,
+            final Logger aLogger,
+            final IHasher aHasher,
+            final ICacher aCache,
+            final IExecutionContextManagerFactory aExecutionContextFactory,
+            final IExecutionScheduler aExecutionScheduler) {
 
         this.hasher = aHasher;
         this.cache = aCache;
         this.executionContextFactory = aExecutionContextFactory;
+        this.executionScheduler = aExecutionScheduler;
 
         this.configuration = aConfiguration;
         this.logger = aLogger;
@@ -305,7 +378,11 @@ public class BaseGfzRiesgosService
         logger.info("There is no result in the cache");
 
         final InnerRunContext innerRunContext =
-                new InnerRunContext(inputDataFromMethod);
+                new InnerRunContext(
+                        inputDataFromMethod,
+                        Collections.emptyMap(),
+                        requestedParameters,
+                        false);
         final Map<String, Tuple<IData, IDataRecreator>> innerResult =
                 innerRunContext.run();
 
@@ -324,12 +401,51 @@ public class BaseGfzRiesgosService
         ));
     }
 
+    /**
+     * Runs the process as a step of a pipeline.
+     *
+     * In contrast to the normal run there is no lookup in the cache
+     * (the pipeline uses its own keys for the steps) and the linked
+     * inputs are files of earlier steps that are copied into the
+     * context as they are.
+     * If raw outputs are requested, the outputs are not converted
+     * to IData, but kept in temporary files that the next steps can
+     * use directly (the IData of those results is null).
+     *
+     * @param inputDataFromMethod input data of the pipeline
+     * @param linkedInputs files for the inputs that are linked to
+     *                     outputs of earlier steps
+     * @param requestedOutputs identifiers of the outputs to read
+     * @param rawOutputs true if the outputs should be kept as files
+     * @return map with the results by output identifier
+     * @throws ExceptionReport exception in case of an error
+     */
+    public Map<String, Tuple<IData, IDataRecreator>> runAsPipelineStep(
+            final Map<String, List<IData>> inputDataFromMethod,
+            final Map<String, File> linkedInputs,
+            final Set<String> requestedOutputs,
+            final boolean rawOutputs) throws ExceptionReport {
+        return new InnerRunContext(
+                inputDataFromMethod,
+                linkedInputs,
+                requestedOutputs,
+                rawOutputs).run();
+    }
+
+    /**
+     *
+     * @return configuration of the process
+     */
+    public IConfiguration getConfiguration() {
+        return configuration;
+    }
+
     /**
      * This returns a set of the identifiers (as strinds) that the user
      * requests.
      * @return Set with output parameter identifiers.
      */
-    private Set<String> getSetWithRequestedOutputIds() {
+    static Set<String> getSetWithRequestedOutputIds() {
         final Set<String> requestedParameters = new HashSet<>();
 
         final ExecutionContext wpsExecutionContext =
@@ -413,17 +529,81 @@ public class BaseGfzRiesgosService
          */
         private final Map<String, Tuple<IData, IDataRecreator>> outputData;
 
+        /**
+         * Files for the inputs that are outputs of earlier pipeline steps.
+         */
+        private final Map<String, File> linkedInputs;
+
+        /**
+         * Identifiers of the outputs that should be read from the files.
+         */
+        private final Set<String> requestedOutputs;
+
+        /**
+         * True if the outputs should be kept as they are
+         * (for the next steps of a pipeline).
+         */
+        private final boolean rawOutputs;
+
+        /**
+         * Conversions of the inputs that are written to files
+         * by input identifier.
+         */
+        private final Map<String, Future<StagedInputFiles>>
+                pendingFileConversions;
+
+        /**
+         * Conversions of the inputs that are written to stdin
+         * by input identifier.
+         */
+        private final Map<String, Future<byte[]>> pendingStdinConversions;
+
+        /**
+         * Time spent in the conversions of the inputs (summed up
+         * over all the threads).
+         */
+        private final AtomicLong conversionNanos;
+
+        /**
+         * Time spent to create the context / container.
+         */
+        private long contextCreationNanos;
+
+        /**
+         * Time the run had to wait for conversions that were
+         * not finished.
+         */
+        private long conversionWaitNanos;
+
+        /**
+         * Time spent to copy the converted inputs into the context.
+         */
+        private long stagingNanos;
+
         /**
          * Constructor with the original input data.
          * @param originalInputData Map with input data from the service
+         * @param aLinkedInputs files for the inputs that are linked to
+         *                      outputs of earlier pipeline steps
+         * @param aRequestedOutputs identifiers of the outputs to read
+         * @param aRawOutputs true if the outputs should be kept as files
          * @throws ExceptionReport maybe a ExceptionReport is thrown
          * to handle the errors in the process
          */
         private InnerRunContext(
-                final Map<String, List<IData>> originalInputData)
+                final Map<String, List<IData>> originalInputData,
+                final Map<String, File> aLinkedInputs,
+                final Set<String> aRequestedOutputs,
+                final boolean aRawOutputs)
                 throws ExceptionReport {
+            this.linkedInputs = aLinkedInputs;
+            this.requestedOutputs = aRequestedOutputs;
+            this.rawOutputs = aRawOutputs;
             this.inputData = getInputFields(originalInputData);
             this.outputData = new HashMap<>();
+            this.pendingFileConversions = new HashMap<>();
+            this.pendingStdinConversions = new HashMap<>();
+            this.conversionNanos = new AtomicLong();
         }
 
         /**
@@ -455,6 +635,10 @@ public class BaseGfzRiesgosService
 
             for (final IInputParameter inputValue : inputIdentifiers) {
                 final String identifier = inputValue.getIdentifier();
+                if (linkedInputs.containsKey(identifier)) {
+                    // comes as a file from an earlier pipeline step
+                    continue;
+                }
                 if (!originalInputData.containsKey(identifier)) {
                     if (inputValue.isOptional()) {
                         continue;
@@ -533,13 +717,252 @@ public class BaseGfzRiesgosService
                     executionContextFactory.createExecutionContext(
                             configuration);
 
-            try (IExecutionContext context =
-                        contextManager.createExecutionContext(
-                                workingDirectory, cmd)) {
-                logger.debug("Context container created");
-                runExecutableInContext(context);
+            try (IExecutionSlot slot = acquireExecutionSlot()) {
+                logger.info("Got an execution slot after "
+                        + slot.getQueueMillis() + " ms in the queue");
+                logger.debug("Execution queue statistics: "
+                        + executionScheduler.getStatistics().get(
+                                configuration.getIdentifier()));
+                // the inputs are converted while the container is created
+                startInputConversions();
+                try {
+                    final long creationStart = System.nanoTime();
+                    try (IExecutionContext context =
+                                contextManager.createExecutionContext(
+                                        workingDirectory, cmd)) {
+                        contextCreationNanos =
+                                System.nanoTime() - creationStart;
+                        logger.debug("Context container created");
+                        runExecutableInContext(context);
+                    }
+                    logger.debug("Context container removed");
+                } finally {
+                    closeStagedInputs();
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Temp file arena: "
+                                + TempFileArenaSingleton.INSTANCE
+                                        .getLiveTempFileCount()
+                                + " live files with "
+                                + TempFileArenaSingleton.INSTANCE
+                                        .getLiveTempBytes()
+                                + " bytes");
+                    }
+                }
+            }
+        }
+
+        /**
+         * Starts the conversions of all the inputs on the shared pool.
+         * The results are used once the context exists.
+         */
+        private void startInputConversions() {
+            final InputConversionPool pool = InputConversionPool.getShared();
+            for (final IInputParameter inputValue : inputIdentifiers) {
+                final String identifier = inputValue.getIdentifier();
+                // if there is no data for that identifier it was optional
+                // so no need to convert the input
+                if (!inputData.containsKey(identifier)) {
+                    continue;
+                }
+                final IData data = inputData.get(identifier);
+
+                final Optional<String> optionalPath =
+                        inputValue.getPathToWriteToOrReadFromFile();
+                final Optional<IWriteIDataToFiles> optionalWriteIDataToFiles =
+                        inputValue.getFunctionToWriteIDataToFiles();
+                if (optionalPath.isPresent()
+                        && optionalWriteIDataToFiles.isPresent()) {
+                    pendingFileConversions.put(
+                            identifier,
+                            pool.submit(() -> measureConversion(
+                                    () -> convertToFiles(
+                                            optionalWriteIDataToFiles.get(),
+                                            data,
+                                            optionalPath.get()))));
+                }
+
+                final Optional<IConvertIDataToByteArray>
+                        optionalFunctionToWriteToStdin =
+                        inputValue.getFunctionToWriteToStdin();
+                if (optionalFunctionToWriteToStdin.isPresent()) {
+                    @SuppressWarnings("unchecked")
+                    final Callable<byte[]> conversion =
+                            () -> optionalFunctionToWriteToStdin.get()
+                                    .convertToBytes(data);
+                    pendingStdinConversions.put(
+                            identifier,
+                            pool.submit(() -> measureConversion(conversion)));
+                }
+            }
+        }
+
+        /**
+         * Writes the input into the staged input files.
+         * @param writeIDataToFiles function to write the data to files
+         * @param data data to write
+         * @param path path in the working directory
+         * @return staged input files
+         * @throws IOException exception on writing the files
+         * @throws ConvertToBytesException exception on converting the data
+         */
+        @SuppressWarnings("unchecked")
+        private StagedInputFiles convertToFiles(
+                final IWriteIDataToFiles writeIDataToFiles,
+                final IData data,
+                final String path)
+                throws IOException, ConvertToBytesException {
+            final StagedInputFiles staging = new StagedInputFiles(
+                    TempFileArenaSingleton.INSTANCE,
+                    RiesgosWpsSettings.INSTANCE.getStagingMemoryBytes());
+            try {
+                writeIDataToFiles.writeToFiles(
+                        data,
+                        staging,
+                        configuration.getWorkingDirectory(),
+                        path);
+                return staging;
+            } catch (final IOException | ConvertToBytesException
+                    | RuntimeException exception) {
+                staging.close();
+                throw exception;
+            }
+        }
+
+        /**
+         * Runs the conversion and adds its duration to the
+         * conversion time.
+         * @param conversion conversion to run
+         * @param <T> type of the result
+         * @return result of the conversion
+         * @throws Exception exception of the conversion
+         */
+        private <T> T measureConversion(final Callable<T> conversion)
+                throws Exception {
+            final long start = System.nanoTime();
+            try {
+                return conversion.call();
+            } finally {
+                conversionNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Waits for the result of a conversion.
+         * @param conversion conversion of an input
+         * @param errorMessage message in case the conversion failed
+         * @param <T> type of the result
+         * @return result of the conversion
+         * @throws ExceptionReport exception if the conversion failed
+         */
+        private <T> T awaitConversion(
+                final Future<T> conversion,
+                final String errorMessage) throws ExceptionReport {
+            final long start = System.nanoTime();
+            try {
+                return conversion.get();
+            } catch (final InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new ExceptionReport(
+                        "Interrupted while waiting for the input conversion",
+                        ExceptionReport.REMOTE_COMPUTATION_ERROR,
+                        interruptedException);
+            } catch (final ExecutionException executionException) {
+                throw new ExceptionReport(
+                        errorMessage,
+                        ExceptionReport.REMOTE_COMPUTATION_ERROR,
+                        executionException.getCause());
+            } finally {
+                conversionWaitNanos += System.nanoTime() - start;
+            }
+        }
+
+        /**
+         * Releases the temporary files of all the conversions.
+         * Conversions that are still running (because the run failed
+         * earlier) are waited for, so that their files are released too.
+         */
+        private void closeStagedInputs() {
+            for (final Future<StagedInputFiles> conversion
+                    : pendingFileConversions.values()) {
+                try {
+                    conversion.get().close();
+                } catch (final InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (final ExecutionException executionException) {
+                    // the conversion released its files itself
+                    logger.debug("Input conversion failed: "
+                            + executionException.getCause());
+                }
+            }
+        }
+
+        /**
+         * Logs the time of the phases to bring the inputs into
+         * the context.
+         * Without the parallel conversion the run would have taken the
+         * full conversion time in addition to the creation of
+         * the context, so the difference to the waiting time is saved.
+         */
+        private void logInputPhases() {
+            final long conversionMillis =
+                    TimeUnit.NANOSECONDS.toMillis(conversionNanos.get());
+            final long waitMillis =
+                    TimeUnit.NANOSECONDS.toMillis(conversionWaitNanos);
+            logger.info("Input phases: "
+                    + (pendingFileConversions.size()
+                        + pendingStdinConversions.size())
+                    + " conversions took " + conversionMillis
+                    + " ms, context creation took "
+                    + TimeUnit.NANOSECONDS.toMillis(contextCreationNanos)
+                    + " ms, waited " + waitMillis
+                    + " ms for conversions, staging into the context took "
+                    + TimeUnit.NANOSECONDS.toMillis(stagingNanos)
+                    + " ms; saved " + Math.max(0, conversionMillis - waitMillis)
+                    + " ms compared to converting one after another");
+        }
+
+        /**
+         * Waits for a free slot in the scheduler, so that
+         * the host is not overloaded by too many runs at the same time.
+         * @return slot that must be closed after the run
+         * @throws ExceptionReport exception if the waiting is interrupted
+         */
+        private IExecutionSlot acquireExecutionSlot() throws ExceptionReport {
+            try {
+                return executionScheduler.acquire(
+                        configuration.getIdentifier(),
+                        getMaxConcurrentRuns(),
+                        configuration.getExecutionPriority());
+            } catch (final InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new ExceptionReport(
+                        "Interrupted while waiting for an execution slot",
+                        ExceptionReport.REMOTE_COMPUTATION_ERROR,
+                        interruptedException);
+            }
+        }
+
+        /**
+         * Computes how many runs of this process may run at the same time.
+         * With workers there can't be more runs than workers in the pool;
+         * further runs would only wait for a worker while they block
+         * a slot that runs of other processes could use.
+         * @return maximum number of runs (0 for no extra limit)
+         */
+        private int getMaxConcurrentRuns() {
+            final int configured =
+                    configuration.getMaxConcurrentRuns().orElse(0);
+            final Optional<WorkerConfiguration> worker =
+                    configuration.getWorkerConfiguration();
+            if (!worker.isPresent()) {
+                return configured;
+            }
+            final int poolSize = worker.get().getPoolSize();
+            if (configured == 0) {
+                return poolSize;
             }
-            logger.debug("Context container removed");
+            return Math.min(configured, poolSize);
         }
 
         /**
@@ -572,6 +995,17 @@ public class BaseGfzRiesgosService
                                             inputData.get(
                                                 inputValue.getIdentifier()));
                         result.addAll(args);
+                    } else if (functionToTransformToCmd.isPresent()
+                            && linkedInputs.containsKey(
+                                    inputValue.getIdentifier())) {
+                        // linked inputs only use the filename
+                        // (checked on creating the pipeline)
+                        @SuppressWarnings("unchecked")
+                        final List<String> args =
+                                functionToTransformToCmd
+                                        .get().convertToCommandLineParameter(
+                                                null);
+                        result.addAll(args);
                     }
                 }
             } catch (final ConvertToStringCmdException exception) {
@@ -585,6 +1019,191 @@ public class BaseGfzRiesgosService
             return result;
         }
 
+        /**
+         * Waits for the completion of the run.
+         * If there is a timeout in the configuration and the run takes
+         * longer, the run and its context are killed.
+         * The timeout starts with the run, so it includes the writing
+         * of stdin (a process that doesn't read its stdin can't block
+         * the server).
+         * If stderr is watched, the waiting checks regularly for a fatal
+         * error and stops the run as soon as there is one. The error
+         * itself is reported by the normal stderr handling.
+         * @param context execution context of the run
+         * @param run the run itself
+         * @param stdinWriting the writing of stdin in the background
+         * @param startNanos start of the run (System.nanoTime())
+         * @param fatalError flag for a fatal error on stderr (empty if
+         *                   stderr is not watched)
+         * @return result of the run
+         * @throws InterruptedException exception on waiting
+         * @throws ExceptionReport exception if the run took too long
+         * or stdin could not be written
+         */
+        private IExecutionRunResult waitForCompletion(
+                final IExecutionContext context,
+                final IExecutionRun run,
+                final Future<Void> stdinWriting,
+                final long startNanos,
+                final Optional<AtomicBoolean> fatalError)
+                throws InterruptedException, ExceptionReport {
+            final Optional<Integer> timeoutSeconds =
+                    configuration.getTimeoutSeconds();
+            final Optional<Long> deadlineNanos = timeoutSeconds.map(
+                    seconds -> startNanos + TimeUnit.SECONDS.toNanos(seconds));
+            try {
+                if (!deadlineNanos.isPresent() && !fatalError.isPresent()) {
+                    stdinWriting.get();
+                    return run.waitForCompletion();
+                }
+                while (true) {
+                    final long waitNanos =
+                            getNextWaitNanos(deadlineNanos, fatalError);
+                    try {
+                        // stdin must be written completely before the run
+                        // closes it on waiting
+                        if (!stdinWriting.isDone()) {
+                            stdinWriting.get(waitNanos, TimeUnit.NANOSECONDS);
+                        } else {
+                            stdinWriting.get();
+                            return run.waitForCompletion(
+                                    waitNanos, TimeUnit.NANOSECONDS);
+                        }
+                    } catch (final TimeoutException checkInterval) {
+                        if (fatalError.isPresent() && fatalError.get().get()) {
+                            logger.info(
+                                    "Fatal error on stderr; stopping the run");
+                            stopRun(context, run);
+                            return run.waitForCompletion();
+                        }
+                    }
+                }
+            } catch (final ExecutionException executionException) {
+                stopRun(context, run);
+                if (executionException.getCause() instanceof ExceptionReport) {
+                    throw (ExceptionReport) executionException.getCause();
+                }
+                throw new ExceptionReport(
+                        "Can't write to stdin",
+                        ExceptionReport.REMOTE_COMPUTATION_ERROR,
+                        executionException.getCause());
+            } catch (final TimeoutException timeoutException) {
+                logger.warn("Run did not finish within "
+                        + timeoutSeconds.get() + " seconds; killing it");
+                executionScheduler.recordTimeout(
+                        configuration.getIdentifier());
+                stopRun(context, run);
+                throw new ExceptionReport(
+                        "The process did not finish within the timeout of "
+                                + timeoutSeconds.get()
+                                + " seconds and was stopped",
+                        ExceptionReport.REMOTE_COMPUTATION_ERROR,
+                        timeoutException);
+            }
+        }
+
+        /**
+         * Gives back how long to wait for the next step of the run:
+         * until the deadline, but if stderr is watched not longer than
+         * the interval to check for a fatal error.
+         * @param deadlineNanos deadline of the run (System.nanoTime())
+         * @param fatalError flag for a fatal error on stderr
+         * @return time to wait in nanos
+         * @throws TimeoutException exception if the deadline is over
+         */
+        private long getNextWaitNanos(
+                final Optional<Long> deadlineNanos,
+                final Optional<AtomicBoolean> fatalError)
+                throws TimeoutException {
+            long waitNanos = Long.MAX_VALUE;
+            if (fatalError.isPresent()) {
+                waitNanos = TimeUnit.MILLISECONDS.toNanos(
+                        FATAL_ERROR_CHECK_MILLIS);
+            }
+            if (deadlineNanos.isPresent()) {
+                final long remainingNanos =
+                        deadlineNanos.get() - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException(
+                            "The run did not finish in time");
+                }
+                waitNanos = Math.min(waitNanos, remainingNanos);
+            }
+            return waitNanos;
+        }
+
+        /**
+         * Starts to write the input to stdin in its own thread,
+         * so that the waiting for the run (and its timeout) starts
+         * at once.
+         * The stream is closed after writing in any case, so that
+         * the process gets the end of its input.
+         * @param stdin stdin stream of the run
+         * @return future for the writing
+         */
+        private Future<Void> startWritingToStdin(final PrintStream stdin) {
+            final FutureTask<Void> writing = new FutureTask<>(() -> {
+                try {
+                    writeToStdin(stdin);
+                } finally {
+                    stdin.close();
+                }
+                logInputPhases();
+                return null;
+            });
+            final Thread thread = new Thread(
+                    writing, "stdin-" + configuration.getIdentifier());
+            thread.setDaemon(true);
+            thread.start();
+            return writing;
+        }
+
+        /**
+         * Stops the run (and the container) immediately.
+         * @param context execution context of the run
+         * @param run run to stop
+         */
+        private void stopRun(
+                final IExecutionContext context,
+                final IExecutionRun run) {
+            try {
+                context.kill();
+            } catch (final RuntimeException exception) {
+                logger.warn("Can't kill the execution context",
+                        exception);
+            }
+            run.kill();
+        }
+
+        /**
+         * Watches stderr while the process is running, if the
+         * stderr handler supports that.
+         * The monitor runs in the thread that reads stderr, so it only
+         * records that there was a fatal error. The run is stopped by
+         * the thread that waits for it (see waitForCompletion).
+         * @param run the running process
+         * @return flag that is set on a fatal error (empty if there
+         * is no monitor)
+         * @throws IOException exception on reading the captured stderr
+         */
+        private Optional<AtomicBoolean> watchStderr(final IExecutionRun run)
+                throws IOException {
+            final Optional<IStderrMonitor> optionalMonitor =
+                    configuration.getStderrHandler()
+                            .flatMap(IStderrHandler::createMonitor);
+            if (!optionalMonitor.isPresent()) {
+                return Optional.empty();
+            }
+            final IStderrMonitor monitor = optionalMonitor.get();
+            final AtomicBoolean fatalError = new AtomicBoolean(false);
+            run.watchStderr(line -> {
+                if (!fatalError.get() && monitor.isFatal(line)) {
+                    fatalError.set(true);
+                }
+            });
+            return Optional.of(fatalError);
+        }
+
         /**
          * Runs the process and handles input and output.
          * @param context execution context to start the run.
@@ -598,21 +1217,25 @@ public class BaseGfzRiesgosService
 
             try {
                 final IExecutionRun run = context.run();
-                final PrintStream stdinStreamToWrite = run.getStdin();
+                // the timeout includes the time to write stdin
+                final long startNanos = System.nanoTime();
                 logger.debug("Executable started");
 
-                writeToStdin(stdinStreamToWrite);
+                final Optional<AtomicBoolean> fatalError = watchStderr(run);
 
-                stdinStreamToWrite.close();
+                final Future<Void> stdinWriting =
+                        startWritingToStdin(run.getStdin());
 
                 try {
-                    final IExecutionRunResult result = run.waitForCompletion();
+                    final IExecutionRunResult result = waitForCompletion(
+                            context, run, stdinWriting, startNanos,
+                            fatalError);
 
                     logger.debug("Executable finished");
 
-                    handleStderr(result.getStderrResult());
+                    handleStderr(result);
                     handleExitValue(result.getExitValue());
-                    handleStdout(result.getStdoutResult());
+                    handleStdout(result);
 
                     logger.debug(
                             "Handling of stderr/exitValue/stdout finished");
@@ -647,28 +1270,32 @@ public class BaseGfzRiesgosService
 
             try {
                 for (final IInputParameter inputValue : inputIdentifiers) {
-                    // if there is no data for that identifier it was optional
-                    // so no need to copy the input
-                    if (inputData.containsKey(inputValue.getIdentifier())) {
-                        final Optional<String> optionalPath =
-                                inputValue.getPathToWriteToOrReadFromFile();
-                        final Optional<IWriteIDataToFiles>
-                                optionalWriteIDataToFiles =
-                                inputValue.getFunctionToWriteIDataToFiles();
-
-                        if (optionalPath.isPresent()
-                                && optionalWriteIDataToFiles.isPresent()) {
-                            final String path = optionalPath.get();
-                            final IWriteIDataToFiles writeIDataToFiles =
-                                    optionalWriteIDataToFiles.get();
-                            //noinspection unchecked
-                            writeIDataToFiles.writeToFiles(
-                                    inputData.get(
-                                            inputValue.getIdentifier()),
-                                    context,
-                                    configuration.getWorkingDirectory(),
-                                    path);
-                        }
+                    final File linkedFile =
+                            linkedInputs.get(inputValue.getIdentifier());
+                    final Optional<String> linkedPath =
+                            inputValue.getPathToWriteToOrReadFromFile();
+                    if (linkedFile != null && linkedPath.isPresent()) {
+                        // the output of the earlier step is used as it is
+                        context.writeToFile(
+                                linkedFile,
+                                configuration.getWorkingDirectory(),
+                                linkedPath.get());
+                    }
+                    // the conversion was started before the context existed
+                    final Future<StagedInputFiles> conversion =
+                            pendingFileConversions.get(
+                                    inputValue.getIdentifier());
+                    if (conversion != null) {
+                        final StagedInputFiles staged =
+                                awaitConversion(
+                                        conversion,
+                                        "Data could not be "
+                                                + "converted to an input file");
+                        final long start = System.nanoTime();
+                        staged.stageInto(context);
+                        stagingNanos += System.nanoTime() - start;
+                        // there is no need to keep the files any longer
+                        staged.close();
                     }
                 }
             } catch (final IOException ioException) {
@@ -677,12 +1304,6 @@ public class BaseGfzRiesgosService
                                 + "working directory",
                         ExceptionReport.REMOTE_COMPUTATION_ERROR,
                         ioException);
-            } catch (final ConvertToBytesException convertToBytesException) {
-                throw new ExceptionReport(
-                        "Data could not be "
-                                + "converted to an input file",
-                        ExceptionReport.REMOTE_COMPUTATION_ERROR,
-                        convertToBytesException);
             }
         }
 
@@ -696,22 +1317,22 @@ public class BaseGfzRiesgosService
                 throws ExceptionReport {
             try {
                 for (final IInputParameter inputValue : inputIdentifiers) {
-                    if (inputData.containsKey(inputValue.getIdentifier())) {
-                        final Optional<IConvertIDataToByteArray>
-                                optionalFunctionToWriteToStdin =
-                                inputValue.getFunctionToWriteToStdin();
-                        if (optionalFunctionToWriteToStdin.isPresent()) {
-                            final IConvertIDataToByteArray
-                                    functionToWriteToStdin =
-                                    optionalFunctionToWriteToStdin.get();
-                            @SuppressWarnings("unchecked")
-                            final byte[] content =
-                                    functionToWriteToStdin
-                                        .convertToBytes(
-                                            inputData.get(
-                                                inputValue.getIdentifier()));
-                            IOUtils.write(content, stdin);
-                        }
+                    final File linkedFile =
+                            linkedInputs.get(inputValue.getIdentifier());
+                    if (linkedFile != null
+                            && inputValue.getFunctionToWriteToStdin()
+                                    .isPresent()) {
+                        Files.copy(linkedFile.toPath(), stdin);
+                    }
+                    final Future<byte[]> conversion =
+                            pendingStdinConversions.get(
+                                    inputValue.getIdentifier());
+                    if (conversion != null) {
+                        final byte[] content = awaitConversion(
+                                conversion,
+                                "Data could not be converted to "
+                                        + "an text for stdin");
+                        IOUtils.write(content, stdin);
                     }
                 }
             } catch (final IOException exception) {
@@ -719,26 +1340,26 @@ public class BaseGfzRiesgosService
                         "Can't write to stdin",
                         ExceptionReport.REMOTE_COMPUTATION_ERROR,
                         exception);
-            } catch (final ConvertToBytesException convertToBytesException) {
-                throw new ExceptionReport(
-                        "Data could not be converted to an text for stdin",
-                        ExceptionReport.REMOTE_COMPUTATION_ERROR,
-                        convertToBytesException);
             }
         }
 
         /**
          * Handes the stderr stream output (error, logging, use as output, ...).
-         * @param stderr stderr text
+         * @param result result of the run with the stderr output
          * @throws ExceptionReport exception in case of an error
+         * @throws IOException exception on reading the captured output
          */
-        private void handleStderr(final String stderr) throws ExceptionReport {
+        private void handleStderr(final IExecutionRunResult result)
+                throws ExceptionReport, IOException {
 
             final Optional<IStderrHandler> mainStderrHandler =
                     configuration.getStderrHandler();
             if (mainStderrHandler.isPresent()) {
-                try {
-                    mainStderrHandler.get().handleStderr(stderr, logger::debug);
+                // only the handler reads the stderr (and it doesn't
+                // need to read all of it into memory)
+                try (InputStream stderr = result.openStderrStream()) {
+                    mainStderrHandler.get().handleStderr(
+                            stderr, logger::debug);
                 } catch (final NonEmptyStderrException exception) {
                     logger.error("Error on handling stderr", exception);
                     throw new ExceptionReport(
@@ -756,18 +1377,19 @@ public class BaseGfzRiesgosService
                             outputValue.getFunctionToHandleStderr();
 
                     try {
-                        if (stderrHandler.isPresent()) {
-                            final byte[] bytes = stderr.getBytes();
-                            final IConvertByteArrayToIData converter =
-                                    stderrHandler.get();
-
-                            final IData iData = converter.convertToIData(bytes);
-                            putIntoOutput(outputValue,
-                                    iData,
-                                    new RecreateFromByteArray(
-                                            bytes,
-                                            converter,
-                                            outputValue.getBindingClass()));
+                        if (rawOutputs) {
+                            if (stderrHandler.isPresent()
+                                    && requestedOutputs.contains(
+                                            outputValue.getIdentifier())) {
+                                keepRawOutput(
+                                        outputValue,
+                                        result.openStderrStream());
+                            }
+                        } else if (stderrHandler.isPresent()) {
+                            convertCapturedOutput(
+                                    outputValue,
+                                    stderrHandler.get(),
+                                    result.openStderrStream());
                         }
                     } catch (final ConvertToIDataException convertException) {
                         if (outputValue.isOptional()) {
@@ -897,33 +1519,43 @@ public class BaseGfzRiesgosService
 
         /**
          * Handles stdout stream output (logging, use as output).
-         * @param stdout text from stdout
+         * The bytes are taken as they are, so that binary content
+         * on stdout stays intact.
+         * Large outputs are converted from a temporary file (and
+         * cached as file), so they are not read into memory completely.
+         * @param result result of the run with the stdout output
          * @throws ExceptionReport Exception that may be thrown in case of
          * an error
+         * @throws IOException exception on reading the captured output
          */
-        private void handleStdout(final String stdout) throws ExceptionReport {
+        private void handleStdout(final IExecutionRunResult result)
+                throws ExceptionReport, IOException {
             final Optional<IStdoutHandler> mainStdoutHandler
                     = configuration.getStdoutHandler();
-            mainStdoutHandler.ifPresent(
-                    handler -> handler.handleStdout(stdout));
+            if (mainStdoutHandler.isPresent()) {
+                try (InputStream stdout = result.openStdoutStream()) {
+                    mainStdoutHandler.get().handleStdout(stdout);
+                }
+            }
 
             try {
                 for (final IOutputParameter outputValue : outputIdentifiers) {
                     try {
                         final Optional<IConvertByteArrayToIData> stdoutHandler
                                 = outputValue.getFunctionToHandleStdout();
-                        if (stdoutHandler.isPresent()) {
-                            final byte[] bytes = stdout.getBytes();
-                            final IConvertByteArrayToIData converter =
-                                    stdoutHandler.get();
-                            final IData iData = converter.convertToIData(bytes);
-                            putIntoOutput(
+                        if (rawOutputs) {
+                            if (stdoutHandler.isPresent()
+                                    && requestedOutputs.contains(
+                                            outputValue.getIdentifier())) {
+                                keepRawOutput(
+                                        outputValue,
+                                        result.openStdoutStream());
+                            }
+                        } else if (stdoutHandler.isPresent()) {
+                            convertCapturedOutput(
                                     outputValue,
-                                    iData,
-                                    new RecreateFromByteArray(
-                                            bytes,
-                                            converter,
-                                            outputValue.getBindingClass()));
+                                    stdoutHandler.get(),
+                                    result.openStdoutStream());
                         }
                     } catch (final ConvertToIDataException convertException) {
                         if (outputValue.isOptional()) {
@@ -943,6 +1575,130 @@ public class BaseGfzRiesgosService
             }
         }
 
+        /**
+         * Converts a captured output (stdout or stderr), puts it into
+         * the result and closes the stream.
+         * Small outputs are converted from memory. Larger ones are
+         * copied into a temporary file and converted from there, so
+         * that they are never read into memory completely.
+         * @param outputValue output parameter
+         * @param converter converter for the output
+         * @param content stream with the captured output
+         * @throws IOException exception on reading the stream
+         * @throws ConvertToIDataException exception on the conversion
+         * @throws ExceptionReport exception if the output is not valid
+         */
+        private void convertCapturedOutput(
+                final IOutputParameter outputValue,
+                final IConvertByteArrayToIData converter,
+                final InputStream content)
+                throws IOException, ConvertToIDataException, ExceptionReport {
+            final int memoryLimit = RiesgosWpsSettings.INSTANCE
+                    .getStreamCaptureMemoryBytes();
+            try (InputStream input = content) {
+                // one byte more to know if there is more content
+                final byte[] head = IOUtils.toByteArray(
+                        new BoundedInputStream(input, memoryLimit + 1L));
+                if (head.length <= memoryLimit) {
+                    putIntoOutput(
+                            outputValue,
+                            converter.convertToIData(head),
+                            new RecreateFromByteArray(
+                                    head,
+                                    converter,
+                                    outputValue.getBindingClass()));
+                    return;
+                }
+                final File file = TempFileArenaSingleton.INSTANCE
+                        .createTempFile(
+                                INTERMEDIATE_PREFIX, INTERMEDIATE_SUFFIX);
+                try {
+                    try (OutputStream output = Files.newOutputStream(
+                            file.toPath())) {
+                        output.write(head);
+                        IOUtils.copy(input, output);
+                    }
+                    final IData iData;
+                    try (InputStream fileContent = Files.newInputStream(
+                            file.toPath())) {
+                        iData = converter.convertToIData(fileContent);
+                    }
+                    putIntoOutput(
+                            outputValue,
+                            iData,
+                            new RecreateFromFileContent(
+                                    file,
+                                    converter,
+                                    outputValue.getBindingClass()));
+                } finally {
+                    TempFileArenaSingleton.INSTANCE.release(file);
+                }
+            }
+        }
+
+        /**
+         * Keeps a captured output as it is in a temporary file
+         * (for the next steps of a pipeline) and closes the stream.
+         * @param outputValue output parameter
+         * @param content stream with the captured output
+         * @throws IOException exception on writing the file
+         */
+        private void keepRawOutput(
+                final IOutputParameter outputValue,
+                final InputStream content) throws IOException {
+            final File file = TempFileArenaSingleton.INSTANCE.createTempFile(
+                    INTERMEDIATE_PREFIX, INTERMEDIATE_SUFFIX);
+            try (InputStream input = content) {
+                Files.copy(
+                        input,
+                        file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                keepRawOutputFile(outputValue, file);
+            } finally {
+                TempFileArenaSingleton.INSTANCE.release(file);
+            }
+        }
+
+        /**
+         * Keeps an output file of the context as it is in a temporary file
+         * (for the next steps of a pipeline).
+         * @param outputValue output parameter
+         * @param context execution context with the output file
+         * @param path path of the output file in the context
+         * @throws IOException exception on reading the file
+         */
+        private void keepRawOutput(
+                final IOutputParameter outputValue,
+                final IExecutionContext context,
+                final String path) throws IOException {
+            final File file = TempFileArenaSingleton.INSTANCE.createTempFile(
+                    INTERMEDIATE_PREFIX, INTERMEDIATE_SUFFIX);
+            try {
+                context.readToFile(path, file);
+                keepRawOutputFile(outputValue, file);
+            } finally {
+                TempFileArenaSingleton.INSTANCE.release(file);
+            }
+        }
+
+        /**
+         * Puts the file with the raw output in the result.
+         * There is no IData (and no validation) for it; the recreator
+         * takes the ownership of the file.
+         * @param outputValue output parameter
+         * @param file file with the raw output
+         */
+        private void keepRawOutputFile(
+                final IOutputParameter outputValue,
+                final File file) {
+            outputData.put(
+                    outputValue.getIdentifier(),
+                    new Tuple<>(
+                            null,
+                            new RecreateFromIntermediateFile(
+                                    file, outputValue)));
+        }
+
 
         /**
          * Reads the output files from the context / container.
@@ -953,11 +1709,9 @@ public class BaseGfzRiesgosService
         private void readFromOutputFiles(
                 final IExecutionContext context) throws ExceptionReport {
 
-            final Set<String> requestedParameters =
-                    getSetWithRequestedOutputIds();
             try {
                 for (final IOutputParameter outputValue : outputIdentifiers) {
-                    if (requestedParameters.contains(
+                    if (requestedOutputs.contains(
                             outputValue.getIdentifier())
                     ) {
                         try {
@@ -971,6 +1725,15 @@ public class BaseGfzRiesgosService
                             ) {
 
                                 final String path = optionalPath.get();
+                                if (rawOutputs) {
+                                    keepRawOutput(
+                                        outputValue,
+                                        context,
+                                        Paths.get(
+                                            configuration.getWorkingDirectory(),
+                                            path).toString());
+                                    continue;
+                                }
                                 final IReadIDataFromFiles
                                         functionToReadFromFiles =
                                         optionalFunctionToReadFromFiles.get();
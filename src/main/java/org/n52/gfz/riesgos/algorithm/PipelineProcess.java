@@ -0,0 +1,686 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.algorithm;
+
+import net.opengis.wps.x100.ProcessDescriptionsDocument;
+import org.apache.commons.codec.binary.Hex;
+import org.n52.gfz.riesgos.cache.ICacher;
+import org.n52.gfz.riesgos.cache.IDataRecreator;
+import org.n52.gfz.riesgos.cache.RecreateFromIntermediateFile;
+import org.n52.gfz.riesgos.cache.hash.IHasher;
+import org.n52.gfz.riesgos.commandlineparametertransformer.FileToStringCmd;
+import org.n52.gfz.riesgos.configuration.IConfiguration;
+import org.n52.gfz.riesgos.configuration.IInputParameter;
+import org.n52.gfz.riesgos.configuration.IOutputParameter;
+import org.n52.gfz.riesgos.configuration.PipelineConfiguration;
+import org.n52.gfz.riesgos.configuration.impl.ConfigurationImpl;
+import org.n52.gfz.riesgos.exceptions.ParseConfigurationException;
+import org.n52.gfz.riesgos.functioninterfaces.IConvertIDataToCommandLineParameter;
+import org.n52.gfz.riesgos.functioninterfaces.IReadIDataFromFiles;
+import org.n52.gfz.riesgos.functioninterfaces.IWriteIDataToFiles;
+import org.n52.gfz.riesgos.processdescription.IProcessDescriptionGenerator;
+import org.n52.gfz.riesgos.processdescription.IProcessDescriptionGeneratorData;
+import org.n52.gfz.riesgos.processdescription.IProcessDescriptionGeneratorOutputData;
+import org.n52.gfz.riesgos.processdescription.impl.ProcessDescriptionGeneratorDataConfigImpl;
+import org.n52.gfz.riesgos.processdescription.impl.ProcessDescriptionGeneratorImpl;
+import org.n52.gfz.riesgos.readidatafromfiles.ReadShapeFileFromPath;
+import org.n52.gfz.riesgos.util.Tuple;
+import org.n52.gfz.riesgos.writeidatatofiles.WriteShapeFileToPath;
+import org.n52.wps.io.data.IData;
+import org.n52.wps.server.AbstractSelfDescribingAlgorithm;
+import org.n52.wps.server.ExceptionReport;
+import org.n52.wps.server.ProcessDescription;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Process that runs several configured processes one after another.
+ *
+ * Outputs of earlier steps are handed over to the later steps as
+ * they are (as the raw files), so there is no conversion into IData
+ * and back between the steps.
+ * Every step gets its own key in the cache, that depends on its own
+ * inputs and on the keys of the steps it is linked to. So if only
+ * the input of a later step changes, the earlier steps are not run
+ * again.
+ *
+ * The inputs of the pipeline are all the inputs of the steps that are
+ * not linked (inputs with the same identifier are shared); the outputs
+ * are the outputs of the last step.
+ */
+public class PipelineProcess
+        extends AbstractSelfDescribingAlgorithm
+        implements ICachableProcess {
+
+    /**
+     * Pipeline configuration.
+     */
+    private final PipelineConfiguration pipelineConfiguration;
+
+    /**
+     * The services for the steps (in the order of the steps).
+     */
+    private final List<BaseGfzRiesgosService> steps;
+
+    /**
+     * The outputs of every step that are used by later steps.
+     */
+    private final List<Set<String>> linkedOutputs;
+
+    /**
+     * Configuration with the inputs and outputs of the whole
+     * pipeline (used for the process description).
+     */
+    private final IConfiguration configuration;
+
+    /**
+     * Hasher to compute the keys for the steps.
+     */
+    private final IHasher hasher;
+
+    /**
+     * Cache for the results of the steps and the pipeline.
+     */
+    private final ICacher cache;
+
+    /**
+     * Logger for this pipeline.
+     */
+    private final Logger logger;
+
+    /**
+     * Creates the pipeline and checks that all the links are valid.
+     * @param aPipelineConfiguration configuration of the pipeline
+     * @param aServices services of all the configured processes
+     *                  by identifier
+     * @param aLogger logger for the pipeline
+     * @param aHasher hasher to compute the keys for the cache
+     * @param aCache cache for the results
+     * @throws ParseConfigurationException exception if the steps
+     * don't fit together
+     */
+    public PipelineProcess(
+            final PipelineConfiguration aPipelineConfiguration,
+            final Map<String, BaseGfzRiesgosService> aServices,
+            final Logger aLogger,
+            final IHasher aHasher,
+            final ICacher aCache) throws ParseConfigurationException {
+        this.pipelineConfiguration = aPipelineConfiguration;
+        this.logger = aLogger;
+        this.hasher = aHasher;
+        this.cache = aCache;
+
+        this.steps = new ArrayList<>();
+        this.linkedOutputs = new ArrayList<>();
+        final Map<String, Integer> stepIndexes = new HashMap<>();
+
+        for (final PipelineConfiguration.Step step
+                : aPipelineConfiguration.getSteps()) {
+            final BaseGfzRiesgosService service =
+                    aServices.get(step.getProcessIdentifier());
+            if (service == null) {
+                throw new ParseConfigurationException(
+                        "There is no process '"
+                                + step.getProcessIdentifier() + "'");
+            }
+            checkLinks(step, service.getConfiguration(), stepIndexes);
+
+            stepIndexes.put(step.getProcessIdentifier(), steps.size());
+            steps.add(service);
+            linkedOutputs.add(new HashSet<>());
+        }
+
+        for (final PipelineConfiguration.Step step
+                : aPipelineConfiguration.getSteps()) {
+            for (final PipelineConfiguration.OutputReference reference
+                    : step.getLinks().values()) {
+                linkedOutputs.get(
+                        stepIndexes.get(reference.getProcessIdentifier()))
+                        .add(reference.getOutputIdentifier());
+            }
+        }
+        for (int i = 0; i < steps.size() - 1; i += 1) {
+            if (linkedOutputs.get(i).isEmpty()) {
+                throw new ParseConfigurationException(
+                        "The output of step '"
+                                + aPipelineConfiguration.getSteps().get(i)
+                                        .getProcessIdentifier()
+                                + "' is not used by any later step");
+            }
+        }
+
+        this.configuration = createConfiguration();
+    }
+
+    /**
+     * Checks that all the links of the step refer to outputs of earlier
+     * steps that can be handed over as files.
+     * @param step step to check
+     * @param stepConfiguration configuration of the process of the step
+     * @param earlierSteps indexes of the earlier steps by process identifier
+     * @throws ParseConfigurationException exception if a link is not valid
+     */
+    private void checkLinks(
+            final PipelineConfiguration.Step step,
+            final IConfiguration stepConfiguration,
+            final Map<String, Integer> earlierSteps)
+            throws ParseConfigurationException {
+        for (final Map.Entry<String, PipelineConfiguration.OutputReference>
+                link : step.getLinks().entrySet()) {
+            final IInputParameter input = stepConfiguration
+                    .getInputIdentifiers().stream()
+                    .filter(i -> i.getIdentifier().equals(link.getKey()))
+                    .findFirst()
+                    .orElseThrow(() -> new ParseConfigurationException(
+                            "The process '" + step.getProcessIdentifier()
+                                    + "' has no input '" + link.getKey()
+                                    + "'"));
+            if (!isLinkable(input)) {
+                throw new ParseConfigurationException(
+                        "The input '" + link.getKey() + "' of '"
+                                + step.getProcessIdentifier()
+                                + "' is not read from a single file or "
+                                + "stdin and can't be linked");
+            }
+
+            final PipelineConfiguration.OutputReference reference =
+                    link.getValue();
+            final Integer sourceIndex =
+                    earlierSteps.get(reference.getProcessIdentifier());
+            if (sourceIndex == null) {
+                throw new ParseConfigurationException(
+                        "The link to '" + reference
+                                + "' does not refer to an earlier step");
+            }
+            final IOutputParameter output = steps.get(sourceIndex)
+                    .getConfiguration().getOutputIdentifiers().stream()
+                    .filter(o -> o.getIdentifier().equals(
+                            reference.getOutputIdentifier()))
+                    .findFirst()
+                    .orElseThrow(() -> new ParseConfigurationException(
+                            "There is no output '" + reference + "'"));
+            if (!isLinkable(output)) {
+                throw new ParseConfigurationException(
+                        "The output '" + reference
+                                + "' is not written to a single file, "
+                                + "stdout or stderr and can't be linked");
+            }
+        }
+    }
+
+    /**
+     * Inputs can be linked if they are read from stdin or a single file.
+     * If they are also given on the command line, it must only be
+     * the filename.
+     * @param input input parameter to check
+     * @return true if the input can be linked to an output
+     */
+    private static boolean isLinkable(final IInputParameter input) {
+        if (input.getFunctionToWriteToStdin().isPresent()) {
+            return true;
+        }
+        final Optional<IWriteIDataToFiles> writeFunction =
+                input.getFunctionToWriteIDataToFiles();
+        final Optional<IConvertIDataToCommandLineParameter> cmdFunction =
+                input.getFunctionToTransformToCmd();
+        return input.getPathToWriteToOrReadFromFile().isPresent()
+                && writeFunction.isPresent()
+                && !(writeFunction.get() instanceof WriteShapeFileToPath)
+                && (!cmdFunction.isPresent()
+                    || cmdFunction.get() instanceof FileToStringCmd);
+    }
+
+    /**
+     * Outputs can be linked if they are written to stdout, stderr
+     * or a single file.
+     * @param output output parameter to check
+     * @return true if the output can be linked to an input
+     */
+    private static boolean isLinkable(final IOutputParameter output) {
+        if (output.getFunctionToHandleStdout().isPresent()
+                || output.getFunctionToHandleStderr().isPresent()) {
+            return true;
+        }
+        final Optional<IReadIDataFromFiles> readFunction =
+                output.getFunctionToReadIDataFromFiles();
+        return output.getPathToWriteToOrReadFromFile().isPresent()
+                && readFunction.isPresent()
+                && !(readFunction.get() instanceof ReadShapeFileFromPath);
+    }
+
+    /**
+     * Creates the configuration with all the unlinked inputs of the
+     * steps and the outputs of the last step.
+     * @return configuration of the pipeline
+     * @throws ParseConfigurationException exception if inputs with the same
+     * identifier don't fit together
+     */
+    private IConfiguration createConfiguration()
+            throws ParseConfigurationException {
+        final Map<String, IInputParameter> inputs = new LinkedHashMap<>();
+        for (int i = 0; i < steps.size(); i += 1) {
+            final Map<String, PipelineConfiguration.OutputReference> links =
+                    pipelineConfiguration.getSteps().get(i).getLinks();
+            for (final IInputParameter input
+                    : steps.get(i).getConfiguration().getInputIdentifiers()) {
+                if (links.containsKey(input.getIdentifier())) {
+                    continue;
+                }
+                final IInputParameter existing =
+                        inputs.putIfAbsent(input.getIdentifier(), input);
+                if (existing != null
+                        && (!existing.getBindingClass().equals(
+                                input.getBindingClass())
+                            || existing.isOptional() != input.isOptional())) {
+                    throw new ParseConfigurationException(
+                            "The input '" + input.getIdentifier()
+                                    + "' is used by several steps with "
+                                    + "different types");
+                }
+            }
+        }
+        final IConfiguration lastStep =
+                steps.get(steps.size() - 1).getConfiguration();
+
+        return new ConfigurationImpl.Builder(
+                pipelineConfiguration.getIdentifier(),
+                pipelineConfiguration.getAbstract().orElse(null),
+                null,
+                null,
+                Collections.emptyList())
+                .withAddedInputIdentifiers(new ArrayList<>(inputs.values()))
+                .withAddedOutputIdentifiers(lastStep.getOutputIdentifiers())
+                .build();
+    }
+
+    /**
+     * Runs the pipeline.
+     *
+     * First the keys for all the steps are computed. If the result
+     * of the last step is in the cache, it is used directly.
+     * Otherwise the steps that are needed are taken from the cache
+     * or run.
+     *
+     * @param inputData input data of the pipeline
+     * @return map with the outputs of the last step
+     * @throws ExceptionReport exception in case of an error
+     */
+    @Override
+    public Map<String, IData> run(
+            final Map<String, List<IData>> inputData)
+            throws ExceptionReport {
+
+        final Set<String> requestedParameters =
+                BaseGfzRiesgosService.getSetWithRequestedOutputIds();
+        final List<String> hashes =
+                computeStepHashes(inputData, requestedParameters);
+        final int lastIndex = steps.size() - 1;
+        final String hash = hashes.get(lastIndex);
+
+        logger.info("Cache-Hash: " + hash);
+
+        final Optional<Map<String, IDataRecreator>> cachedResult =
+                cache.getCachedResult(hash);
+        if (cachedResult.isPresent()) {
+            logger.info("Read the results from cache");
+
+            return cachedResult.get().entrySet().stream()
+                    .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> entry.getValue().recreate()
+            ));
+        }
+
+        logger.info("There is no result in the cache");
+
+        final Map<Integer, Map<String, RecreateFromIntermediateFile>>
+                intermediates = new HashMap<>();
+        final Map<String, Tuple<IData, IDataRecreator>> innerResult =
+                steps.get(lastIndex).runAsPipelineStep(
+                        inputData,
+                        collectLinkedFiles(
+                                lastIndex, inputData, hashes, intermediates),
+                        requestedParameters,
+                        false);
+
+        cache.insertResultIntoCache(hash, innerResult.entrySet().stream()
+                .collect(Collectors.toMap(
+                    Map.Entry::getKey,
+                    entry -> entry.getValue().getSecond()
+        )));
+
+        return innerResult.entrySet().stream().collect(Collectors.toMap(
+                Map.Entry::getKey,
+                entry -> entry.getValue().getFirst()
+        ));
+    }
+
+    /**
+     * Computes the keys for all the steps.
+     * The key of a step depends on its inputs, the outputs that are
+     * requested from it and the keys of the steps it is linked to.
+     * @param inputData input data of the pipeline
+     * @param requestedParameters outputs requested for the last step
+     * @return list with the keys in the order of the steps
+     */
+    private List<String> computeStepHashes(
+            final Map<String, List<IData>> inputData,
+            final Set<String> requestedParameters) {
+        final List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i += 1) {
+            final Set<String> requested = i == steps.size() - 1
+                    ? requestedParameters
+                    : linkedOutputs.get(i);
+            final StringBuilder key = new StringBuilder(hasher.hash(
+                    steps.get(i).getConfiguration(), inputData, requested));
+
+            // sorted, so that the key does not depend on the order
+            final Map<String, PipelineConfiguration.OutputReference> links =
+                    new TreeMap<>(
+                            pipelineConfiguration.getSteps().get(i).getLinks());
+            for (final Map.Entry<String, PipelineConfiguration.OutputReference>
+                    link : links.entrySet()) {
+                key.append('\n')
+                        .append(link.getKey())
+                        .append('=')
+                        .append(hashes.get(indexOf(
+                                link.getValue().getProcessIdentifier())))
+                        .append('.')
+                        .append(link.getValue().getOutputIdentifier());
+            }
+            hashes.add(md5Hex(key.toString()));
+        }
+        return hashes;
+    }
+
+    /**
+     * Collects the files for all the linked inputs of a step.
+     * @param index index of the step
+     * @param inputData input data of the pipeline
+     * @param hashes keys of the steps
+     * @param intermediates results of the steps that are already there
+     * @return map with the files by input identifier
+     * @throws ExceptionReport exception if an earlier step fails
+     */
+    private Map<String, File> collectLinkedFiles(
+            final int index,
+            final Map<String, List<IData>> inputData,
+            final List<String> hashes,
+            final Map<Integer, Map<String, RecreateFromIntermediateFile>>
+                    intermediates) throws ExceptionReport {
+        final Map<String, File> result = new HashMap<>();
+        for (final Map.Entry<String, PipelineConfiguration.OutputReference>
+                link : pipelineConfiguration.getSteps().get(index)
+                        .getLinks().entrySet()) {
+            final PipelineConfiguration.OutputReference reference =
+                    link.getValue();
+            final Map<String, RecreateFromIntermediateFile> stepResult =
+                    getIntermediateResult(
+                            indexOf(reference.getProcessIdentifier()),
+                            inputData,
+                            hashes,
+                            intermediates);
+            final RecreateFromIntermediateFile output =
+                    stepResult.get(reference.getOutputIdentifier());
+            if (output == null) {
+                throw new ExceptionReport(
+                        "The step did not create the output '"
+                                + reference + "'",
+                        ExceptionReport.REMOTE_COMPUTATION_ERROR);
+            }
+            result.put(link.getKey(), output.getFile());
+        }
+        return result;
+    }
+
+    /**
+     * Gives back the raw outputs of an earlier step.
+     * They are taken from the cache if possible, otherwise the step
+     * (and the steps it depends on) is run.
+     * @param index index of the step
+     * @param inputData input data of the pipeline
+     * @param hashes keys of the steps
+     * @param intermediates results of the steps that are already there
+     * @return map with the raw outputs by output identifier
+     * @throws ExceptionReport exception if the step fails
+     */
+    private Map<String, RecreateFromIntermediateFile> getIntermediateResult(
+            final int index,
+            final Map<String, List<IData>> inputData,
+            final List<String> hashes,
+            final Map<Integer, Map<String, RecreateFromIntermediateFile>>
+                    intermediates) throws ExceptionReport {
+        if (intermediates.containsKey(index)) {
+            return intermediates.get(index);
+        }
+        final String stepIdentifier = pipelineConfiguration.getSteps()
+                .get(index).getProcessIdentifier();
+        final String hash = hashes.get(index);
+
+        final Optional<Map<String, RecreateFromIntermediateFile>> cached =
+                cache.getCachedResult(hash).flatMap(this::toIntermediate);
+        if (cached.isPresent()) {
+            logger.info("Step '" + stepIdentifier + "' read from cache: "
+                    + hash);
+            intermediates.put(index, cached.get());
+            return cached.get();
+        }
+
+        logger.info("Run step '" + stepIdentifier + "': " + hash);
+        final Map<String, Tuple<IData, IDataRecreator>> stepResult =
+                steps.get(index).runAsPipelineStep(
+                        inputData,
+                        collectLinkedFiles(
+                                index, inputData, hashes, intermediates),
+                        linkedOutputs.get(index),
+                        true);
+
+        final Map<String, IDataRecreator> toCache = stepResult.entrySet()
+                .stream()
+                .collect(Collectors.toMap(
+                    Map.Entry::getKey,
+                    entry -> entry.getValue().getSecond()
+        ));
+        cache.insertResultIntoCache(hash, toCache);
+
+        final Map<String, RecreateFromIntermediateFile> result =
+                toIntermediate(toCache).orElseThrow(() -> new ExceptionReport(
+                        "The step '" + stepIdentifier
+                                + "' did not keep its outputs as files",
+                        ExceptionReport.REMOTE_COMPUTATION_ERROR));
+        intermediates.put(index, result);
+        return result;
+    }
+
+    /**
+     * Checks that all the cached outputs are raw files that still exist.
+     * @param cachedResult result from the cache
+     * @return map with the raw outputs or empty if the result can't be
+     * used for the next steps
+     */
+    private Optional<Map<String, RecreateFromIntermediateFile>>
+    toIntermediate(final Map<String, IDataRecreator> cachedResult) {
+        final Map<String, RecreateFromIntermediateFile> result =
+                new HashMap<>();
+        for (final Map.Entry<String, IDataRecreator> entry
+                : cachedResult.entrySet()) {
+            if (!(entry.getValue() instanceof RecreateFromIntermediateFile)) {
+                return Optional.empty();
+            }
+            final RecreateFromIntermediateFile intermediate =
+                    (RecreateFromIntermediateFile) entry.getValue();
+            if (!intermediate.getFile().isFile()) {
+                return Optional.empty();
+            }
+            result.put(entry.getKey(), intermediate);
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Lookup for the index of a step.
+     * @param processIdentifier identifier of the process of the step
+     * @return index of the step
+     */
+    private int indexOf(final String processIdentifier) {
+        final List<PipelineConfiguration.Step> configuredSteps =
+                pipelineConfiguration.getSteps();
+        for (int i = 0; i < configuredSteps.size(); i += 1) {
+            if (configuredSteps.get(i).getProcessIdentifier()
+                    .equals(processIdentifier)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(
+                "There is no step '" + processIdentifier + "'");
+    }
+
+    /**
+     * Computes a md5 hash of the text.
+     * @param text text to hash
+     * @return md5 hash as hex string
+     */
+    private static String md5Hex(final String text) {
+        try {
+            return Hex.encodeHexString(MessageDigest.getInstance("MD5")
+                    .digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     *
+     * @return full qualified identifier of the pipeline
+     */
+    public String getFullQualifiedIdentifier() {
+        return pipelineConfiguration.getFullQualifiedIdentifier();
+    }
+
+    /**
+     *
+     * @return cache of the pipeline
+     */
+    @Override
+    public ICacher getCache() {
+        return cache;
+    }
+
+    /**
+     *
+     * @return list with output parameter data
+     */
+    @Override
+    public List<IProcessDescriptionGeneratorOutputData>
+    getOutputDataForProcessGeneration() {
+        return toProcessDescriptionGeneratorData().getOutputData();
+    }
+
+    /**
+     *
+     * @return data for the process description of the pipeline
+     */
+    private IProcessDescriptionGeneratorData
+    toProcessDescriptionGeneratorData() {
+        return new ProcessDescriptionGeneratorDataConfigImpl(configuration);
+    }
+
+    /**
+     *
+     * @return List with the names of the input identifiers
+     */
+    @Override
+    public List<String> getInputIdentifiers() {
+        return configuration.getInputIdentifiers().stream()
+                .map(IInputParameter::getIdentifier)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     *
+     * @return List with the names of the output identifiers
+     */
+    @Override
+    public List<String> getOutputIdentifiers() {
+        return configuration.getOutputIdentifiers().stream()
+                .map(IOutputParameter::getIdentifier)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lookup for the binding class of the input data.
+     * @param id identifier of the input dataset
+     * @return binding class or null if there is no such input
+     */
+    @Override
+    public Class<?> getInputDataType(final String id) {
+        return configuration.getInputIdentifiers().stream()
+                .filter(input -> input.getIdentifier().equals(id))
+                .findFirst()
+                .map(IInputParameter::getBindingClass)
+                .orElse(null);
+    }
+
+    /**
+     * Lookup for the binding class of the output data.
+     * @param id identifier of the output dataset
+     * @return binding class or null if there is no such output
+     */
+    @Override
+    public Class<?> getOutputDataType(final String id) {
+        return configuration.getOutputIdentifiers().stream()
+                .filter(output -> output.getIdentifier().equals(id))
+                .findFirst()
+                .map(IOutputParameter::getBindingClass)
+                .orElse(null);
+    }
+
+    /**
+     * Generates the process description for the pipeline.
+     * @return ProcessDescription of the pipeline (xml)
+     */
+    @Override
+    public ProcessDescription getDescription() {
+        final IProcessDescriptionGenerator generator =
+                new ProcessDescriptionGeneratorImpl(
+                        toProcessDescriptionGeneratorData());
+        final ProcessDescriptionsDocument description =
+                generator.generateProcessDescription();
+        ProcessDescription processDescription = new ProcessDescription();
+        processDescription.addProcessDescriptionForVersion(
+                description
+                        .getProcessDescriptions()
+                        .getProcessDescriptionArray(0),
+                "1.0.0");
+        return processDescription;
+    }
+}
@@ -19,6 +19,7 @@ package org.n52.gfz.riesgos.bytetoidataconverter;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.geojson.feature.FeatureJSON;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
+import org.n52.gfz.riesgos.formats.flatgeobuf.functions.FlatGeobufFeatureReader;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
 import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
 
@@ -59,10 +60,23 @@ public class ConvertBytesToGTVectorDataBinding
     public GTVectorDataBinding convertToIData(
             final byte[] content) throws ConvertToIDataException {
 
-        try (ByteArrayInputStream inStream =
-                     new ByteArrayInputStream(content)) {
+        return convertToIData(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Returns a GTVectorDataBinding from the stream.
+     * The features are read directly from the stream.
+     * @param content stream to convert
+     * @return GTVectorDataBinding
+     * @throws ConvertToIDataException exception that is thrown on
+     * an io exception
+     */
+    @Override
+    public GTVectorDataBinding convertToIData(
+            final InputStream content) throws ConvertToIDataException {
+        try {
             final FeatureCollection<?, ?> featureCollection =
-                    format.readFeatures(inStream);
+                    format.readFeatures(content);
             return new GTVectorDataBinding(featureCollection);
         } catch (final IOException ioException) {
             throw new ConvertToIDataException(ioException);
@@ -120,7 +134,11 @@ public class ConvertBytesToGTVectorDataBinding
         /**
          * Json format.
          */
-        JSON((in) -> new FeatureJSON().readFeatureCollection(in));
+        JSON((in) -> new FeatureJSON().readFeatureCollection(in)),
+        /**
+         * FlatGeobuf format (read feature by feature from the stream).
+         */
+        FLATGEOBUF((in) -> new FlatGeobufFeatureReader().read(in));
 
         /**
          * Reader implementation to use.
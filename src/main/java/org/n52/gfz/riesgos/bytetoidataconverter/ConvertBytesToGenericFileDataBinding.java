@@ -19,12 +19,16 @@ package org.n52.gfz.riesgos.bytetoidataconverter;
 import org.apache.commons.io.IOUtils;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileScope;
 import org.n52.wps.io.data.GenericFileData;
 import org.n52.wps.io.data.binding.complex.GenericFileDataBinding;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Objects;
 
 /**
@@ -71,19 +75,37 @@ public class ConvertBytesToGenericFileDataBinding
     @Override
     public GenericFileDataBinding convertToIData(
             final byte[] content) throws ConvertToIDataException {
+        return convertToIData(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Generates the GenericFileDataBinding from the stream.
+     * The content is copied into a file without reading it
+     * into memory.
+     * @param content stream to convert
+     * @return GenericFileDataBinding
+     * @throws ConvertToIDataException exception that is thrown in case of an
+     * io exception
+     */
+    @Override
+    public GenericFileDataBinding convertToIData(
+            final InputStream content) throws ConvertToIDataException {
 
-        try {
-            final File tempFile = File.createTempFile(
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            final File tempFile = scope.createTempFile(
                     "convertBytesToIData", ".dat");
-            tempFile.deleteOnExit();
 
             try (FileOutputStream fileOutputStream =
                          new FileOutputStream(tempFile)) {
-                IOUtils.write(content, fileOutputStream);
+                IOUtils.copy(content, fileOutputStream);
             }
 
-            return new GenericFileDataBinding(
+            final GenericFileDataBinding binding = new GenericFileDataBinding(
                     new GenericFileData(tempFile, mimeType));
+            // the file lives as long as the binding is in use
+            TempFileArenaSingleton.INSTANCE.retain(tempFile, binding);
+            return binding;
 
         } catch (final IOException ioException) {
             throw new ConvertToIDataException(ioException);
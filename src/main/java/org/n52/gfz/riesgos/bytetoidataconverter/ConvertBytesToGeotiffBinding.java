@@ -19,11 +19,15 @@ package org.n52.gfz.riesgos.bytetoidataconverter;
 import org.apache.commons.io.IOUtils;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileScope;
 import org.n52.wps.io.data.binding.complex.GeotiffBinding;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Objects;
 
 /**
@@ -43,18 +47,35 @@ public class ConvertBytesToGeotiffBinding
     @Override
     public GeotiffBinding convertToIData(
             final byte[] content) throws ConvertToIDataException {
+        return convertToIData(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Creates an GeotiffBinding instance from the stream.
+     * The content is copied into a file without reading it
+     * into memory.
+     * @param content stream to convert
+     * @return GeotiffBinding
+     * @throws ConvertToIDataException exception on an io exception
+     */
+    @Override
+    public GeotiffBinding convertToIData(
+            final InputStream content) throws ConvertToIDataException {
 
-        try {
-            final File tempFile = File.createTempFile(
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            final File tempFile = scope.createTempFile(
                     "convertBytesToIData", ".tiff");
-            tempFile.deleteOnExit();
 
             try (FileOutputStream fileOutputStream =
                          new FileOutputStream(tempFile)) {
-                IOUtils.write(content, fileOutputStream);
+                IOUtils.copy(content, fileOutputStream);
             }
 
-            return new GeotiffBinding(tempFile);
+            // the file lives as long as the binding (or a reader
+            // of the file) is in use
+            return new GeotiffBinding(
+                    TempFileArenaSingleton.INSTANCE.createHandle(tempFile));
         } catch (final IOException ioException) {
             throw new ConvertToIDataException(ioException);
         }
@@ -16,18 +16,12 @@
 
 package org.n52.gfz.riesgos.bytetoidataconverter;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.formats.json.binding.JsonDataBinding;
 import org.n52.gfz.riesgos.formats.json.binding.JsonObjectOrArray;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.Objects;
 
 /**
@@ -48,22 +42,13 @@ public class ConvertBytesToJsonDataBinding
     @Override
     public JsonDataBinding convertToIData(final byte[] content)
             throws ConvertToIDataException {
-        final JSONParser parser = new JSONParser();
         try {
-            final Object parsed = parser.parse(
-                    new InputStreamReader(
-                            new ByteArrayInputStream(content)));
-            if (parsed instanceof JSONObject) {
-                final JSONObject jsonObject = (JSONObject) parsed;
-                return new JsonDataBinding(new JsonObjectOrArray(jsonObject));
-            } else if (parsed instanceof JSONArray) {
-                final JSONArray jsonArray = (JSONArray) parsed;
-                return new JsonDataBinding(new JsonObjectOrArray(jsonArray));
-            }
-        } catch (final ParseException | IOException exception) {
+            // only checked by a streaming tokenizer - the tree of
+            // the json objects is created when it is needed
+            return new JsonDataBinding(JsonObjectOrArray.fromBytes(content));
+        } catch (final ParseException exception) {
             throw new ConvertToIDataException(exception);
         }
-        return null;
     }
 
     /**
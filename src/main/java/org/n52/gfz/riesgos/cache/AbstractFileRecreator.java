@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cache;
+
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+
+import java.io.File;
+
+/**
+ * Base class for the recreators that keep their content in a
+ * temporary file (instead of a byte array in memory).
+ *
+ * The recreator owns the file, so the file stays as long as the
+ * recreator is in use (so as long as it is in the cache).
+ * The subclasses only care about turning the file into
+ * the binding.
+ */
+public abstract class AbstractFileRecreator implements IDataRecreator {
+
+    private static final long serialVersionUID = -6020791364207313285L;
+
+    /**
+     * Estimated size of the recreator object and the file object
+     * in memory (without the characters of the path).
+     */
+    private static final int OBJECT_SIZE_IN_BYTES = 64;
+
+    /**
+     * File with the content.
+     */
+    private final File file;
+
+    /**
+     * Creates a new recreator.
+     * The recreator will take an ownership of the file, so
+     * the caller can release its own.
+     * @param aFile temporary file with the content
+     */
+    protected AbstractFileRecreator(final File aFile) {
+        this.file = aFile;
+        TempFileArenaSingleton.INSTANCE.retain(aFile, this);
+    }
+
+    /**
+     *
+     * @return file with the content (valid as long as the
+     * recreator is in use)
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * The data is on disk and not in memory, so only the
+     * objects and the path count here.
+     * @return the size of the recreator in memory
+     */
+    @Override
+    public int getSizeInBytes() {
+        return OBJECT_SIZE_IN_BYTES + 2 * file.getPath().length();
+    }
+
+    /**
+     *
+     * @return the size of the file in bytes
+     */
+    @Override
+    public long getSizeOnDiskInBytes() {
+        return file.length();
+    }
+}
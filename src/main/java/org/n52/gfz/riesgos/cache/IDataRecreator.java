@@ -48,4 +48,14 @@ public interface IDataRecreator extends Serializable {
      * @return the size of the object in bytes
      */
     int getSizeInBytes();
+
+    /**
+     * Get the size of the files that this object keeps on disk.
+     * This size is not part of {@link #getSizeInBytes()}, so that
+     * the files don't count against the memory limit of the cache.
+     * @return the size of the files in bytes
+     */
+    default long getSizeOnDiskInBytes() {
+        return 0;
+    }
 }
@@ -18,8 +18,12 @@ package org.n52.gfz.riesgos.cache;
 
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
+import org.n52.gfz.riesgos.util.compression.CompressedBytes;
+import org.n52.gfz.riesgos.util.compression.PayloadKind;
 import org.n52.wps.io.data.IData;
 
+import java.io.IOException;
+
 /**
  * Implementation of the recreator for
  * a converter from byte content.
@@ -28,9 +32,9 @@ public class RecreateFromByteArray implements IDataRecreator {
 
     private static final long serialVersionUID = 9173992944630769497L;
     /**
-     * Byte content.
+     * Byte content (compressed if configured for the cache).
      */
-    private final byte[] content;
+    private final CompressedBytes content;
     /**
      * Converter function.
      */
@@ -51,11 +55,26 @@ public class RecreateFromByteArray implements IDataRecreator {
             final byte[] aContent,
             final IConvertByteArrayToIData aConverter,
             final Class<? extends IData> aBindingClass) {
-        this.content = aContent;
+        this.content = storeContent(aContent);
         this.converter = aConverter;
         this.bindingClass = aBindingClass;
     }
 
+    /**
+     * Stores the content - compressed if this pays off.
+     * @param aContent uncompressed content
+     * @return stored content
+     */
+    private static CompressedBytes storeContent(final byte[] aContent) {
+        try {
+            return CompressedBytes.store(aContent, PayloadKind.CACHE);
+        } catch (final IOException exception) {
+            // compression in memory should not fail, but if it does
+            // we just keep the uncompressed content
+            return CompressedBytes.uncompressed(aContent);
+        }
+    }
+
     /**
      *
      * @return idata from the byte array
@@ -63,8 +82,8 @@ public class RecreateFromByteArray implements IDataRecreator {
     @Override
     public IData recreate() {
         try {
-            return converter.convertToIData(content);
-        } catch (final ConvertToIDataException exception) {
+            return converter.convertToIData(content.getBytes());
+        } catch (final ConvertToIDataException | IOException exception) {
             // this is only meant to recreate from content
             // not for trying it the first time!
             throw new RuntimeException(exception);
@@ -86,6 +105,6 @@ public class RecreateFromByteArray implements IDataRecreator {
      */
     @Override
     public int getSizeInBytes() {
-        return this.content.length;
+        return this.content.getStoredSize();
     }
 }
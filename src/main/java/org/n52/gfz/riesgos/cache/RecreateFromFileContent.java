@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cache;
+
+import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
+import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
+import org.n52.wps.io.data.IData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * Implementation of the recreator for a converter from byte content
+ * that keeps the content in a file (instead of a byte array in memory).
+ *
+ * This is used for large outputs on stdout or stderr, so that they
+ * are never read into memory completely.
+ */
+public class RecreateFromFileContent extends AbstractFileRecreator {
+
+    private static final long serialVersionUID = 4381201871519264716L;
+
+    /**
+     * Converter function.
+     */
+    private final IConvertByteArrayToIData converter;
+    /**
+     * Binding class that will be recreated.
+     */
+    private final Class<? extends IData> bindingClass;
+
+    /**
+     * Creates a new recreator.
+     * The recreator will take an ownership of the file, so
+     * the caller can release its own.
+     * @param aFile temporary file with the content
+     * @param aConverter converter to convert the content to idata
+     * @param aBindingClass binding class will be recreated
+     */
+    public RecreateFromFileContent(
+            final File aFile,
+            final IConvertByteArrayToIData aConverter,
+            final Class<? extends IData> aBindingClass) {
+        super(aFile);
+        this.converter = aConverter;
+        this.bindingClass = aBindingClass;
+    }
+
+    /**
+     *
+     * @return idata from the content of the file
+     */
+    @Override
+    public IData recreate() {
+        try (InputStream content = Files.newInputStream(getFile().toPath())) {
+            return converter.convertToIData(content);
+        } catch (final ConvertToIDataException | IOException exception) {
+            // this is only meant to recreate from content
+            // not for trying it the first time!
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     *
+     * @return binding class that will be recreated
+     */
+    @Override
+    public Class<? extends IData> getBindingClassToRecreate() {
+        return bindingClass;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cache;
+
+import org.n52.gfz.riesgos.cmdexecution.IReadOnlyFileAccessor;
+import org.n52.gfz.riesgos.configuration.IOutputParameter;
+import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
+import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
+import org.n52.gfz.riesgos.functioninterfaces.IReadIDataFromFiles;
+import org.n52.wps.io.data.IData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Implementation of the recreator for the intermediate results
+ * of a pipeline.
+ *
+ * The output is kept as it is (the file or the stdout / stderr
+ * content of the step) in a temporary file, so that the next steps
+ * can use it without any conversion. The conversion to IData is only
+ * done if the data is read from the cache.
+ */
+public class RecreateFromIntermediateFile extends AbstractFileRecreator {
+
+    private static final long serialVersionUID = 2954306143212693718L;
+
+    /**
+     * Output parameter that describes how to read the content.
+     */
+    private final IOutputParameter outputParameter;
+
+    /**
+     * Creates a new recreator.
+     * The recreator will take an ownership of the file, so
+     * the caller can release its own.
+     * @param aFile temporary file with the raw output
+     * @param aOutputParameter output parameter of the step
+     */
+    public RecreateFromIntermediateFile(
+            final File aFile,
+            final IOutputParameter aOutputParameter) {
+        super(aFile);
+        this.outputParameter = aOutputParameter;
+    }
+
+    /**
+     * Converts the raw content the same way as the step would do it.
+     * @return IData of the output
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public IData recreate() {
+        try {
+            final Optional<IConvertByteArrayToIData> converter =
+                    getConverterForStream();
+            if (converter.isPresent()) {
+                try (InputStream content =
+                             Files.newInputStream(getFile().toPath())) {
+                    return converter.get().convertToIData(content);
+                }
+            }
+            final IReadIDataFromFiles readFunction = outputParameter
+                    .getFunctionToReadIDataFromFiles()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "There is no way to read the output '"
+                                    + outputParameter.getIdentifier()
+                                    + "'"));
+            final String path = outputParameter
+                    .getPathToWriteToOrReadFromFile()
+                    .orElse(getFile().getName());
+            return readFunction.readFromFiles(
+                    new SingleFileAccessor(path, getFile()),
+                    "",
+                    path)
+                    .getData();
+        } catch (final IOException ioException) {
+            // this is only meant to recreate from content
+            // not for trying it the first time!
+            throw new UncheckedIOException(ioException);
+        } catch (final ConvertToIDataException convertException) {
+            throw new RuntimeException(convertException);
+        }
+    }
+
+    /**
+     *
+     * @return converter if the output was read from stdout or stderr
+     */
+    private Optional<IConvertByteArrayToIData> getConverterForStream() {
+        final Optional<IConvertByteArrayToIData> stdout =
+                outputParameter.getFunctionToHandleStdout();
+        if (stdout.isPresent()) {
+            return stdout;
+        }
+        return outputParameter.getFunctionToHandleStderr();
+    }
+
+    /**
+     *
+     * @return binding class that will be recreated
+     */
+    @Override
+    public Class<? extends IData> getBindingClassToRecreate() {
+        return outputParameter.getBindingClass();
+    }
+
+    /**
+     * Read only access to the single intermediate file, so that the
+     * normal functions to read the outputs can be used.
+     * There is only the one path of the output; all other paths
+     * (like the sidecar files of a shapefile) don't exist.
+     */
+    private static final class SingleFileAccessor
+            implements IReadOnlyFileAccessor {
+
+        /**
+         * Path of the output.
+         */
+        private final String path;
+        /**
+         * The only file that can be read.
+         */
+        private final File file;
+
+        /**
+         * Constructor with the path and the file.
+         * @param aPath path of the output
+         * @param aFile file with the content of the output
+         */
+        private SingleFileAccessor(final String aPath, final File aFile) {
+            this.path = aPath;
+            this.file = aFile;
+        }
+
+        @Override
+        public byte[] readFromFile(final String aPath) throws IOException {
+            return Files.readAllBytes(resolve(aPath).toPath());
+        }
+
+        @Override
+        public void readToFile(
+                final String aPath,
+                final File target) throws IOException {
+            Files.copy(
+                    resolve(aPath).toPath(),
+                    target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        /**
+         * Gives the file for the path.
+         * @param aPath path to read
+         * @return the intermediate file
+         * @throws NoSuchFileException if the path is not the one
+         * of the output
+         */
+        private File resolve(final String aPath) throws NoSuchFileException {
+            if (!Paths.get(path).normalize().equals(
+                    Paths.get(aPath).normalize())) {
+                throw new NoSuchFileException(aPath);
+            }
+            return file;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cache;
+
+import org.n52.gfz.riesgos.formats.geojson.functions.StreamingGeoJsonFeatureCollection;
+import org.n52.wps.io.data.IData;
+import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Implementation of the recreator for GeoJSON feature collections
+ * that keeps the content in a file.
+ *
+ * Every recreation creates a new streaming feature collection on
+ * the same file. As the collections only read the file, there is no
+ * need to duplicate it.
+ */
+public class RecreateGeoJsonFromFile extends AbstractFileRecreator {
+
+    private static final long serialVersionUID = 5032684907738104539L;
+
+    /**
+     * Creates a new recreator.
+     * The recreator will take an ownership of the file, so
+     * the caller can release its own.
+     * @param aFile temporary file with the GeoJSON content
+     */
+    public RecreateGeoJsonFromFile(final File aFile) {
+        super(aFile);
+    }
+
+    /**
+     *
+     * @return GTVectorDataBinding with a streaming feature collection
+     */
+    @Override
+    public IData recreate() {
+        try {
+            return new GTVectorDataBinding(
+                    StreamingGeoJsonFeatureCollection.fromFile(getFile()));
+        } catch (final IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     *
+     * @return binding class that will be recreated
+     */
+    @Override
+    public Class<? extends IData> getBindingClassToRecreate() {
+        return GTVectorDataBinding.class;
+    }
+}
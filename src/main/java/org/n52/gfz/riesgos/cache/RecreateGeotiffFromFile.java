@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cache;
+
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.wps.io.data.IData;
+import org.n52.wps.io.data.binding.complex.GeotiffBinding;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Implementation of the recreator for geotiffs that
+ * keeps the content in a file (instead of a byte array in memory).
+ *
+ * Every recreation hands out a new hard link (or copy) of the
+ * file, so that the cached file is not affected if the binding
+ * deletes its file.
+ */
+public class RecreateGeotiffFromFile extends AbstractFileRecreator {
+
+    private static final long serialVersionUID = -2417346120563582315L;
+
+    /**
+     * Creates a new recreator.
+     * The recreator will take an ownership of the file, so
+     * the caller can release its own.
+     * @param aFile temporary file with the geotiff
+     */
+    public RecreateGeotiffFromFile(final File aFile) {
+        super(aFile);
+    }
+
+    /**
+     *
+     * @return GeotiffBinding with a duplicate of the file
+     */
+    @Override
+    public IData recreate() {
+        try {
+            final File duplicate =
+                    TempFileArenaSingleton.INSTANCE.duplicate(getFile());
+            final GeotiffBinding binding = new GeotiffBinding(
+                    TempFileArenaSingleton.INSTANCE.createHandle(duplicate));
+            TempFileArenaSingleton.INSTANCE.release(duplicate);
+            return binding;
+        } catch (final IOException ioException) {
+            // this is only meant to recreate from content
+            // not for trying it the first time!
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     *
+     * @return binding class that will be recreated
+     */
+    @Override
+    public Class<? extends IData> getBindingClassToRecreate() {
+        return GeotiffBinding.class;
+    }
+}
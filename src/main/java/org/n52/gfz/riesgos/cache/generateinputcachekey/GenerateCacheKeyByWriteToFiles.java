@@ -20,13 +20,17 @@ import org.n52.gfz.riesgos.cache.IFunctionToGenerateCacheKey;
 import org.n52.gfz.riesgos.cache.inputparametercachekey.InputParameterCacheKeyByByteArrayList;
 import org.n52.gfz.riesgos.cache.inputparametercachekey.InputParameterCacheKeyByException;
 import org.n52.gfz.riesgos.cache.IInputParameterCacheKey;
-import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
-import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+import org.n52.gfz.riesgos.cmdexecution.IWriteOnlyFileAccessor;
 import org.n52.gfz.riesgos.exceptions.ConvertToBytesException;
 import org.n52.gfz.riesgos.functioninterfaces.IWriteIDataToFiles;
 import org.n52.wps.io.data.IData;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,6 +51,10 @@ public class GenerateCacheKeyByWriteToFiles<T extends IData>
      * Pseudo file path that should not be used.
      */
     private static final String PSEUDO_PATH = "file";
+    /**
+     * Algorithm to compute the digest for file contents.
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
 
     /**
      * Function to write IData to files.
@@ -86,8 +94,7 @@ public class GenerateCacheKeyByWriteToFiles<T extends IData>
     @Override
     public IInputParameterCacheKey generateCacheKey(final T idata) {
 
-        final CollectorExecutionContext context =
-                new CollectorExecutionContext();
+        final ContentCollector context = new ContentCollector();
         try {
             writeIDataToFiles.writeToFiles(
                     idata,
@@ -104,11 +111,11 @@ public class GenerateCacheKeyByWriteToFiles<T extends IData>
 
 
     /**
-     * Inner class that is used as IExecutionContext implementation.
+     * Inner class that is used to write the files to.
      * It is just used to read all the files in and store it in byte
      * arrays.
      */
-    private class CollectorExecutionContext implements IExecutionContext {
+    private class ContentCollector implements IWriteOnlyFileAccessor {
 
         /**
          * List with the contents of the byte arrays.
@@ -118,55 +125,69 @@ public class GenerateCacheKeyByWriteToFiles<T extends IData>
         /**
          * Constructor without arguments.
          */
-        CollectorExecutionContext() {
+        ContentCollector() {
             contents = new ArrayList<>();
         }
 
         /**
-         * It will not close any resource.
-         */
-        @Override
-        public void close() {
-            // nothing
-        }
-
-        /**
-         * This will not run any executable.
-         *
-         * @return null
-         */
-        @Override
-        public IExecutionRun run() {
-            // nothing to return
-            return null;
-        }
-
-        /**
-         * Function will not be used.
+         * It will just add the byte array to a list.
          *
-         * @param aPath path of a file
-         * @return useless empty byte array
+         * @param content    byte array with the data
+         * @param workingDir working directory to write to
+         * @param fileName   filename in the working directory
          */
         @Override
-        public byte[] readFromFile(final String aPath) {
-            // nothing to read here
-            return new byte[0];
+        public void writeToFile(
+                final byte[] content,
+                final String workingDir,
+                final String fileName) {
+            contents.add(content);
         }
 
         /**
-         * This is the only method in that interface that is used.
-         * It will just add the byte array to a list.
+         * For files we don't read the whole content into memory.
+         * Instead we map the file and add the digest of the content.
          *
-         * @param content    byte array with the data
+         * @param source     file with the data
          * @param workingDir working directory to write to
          * @param fileName   filename in the working directory
+         * @throws IOException exception on reading the file
          */
         @Override
         public void writeToFile(
-                final byte[] content,
+                final File source,
                 final String workingDir,
-                final String fileName) {
-            contents.add(content);
+                final String fileName) throws IOException {
+            contents.add(digestOfMappedFile(source));
+        }
+    }
+
+    /**
+     * Computes the digest of a file using memory mapped buffers.
+     * @param file file to compute the digest for
+     * @return digest of the file content
+     * @throws IOException exception on reading the file
+     */
+    private static byte[] digestOfMappedFile(final File file)
+            throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+        try (FileChannel channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                final long length = Math.min(
+                        size - position, Integer.MAX_VALUE);
+                digest.update(channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, length));
+                position += length;
+            }
         }
+        return digest.digest();
     }
 }
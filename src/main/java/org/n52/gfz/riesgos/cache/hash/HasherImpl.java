@@ -102,7 +102,7 @@ public class HasherImpl implements IHasher {
 
         final CacheKey key = new CacheKey(
                 configuration,
-                imageIdLookup.lookUpImageId(configuration.getImageId()),
+                lookUpImageId(configuration),
                 inputData,
                 requestedParameters,
                 imageIdLookup.getDockerVersion(),
@@ -126,6 +126,19 @@ public class HasherImpl implements IHasher {
         }
     }
 
+    /**
+     * Looks up the image id of the configuration.
+     * @param configuration configuration used for the process
+     * @return image id or null if the process does not use an image
+     */
+    private String lookUpImageId(final IConfiguration configuration) {
+        final String imageId = configuration.getImageId();
+        if (imageId == null) {
+            return null;
+        }
+        return imageIdLookup.lookUpImageId(imageId);
+    }
+
 
 
     /**
@@ -19,6 +19,7 @@ package org.n52.gfz.riesgos.cache.impl;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
 import org.n52.gfz.riesgos.cache.ICacher;
 import org.n52.gfz.riesgos.cache.IDataRecreator;
@@ -58,14 +59,42 @@ public class CacheImpl implements ICacher {
      */
     private final Cache<String, Map<String, IDataRecreator>> cache;
 
+    /**
+     * Size in MB of the files on disk for the entries of the cache
+     * that keep files.
+     * This has its own limit, so that the files don't count against
+     * the memory limit of the cache (and vice versa).
+     * Entries that are evicted here are removed from the cache too.
+     */
+    private final Cache<String, Integer> diskUsage;
+
     /**
      * Constructor without parameters.
      */
     public CacheImpl() {
+        this(
+            RiesgosWpsSettings.INSTANCE.getMaxCacheSizeMb(),
+            RiesgosWpsSettings.INSTANCE.getMaxCacheDiskSizeMb()
+        );
+    }
+
+    /**
+     * Constructor with the limits.
+     * @param maxSizeMb maximum size in MB of the entries in memory
+     * @param maxDiskSizeMb maximum size in MB of the files of the entries
+     */
+    public CacheImpl(final long maxSizeMb, final long maxDiskSizeMb) {
+        diskUsage = CacheBuilder.newBuilder()
+            // one segment, so that a single large entry can use
+            // the whole limit
+            .concurrencyLevel(1)
+            .maximumWeight(maxDiskSizeMb)
+            .weigher((final String key, final Integer mb) -> mb)
+            .removalListener(this::onDiskUsageRemoval)
+            .expireAfterAccess(MAX_DURATION_DAYS, TimeUnit.DAYS)
+            .build();
         cache = CacheBuilder.newBuilder()
-            .maximumWeight(
-                RiesgosWpsSettings.INSTANCE.getMaxCacheSizeMb()
-            )
+            .maximumWeight(maxSizeMb)
             .weigher(new Weigher<String, Map<String, IDataRecreator>>() {
                 public int weigh(
                         final String key,
@@ -95,10 +124,66 @@ public class CacheImpl implements ICacher {
                     return weight;
                 }
             })
+            .removalListener(this::onCacheRemoval)
             .expireAfterAccess(MAX_DURATION_DAYS, TimeUnit.DAYS)
             .build();
     }
 
+    /**
+     * Removes the entry from the cache if its files don't fit
+     * on disk anymore.
+     * @param notification notification about the removed disk usage
+     */
+    private void onDiskUsageRemoval(
+            final RemovalNotification<String, Integer> notification) {
+        if (notification.wasEvicted()) {
+            cache.invalidate(notification.getKey());
+        }
+    }
+
+    /**
+     * Removes the disk usage of an entry that was evicted.
+     * @param notification notification about the removed entry
+     */
+    private void onCacheRemoval(
+            final RemovalNotification<String, Map<String, IDataRecreator>>
+                notification) {
+        if (notification.wasEvicted()) {
+            diskUsage.invalidate(notification.getKey());
+        }
+    }
+
+    /**
+     * Helper function to get the size of the files on disk in MB.
+     * @param entries entries of one result
+     * @return size of the files in MB (at least 1 if there are files)
+     */
+    private static int getDiskSizeMb(
+            final Map<String, IDataRecreator> entries) {
+        long bytes = 0;
+        for (IDataRecreator entry : entries.values()) {
+            bytes += entry.getSizeOnDiskInBytes();
+        }
+        if (bytes == 0) {
+            return 0;
+        }
+        return (int) Math.min(
+            Math.max(1, bytes / CONVERT_BYTES / CONVERT_BYTES),
+            Integer.MAX_VALUE);
+    }
+
+    /**
+     * Helper function to get the current disk usage of the cache in MB.
+     * @return current size of the files of the cache in MB
+     */
+    public int getCacheDiskSizeMb() {
+        int sum = 0;
+        for (int mb : diskUsage.asMap().values()) {
+            sum += mb;
+        }
+        return sum;
+    }
+
     /**
      * Helper function to get the current memory usage of the cache in MB.
      * @return current memory usage of the cache in MB
@@ -134,6 +219,8 @@ public class CacheImpl implements ICacher {
         }
 
         LOGGER.info("Total MB used by cache: " + getCacheSizeMb());
+        LOGGER.info("Total MB on disk used by cache: "
+            + getCacheDiskSizeMb());
     }
 
     /**
@@ -149,6 +236,8 @@ public class CacheImpl implements ICacher {
     public Optional<Map<String, IDataRecreator>> getCachedResult(
             final String hash) {
         if (cache.asMap().containsKey(hash)) {
+            // keep the files of used entries as long as the entries
+            diskUsage.getIfPresent(hash);
             return Optional.ofNullable(cache.getIfPresent(hash));
         }
         return Optional.empty();
@@ -171,5 +260,11 @@ public class CacheImpl implements ICacher {
         // (removing old entries if cache is quite full)
         cache.cleanUp();
         cache.put(hash, outputData);
+        final int diskSizeMb = getDiskSizeMb(outputData);
+        if (diskSizeMb > 0) {
+            diskUsage.put(hash, diskSizeMb);
+        } else {
+            diskUsage.invalidate(hash);
+        }
     }
 }
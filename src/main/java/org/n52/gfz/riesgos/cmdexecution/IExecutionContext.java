@@ -22,7 +22,8 @@ import java.io.IOException;
  * Interface for an context to run an executable.
  * Examples: a docker container or no special context (just a normal process)
  */
-public interface IExecutionContext extends AutoCloseable {
+public interface IExecutionContext extends
+        AutoCloseable, IReadOnlyFileAccessor, IWriteOnlyFileAccessor {
 
     /**
      * Auto closable to maybe remove a created container.
@@ -37,23 +38,13 @@ public interface IExecutionContext extends AutoCloseable {
     IExecutionRun run() throws IOException;
 
     /**
-     * Reads a file from the path (maybe out of a docker container).
-     * @param path path of a file
-     * @return byte array content
-     * @throws IOException there may be an IOException on reading the file
+     * Stops the program that runs inside of the context immediately
+     * (for example after a timeout).
+     * The default implementation does nothing, as killing the run
+     * itself (together with its child processes) is enough if there
+     * is no extra container.
      */
-    byte[] readFromFile(String path) throws IOException;
-
-    /**
-     * Write the contents of a byte array to a path
-     * (maybe in a docker container).
-     * @param content byte array with the data
-     * @param workingDir working directory to write to
-     * @param fileName filename in the working directory
-     * @throws IOException there may be an IOException on writing the file
-     */
-    void writeToFile(
-            byte[] content,
-            String workingDir,
-            String fileName) throws IOException;
+    default void kill() {
+        // nothing to do
+    }
 }
@@ -16,7 +16,11 @@ package org.n52.gfz.riesgos.cmdexecution;
  * limitations under the Licence.
  */
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Interface for a running process to provide.
@@ -40,4 +44,39 @@ public interface IExecutionRun {
      */
     IExecutionRunResult waitForCompletion() throws InterruptedException;
 
+    /**
+     * Blocks until the process completed, but not longer than
+     * the given timeout.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return result of the process with access to the
+     * exit value and stderr and stdout text
+     * @throws InterruptedException there maybe is an interrupted exception
+     * on waiting for the process to complete
+     * @throws TimeoutException exception if the process did not complete
+     * in time (the process is still running then)
+     */
+    IExecutionRunResult waitForCompletion(long timeout, TimeUnit unit)
+            throws InterruptedException, TimeoutException;
+
+    /**
+     * Stops the process immediately.
+     */
+    void kill();
+
+    /**
+     * Registers a consumer that gets the lines of stderr while
+     * the process is still running.
+     * Lines that were written before the registration are given
+     * to the consumer first.
+     * The default implementation does nothing, so the consumer
+     * never gets any line.
+     * @param lineConsumer consumer for the lines of stderr
+     * @throws IOException exception on reading the already captured output
+     */
+    default void watchStderr(final Consumer<String> lineConsumer)
+            throws IOException {
+        // nothing to watch
+    }
 }
@@ -16,6 +16,11 @@ package org.n52.gfz.riesgos.cmdexecution;
  * limitations under the Licence.
  */
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Interface to represent a result of a process.
  */
@@ -38,4 +43,26 @@ public interface IExecutionRunResult  {
      * @return joined string of stdout stream
      */
     String getStdoutResult();
+
+    /**
+     * Opens a stream with the raw bytes of stderr.
+     * @return stream with the bytes of stderr
+     * @throws IOException exception if the captured output can't be read
+     */
+    default InputStream openStderrStream() throws IOException {
+        return new ByteArrayInputStream(
+                getStderrResult().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens a stream with the raw bytes of stdout.
+     * In contrast to the joined string this is the exact
+     * output of the process, so it can also be binary content.
+     * @return stream with the bytes of stdout
+     * @throws IOException exception if the captured output can't be read
+     */
+    default InputStream openStdoutStream() throws IOException {
+        return new ByteArrayInputStream(
+                getStdoutResult().getBytes(StandardCharsets.UTF_8));
+    }
 }
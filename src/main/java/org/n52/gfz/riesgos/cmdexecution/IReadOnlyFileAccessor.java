@@ -0,0 +1,53 @@
+package org.n52.gfz.riesgos.cmdexecution;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Interface to read files (maybe out of a docker container).
+ * This is all that is needed to read the outputs, so it is
+ * used for the execution contexts as well as for the files that
+ * are kept in the cache.
+ */
+public interface IReadOnlyFileAccessor {
+
+    /**
+     * Reads a file from the path (maybe out of a docker container).
+     * @param path path of a file
+     * @return byte array content
+     * @throws IOException there may be an IOException on reading the file
+     */
+    byte[] readFromFile(String path) throws IOException;
+
+    /**
+     * Reads a file from the path (maybe out of a docker container)
+     * and stores it in the target file on the host.
+     * Implementations should stream the content, so that large
+     * files are not held in memory.
+     * @param path path of a file
+     * @param target file on the host to write the content to
+     * @throws IOException there may be an IOException on reading the file
+     */
+    default void readToFile(
+            final String path,
+            final File target) throws IOException {
+        Files.write(target.toPath(), readFromFile(path));
+    }
+}
@@ -0,0 +1,60 @@
+package org.n52.gfz.riesgos.cmdexecution;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Interface to write files (maybe into a docker container).
+ * This is all that is needed to write the inputs, so the inputs
+ * can also be written somewhere else than in an execution context
+ * (for example to stage them before the context exists).
+ */
+public interface IWriteOnlyFileAccessor {
+
+    /**
+     * Write the contents of a byte array to a path
+     * (maybe in a docker container).
+     * @param content byte array with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException there may be an IOException on writing the file
+     */
+    void writeToFile(
+            byte[] content,
+            String workingDir,
+            String fileName) throws IOException;
+
+    /**
+     * Write the contents of a file on the host to a path
+     * (maybe in a docker container).
+     * Implementations should stream the content, so that large
+     * files are not held in memory.
+     * @param source file on the host with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException there may be an IOException on writing the file
+     */
+    default void writeToFile(
+            final File source,
+            final String workingDir,
+            final String fileName) throws IOException {
+        writeToFile(Files.readAllBytes(source.toPath()), workingDir, fileName);
+    }
+}
@@ -18,10 +18,14 @@ package org.n52.gfz.riesgos.cmdexecution.common;
 
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
-import org.n52.gfz.riesgos.cmdexecution.util.ThreadedStreamStringReader;
+import org.n52.gfz.riesgos.cmdexecution.util.ThreadedStreamCaptureReader;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Implementation that provides stdin, exit value
@@ -29,6 +33,14 @@ import java.io.PrintStream;
  */
 public class ExecutionRunImpl implements IExecutionRun {
 
+    /**
+     * Time to wait for the readers of stdout and stderr after
+     * the process was killed.
+     * Child processes of the killed one may still hold the streams open,
+     * so there is no point in waiting until they are closed.
+     */
+    private static final long KILLED_JOIN_MILLIS = 1000;
+
     /**
      * The process that runs.
      */
@@ -42,11 +54,17 @@ public class ExecutionRunImpl implements IExecutionRun {
     /**
      * A threaded reader to read from stderr.
      */
-    private final ThreadedStreamStringReader stderr;
+    private final ThreadedStreamCaptureReader stderr;
     /**
      * A threaded reader to read from stdout.
      */
-    private final ThreadedStreamStringReader stdout;
+    private final ThreadedStreamCaptureReader stdout;
+
+    /**
+     * Flag that the process was killed (so that the streams
+     * may be closed while reading).
+     */
+    private volatile boolean killed;
 
     /**
      * Constructor with a process.
@@ -56,10 +74,11 @@ public class ExecutionRunImpl implements IExecutionRun {
         this.process = aProcess;
 
         stdin = new PrintStream(process.getOutputStream());
-        stderr = new ThreadedStreamStringReader(process.getErrorStream());
-        stdout = new ThreadedStreamStringReader(process.getInputStream());
+        stderr = new ThreadedStreamCaptureReader(process.getErrorStream());
+        stdout = new ThreadedStreamCaptureReader(process.getInputStream());
         stderr.start();
         stdout.start();
+        killed = false;
     }
 
     /**
@@ -82,21 +101,75 @@ public class ExecutionRunImpl implements IExecutionRun {
 
         final int exitValue = process.waitFor();
 
-        stderr.join();
-        stdout.join();
+        if (killed) {
+            stderr.join(KILLED_JOIN_MILLIS);
+            stdout.join(KILLED_JOIN_MILLIS);
+        } else {
+            stderr.join();
+            stdout.join();
+        }
 
         process.destroy();
 
-        final String stderrText = stderr.getResult();
-        final String stdoutText = stdout.getResult();
+        // after a kill the output may be incomplete and
+        // it is expected that the streams are closed
+        if (!killed) {
+            try {
+                stderr.throwExceptionIfNecessary();
+                stdout.throwExceptionIfNecessary();
+            } catch (final IOException ioException) {
+                throw new RuntimeException(ioException);
+            }
+        }
+
+        return new ExecutionRunResultImpl(
+                exitValue, stderr.getCapture(), stdout.getCapture());
+    }
+
+    /**
+     * Waits for the process to be done, but not longer than the timeout.
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return class with access to the results of the process.
+     * @throws InterruptedException may throw an InterruptedException
+     * @throws TimeoutException exception if the process is still running
+     * after the timeout
+     */
+    @Override
+    public IExecutionRunResult waitForCompletion(
+            final long timeout,
+            final TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        stdin.close();
 
-        try {
-            stderr.throwExceptionIfNecessary();
-            stdout.throwExceptionIfNecessary();
-        } catch (final IOException ioException) {
-            throw new RuntimeException(ioException);
+        if (!process.waitFor(timeout, unit)) {
+            throw new TimeoutException(
+                    "The process did not finish within "
+                            + timeout + " "
+                            + unit.name().toLowerCase(Locale.ROOT));
         }
+        return waitForCompletion();
+    }
 
-        return new ExecutionRunResultImpl(exitValue, stderrText, stdoutText);
+    /**
+     * Kills the process and all its child processes
+     * (so that the programs that a script started don't keep running).
+     */
+    @Override
+    public void kill() {
+        killed = true;
+        ProcessTreeKiller.killTree(process);
+    }
+
+    /**
+     * Registers a consumer for the lines on stderr.
+     * The consumer is called in the thread that reads stderr.
+     * @param lineConsumer consumer for the lines of stderr
+     * @throws IOException exception on reading the already captured output
+     */
+    @Override
+    public void watchStderr(final Consumer<String> lineConsumer)
+            throws IOException {
+        stderr.watchLines(lineConsumer);
     }
 }
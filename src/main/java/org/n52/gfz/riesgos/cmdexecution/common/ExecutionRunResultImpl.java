@@ -17,9 +17,17 @@ package org.n52.gfz.riesgos.cmdexecution.common;
  */
 
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+import org.n52.gfz.riesgos.cmdexecution.util.BoundedStreamCapture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Implementation of the result of running a process.
+ * The output of stderr and stdout is kept as raw bytes; the
+ * text is only decoded if requested.
  */
 public class ExecutionRunResultImpl implements IExecutionRunResult {
 
@@ -30,22 +38,22 @@ public class ExecutionRunResultImpl implements IExecutionRunResult {
     /**
      * Stderr output of the run.
      */
-    private final String stderr;
+    private final BoundedStreamCapture stderr;
     /**
      * Stdout output of the run.
      */
-    private final String stdout;
+    private final BoundedStreamCapture stdout;
 
     /**
      * Default constructor.
      * @param aExitValue exit value of the process
-     * @param aStderr joined stderr text
-     * @param aStdout joined stdout text
+     * @param aStderr captured stderr bytes
+     * @param aStdout captured stdout bytes
      */
     ExecutionRunResultImpl(
             final int aExitValue,
-            final String aStderr,
-            final String aStdout) {
+            final BoundedStreamCapture aStderr,
+            final BoundedStreamCapture aStdout) {
         this.exitValue = aExitValue;
         this.stderr = aStderr;
         this.stdout = aStdout;
@@ -66,7 +74,7 @@ public class ExecutionRunResultImpl implements IExecutionRunResult {
      */
     @Override
     public String getStderrResult() {
-        return stderr;
+        return decode(stderr);
     }
 
     /**
@@ -75,6 +83,39 @@ public class ExecutionRunResultImpl implements IExecutionRunResult {
      */
     @Override
     public String getStdoutResult() {
-        return stdout;
+        return decode(stdout);
+    }
+
+    /**
+     *
+     * @return stream with the raw bytes of stderr
+     * @throws IOException exception if the capture can't be read
+     */
+    @Override
+    public InputStream openStderrStream() throws IOException {
+        return stderr.openStream();
+    }
+
+    /**
+     *
+     * @return stream with the raw bytes of stdout
+     * @throws IOException exception if the capture can't be read
+     */
+    @Override
+    public InputStream openStdoutStream() throws IOException {
+        return stdout.openStream();
+    }
+
+    /**
+     * Decodes the captured bytes with UTF-8.
+     * @param capture capture with the bytes
+     * @return text of the capture
+     */
+    private static String decode(final BoundedStreamCapture capture) {
+        try {
+            return capture.toString(StandardCharsets.UTF_8);
+        } catch (final IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
     }
 }
@@ -0,0 +1,200 @@
+package org.n52.gfz.riesgos.cmdexecution.common;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Helper to kill a process together with all its child processes.
+ *
+ * Process.destroyForcibly only kills the process itself, so the
+ * children of a script (for example a python program that is called
+ * by a shell script) keep running. Java 8 has no api for the child
+ * processes, so the tree is read from /proc (on linux) and the
+ * processes are killed with the kill command. On other systems only
+ * the process itself is killed.
+ */
+public final class ProcessTreeKiller {
+
+    /**
+     * Logger to log if the children can't be killed.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ProcessTreeKiller.class);
+
+    /**
+     * Directory with the information about the processes.
+     */
+    private static final File PROC_DIR = new File("/proc");
+
+    /**
+     * File to discard the output of the kill command.
+     */
+    private static final File DEV_NULL = new File("/dev/null");
+
+    /**
+     * Private constructor as there are only static methods.
+     */
+    private ProcessTreeKiller() {
+        // static only
+    }
+
+    /**
+     * Kills all the child processes (recursively) and the process itself.
+     * The children are searched before the process is killed, as they
+     * would get a new parent afterwards.
+     * @param process process to kill
+     */
+    public static void killTree(final Process process) {
+        final OptionalLong pid = getPid(process);
+        if (pid.isPresent()) {
+            final List<Long> descendants = findDescendants(pid.getAsLong());
+            if (!descendants.isEmpty()) {
+                kill(descendants);
+            }
+        }
+        process.destroyForcibly();
+    }
+
+    /**
+     * Reads the pid of the process.
+     * Uses Process.pid() if there is one (java 9 and later) or the pid
+     * field of the unix implementation of java 8.
+     * @param process process
+     * @return pid of the process (empty if it is not accessible)
+     */
+    static OptionalLong getPid(final Process process) {
+        try {
+            final Method pidMethod = Process.class.getMethod("pid");
+            return OptionalLong.of((Long) pidMethod.invoke(process));
+        } catch (final NoSuchMethodException exception) {
+            // java 8
+        } catch (final IllegalAccessException
+                | InvocationTargetException exception) {
+            return OptionalLong.empty();
+        }
+        try {
+            final Field pidField = process.getClass().getDeclaredField("pid");
+            pidField.setAccessible(true);
+            return OptionalLong.of(pidField.getInt(process));
+        } catch (final NoSuchFieldException | IllegalAccessException
+                | RuntimeException exception) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Searches all the processes that are (direct or indirect)
+     * children of the process.
+     * @param pid pid of the process
+     * @return pids of the children (empty if /proc is not there)
+     */
+    static List<Long> findDescendants(final long pid) {
+        final Map<Long, List<Long>> childrenByParent = readParents();
+        final List<Long> result = new ArrayList<>();
+        final Deque<Long> toVisit = new ArrayDeque<>();
+        toVisit.add(pid);
+        while (!toVisit.isEmpty()) {
+            final List<Long> children =
+                    childrenByParent.get(toVisit.poll());
+            if (children != null) {
+                result.addAll(children);
+                toVisit.addAll(children);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the parent of every process from /proc/[pid]/stat.
+     * @return map with the parent pid & the pids of its children
+     */
+    private static Map<Long, List<Long>> readParents() {
+        final Map<Long, List<Long>> result = new HashMap<>();
+        final File[] entries = PROC_DIR.listFiles();
+        if (entries == null) {
+            return result;
+        }
+        for (final File entry : entries) {
+            final long pid;
+            try {
+                pid = Long.parseLong(entry.getName());
+            } catch (final NumberFormatException exception) {
+                // no process
+                continue;
+            }
+            try {
+                final String stat = new String(
+                        Files.readAllBytes(new File(entry, "stat").toPath()),
+                        StandardCharsets.UTF_8);
+                // pid (comm) state ppid ... - the comm may contain
+                // spaces & parentheses, so we search for the last one
+                final String[] fields = stat
+                        .substring(stat.lastIndexOf(')') + 2)
+                        .split(" ");
+                result.computeIfAbsent(
+                        Long.parseLong(fields[1]), (key) -> new ArrayList<>())
+                        .add(pid);
+            } catch (final IOException | RuntimeException exception) {
+                // the process is gone in the meantime
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Kills the processes with the kill command.
+     * @param pids pids of the processes
+     */
+    private static void kill(final List<Long> pids) {
+        final List<String> command = new ArrayList<>();
+        command.add("kill");
+        command.add("-KILL");
+        for (final Long pid : pids) {
+            command.add(String.valueOf(pid));
+        }
+        try {
+            // some of them may be gone already, so the exit value
+            // doesn't tell us much
+            new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(DEV_NULL)
+                    .start()
+                    .waitFor();
+        } catch (final IOException exception) {
+            LOGGER.warn("Can't kill the child processes " + pids, exception);
+        } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.n52.gfz.riesgos.cmdexecution.IExecutionContextManager;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
 import org.n52.gfz.riesgos.cmdexecution.common.ExecutionRunImpl;
+import org.n52.gfz.riesgos.configuration.ContainerResourceLimits;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -38,13 +39,30 @@ public class DockerContainerExecutionContextManagerImpl
      */
     private final String imageId;
 
+    /**
+     * Resource limits for the containers (may be null).
+     */
+    private final ContainerResourceLimits resourceLimits;
+
     /**
      * Constructor with the image id.
      * @param aImageId id of the docker image to use
      */
     public DockerContainerExecutionContextManagerImpl(
             final String aImageId) {
+        this(aImageId, null);
+    }
+
+    /**
+     * Constructor with the image id and resource limits.
+     * @param aImageId id of the docker image to use
+     * @param aResourceLimits limits for the containers (may be null)
+     */
+    public DockerContainerExecutionContextManagerImpl(
+            final String aImageId,
+            final ContainerResourceLimits aResourceLimits) {
         this.imageId = aImageId;
+        this.resourceLimits = aResourceLimits;
     }
 
     /**
@@ -61,6 +79,7 @@ public class DockerContainerExecutionContextManagerImpl
         final String containerId = runCreateContainerProcess(
                 workingDirectory,
                 cmd);
+        DockerContainerReaper.getShared().registerContainer(containerId);
         return new DockerExecutionContextImpl(containerId);
     }
 
@@ -128,8 +147,30 @@ public class DockerContainerExecutionContextManagerImpl
         result.add("--interactive");
         result.add("--workdir");
         result.add(workingDirectory);
+        result.addAll(createCommonFlags(resourceLimits));
+
+        result.add(imageId);
+
+        result.addAll(cmd);
+
+        return result;
+    }
+
+
+    /**
+     * Creates the flags that all of our containers share
+     * (restart policy, label, security options and resource limits).
+     * @param limits resource limits for the container (may be null)
+     * @return list with the flags
+     */
+    static List<String> createCommonFlags(
+            final ContainerResourceLimits limits) {
+        final List<String> result = new ArrayList<>();
         result.add("--restart");
         result.add("no");
+        // so that we can find our containers after a crash
+        result.add("--label");
+        result.add(DockerContainerReaper.getContainerLabel());
 
         // We disable the secure computing profile to gain performance.
         // We are aware that this may cause security issues, but as we define
@@ -138,18 +179,55 @@ public class DockerContainerExecutionContextManagerImpl
         result.add("--security-opt");
         result.add("seccomp=unconfined");
 
-
         result.addAll(createFlagsForDroppingAllTheCapabilities());
+        result.addAll(createFlagsForResourceLimits(limits));
+        return result;
+    }
 
+    /**
+     * Creates the flags for the resource limits of the container.
+     *
+     * If there is a memory limit, the swap is limited to the same value,
+     * so that the container can't push the host into swapping.
+     *
+     * @return list with the flags (empty if there are no limits)
+     */
+    List<String> createFlagsForResourceLimits() {
+        return createFlagsForResourceLimits(resourceLimits);
+    }
 
-        result.add(imageId);
-
-        result.addAll(cmd);
-
+    /**
+     * Creates the flags for the given resource limits.
+     * @param limits resource limits (may be null)
+     * @return list with the flags (empty if there are no limits)
+     */
+    private static List<String> createFlagsForResourceLimits(
+            final ContainerResourceLimits limits) {
+        final List<String> result = new ArrayList<>();
+        if (limits == null) {
+            return result;
+        }
+        limits.getCpus().ifPresent(cpus -> {
+            result.add("--cpus");
+            result.add(String.valueOf(cpus));
+        });
+        limits.getMemory().ifPresent(memory -> {
+            result.add("--memory");
+            result.add(memory);
+            result.add("--memory-swap");
+            result.add(memory);
+        });
+        limits.getCpusetCpus().ifPresent(cpusetCpus -> {
+            result.add("--cpuset-cpus");
+            result.add(cpusetCpus);
+        });
+        limits.getPidsLimit().ifPresent(pidsLimit -> {
+            result.add("--pids-limit");
+            result.add(String.valueOf(pidsLimit));
+        });
         return result;
     }
 
-
     /**
      * Creates a list to drop all the capabilities
      * that are not necessary to run the commands inside
@@ -157,7 +235,7 @@ public class DockerContainerExecutionContextManagerImpl
      *
      * @return list with the flags to drop all capabilities.
      */
-    private List<String> createFlagsForDroppingAllTheCapabilities() {
+    private static List<String> createFlagsForDroppingAllTheCapabilities() {
         final List<String> result = new ArrayList<>();
 
         for (final String cap : Arrays.asList(
@@ -0,0 +1,557 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.docker;
+
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+import org.n52.gfz.riesgos.cmdexecution.common.ExecutionRunImpl;
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the docker containers in the background, so that the
+ * responses don't have to wait for the removal.
+ *
+ * The containers are removed in batches with one docker command.
+ * Failed removals are retried a few times; containers that are left
+ * over (for example after a crash of the server) are found by a
+ * periodic sweep over all the containers with our label.
+ *
+ * The label contains the id of this server, so that the sweep doesn't
+ * remove the containers of other servers on the same docker daemon.
+ * The sweep also skips containers that are younger than a grace period,
+ * as they may just have been created and are not registered yet.
+ */
+public class DockerContainerReaper {
+
+    /**
+     * Key of the label that is added to all the containers that we
+     * create. The value is the id of the server.
+     */
+    public static final String CONTAINER_LABEL_KEY =
+            "org.n52.gfz.riesgos.managed";
+
+    /**
+     * Default time after the creation of a container before the
+     * sweep may remove it (in milliseconds).
+     */
+    public static final long DEFAULT_SWEEP_GRACE_MILLIS =
+            TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Id of the server if there is no configured one and the
+     * host name is unknown.
+     */
+    private static final String FALLBACK_INSTANCE_ID = "default";
+
+    /**
+     * Logger to log failed removals.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DockerContainerReaper.class);
+
+    /**
+     * Maximum number of containers to remove with one command.
+     */
+    private static final int BATCH_SIZE = 32;
+
+    /**
+     * Number of attempts to remove a container before
+     * we leave it for the sweep.
+     */
+    private static final int MAX_ATTEMPTS = 5;
+
+    /**
+     * Delay between the removal rounds (in milliseconds).
+     */
+    private static final long REMOVAL_DELAY_MILLIS = 500;
+
+    /**
+     * Text of docker for containers that are already gone.
+     */
+    private static final String NO_SUCH_CONTAINER = "No such container";
+
+    /**
+     * Function interface to run a docker command.
+     */
+    @FunctionalInterface
+    public interface ICommandRunner {
+        /**
+         * Runs the command and waits for its completion.
+         * @param command command to run
+         * @return result of the command
+         * @throws IOException exception on starting the command
+         * @throws InterruptedException exception on waiting
+         */
+        IExecutionRunResult run(List<String> command)
+                throws IOException, InterruptedException;
+    }
+
+    /**
+     * Runner for the docker commands.
+     */
+    private final ICommandRunner runner;
+
+    /**
+     * Interval for the sweep of orphaned containers (in minutes).
+     */
+    private final long sweepIntervalMinutes;
+
+    /**
+     * Label of the containers of this server (key=value).
+     */
+    private final String containerLabel;
+
+    /**
+     * Time after the creation of a container before the
+     * sweep may remove it.
+     */
+    private final long sweepGraceMillis;
+
+    /**
+     * Containers that are in use at the moment.
+     */
+    private final Set<String> activeContainers;
+
+    /**
+     * Containers that should be removed.
+     */
+    private final Queue<PendingRemoval> pending;
+
+    /**
+     * Ids of the containers that should be removed.
+     */
+    private final Set<String> pendingIds;
+
+    /**
+     * Constructor.
+     * @param aRunner runner for the docker commands
+     * @param aSweepIntervalMinutes interval for the sweep of orphaned
+     *                              containers; zero or less to disable it
+     */
+    public DockerContainerReaper(
+            final ICommandRunner aRunner,
+            final long aSweepIntervalMinutes) {
+        this(
+                aRunner,
+                aSweepIntervalMinutes,
+                getContainerLabel(),
+                DEFAULT_SWEEP_GRACE_MILLIS);
+    }
+
+    /**
+     * Constructor.
+     * @param aRunner runner for the docker commands
+     * @param aSweepIntervalMinutes interval for the sweep of orphaned
+     *                              containers; zero or less to disable it
+     * @param aContainerLabel label (key=value) of the containers that
+     *                        the sweep should look at
+     * @param aSweepGraceMillis time after the creation of a container
+     *                          before the sweep may remove it
+     */
+    public DockerContainerReaper(
+            final ICommandRunner aRunner,
+            final long aSweepIntervalMinutes,
+            final String aContainerLabel,
+            final long aSweepGraceMillis) {
+        this.runner = aRunner;
+        this.sweepIntervalMinutes = aSweepIntervalMinutes;
+        this.containerLabel = aContainerLabel;
+        this.sweepGraceMillis = aSweepGraceMillis;
+        this.activeContainers = ConcurrentHashMap.newKeySet();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.pendingIds = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     *
+     * @return reaper that is shared by all the docker contexts
+     */
+    public static DockerContainerReaper getShared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     *
+     * @return label (key=value) for the containers of this server
+     */
+    public static String getContainerLabel() {
+        return CONTAINER_LABEL_KEY + "=" + InstanceIdHolder.INSTANCE_ID;
+    }
+
+    /**
+     * Starts the background removal (and the sweep).
+     * @return the reaper itself
+     */
+    public DockerContainerReaper startBackgroundRemoval() {
+        final ScheduledExecutorService scheduler =
+                Executors.newSingleThreadScheduledExecutor((r) -> {
+                    final Thread thread =
+                            new Thread(r, "docker-container-reaper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        scheduler.scheduleWithFixedDelay(
+                this::removePendingContainers,
+                REMOVAL_DELAY_MILLIS,
+                REMOVAL_DELAY_MILLIS,
+                TimeUnit.MILLISECONDS);
+        if (sweepIntervalMinutes > 0) {
+            // the first sweep runs directly on the start
+            // to clean up after a crash
+            scheduler.scheduleWithFixedDelay(
+                    this::sweepOrphanedContainers,
+                    0,
+                    sweepIntervalMinutes,
+                    TimeUnit.MINUTES);
+        }
+        return this;
+    }
+
+    /**
+     * Marks the container as in use, so that the sweep
+     * will not remove it.
+     * @param containerId id of the container
+     */
+    public void registerContainer(final String containerId) {
+        activeContainers.add(containerId);
+    }
+
+    /**
+     * Schedules the removal of the container. This does not wait.
+     * @param containerId id of the container
+     */
+    public void scheduleRemoval(final String containerId) {
+        activeContainers.remove(containerId);
+        enqueue(new PendingRemoval(containerId, 0));
+    }
+
+    /**
+     *
+     * @return number of containers that wait for their removal
+     */
+    public int getPendingCount() {
+        return pendingIds.size();
+    }
+
+    /**
+     * Adds the container to the pending removals
+     * (if it is not already there).
+     * @param removal container to remove
+     */
+    private void enqueue(final PendingRemoval removal) {
+        if (pendingIds.add(removal.containerId)) {
+            pending.add(removal);
+        }
+    }
+
+    /**
+     * Removes all the pending containers in batches.
+     * Exceptions are logged only, so that the background
+     * removal goes on.
+     */
+    void removePendingContainers() {
+        final List<PendingRemoval> retries = new ArrayList<>();
+        try {
+            List<PendingRemoval> batch = takeBatch();
+            while (!batch.isEmpty()) {
+                retries.addAll(removeBatch(batch));
+                batch = takeBatch();
+            }
+        } catch (final RuntimeException exception) {
+            LOGGER.error("Error on the removal of docker containers",
+                    exception);
+        }
+        // the retries are added after the round, so that they
+        // are tried again in the next round only
+        for (final PendingRemoval retry : retries) {
+            enqueue(retry);
+        }
+    }
+
+    /**
+     * Takes the next containers to remove.
+     * @return list with up to BATCH_SIZE containers
+     */
+    private List<PendingRemoval> takeBatch() {
+        final List<PendingRemoval> batch = new ArrayList<>();
+        PendingRemoval removal = pending.poll();
+        while (removal != null) {
+            batch.add(removal);
+            if (batch.size() >= BATCH_SIZE) {
+                break;
+            }
+            removal = pending.poll();
+        }
+        return batch;
+    }
+
+    /**
+     * Removes the containers with one docker command.
+     * @param batch containers to remove
+     * @return containers that are still there and should be tried again
+     */
+    private List<PendingRemoval> removeBatch(
+            final List<PendingRemoval> batch) {
+        final List<String> command = new ArrayList<>(
+                Arrays.asList("docker", "container", "rm", "--force"));
+        for (final PendingRemoval removal : batch) {
+            command.add(removal.containerId);
+        }
+
+        String errorText;
+        try {
+            final IExecutionRunResult result = runner.run(command);
+            errorText = result.getExitValue() == 0
+                    ? ""
+                    : result.getStderrResult();
+        } catch (final IOException | RuntimeException exception) {
+            errorText = String.valueOf(exception.getMessage());
+        } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            errorText = "interrupted";
+        }
+
+        final List<PendingRemoval> retries = new ArrayList<>();
+        for (final PendingRemoval removal : batch) {
+            pendingIds.remove(removal.containerId);
+            if (errorText.isEmpty()
+                    || isAlreadyRemoved(errorText, removal.containerId)) {
+                continue;
+            }
+            if (removal.attempts + 1 >= MAX_ATTEMPTS) {
+                LOGGER.error("Can't remove the docker container "
+                        + removal.containerId + ": " + errorText);
+            } else {
+                retries.add(new PendingRemoval(
+                        removal.containerId, removal.attempts + 1));
+            }
+        }
+        return retries;
+    }
+
+    /**
+     * Checks if docker told us that the container does not exist.
+     * @param errorText stderr text of docker
+     * @param containerId id of the container
+     * @return true if the container is already gone
+     */
+    private static boolean isAlreadyRemoved(
+            final String errorText,
+            final String containerId) {
+        for (final String line : errorText.split("\n")) {
+            if (line.trim().endsWith(
+                    NO_SUCH_CONTAINER + ": " + containerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches for containers with our label that are not in use
+     * and older than the grace period and schedules their removal.
+     * Exceptions are logged only, so that the sweep goes on.
+     */
+    void sweepOrphanedContainers() {
+        try {
+            final IExecutionRunResult result = runner.run(Arrays.asList(
+                    "docker", "container", "ls",
+                    "--all", "--quiet", "--no-trunc",
+                    "--filter", "label=" + containerLabel,
+                    "--filter", "status=created",
+                    "--filter", "status=exited",
+                    "--filter", "status=dead"));
+            if (result.getExitValue() != 0) {
+                LOGGER.warn("Can't list the docker containers: "
+                        + result.getStderrResult());
+                return;
+            }
+            final List<String> candidates = new ArrayList<>();
+            for (final String line
+                    : result.getStdoutResult().split("\n")) {
+                final String containerId = line.trim();
+                if (!containerId.isEmpty()
+                        && !activeContainers.contains(containerId)) {
+                    candidates.add(containerId);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                enqueueOldContainers(candidates, System.currentTimeMillis());
+            }
+        } catch (final IOException | RuntimeException exception) {
+            LOGGER.error("Error on the sweep of docker containers",
+                    exception);
+        } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Asks docker for the creation time of the containers and
+     * schedules the removal of the ones that are older than the
+     * grace period.
+     * @param containerIds ids of the containers
+     * @param now current time in millis
+     * @throws IOException exception on starting the command
+     * @throws InterruptedException exception on waiting
+     */
+    private void enqueueOldContainers(
+            final List<String> containerIds,
+            final long now) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>(Arrays.asList(
+                "docker", "container", "inspect",
+                "--format", "{{.Id}} {{.Created}}"));
+        command.addAll(containerIds);
+        // containers that are gone in the meantime give a non zero
+        // exit value, but the lines for the others are still there
+        final IExecutionRunResult result = runner.run(command);
+        for (final String line : result.getStdoutResult().split("\n")) {
+            final String[] parts = line.trim().split(" ");
+            if (parts.length != 2) {
+                continue;
+            }
+            try {
+                final long created = Instant.parse(parts[1]).toEpochMilli();
+                if (now - created >= sweepGraceMillis) {
+                    enqueue(new PendingRemoval(parts[0], 0));
+                }
+            } catch (final DateTimeParseException exception) {
+                LOGGER.warn("Can't read the creation time of the docker "
+                        + "container " + parts[0] + ": " + parts[1]);
+            }
+        }
+    }
+
+    /**
+     * Runs the command as a process on the host.
+     * @param command command to run
+     * @return result of the command
+     * @throws IOException exception on starting the command
+     * @throws InterruptedException exception on waiting
+     */
+    private static IExecutionRunResult runProcess(
+            final List<String> command)
+            throws IOException, InterruptedException {
+        final ProcessBuilder processBuilder = new ProcessBuilder();
+        processBuilder.command(command);
+        final Process process = processBuilder.start();
+        final IExecutionRun run = new ExecutionRunImpl(process);
+        return run.waitForCompletion();
+    }
+
+    /**
+     * Container that waits for its removal.
+     */
+    private static final class PendingRemoval {
+        /**
+         * Id of the container.
+         */
+        private final String containerId;
+        /**
+         * Number of failed attempts so far.
+         */
+        private final int attempts;
+
+        /**
+         * Constructor.
+         * @param aContainerId id of the container
+         * @param aAttempts number of failed attempts so far
+         */
+        private PendingRemoval(
+                final String aContainerId,
+                final int aAttempts) {
+            this.containerId = aContainerId;
+            this.attempts = aAttempts;
+        }
+    }
+
+    /**
+     * Holder for the id of this server, so that the host name is
+     * only looked up on the first use.
+     */
+    private static final class InstanceIdHolder {
+        /**
+         * Id of this server.
+         */
+        private static final String INSTANCE_ID = findInstanceId();
+
+        /**
+         * Private constructor - there is no need for instances.
+         */
+        private InstanceIdHolder() {
+        }
+
+        /**
+         *
+         * @return the configured id or the host name
+         */
+        private static String findInstanceId() {
+            final String configured =
+                    RiesgosWpsSettings.INSTANCE.getInstanceId();
+            if (!configured.isEmpty()) {
+                return configured;
+            }
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (final UnknownHostException exception) {
+                LOGGER.warn("Can't find the host name for the label "
+                        + "of the docker containers", exception);
+                return FALLBACK_INSTANCE_ID;
+            }
+        }
+    }
+
+    /**
+     * Holder for the shared instance, so that the background thread
+     * is only started on the first use.
+     */
+    private static final class Holder {
+        /**
+         * The shared instance.
+         */
+        private static final DockerContainerReaper SHARED =
+                new DockerContainerReaper(
+                        DockerContainerReaper::runProcess,
+                        RiesgosWpsSettings.INSTANCE
+                                .getContainerSweepMinutes())
+                        .startBackgroundRemoval();
+
+        /**
+         * Private constructor - there is no need for instances.
+         */
+        private Holder() {
+        }
+    }
+}
@@ -22,10 +22,14 @@ import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
 import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
-import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
 import org.n52.gfz.riesgos.cmdexecution.common.ExecutionRunImpl;
-import org.n52.gfz.riesgos.cmdexecution.util.ThreadedStreamStringReader;
+import org.n52.gfz.riesgos.cmdexecution.util.ThreadedStreamCaptureReader;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -52,43 +56,43 @@ public class DockerExecutionContextImpl implements IExecutionContext {
     }
 
     /**
-     * Removes the docker container after use.
+     * Hands the docker container over to the reaper that
+     * removes it in the background (so that we don't have to wait
+     * for the removal).
      */
     @Override
     public void close() {
+        DockerContainerReaper.getShared().scheduleRemoval(containerId);
+    }
+
+    /**
+     * Kills the docker container (the docker client process that
+     * is attached to it would not stop the container on its own).
+     */
+    @Override
+    public void kill() {
         final ProcessBuilder processBuilder = new ProcessBuilder();
-        processBuilder.command(createRemoveCommand());
+        processBuilder.command(createKillCommand());
         try {
             final Process process = processBuilder.start();
             final IExecutionRun run = new ExecutionRunImpl(process);
-            final IExecutionRunResult result = run.waitForCompletion();
-
-            final String errorText = result.getStderrResult();
-            final int exitValue = result.getExitValue();
-
-            if (!errorText.isEmpty()) {
-                throw new RuntimeException(
-                        "The command to remove the docker container failed:\n"
-                                + errorText);
-            }
+            final int exitValue = run.waitForCompletion().getExitValue();
             if (exitValue != 0) {
                 throw new RuntimeException(
-                        "The command to remove the docker container "
+                        "The command to kill the docker container "
                                 + "failed with exit value " + exitValue);
             }
-
         } catch (final InterruptedException | IOException exception) {
             throw new RuntimeException(exception);
         }
     }
 
     /**
-     * Method to create the list of Strings to execute the deletion
-     * of the docker container.
-     * @return list of strings to execute
+     * Creates the command to kill the container.
+     * @return command to kill the container
      */
-    private List<String> createRemoveCommand() {
-        return Arrays.asList("docker", "container", "rm", containerId);
+    private List<String> createKillCommand() {
+        return Arrays.asList("docker", "container", "kill", containerId);
     }
 
     /**
@@ -122,20 +126,51 @@ public class DockerExecutionContextImpl implements IExecutionContext {
      */
     @Override
     public byte[] readFromFile(final String path) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        copyFromContainer(path, result);
+        return result.toByteArray();
+    }
+
+    /**
+     * Uses a tar stream to read a file from the container
+     * directly into a file on the host.
+     * @param path path of a file in the container
+     * @param target file on the host to write to
+     * @throws IOException reading can thrown an io exception
+     */
+    @Override
+    public void readToFile(
+            final String path,
+            final File target) throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(target)) {
+            copyFromContainer(path, outputStream);
+        }
+    }
+
+    /**
+     * Uses a tar stream to copy a file from the container
+     * to an output stream.
+     * @param path path of a file in the container
+     * @param outputStream stream to copy the content to
+     * @throws IOException reading can thrown an io exception
+     */
+    private void copyFromContainer(
+            final String path,
+            final OutputStream outputStream) throws IOException {
         final ProcessBuilder processBuilder = new ProcessBuilder();
         processBuilder.command(createCopyToHostCommand(path));
 
         final Process process = processBuilder.start();
         final InputStream stdout = process.getInputStream();
 
-        final ThreadedStreamStringReader stderr =
-                new ThreadedStreamStringReader(process.getErrorStream());
+        final ThreadedStreamCaptureReader stderr =
+                new ThreadedStreamCaptureReader(process.getErrorStream());
         stderr.start();
 
         try (TarArchiveInputStream tarInputStream =
                      new TarArchiveInputStream(stdout)) {
             tarInputStream.getNextEntry();
-            final byte[] result = IOUtils.toByteArray(tarInputStream);
+            IOUtils.copy(tarInputStream, outputStream);
 
             final int exitValue = process.waitFor();
             process.destroy();
@@ -152,8 +187,6 @@ public class DockerExecutionContextImpl implements IExecutionContext {
                         "Exit value for copying to host is not zero: "
                                 + exitValue);
             }
-
-            return result;
         } catch (final InterruptedException interruptedException) {
             throw new IOException(interruptedException);
         }
@@ -183,21 +216,64 @@ public class DockerExecutionContextImpl implements IExecutionContext {
             final byte[] content,
             final String workingDir,
             final String fileName) throws IOException {
+        copyToContainer(
+                new ByteArrayInputStream(content),
+                content.length,
+                workingDir,
+                fileName);
+    }
+
+    /**
+     * Uses a tar stream to write the content of a host file
+     * into the container (without loading it into memory).
+     * @param source file on the host with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException writing to a file can throw an io exception
+     */
+    @Override
+    public void writeToFile(
+            final File source,
+            final String workingDir,
+            final String fileName) throws IOException {
+        try (InputStream inputStream = new FileInputStream(source)) {
+            copyToContainer(
+                    inputStream,
+                    source.length(),
+                    workingDir,
+                    fileName);
+        }
+    }
+
+    /**
+     * Uses a tar stream to write data from a stream as a file
+     * into the container.
+     * @param content stream with the data
+     * @param size number of bytes in the stream
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException writing to a file can throw an io exception
+     */
+    private void copyToContainer(
+            final InputStream content,
+            final long size,
+            final String workingDir,
+            final String fileName) throws IOException {
         final ProcessBuilder processBuilder = new ProcessBuilder();
         processBuilder.command(createCopyToContainerCommand(workingDir));
 
         final Process process = processBuilder.start();
         final OutputStream stdin = process.getOutputStream();
-        final ThreadedStreamStringReader stderr =
-                new ThreadedStreamStringReader(process.getErrorStream());
+        final ThreadedStreamCaptureReader stderr =
+                new ThreadedStreamCaptureReader(process.getErrorStream());
         stderr.start();
 
         try (TarArchiveOutputStream tarOutputStream =
                      new TarArchiveOutputStream(stdin)) {
             final TarArchiveEntry entry = new TarArchiveEntry(fileName);
-            entry.setSize((long) content.length);
+            entry.setSize(size);
             tarOutputStream.putArchiveEntry(entry);
-            IOUtils.write(content, tarOutputStream);
+            IOUtils.copy(content, tarOutputStream);
 
             tarOutputStream.closeArchiveEntry();
             tarOutputStream.finish();
@@ -18,7 +18,14 @@ package org.n52.gfz.riesgos.cmdexecution.docker;
 
 import org.n52.gfz.riesgos.cmdexecution.IExecutionContextManager;
 import org.n52.gfz.riesgos.cmdexecution.util.IExecutionContextManagerFactory;
+import org.n52.gfz.riesgos.cmdexecution.worker.IWorkerFactory;
+import org.n52.gfz.riesgos.cmdexecution.worker.WorkerExecutionContextManagerImpl;
+import org.n52.gfz.riesgos.cmdexecution.worker.WorkerPoolRegistry;
 import org.n52.gfz.riesgos.configuration.IConfiguration;
+import org.n52.gfz.riesgos.configuration.WorkerConfiguration;
+
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Factory for the IExecutionContextManager (that creates the image in case
@@ -30,13 +37,42 @@ public class DockerExecutionContextManagerFactory
     /**
      * Creates a DockerContainerExecutionContextManager (so a class
      * that can create a new docker container).
+     * If the configuration has a worker, the runs are handed over
+     * to a pool of long lived worker containers instead.
      * @param configuration configuration for the creation
-     * @return DockerContainerExecutionContextManagerImpl
+     * @return DockerContainerExecutionContextManagerImpl or
+     * WorkerExecutionContextManagerImpl
      */
     @Override
     public IExecutionContextManager createExecutionContext(
             final IConfiguration configuration) {
+        final Optional<WorkerConfiguration> workerConfiguration =
+                configuration.getWorkerConfiguration();
+        if (workerConfiguration.isPresent()) {
+            final IWorkerFactory workerFactory = new DockerWorkerFactory(
+                    configuration.getImageId(),
+                    workerConfiguration.get().getCommand(),
+                    configuration.getContainerResourceLimits().orElse(null));
+            return new WorkerExecutionContextManagerImpl(
+                    WorkerPoolRegistry.getShared().getPool(
+                            workerFactory,
+                            workerConfiguration.get().getPoolSize()));
+        }
         return new DockerContainerExecutionContextManagerImpl(
-                configuration.getImageId());
+                configuration.getImageId(),
+                configuration.getContainerResourceLimits().orElse(null));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName());
     }
 }
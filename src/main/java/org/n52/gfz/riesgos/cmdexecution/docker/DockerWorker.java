@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.docker;
+
+import org.apache.commons.io.FileUtils;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+import org.n52.gfz.riesgos.cmdexecution.common.ExecutionRunImpl;
+import org.n52.gfz.riesgos.cmdexecution.worker.IWorker;
+import org.n52.gfz.riesgos.configuration.ContainerResourceLimits;
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Worker that runs as a long lived docker container.
+ *
+ * The spool directory is created on the host and mounted into
+ * the container, so that the requests can be exchanged as files.
+ */
+public final class DockerWorker implements IWorker {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DockerWorker.class);
+
+    /**
+     * Mount point of the spool directory inside of the container.
+     */
+    static final String SPOOL_DIRECTORY_IN_CONTAINER = "/spool";
+
+    /**
+     * Environment variable that tells the worker where the spool is.
+     */
+    static final String SPOOL_ENV_VARIABLE = "RIESGOS_WORKER_SPOOL";
+
+    /**
+     * Prefix for the spool directories on the host.
+     */
+    private static final String SPOOL_DIRECTORY_PREFIX = "riesgos-worker-";
+
+    /**
+     * Permissions for the spool directory.
+     * Only the owner has access, as the container runs with the same
+     * user as the server.
+     */
+    private static final String OWNER_ONLY_PERMISSIONS = "rwx------";
+
+    /**
+     * Id of the container.
+     */
+    private final String containerId;
+
+    /**
+     * Spool directory on the host.
+     */
+    private final Path spoolDirectory;
+
+    /**
+     * Flag to stop the worker only once.
+     */
+    private final AtomicBoolean stopped;
+
+    /**
+     * Constructor with the container and the spool directory.
+     * @param aContainerId id of the running container
+     * @param aSpoolDirectory spool directory on the host
+     */
+    private DockerWorker(
+            final String aContainerId,
+            final Path aSpoolDirectory) {
+        this.containerId = aContainerId;
+        this.spoolDirectory = aSpoolDirectory;
+        this.stopped = new AtomicBoolean(false);
+    }
+
+    /**
+     * Starts a new worker container.
+     * @param imageId id of the docker image
+     * @param command command that runs the request loop
+     * @param limits resource limits for the container (may be null)
+     * @return running worker
+     * @throws IOException exception if the container can't be started
+     */
+    public static DockerWorker start(
+            final String imageId,
+            final List<String> command,
+            final ContainerResourceLimits limits) throws IOException {
+        final Path spoolDirectory = createSpoolDirectory();
+        try {
+            final List<String> runCommand = new ArrayList<>();
+            runCommand.add("docker");
+            runCommand.add("container");
+            runCommand.add("run");
+            runCommand.add("--detach");
+            runCommand.addAll(
+                    DockerContainerExecutionContextManagerImpl
+                            .createCommonFlags(limits));
+            runCommand.addAll(createUserFlags(spoolDirectory));
+            runCommand.add("--volume");
+            runCommand.add(spoolDirectory.toAbsolutePath()
+                    + ":" + SPOOL_DIRECTORY_IN_CONTAINER);
+            runCommand.add("--env");
+            runCommand.add(SPOOL_ENV_VARIABLE
+                    + "=" + SPOOL_DIRECTORY_IN_CONTAINER);
+            runCommand.add(imageId);
+            runCommand.addAll(command);
+
+            final IExecutionRunResult result = runDocker(runCommand);
+            final String containerId = result.getStdoutResult().trim();
+            if (result.getExitValue() != 0 || containerId.isEmpty()) {
+                throw new IOException("Can't start the worker container: "
+                        + result.getStderrResult());
+            }
+            DockerContainerReaper.getShared().registerContainer(containerId);
+            return new DockerWorker(containerId, spoolDirectory);
+        } catch (final IOException | RuntimeException exception) {
+            FileUtils.deleteQuietly(spoolDirectory.toFile());
+            throw exception;
+        }
+    }
+
+    /**
+     * Creates the spool directory in the configured base directory
+     * (or the default temp directory).
+     * @return path of the new spool directory
+     * @throws IOException exception on creating the directory
+     */
+    private static Path createSpoolDirectory() throws IOException {
+        final String configured =
+                RiesgosWpsSettings.INSTANCE.getWorkerSpoolDir();
+        final Path base;
+        if (configured.isEmpty()) {
+            base = Paths.get(System.getProperty("java.io.tmpdir"));
+        } else {
+            base = Paths.get(configured);
+            Files.createDirectories(base);
+        }
+        final Path result =
+                Files.createTempDirectory(base, SPOOL_DIRECTORY_PREFIX);
+        try {
+            Files.setPosixFilePermissions(
+                    result,
+                    PosixFilePermissions.fromString(OWNER_ONLY_PERMISSIONS));
+        } catch (final UnsupportedOperationException exception) {
+            // no posix file system - nothing to do
+        }
+        return result;
+    }
+
+    /**
+     * Creates the flags to run the container with the user and group
+     * that own the spool directory (the user of the server), so that
+     * the worker can use the spool without opening it for everybody.
+     * @param spoolDirectory spool directory on the host
+     * @return list with the flags (empty if there is no unix
+     * file system to get the ids from)
+     * @throws IOException exception on reading the owner
+     */
+    static List<String> createUserFlags(final Path spoolDirectory)
+            throws IOException {
+        try {
+            final Object uid = Files.getAttribute(spoolDirectory, "unix:uid");
+            final Object gid = Files.getAttribute(spoolDirectory, "unix:gid");
+            return Arrays.asList("--user", uid + ":" + gid);
+        } catch (final UnsupportedOperationException exception) {
+            // docker uses the user of the image then
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Runs a docker command on the host.
+     * @param command docker command
+     * @return result of the command
+     * @throws IOException exception on running the command
+     */
+    private static IExecutionRunResult runDocker(final List<String> command)
+            throws IOException {
+        final ProcessBuilder processBuilder = new ProcessBuilder();
+        processBuilder.command(command);
+        final Process process = processBuilder.start();
+        final IExecutionRun run = new ExecutionRunImpl(process);
+        try {
+            return run.waitForCompletion();
+        } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IOException(interruptedException);
+        }
+    }
+
+    /**
+     *
+     * @return id of the container
+     */
+    public String getContainerId() {
+        return containerId;
+    }
+
+    @Override
+    public Path getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    @Override
+    public String getSpoolDirectoryInWorker() {
+        return SPOOL_DIRECTORY_IN_CONTAINER;
+    }
+
+    /**
+     * Asks docker if the container is still running.
+     * @return true if the container runs
+     */
+    @Override
+    public boolean isHealthy() {
+        if (stopped.get()) {
+            return false;
+        }
+        try {
+            final IExecutionRunResult result = runDocker(Arrays.asList(
+                    "docker", "container", "inspect",
+                    "--format", "{{.State.Running}}", containerId));
+            return result.getExitValue() == 0
+                    && "true".equals(result.getStdoutResult().trim());
+        } catch (final IOException ioException) {
+            LOGGER.warn("Can't check the worker container " + containerId,
+                    ioException);
+            return false;
+        }
+    }
+
+    /**
+     * Kills the container, schedules its removal and deletes
+     * the spool directory.
+     */
+    @Override
+    public void stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            runDocker(Arrays.asList(
+                    "docker", "container", "kill", containerId));
+        } catch (final IOException ioException) {
+            // the removal will force it anyway
+            LOGGER.warn("Can't kill the worker container " + containerId,
+                    ioException);
+        }
+        DockerContainerReaper.getShared().scheduleRemoval(containerId);
+        FileUtils.deleteQuietly(spoolDirectory.toFile());
+    }
+}
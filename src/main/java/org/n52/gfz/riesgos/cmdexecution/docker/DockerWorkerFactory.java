@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.docker;
+
+import org.n52.gfz.riesgos.cmdexecution.worker.IWorker;
+import org.n52.gfz.riesgos.cmdexecution.worker.IWorkerFactory;
+import org.n52.gfz.riesgos.configuration.ContainerResourceLimits;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Factory to start workers as docker containers.
+ */
+public class DockerWorkerFactory implements IWorkerFactory {
+
+    /**
+     * Id of the docker image.
+     */
+    private final String imageId;
+
+    /**
+     * Command that runs the request loop.
+     */
+    private final List<String> command;
+
+    /**
+     * Resource limits for the containers (may be null).
+     */
+    private final ContainerResourceLimits resourceLimits;
+
+    /**
+     * Constructor.
+     * @param aImageId id of the docker image
+     * @param aCommand command that runs the request loop
+     * @param aResourceLimits limits for the containers (may be null)
+     */
+    public DockerWorkerFactory(
+            final String aImageId,
+            final List<String> aCommand,
+            final ContainerResourceLimits aResourceLimits) {
+        this.imageId = aImageId;
+        this.command = new ArrayList<>(aCommand);
+        this.resourceLimits = aResourceLimits;
+    }
+
+    @Override
+    public IWorker startWorker() throws IOException {
+        return DockerWorker.start(imageId, command, resourceLimits);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final DockerWorkerFactory that = (DockerWorkerFactory) o;
+        return Objects.equals(imageId, that.imageId)
+                && Objects.equals(command, that.command)
+                && Objects.equals(resourceLimits, that.resourceLimits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(imageId, command, resourceLimits);
+    }
+}
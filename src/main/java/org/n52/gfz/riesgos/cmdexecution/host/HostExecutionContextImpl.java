@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.host;
+
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+import org.n52.gfz.riesgos.cmdexecution.common.ExecutionRunImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Implementation of an execution context that runs
+ * directly on the host in a scratch directory.
+ *
+ * All the paths inside of the configured working directory
+ * (and all relative paths) are redirected into the scratch directory,
+ * so that the input and output handling is the same as in a container.
+ * Reading and writing are plain file operations. Input files are
+ * copied, so that a program that changes its input files can't
+ * change the files of the server (for example cached geotiffs).
+ */
+public class HostExecutionContextImpl implements IExecutionContext {
+
+    /**
+     * Scratch directory of this run.
+     */
+    private final Path scratchDir;
+
+    /**
+     * Working directory as given in the configuration.
+     */
+    private final Path workingDirectory;
+
+    /**
+     * Command to execute.
+     */
+    private final List<String> cmd;
+
+    /**
+     * Default constructor.
+     * @param aScratchDir scratch directory of the run
+     * @param aWorkingDirectory configured working directory
+     * @param aCmd command to execute
+     */
+    HostExecutionContextImpl(
+            final Path aScratchDir,
+            final Path aWorkingDirectory,
+            final List<String> aCmd) {
+        this.scratchDir = aScratchDir;
+        this.workingDirectory = aWorkingDirectory;
+        this.cmd = aCmd;
+    }
+
+    /**
+     * Removes the scratch directory after use.
+     */
+    @Override
+    public void close() {
+        try {
+            deleteRecursively(scratchDir);
+        } catch (final IOException ioException) {
+            throw new RuntimeException(
+                    "The scratch directory " + scratchDir
+                            + " could not be removed", ioException);
+        }
+    }
+
+    /**
+     * Runs the program with the scratch directory as working directory.
+     * @return ExecutionRunImpl
+     * @throws IOException starting the process can thrown an IO exception
+     */
+    @Override
+    public IExecutionRun run() throws IOException {
+        final ProcessBuilder processBuilder = new ProcessBuilder();
+        processBuilder.command(cmd);
+        processBuilder.directory(scratchDir.toFile());
+        final Process process = processBuilder.start();
+        return new ExecutionRunImpl(process);
+    }
+
+    /**
+     * Reads the content of a file.
+     * @param path path of a file
+     * @return byte array with the content of the file
+     * @throws IOException reading can thrown an io exception
+     */
+    @Override
+    public byte[] readFromFile(final String path) throws IOException {
+        return Files.readAllBytes(resolve(path));
+    }
+
+    /**
+     * Copies a file to the target on the host.
+     * @param path path of a file
+     * @param target file to write to
+     * @throws IOException reading can thrown an io exception
+     */
+    @Override
+    public void readToFile(
+            final String path,
+            final File target) throws IOException {
+        Files.copy(
+                resolve(path),
+                target.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the data as a file into the scratch directory.
+     * @param content byte array with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException writing to a file can throw an io exception
+     */
+    @Override
+    public void writeToFile(
+            final byte[] content,
+            final String workingDir,
+            final String fileName) throws IOException {
+        Files.write(prepareTarget(workingDir, fileName), content);
+    }
+
+    /**
+     * Copies a host file into the scratch directory.
+     * @param source file on the host with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException writing to a file can throw an io exception
+     */
+    @Override
+    public void writeToFile(
+            final File source,
+            final String workingDir,
+            final String fileName) throws IOException {
+        Files.copy(source.toPath(), prepareTarget(workingDir, fileName));
+    }
+
+    /**
+     * Resolves the path of the target file, creates the parent
+     * directories and removes a link to the working directory
+     * that may have the same name (so that we never write into the
+     * configured working directory itself).
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @return path of the target file
+     * @throws IOException exception on creating the directories
+     */
+    private Path prepareTarget(
+            final String workingDir,
+            final String fileName) throws IOException {
+        final Path target = resolve(Paths.get(workingDir, fileName)
+                .toString());
+        final Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.isSymbolicLink(target)) {
+            Files.delete(target);
+        }
+        return target;
+    }
+
+    /**
+     * Maps a path (as the program would see it in a container) to
+     * the path on the host.
+     * @param path path to map
+     * @return path in the scratch directory (or the path itself if
+     * it is an absolute path outside of the working directory)
+     */
+    Path resolve(final String path) {
+        final Path given = Paths.get(path);
+        if (!given.isAbsolute()) {
+            return scratchDir.resolve(given).normalize();
+        }
+        final Path normalized = given.normalize();
+        if (normalized.startsWith(workingDirectory)) {
+            return scratchDir.resolve(
+                    workingDirectory.relativize(normalized));
+        }
+        return normalized;
+    }
+
+    /**
+     *
+     * @return scratch directory of this run
+     */
+    Path getScratchDir() {
+        return scratchDir;
+    }
+
+    /**
+     * Deletes the directory with all its content.
+     * Symbolic links are deleted themselves, so that
+     * the targets are not affected.
+     * @param directory directory to delete
+     * @throws IOException exception on deleting
+     */
+    static void deleteRecursively(final Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(
+                    final Path file,
+                    final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(
+                    final Path dir,
+                    final IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.host;
+
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContextManager;
+import org.n52.gfz.riesgos.cmdexecution.util.IExecutionContextManagerFactory;
+import org.n52.gfz.riesgos.configuration.IConfiguration;
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Factory for the IExecutionContextManager that runs the commands
+ * directly on the host (without the overhead of creating
+ * a docker container).
+ */
+public class HostExecutionContextManagerFactory
+        implements IExecutionContextManagerFactory {
+
+    /**
+     * Creates a HostExecutionContextManagerImpl (so a class
+     * that creates a scratch directory for every run).
+     * @param configuration configuration for the creation
+     * @return HostExecutionContextManagerImpl
+     */
+    @Override
+    public IExecutionContextManager createExecutionContext(
+            final IConfiguration configuration) {
+        return new HostExecutionContextManagerImpl(getScratchBaseDir());
+    }
+
+    /**
+     *
+     * @return directory in that the scratch directories are created
+     */
+    private static Path getScratchBaseDir() {
+        final String configured =
+                RiesgosWpsSettings.INSTANCE.getHostScratchDir();
+        if (configured.isEmpty()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        return Paths.get(configured);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName());
+    }
+}
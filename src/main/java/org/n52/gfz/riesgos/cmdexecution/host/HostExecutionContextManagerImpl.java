@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.host;
+
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContextManager;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Context manager implementation that runs the commands directly
+ * on the host.
+ *
+ * Every run gets its own scratch directory, so that parallel runs
+ * of the same process don't see the files of each other.
+ * The structure of the configured working directory (if it exists on
+ * the host) is rebuilt in the scratch directory: the directories are
+ * created and the files are linked, so that scripts can still be
+ * called with relative paths, but outputs are never written into
+ * the configured working directory.
+ */
+public class HostExecutionContextManagerImpl
+        implements IExecutionContextManager {
+
+    /**
+     * Prefix for the names of the scratch directories.
+     */
+    private static final String SCRATCH_PREFIX = "riesgos-run-";
+
+    /**
+     * Directory in that the scratch directories are created.
+     */
+    private final Path scratchBaseDir;
+
+    /**
+     * Constructor with the base directory for the scratch directories.
+     * @param aScratchBaseDir directory in that the scratch
+     *                        directories are created
+     */
+    public HostExecutionContextManagerImpl(final Path aScratchBaseDir) {
+        this.scratchBaseDir = aScratchBaseDir;
+    }
+
+    /**
+     * Creates a scratch directory for running the cmd in.
+     * @param workingDirectory configured working directory of the process
+     * @param cmd string list with the command to execute (for example
+     *            ["python3", "script.py", "arg1", "arg2"]
+     * @return HostExecutionContextImpl
+     */
+    @Override
+    public IExecutionContext createExecutionContext(
+            final String workingDirectory,
+            final List<String> cmd) {
+        try {
+            Files.createDirectories(scratchBaseDir);
+            final Path scratchDir = Files.createTempDirectory(
+                    scratchBaseDir, SCRATCH_PREFIX);
+            try {
+                mirrorWorkingDirectory(
+                        Paths.get(workingDirectory), scratchDir);
+            } catch (final IOException ioException) {
+                HostExecutionContextImpl.deleteRecursively(scratchDir);
+                throw ioException;
+            }
+            return new HostExecutionContextImpl(
+                    scratchDir,
+                    Paths.get(workingDirectory),
+                    new ArrayList<>(cmd));
+        } catch (final IOException ioException) {
+            throw new RuntimeException(
+                    "Can't create the scratch directory", ioException);
+        }
+    }
+
+    /**
+     * Creates all the (sub) directories of the working directory in the
+     * scratch directory and links the files into them.
+     * @param workingDirectory working directory of the process
+     * @param scratchDir scratch directory for this run
+     * @throws IOException exception if a directory or a link can't
+     * be created
+     */
+    private static void mirrorWorkingDirectory(
+            final Path workingDirectory,
+            final Path scratchDir) throws IOException {
+        if (!Files.isDirectory(workingDirectory)) {
+            return;
+        }
+        final Path source = workingDirectory.toAbsolutePath();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(
+                    final Path dir,
+                    final BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(
+                        scratchDir.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(
+                    final Path file,
+                    final BasicFileAttributes attrs) throws IOException {
+                Files.createSymbolicLink(
+                        scratchDir.resolve(source.relativize(file)),
+                        file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
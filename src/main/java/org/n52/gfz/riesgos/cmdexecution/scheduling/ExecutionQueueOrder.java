@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.scheduling;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Enum with the options to order the runs that wait for a slot.
+ */
+public enum ExecutionQueueOrder {
+    /**
+     * fifo will start the runs in the order they arrived.
+     */
+    FIFO("fifo"),
+    /**
+     * priority will start runs with higher priority first
+     * (and in the order they arrived if the priority is the same).
+     */
+    PRIORITY("priority");
+
+    /**
+     * The key for the option.
+     */
+    private final String key;
+
+    /**
+     * Default constructor.
+     * @param aKey key for the lookup
+     */
+    ExecutionQueueOrder(final String aKey) {
+        this.key = aKey;
+    }
+
+    /**
+     *
+     * @return key to lookup the queue order
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     *
+     * @return map by the name of the options
+     */
+    public static Map<String, ExecutionQueueOrder> asMap() {
+        return Stream.of(ExecutionQueueOrder.values())
+                .collect(Collectors.toMap(
+                        ExecutionQueueOrder::getKey,
+                        Function.identity()));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.scheduling;
+
+/**
+ * Snapshot of the queue statistics for one process.
+ */
+public class ExecutionQueueStatistics {
+
+    /**
+     * Number of runs that wait for a slot.
+     */
+    private final int waiting;
+    /**
+     * Number of runs that have a slot at the moment.
+     */
+    private final int running;
+    /**
+     * Number of runs that got a slot so far.
+     */
+    private final long started;
+    /**
+     * Sum of all the queue times in milliseconds.
+     */
+    private final long totalQueueMillis;
+    /**
+     * Longest queue time in milliseconds.
+     */
+    private final long maxQueueMillis;
+    /**
+     * Number of runs that were stopped because of a timeout.
+     */
+    private final long timeouts;
+
+    /**
+     * Constructor with all the values.
+     * @param aWaiting number of waiting runs
+     * @param aRunning number of running runs
+     * @param aStarted number of runs that got a slot so far
+     * @param aTotalQueueMillis sum of the queue times
+     * @param aMaxQueueMillis longest queue time
+     * @param aTimeouts number of runs stopped by a timeout
+     */
+    public ExecutionQueueStatistics(
+            final int aWaiting,
+            final int aRunning,
+            final long aStarted,
+            final long aTotalQueueMillis,
+            final long aMaxQueueMillis,
+            final long aTimeouts) {
+        this.waiting = aWaiting;
+        this.running = aRunning;
+        this.started = aStarted;
+        this.totalQueueMillis = aTotalQueueMillis;
+        this.maxQueueMillis = aMaxQueueMillis;
+        this.timeouts = aTimeouts;
+    }
+
+    /**
+     *
+     * @return number of runs that wait for a slot
+     */
+    public int getWaiting() {
+        return waiting;
+    }
+
+    /**
+     *
+     * @return number of runs that have a slot at the moment
+     */
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     *
+     * @return number of runs that got a slot so far
+     */
+    public long getStarted() {
+        return started;
+    }
+
+    /**
+     *
+     * @return sum of all the queue times in milliseconds
+     */
+    public long getTotalQueueMillis() {
+        return totalQueueMillis;
+    }
+
+    /**
+     *
+     * @return longest queue time in milliseconds
+     */
+    public long getMaxQueueMillis() {
+        return maxQueueMillis;
+    }
+
+    /**
+     *
+     * @return number of runs that were stopped because of a timeout
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     *
+     * @return average queue time in milliseconds
+     */
+    public double getAverageQueueMillis() {
+        if (started == 0) {
+            return 0.0;
+        }
+        return (double) totalQueueMillis / started;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionQueueStatistics{"
+                + "waiting=" + waiting
+                + ", running=" + running
+                + ", started=" + started
+                + ", totalQueueMillis=" + totalQueueMillis
+                + ", maxQueueMillis=" + maxQueueMillis
+                + ", timeouts=" + timeouts
+                + '}';
+    }
+}
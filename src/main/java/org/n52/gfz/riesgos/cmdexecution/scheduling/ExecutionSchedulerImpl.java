@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package org.n52.gfz.riesgos.cmdexecution.scheduling;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Default implementation of the execution scheduler.
+ *
+ * There is a global number of slots and an optional limit per process.
+ * Waiting runs are taken in the order of the queue, but runs that are
+ * blocked by the limit of their process don't block the runs of
+ * other processes.
+ */
+public class ExecutionSchedulerImpl implements IExecutionScheduler {
+
+    /**
+     * Maximum number of runs at the same time.
+     */
+    private final int maxRunning;
+
+    /**
+     * Runs that wait for a slot (sorted by the queue order).
+     */
+    private final TreeSet<Ticket> waiting;
+
+    /**
+     * Number of running runs by process identifier.
+     */
+    private final Map<String, Integer> runningByProcess;
+
+    /**
+     * Collected statistics by process identifier.
+     */
+    private final Map<String, StatisticsCollector> statistics;
+
+    /**
+     * Number of all the running runs.
+     */
+    private int running;
+
+    /**
+     * Counter to keep the order of arrival.
+     */
+    private long sequence;
+
+    /**
+     * Constructor.
+     * @param aMaxRunning maximum number of runs at the same time
+     * @param order order of the waiting runs
+     */
+    public ExecutionSchedulerImpl(
+            final int aMaxRunning,
+            final ExecutionQueueOrder order) {
+        if (aMaxRunning < 1) {
+            throw new IllegalArgumentException(
+                    "There must be at least one slot");
+        }
+        this.maxRunning = aMaxRunning;
+        this.waiting = new TreeSet<>(createComparator(order));
+        this.runningByProcess = new HashMap<>();
+        this.statistics = new HashMap<>();
+    }
+
+    /**
+     * Creates the comparator for the waiting runs.
+     * @param order order of the waiting runs
+     * @return comparator
+     */
+    private static Comparator<Ticket> createComparator(
+            final ExecutionQueueOrder order) {
+        final Comparator<Ticket> bySequence =
+                Comparator.comparingLong(ticket -> ticket.sequence);
+        if (order == ExecutionQueueOrder.PRIORITY) {
+            return Comparator.<Ticket>comparingInt(
+                    ticket -> -ticket.priority).thenComparing(bySequence);
+        }
+        return bySequence;
+    }
+
+    @Override
+    public synchronized IExecutionSlot acquire(
+            final String processIdentifier,
+            final int maxConcurrentRuns,
+            final int priority) throws InterruptedException {
+        final Ticket ticket = new Ticket(
+                processIdentifier, maxConcurrentRuns, priority, sequence);
+        sequence += 1;
+        waiting.add(ticket);
+        getCollector(processIdentifier).waiting += 1;
+
+        grantWaitingTickets();
+        try {
+            while (!ticket.granted) {
+                wait();
+            }
+        } catch (final InterruptedException interruptedException) {
+            if (ticket.granted) {
+                release(processIdentifier);
+            } else {
+                waiting.remove(ticket);
+                getCollector(processIdentifier).waiting -= 1;
+            }
+            throw interruptedException;
+        }
+        return new Slot(processIdentifier, ticket.queueMillis);
+    }
+
+    /**
+     * Gives the slots to the waiting runs as long as there are free ones.
+     */
+    private void grantWaitingTickets() {
+        boolean grantedAny = false;
+        final Iterator<Ticket> iterator = waiting.iterator();
+        while (running < maxRunning && iterator.hasNext()) {
+            final Ticket ticket = iterator.next();
+            final int runningForProcess = runningByProcess.getOrDefault(
+                    ticket.processIdentifier, 0);
+            if (ticket.maxConcurrentRuns > 0
+                    && runningForProcess >= ticket.maxConcurrentRuns) {
+                continue;
+            }
+            iterator.remove();
+            runningByProcess.put(
+                    ticket.processIdentifier, runningForProcess + 1);
+            running += 1;
+
+            ticket.granted = true;
+            ticket.queueMillis = TimeUnit.NANOSECONDS.toMillis(
+                    System.nanoTime() - ticket.enqueuedNanos);
+
+            final StatisticsCollector collector =
+                    getCollector(ticket.processIdentifier);
+            collector.waiting -= 1;
+            collector.running += 1;
+            collector.started += 1;
+            collector.totalQueueMillis += ticket.queueMillis;
+            collector.maxQueueMillis = Math.max(
+                    collector.maxQueueMillis, ticket.queueMillis);
+
+            grantedAny = true;
+        }
+        if (grantedAny) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Gives a slot back.
+     * @param processIdentifier identifier of the process
+     */
+    private synchronized void release(final String processIdentifier) {
+        running -= 1;
+        final int runningForProcess =
+                runningByProcess.get(processIdentifier) - 1;
+        if (runningForProcess == 0) {
+            runningByProcess.remove(processIdentifier);
+        } else {
+            runningByProcess.put(processIdentifier, runningForProcess);
+        }
+        getCollector(processIdentifier).running -= 1;
+        grantWaitingTickets();
+    }
+
+    /**
+     * Returns the statistics collector for the process (and creates it
+     * if necessary).
+     * @param processIdentifier identifier of the process
+     * @return statistics collector
+     */
+    private StatisticsCollector getCollector(final String processIdentifier) {
+        return statistics.computeIfAbsent(
+                processIdentifier, key -> new StatisticsCollector());
+    }
+
+    @Override
+    public synchronized void recordTimeout(final String processIdentifier) {
+        getCollector(processIdentifier).timeouts += 1;
+    }
+
+    @Override
+    public synchronized Map<String, ExecutionQueueStatistics>
+        getStatistics() {
+        final Map<String, ExecutionQueueStatistics> result = new HashMap<>();
+        for (final Map.Entry<String, StatisticsCollector> entry
+                : statistics.entrySet()) {
+            final StatisticsCollector collector = entry.getValue();
+            result.put(entry.getKey(), new ExecutionQueueStatistics(
+                    collector.waiting,
+                    collector.running,
+                    collector.started,
+                    collector.totalQueueMillis,
+                    collector.maxQueueMillis,
+                    collector.timeouts));
+        }
+        return result;
+    }
+
+    /**
+     * Ticket for a run that waits for a slot.
+     */
+    private static final class Ticket {
+        /**
+         * Identifier of the process.
+         */
+        private final String processIdentifier;
+        /**
+         * Maximum number of runs of the process at the same time.
+         */
+        private final int maxConcurrentRuns;
+        /**
+         * Priority of the run.
+         */
+        private final int priority;
+        /**
+         * Number to keep the order of arrival.
+         */
+        private final long sequence;
+        /**
+         * Time of the arrival in the queue.
+         */
+        private final long enqueuedNanos;
+        /**
+         * Flag if the run got a slot.
+         */
+        private boolean granted;
+        /**
+         * Time in the queue.
+         */
+        private long queueMillis;
+
+        /**
+         * Constructor.
+         * @param aProcessIdentifier identifier of the process
+         * @param aMaxConcurrentRuns limit for the process
+         * @param aPriority priority of the run
+         * @param aSequence number to keep the order of arrival
+         */
+        private Ticket(
+                final String aProcessIdentifier,
+                final int aMaxConcurrentRuns,
+                final int aPriority,
+                final long aSequence) {
+            this.processIdentifier = aProcessIdentifier;
+            this.maxConcurrentRuns = aMaxConcurrentRuns;
+            this.priority = aPriority;
+            this.sequence = aSequence;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Mutable statistics for one process.
+     */
+    private static final class StatisticsCollector {
+        /**
+         * Number of waiting runs.
+         */
+        private int waiting;
+        /**
+         * Number of running runs.
+         */
+        private int running;
+        /**
+         * Number of runs that got a slot so far.
+         */
+        private long started;
+        /**
+         * Sum of the queue times.
+         */
+        private long totalQueueMillis;
+        /**
+         * Longest queue time.
+         */
+        private long maxQueueMillis;
+        /**
+         * Number of runs stopped by a timeout.
+         */
+        private long timeouts;
+    }
+
+    /**
+     * Slot that is given to a run.
+     */
+    private final class Slot implements IExecutionSlot {
+        /**
+         * Identifier of the process.
+         */
+        private final String processIdentifier;
+        /**
+         * Time in the queue.
+         */
+        private final long queueMillis;
+        /**
+         * Flag so that the slot is only given back once.
+         */
+        private final AtomicBoolean closed;
+
+        /**
+         * Constructor.
+         * @param aProcessIdentifier identifier of the process
+         * @param aQueueMillis time in the queue
+         */
+        private Slot(
+                final String aProcessIdentifier,
+                final long aQueueMillis) {
+            this.processIdentifier = aProcessIdentifier;
+            this.queueMillis = aQueueMillis;
+            this.closed = new AtomicBoolean(false);
+        }
+
+        @Override
+        public long getQueueMillis() {
+            return queueMillis;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(processIdentifier);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package org.n52.gfz.riesgos.cmdexecution.scheduling;
+
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+
+import java.util.Map;
+
+/**
+ * This is the singleton implementation of the scheduler, so
+ * that all the processes share the same slots.
+ */
+public enum ExecutionSchedulerSingleton implements IExecutionScheduler {
+
+    /**
+     * Singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * The scheduler implementation that is used for all the work.
+     */
+    private final IExecutionScheduler innerScheduler;
+
+    /**
+     * Constructor that reads the limits from the settings.
+     */
+    ExecutionSchedulerSingleton() {
+        final RiesgosWpsSettings settings = RiesgosWpsSettings.INSTANCE;
+        int maxRunning = settings.getMaxConcurrentRuns();
+        if (maxRunning < 1) {
+            maxRunning = Runtime.getRuntime().availableProcessors();
+        }
+        final ExecutionQueueOrder order = ExecutionQueueOrder.asMap()
+                .getOrDefault(
+                        settings.getExecutionQueueOrder(),
+                        ExecutionQueueOrder.PRIORITY);
+        innerScheduler = new ExecutionSchedulerImpl(maxRunning, order);
+    }
+
+    @Override
+    public IExecutionSlot acquire(
+            final String processIdentifier,
+            final int maxConcurrentRuns,
+            final int priority) throws InterruptedException {
+        return innerScheduler.acquire(
+                processIdentifier, maxConcurrentRuns, priority);
+    }
+
+    @Override
+    public void recordTimeout(final String processIdentifier) {
+        innerScheduler.recordTimeout(processIdentifier);
+    }
+
+    @Override
+    public Map<String, ExecutionQueueStatistics> getStatistics() {
+        return innerScheduler.getStatistics();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.scheduling;
+
+import java.util.Map;
+
+/**
+ * Interface for a scheduler that all the runs of the command line
+ * programs have to go through.
+ * It limits the number of runs at the same time and queues the
+ * other ones.
+ */
+public interface IExecutionScheduler {
+
+    /**
+     * Waits until there is a free slot for the process.
+     * @param processIdentifier identifier of the process
+     * @param maxConcurrentRuns maximum number of runs of this process
+     *                          at the same time (0 for no extra limit)
+     * @param priority priority of the run (higher values run first)
+     * @return slot that must be closed after the run
+     * @throws InterruptedException exception if the thread is interrupted
+     * while waiting
+     */
+    IExecutionSlot acquire(
+            String processIdentifier,
+            int maxConcurrentRuns,
+            int priority) throws InterruptedException;
+
+    /**
+     * Counts a run that was stopped because of a timeout.
+     * @param processIdentifier identifier of the process
+     */
+    void recordTimeout(String processIdentifier);
+
+    /**
+     *
+     * @return snapshot of the queue statistics by process identifier
+     */
+    Map<String, ExecutionQueueStatistics> getStatistics();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.scheduling;
+
+/**
+ * Interface for a slot that allows a run of a command line program.
+ * Closing it gives the slot back to the scheduler.
+ */
+public interface IExecutionSlot extends AutoCloseable {
+
+    /**
+     *
+     * @return time in milliseconds that the run waited in the queue
+     */
+    long getQueueMillis();
+
+    /**
+     * Gives the slot back to the scheduler.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,222 @@
+package org.n52.gfz.riesgos.cmdexecution.util;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.apache.commons.io.IOUtils;
+import org.n52.gfz.riesgos.util.tempfiles.ITempFileArena;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Output stream that captures the raw bytes of a stream (stdout / stderr).
+ *
+ * The bytes are kept in memory up to a limit. If there is more
+ * content, everything is moved to a temporary file and all the
+ * following bytes are appended there.
+ * The temporary file is managed by the temp file arena and is deleted
+ * once the capture is garbage collected.
+ */
+public class BoundedStreamCapture extends OutputStream {
+
+    /**
+     * Prefix for the temporary files.
+     */
+    private static final String TEMP_FILE_PREFIX = "capture";
+
+    /**
+     * Suffix for the temporary files.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".bin";
+
+    /**
+     * Maximum number of bytes that are kept in memory.
+     */
+    private final int memoryLimit;
+
+    /**
+     * Arena to create the temporary file.
+     */
+    private final ITempFileArena arena;
+
+    /**
+     * Buffer for the content as long as it is in memory.
+     */
+    private ByteArrayOutputStream memory;
+
+    /**
+     * Temporary file once the content is too large for the memory.
+     */
+    private File spillFile;
+
+    /**
+     * Stream to write to the temporary file.
+     */
+    private OutputStream spillStream;
+
+    /**
+     * Number of bytes written so far.
+     */
+    private long size;
+
+    /**
+     * Constructor with the memory limit and the arena
+     * for the temporary file.
+     * @param aMemoryLimit maximum number of bytes to keep in memory
+     * @param aArena arena to create the temporary file
+     */
+    public BoundedStreamCapture(
+            final int aMemoryLimit,
+            final ITempFileArena aArena) {
+        this.memoryLimit = aMemoryLimit;
+        this.arena = aArena;
+        this.memory = new ByteArrayOutputStream();
+        this.spillFile = null;
+        this.spillStream = null;
+        this.size = 0;
+    }
+
+    /**
+     * Writes a single byte.
+     * @param b byte to write
+     * @throws IOException exception on writing to the temporary file
+     */
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    /**
+     * Writes a part of the byte array.
+     * @param b array with the content
+     * @param off offset in the array
+     * @param len number of bytes to write
+     * @throws IOException exception on writing to the temporary file
+     */
+    @Override
+    public synchronized void write(
+            final byte[] b,
+            final int off,
+            final int len) throws IOException {
+        if (spillStream == null && size + len > memoryLimit) {
+            spill();
+        }
+        if (spillStream != null) {
+            spillStream.write(b, off, len);
+        } else {
+            memory.write(b, off, len);
+        }
+        size += len;
+    }
+
+    /**
+     * Moves the content from memory to a temporary file.
+     * @throws IOException exception on creating or writing the file
+     */
+    private void spill() throws IOException {
+        final File file = arena.createTempFile(
+                TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        // the capture itself is the owner from now on
+        arena.retain(file, this);
+        arena.release(file);
+
+        spillFile = file;
+        spillStream = new FileOutputStream(file);
+        memory.writeTo(spillStream);
+        memory = null;
+    }
+
+    /**
+     * Flushes the content of the temporary file (if there is one).
+     * @throws IOException exception on flushing
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (spillStream != null) {
+            spillStream.flush();
+        }
+    }
+
+    /**
+     * Closes the stream for writing.
+     * The content can still be read afterwards.
+     * @throws IOException exception on closing the temporary file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (spillStream != null) {
+            spillStream.close();
+        }
+    }
+
+    /**
+     *
+     * @return number of bytes captured
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     *
+     * @return true if the content was moved to a temporary file
+     */
+    public synchronized boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Opens a new stream to read the captured bytes from the start.
+     * @return input stream with the captured bytes
+     * @throws IOException exception on opening the temporary file
+     */
+    public synchronized InputStream openStream() throws IOException {
+        if (spillFile != null) {
+            spillStream.flush();
+            return new FileInputStream(spillFile);
+        }
+        return new ByteArrayInputStream(memory.toByteArray());
+    }
+
+    /**
+     *
+     * @return all the captured bytes
+     * @throws IOException exception on reading the temporary file
+     */
+    public byte[] toByteArray() throws IOException {
+        try (InputStream inputStream = openStream()) {
+            return IOUtils.toByteArray(inputStream);
+        }
+    }
+
+    /**
+     * Decodes the captured bytes.
+     * @param charset charset to decode the bytes
+     * @return text of the capture
+     * @throws IOException exception on reading the temporary file
+     */
+    public String toString(final Charset charset) throws IOException {
+        return new String(toByteArray(), charset);
+    }
+}
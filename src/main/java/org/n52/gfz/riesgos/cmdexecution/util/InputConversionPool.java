@@ -0,0 +1,97 @@
+package org.n52.gfz.riesgos.cmdexecution.util;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of threads to convert the inputs of the runs
+ * (to files or to the content for stdin).
+ *
+ * The conversions of one run are independent of each other, so they
+ * can run at the same time and while the container is created.
+ * The pool is shared by all the runs, so that the number of
+ * conversions at the same time stays limited.
+ */
+public final class InputConversionPool {
+
+    /**
+     * Executor with the threads for the conversions.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new pool.
+     * @param aThreads maximum number of conversions at the same time
+     */
+    public InputConversionPool(final int aThreads) {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, aThreads), (r) -> {
+                    final Thread thread = new Thread(
+                            r,
+                            "input-conversion-"
+                                    + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     *
+     * @return pool that is shared by all the runs
+     */
+    public static InputConversionPool getShared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Starts a conversion.
+     * @param conversion conversion to run
+     * @param <T> type of the result of the conversion
+     * @return future for the result
+     */
+    public <T> Future<T> submit(final Callable<T> conversion) {
+        return executor.submit(conversion);
+    }
+
+    /**
+     * Holder for the shared instance, so that the threads
+     * are only started on the first use.
+     */
+    private static final class Holder {
+        /**
+         * The shared instance.
+         */
+        private static final InputConversionPool SHARED =
+                new InputConversionPool(
+                        RiesgosWpsSettings.INSTANCE
+                                .getInputConversionThreads());
+
+        /**
+         * Private constructor - there is no need for instances.
+         */
+        private Holder() {
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.n52.gfz.riesgos.cmdexecution.util;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.n52.gfz.riesgos.cmdexecution.IWriteOnlyFileAccessor;
+import org.n52.gfz.riesgos.util.tempfiles.ITempFileArena;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the files of the inputs that are written to it, so that
+ * the inputs can be converted before the execution context
+ * (the container) exists.
+ *
+ * Small contents are kept in memory, larger ones in temporary files.
+ * They are copied into the execution context later with stageInto.
+ * Files that are given as files (for example a geotiff) are not
+ * copied, but used as they are.
+ */
+public class StagedInputFiles
+        implements IWriteOnlyFileAccessor, AutoCloseable {
+
+    /**
+     * Prefix for the temporary files.
+     */
+    private static final String TEMP_FILE_PREFIX = "staged";
+
+    /**
+     * Suffix for the temporary files.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".bin";
+
+    /**
+     * Arena to create the temporary files.
+     */
+    private final ITempFileArena arena;
+
+    /**
+     * Maximum size of a content that is kept in memory.
+     */
+    private final int memoryLimitBytes;
+
+    /**
+     * Files to copy into the execution context (in the order
+     * they were written).
+     */
+    private final List<StagedFile> stagedFiles;
+
+    /**
+     * Temporary files that were created here and must be released.
+     */
+    private final List<File> ownedFiles;
+
+    /**
+     * Constructor with the arena for the temporary files.
+     * @param aArena arena to create the temporary files
+     * @param aMemoryLimitBytes maximum size of a content that is kept
+     *                          in memory (larger ones are written
+     *                          to temporary files)
+     */
+    public StagedInputFiles(
+            final ITempFileArena aArena,
+            final int aMemoryLimitBytes) {
+        this.arena = aArena;
+        this.memoryLimitBytes = aMemoryLimitBytes;
+        this.stagedFiles = new ArrayList<>();
+        this.ownedFiles = new ArrayList<>();
+    }
+
+    /**
+     * Keeps the content (in memory or in a temporary file if
+     * it is larger than the memory limit).
+     * @param content byte array with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException exception on writing the temporary file
+     */
+    @Override
+    public synchronized void writeToFile(
+            final byte[] content,
+            final String workingDir,
+            final String fileName) throws IOException {
+        if (content.length <= memoryLimitBytes) {
+            stagedFiles.add(new StagedFile(
+                    content, null, workingDir, fileName));
+            return;
+        }
+        final File file = arena.createTempFile(
+                TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        ownedFiles.add(file);
+        Files.write(file.toPath(), content);
+        stagedFiles.add(new StagedFile(null, file, workingDir, fileName));
+    }
+
+    /**
+     * Remembers the file (there is no need to copy it here).
+     * @param source file on the host with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     */
+    @Override
+    public synchronized void writeToFile(
+            final File source,
+            final String workingDir,
+            final String fileName) {
+        stagedFiles.add(new StagedFile(null, source, workingDir, fileName));
+    }
+
+    /**
+     * Copies all the collected files into the execution context.
+     * @param target context to copy the files to
+     * @throws IOException exception on writing into the context
+     */
+    public synchronized void stageInto(final IWriteOnlyFileAccessor target)
+            throws IOException {
+        for (final StagedFile stagedFile : stagedFiles) {
+            if (stagedFile.getContent() != null) {
+                target.writeToFile(
+                        stagedFile.getContent(),
+                        stagedFile.getWorkingDir(),
+                        stagedFile.getFileName());
+            } else {
+                target.writeToFile(
+                        stagedFile.getFile(),
+                        stagedFile.getWorkingDir(),
+                        stagedFile.getFileName());
+            }
+        }
+    }
+
+    /**
+     *
+     * @return number of bytes of all the collected files
+     */
+    public synchronized long getStagedBytes() {
+        return stagedFiles.stream()
+                .mapToLong(StagedFile::getSize)
+                .sum();
+    }
+
+    /**
+     *
+     * @return number of bytes of the collected files that are
+     * kept in memory
+     */
+    public synchronized long getStagedMemoryBytes() {
+        return stagedFiles.stream()
+                .filter(stagedFile -> stagedFile.getContent() != null)
+                .mapToLong(StagedFile::getSize)
+                .sum();
+    }
+
+    /**
+     * Releases the temporary files.
+     * Can be called more than once.
+     */
+    @Override
+    public synchronized void close() {
+        for (final File file : ownedFiles) {
+            arena.release(file);
+        }
+        ownedFiles.clear();
+        stagedFiles.clear();
+    }
+
+    /**
+     * Content (in memory or in a file) with its target location
+     * in the context.
+     */
+    private static final class StagedFile {
+
+        /**
+         * Content in memory (null if the content is in the file).
+         */
+        private final byte[] content;
+
+        /**
+         * File on the host with the content (null if the content
+         * is in memory).
+         */
+        private final File file;
+
+        /**
+         * Working directory to write to.
+         */
+        private final String workingDir;
+
+        /**
+         * Filename in the working directory.
+         */
+        private final String fileName;
+
+        /**
+         * Constructor with the content and the target location.
+         * @param aContent content in memory (or null)
+         * @param aFile file on the host with the content (or null)
+         * @param aWorkingDir working directory to write to
+         * @param aFileName filename in the working directory
+         */
+        private StagedFile(
+                final byte[] aContent,
+                final File aFile,
+                final String aWorkingDir,
+                final String aFileName) {
+            this.content = aContent;
+            this.file = aFile;
+            this.workingDir = aWorkingDir;
+            this.fileName = aFileName;
+        }
+
+        /**
+         *
+         * @return content in memory (null if the content is in the file)
+         */
+        byte[] getContent() {
+            return content;
+        }
+
+        /**
+         *
+         * @return file on the host with the content
+         * (null if the content is in memory)
+         */
+        File getFile() {
+            return file;
+        }
+
+        /**
+         *
+         * @return working directory to write to
+         */
+        String getWorkingDir() {
+            return workingDir;
+        }
+
+        /**
+         *
+         * @return filename in the working directory
+         */
+        String getFileName() {
+            return fileName;
+        }
+
+        /**
+         *
+         * @return number of bytes of the content
+         */
+        long getSize() {
+            if (content != null) {
+                return content.length;
+            }
+            return file.length();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.n52.gfz.riesgos.cmdexecution.util;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Splits chunks of bytes into lines as soon as they are complete.
+ *
+ * Lines are separated by \n (an \r before is removed) and decoded
+ * with UTF-8. Very long lines are handed over in parts, so
+ * that the buffer for the incomplete line stays bounded.
+ */
+public class StreamLineSplitter {
+
+    /**
+     * Maximum number of bytes of an incomplete line that are kept.
+     */
+    private static final int MAX_LINE_BYTES = 65536;
+
+    /**
+     * Consumer for the complete lines.
+     */
+    private final Consumer<String> lineConsumer;
+
+    /**
+     * Buffer for the incomplete line.
+     */
+    private final ByteArrayOutputStream currentLine;
+
+    /**
+     * Constructor with the consumer for the lines.
+     * @param aLineConsumer consumer that gets all the lines
+     */
+    public StreamLineSplitter(final Consumer<String> aLineConsumer) {
+        this.lineConsumer = aLineConsumer;
+        this.currentLine = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Takes the next chunk of bytes.
+     * @param bytes array with the chunk
+     * @param offset start of the chunk in the array
+     * @param length length of the chunk
+     */
+    public void accept(
+            final byte[] bytes,
+            final int offset,
+            final int length) {
+        int lineStart = offset;
+        final int end = offset + length;
+        for (int i = offset; i < end; i += 1) {
+            if (bytes[i] == '\n') {
+                currentLine.write(bytes, lineStart, i - lineStart);
+                emitLine();
+                lineStart = i + 1;
+            }
+        }
+        currentLine.write(bytes, lineStart, end - lineStart);
+        if (currentLine.size() >= MAX_LINE_BYTES) {
+            emitLine();
+        }
+    }
+
+    /**
+     * Hands over the last line if it was not terminated.
+     */
+    public void finish() {
+        if (currentLine.size() > 0) {
+            emitLine();
+        }
+    }
+
+    /**
+     * Decodes the current line and gives it to the consumer.
+     */
+    private void emitLine() {
+        final String line = new String(
+                currentLine.toByteArray(), StandardCharsets.UTF_8);
+        currentLine.reset();
+        if (line.endsWith("\r")) {
+            lineConsumer.accept(line.substring(0, line.length() - 1));
+        } else {
+            lineConsumer.accept(line);
+        }
+    }
+}
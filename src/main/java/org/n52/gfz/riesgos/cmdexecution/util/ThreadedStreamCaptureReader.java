@@ -0,0 +1,173 @@
+package org.n52.gfz.riesgos.cmdexecution.util;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Reader that works in another thread to read
+ * from a stream.
+ * The raw bytes are captured in a bounded buffer that is moved
+ * to a temporary file if the output gets too large.
+ */
+public class ThreadedStreamCaptureReader extends Thread {
+
+    /**
+     * Size of the buffer to copy the bytes.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Input stream to read from.
+     */
+    private final InputStream inputStream;
+    /**
+     * Capture to store the bytes from the stream.
+     */
+    private final BoundedStreamCapture capture;
+    /**
+     * Lock for writing to the capture and informing
+     * the line splitter.
+     */
+    private final Object lock;
+    /**
+     * Optional splitter to inform about new lines while reading.
+     */
+    private StreamLineSplitter lineSplitter;
+    /**
+     * Flag that the end of the stream was reached.
+     */
+    private boolean endOfStream;
+    /**
+     * Storage for any exception that may happen on reading.
+     */
+    private IOException optionalException;
+
+    /**
+     * Constructor with the capture to write into.
+     * @param aInputStream input stream to read from
+     * @param aCapture capture to store the bytes
+     */
+    public ThreadedStreamCaptureReader(
+            final InputStream aInputStream,
+            final BoundedStreamCapture aCapture) {
+        this.inputStream = aInputStream;
+        this.capture = aCapture;
+        this.lock = new Object();
+        this.lineSplitter = null;
+        this.endOfStream = false;
+        this.optionalException = null;
+    }
+
+    /**
+     * Default constructor.
+     * Uses the memory limit of the settings and the
+     * temp file arena of the project.
+     * @param aInputStream input stream to read from
+     */
+    public ThreadedStreamCaptureReader(final InputStream aInputStream) {
+        this(aInputStream, new BoundedStreamCapture(
+                RiesgosWpsSettings.INSTANCE.getStreamCaptureMemoryBytes(),
+                TempFileArenaSingleton.INSTANCE));
+    }
+
+    /**
+     * Runs the reading from the input stream.
+     * (Should run in a seperate thread).
+     */
+    @Override
+    public void run() {
+        try (InputStream input = inputStream;
+             BoundedStreamCapture output = capture) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                synchronized (lock) {
+                    output.write(buffer, 0, count);
+                    if (lineSplitter != null) {
+                        lineSplitter.accept(buffer, 0, count);
+                    }
+                }
+            }
+            synchronized (lock) {
+                endOfStream = true;
+                if (lineSplitter != null) {
+                    lineSplitter.finish();
+                }
+            }
+        } catch (final IOException exception) {
+            optionalException = exception;
+        }
+    }
+
+    /**
+     * Registers a consumer that gets every line of the stream as soon
+     * as it is complete (while the process is still running).
+     * Lines that were read before are given to the consumer first.
+     * The consumer is called in the reading thread.
+     * @param lineConsumer consumer for the lines
+     * @throws IOException exception on reading the lines that
+     * were already captured
+     */
+    public void watchLines(final Consumer<String> lineConsumer)
+            throws IOException {
+        synchronized (lock) {
+            final StreamLineSplitter splitter =
+                    new StreamLineSplitter(lineConsumer);
+            final byte[] alreadyRead = capture.toByteArray();
+            splitter.accept(alreadyRead, 0, alreadyRead.length);
+            if (endOfStream) {
+                splitter.finish();
+            }
+            lineSplitter = splitter;
+        }
+    }
+
+    /**
+     * Throws an io exception if there was an exception on reading.
+     * @throws IOException io exception that may happen
+     * on reading from the stream
+     */
+    public void throwExceptionIfNecessary() throws IOException {
+        if (optionalException != null) {
+            throw optionalException;
+        }
+    }
+
+    /**
+     *
+     * @return capture with the raw bytes of the stream
+     */
+    public BoundedStreamCapture getCapture() {
+        return capture;
+    }
+
+    /**
+     *
+     * @return text of the stream (decoded with UTF-8)
+     * @throws IOException exception on reading the captured content
+     */
+    public String getResult() throws IOException {
+        return capture.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import java.nio.file.Path;
+
+/**
+ * Interface for a long lived worker that runs a request loop.
+ */
+public interface IWorker {
+
+    /**
+     *
+     * @return spool directory of the worker on the host
+     */
+    Path getSpoolDirectory();
+
+    /**
+     *
+     * @return spool directory as the worker itself sees it
+     * (for example the mount point inside of the container)
+     */
+    String getSpoolDirectoryInWorker();
+
+    /**
+     * Checks if the worker is still able to handle requests.
+     * @return true if the worker is healthy
+     */
+    boolean isHealthy();
+
+    /**
+     * Stops the worker and removes all of its resources.
+     * Calling it more than once has no effect.
+     */
+    void stop();
+}
@@ -0,0 +1,35 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import java.io.IOException;
+
+/**
+ * Factory to start new workers.
+ * Implementations must implement equals and hashCode, as they are
+ * used to share the pools of workers between the runs.
+ */
+@FunctionalInterface
+public interface IWorkerFactory {
+
+    /**
+     * Starts a new worker.
+     * @return worker that is ready to handle requests
+     * @throws IOException exception if the worker can't be started
+     */
+    IWorker startWorker() throws IOException;
+}
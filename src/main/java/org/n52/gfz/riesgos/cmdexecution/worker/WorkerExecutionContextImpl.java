@@ -0,0 +1,313 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Execution context for one request to a persistent worker.
+ *
+ * All the files of the configured working directory (and all relative
+ * paths) are redirected into the files directory of the request.
+ * The programs of the image stay in the configured working directory;
+ * the worker makes them visible in the files directory before it
+ * runs the command there.
+ */
+public class WorkerExecutionContextImpl implements IExecutionContext {
+
+    /**
+     * Name of the directory for the input and output files of a request.
+     */
+    static final String FILES_DIRECTORY = "files";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(WorkerExecutionContextImpl.class);
+
+    /**
+     * Pool to give the worker back.
+     */
+    private final WorkerPool pool;
+
+    /**
+     * Worker that handles the request.
+     */
+    private final IWorker worker;
+
+    /**
+     * Request directory on the host.
+     */
+    private final Path requestDirectory;
+
+    /**
+     * Request directory as the worker sees it.
+     */
+    private final String requestDirectoryInWorker;
+
+    /**
+     * Working directory as given in the configuration.
+     */
+    private final Path workingDirectory;
+
+    /**
+     * Command to execute.
+     */
+    private final List<String> cmd;
+
+    /**
+     * Flag if the worker can handle further requests.
+     */
+    private volatile boolean healthy;
+
+    /**
+     * Default constructor.
+     * @param aPool pool to give the worker back
+     * @param aWorker worker that handles the request
+     * @param aRequestDirectory request directory on the host
+     * @param aRequestDirectoryInWorker request directory in the worker
+     * @param aWorkingDirectory configured working directory
+     * @param aCmd command to execute
+     */
+    WorkerExecutionContextImpl(
+            final WorkerPool aPool,
+            final IWorker aWorker,
+            final Path aRequestDirectory,
+            final String aRequestDirectoryInWorker,
+            final Path aWorkingDirectory,
+            final List<String> aCmd) {
+        this.pool = aPool;
+        this.worker = aWorker;
+        this.requestDirectory = aRequestDirectory;
+        this.requestDirectoryInWorker = aRequestDirectoryInWorker;
+        this.workingDirectory = aWorkingDirectory;
+        this.cmd = aCmd;
+        this.healthy = true;
+    }
+
+    /**
+     * Removes the request directory and gives the worker back.
+     */
+    @Override
+    public void close() {
+        try {
+            deleteRecursively(requestDirectory);
+        } catch (final IOException ioException) {
+            LOGGER.warn("The request directory " + requestDirectory
+                    + " could not be removed", ioException);
+        }
+        pool.release(worker, healthy);
+    }
+
+    /**
+     * Hands the request over to the worker.
+     * @return WorkerExecutionRunImpl
+     * @throws IOException exception on creating the stdin file
+     */
+    @Override
+    public IExecutionRun run() throws IOException {
+        final String filesInWorker =
+                requestDirectoryInWorker + "/" + FILES_DIRECTORY;
+        return new WorkerExecutionRunImpl(
+                requestDirectory,
+                filesInWorker,
+                workingDirectory.toString(),
+                rewriteCommand(filesInWorker),
+                this::checkWorker,
+                this::kill);
+    }
+
+    /**
+     * Stops the worker, as it can't be told to stop only the request.
+     * A new worker will be started for the next request.
+     */
+    @Override
+    public void kill() {
+        healthy = false;
+        worker.stop();
+    }
+
+    /**
+     * Checks that the worker is still alive while waiting for a request.
+     * @return true if the worker is healthy
+     */
+    private boolean checkWorker() {
+        if (healthy && !worker.isHealthy()) {
+            healthy = false;
+        }
+        return healthy;
+    }
+
+    /**
+     * Rewrites the arguments that point into the working directory, so
+     * that they point into the files directory of the request.
+     * @param filesInWorker files directory as the worker sees it
+     * @return command for the worker
+     */
+    private List<String> rewriteCommand(final String filesInWorker) {
+        final String prefix = workingDirectory.toString() + "/";
+        final List<String> result = new ArrayList<>();
+        for (final String argument : cmd) {
+            if (argument.startsWith(prefix)) {
+                result.add(filesInWorker + "/"
+                        + argument.substring(prefix.length()));
+            } else {
+                result.add(argument);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the content of a file of the request.
+     * @param path path of a file
+     * @return byte array with the content of the file
+     * @throws IOException reading can thrown an io exception
+     */
+    @Override
+    public byte[] readFromFile(final String path) throws IOException {
+        return Files.readAllBytes(resolve(path));
+    }
+
+    /**
+     * Copies a file of the request to the target on the host.
+     * @param path path of a file
+     * @param target file to write to
+     * @throws IOException reading can thrown an io exception
+     */
+    @Override
+    public void readToFile(
+            final String path,
+            final File target) throws IOException {
+        Files.copy(
+                resolve(path),
+                target.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the data as a file into the request directory.
+     * @param content byte array with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException writing to a file can throw an io exception
+     */
+    @Override
+    public void writeToFile(
+            final byte[] content,
+            final String workingDir,
+            final String fileName) throws IOException {
+        Files.write(prepareTarget(workingDir, fileName), content);
+    }
+
+    /**
+     * Copies a host file into the request directory.
+     * @param source file on the host with the data
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @throws IOException writing to a file can throw an io exception
+     */
+    @Override
+    public void writeToFile(
+            final File source,
+            final String workingDir,
+            final String fileName) throws IOException {
+        Files.copy(
+                source.toPath(),
+                prepareTarget(workingDir, fileName),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Resolves the path of the target file and creates the parent
+     * directories.
+     * @param workingDir working directory to write to
+     * @param fileName filename in the working directory
+     * @return path of the target file
+     * @throws IOException exception on creating the directories
+     */
+    private Path prepareTarget(
+            final String workingDir,
+            final String fileName) throws IOException {
+        final Path target = resolve(Paths.get(workingDir, fileName)
+                .toString());
+        final Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return target;
+    }
+
+    /**
+     * Maps a path (as the program would see it in a container) to
+     * the path in the files directory of the request.
+     * @param path path to map
+     * @return path on the host
+     * @throws IOException exception if the path is outside of the
+     * working directory (those are not accessible from the host)
+     */
+    Path resolve(final String path) throws IOException {
+        final Path filesDirectory = requestDirectory.resolve(FILES_DIRECTORY);
+        final Path given = Paths.get(path);
+        if (!given.isAbsolute()) {
+            return filesDirectory.resolve(given).normalize();
+        }
+        final Path normalized = given.normalize();
+        if (normalized.startsWith(workingDirectory)) {
+            return filesDirectory.resolve(
+                    workingDirectory.relativize(normalized));
+        }
+        throw new IOException("The path " + path + " is outside of the "
+                + "working directory and can't be accessed in a worker");
+    }
+
+    /**
+     * Deletes the directory with all its content.
+     * @param directory directory to delete
+     * @throws IOException exception on deleting
+     */
+    private static void deleteRecursively(final Path directory)
+            throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(directory)) {
+            paths = stream.sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        for (final Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContextManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Context manager that hands the runs over to persistent workers.
+ */
+public class WorkerExecutionContextManagerImpl
+        implements IExecutionContextManager {
+
+    /**
+     * Permissions for the request directories.
+     * Only the owner has access, as the worker runs with the same
+     * user as the server.
+     */
+    private static final String OWNER_ONLY_PERMISSIONS = "rwx------";
+
+    /**
+     * Pool with the workers.
+     */
+    private final WorkerPool pool;
+
+    /**
+     * Constructor with the pool.
+     * @param aPool pool with the workers for the process
+     */
+    public WorkerExecutionContextManagerImpl(final WorkerPool aPool) {
+        this.pool = aPool;
+    }
+
+    /**
+     * Takes a worker from the pool and creates the request directory
+     * in its spool directory.
+     * @param workingDirectory directory to run the code inside
+     * @param cmd string list with the command to execute
+     * @return WorkerExecutionContextImpl
+     */
+    @Override
+    public IExecutionContext createExecutionContext(
+            final String workingDirectory,
+            final List<String> cmd) {
+        final IWorker worker;
+        try {
+            worker = pool.acquire();
+        } catch (final IOException | InterruptedException exception) {
+            throw new RuntimeException(exception);
+        }
+        final String requestId = UUID.randomUUID().toString();
+        final Path requestDirectory =
+                worker.getSpoolDirectory().resolve(requestId);
+        try {
+            createPrivateDirectory(requestDirectory);
+            createPrivateDirectory(requestDirectory.resolve(
+                    WorkerExecutionContextImpl.FILES_DIRECTORY));
+        } catch (final IOException ioException) {
+            pool.release(worker, false);
+            throw new RuntimeException(ioException);
+        }
+        return new WorkerExecutionContextImpl(
+                pool,
+                worker,
+                requestDirectory,
+                worker.getSpoolDirectoryInWorker() + "/" + requestId,
+                Paths.get(workingDirectory),
+                cmd);
+    }
+
+    /**
+     * Creates a directory that only the owner can access, so that
+     * nobody else can put requests into the spool of the worker.
+     * @param directory directory to create
+     * @throws IOException exception on creating the directory
+     */
+    private static void createPrivateDirectory(final Path directory)
+            throws IOException {
+        Files.createDirectory(directory);
+        try {
+            Files.setPosixFilePermissions(
+                    directory,
+                    PosixFilePermissions.fromString(OWNER_ONLY_PERMISSIONS));
+        } catch (final UnsupportedOperationException exception) {
+            // no posix file system - nothing to do
+        }
+    }
+}
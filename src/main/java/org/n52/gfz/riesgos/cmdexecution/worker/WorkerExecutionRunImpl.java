@@ -0,0 +1,385 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+import org.n52.gfz.riesgos.cmdexecution.util.StreamLineSplitter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Run of a request in a persistent worker.
+ *
+ * Stdin is written into the request directory. On waiting for the
+ * completion the request file is put in place and the directory is
+ * polled until the worker wrote the exit value.
+ * The interval of the polling starts short (so that short requests
+ * don't have to wait long) and grows for requests that run longer.
+ * While polling the stderr file is read for the watchers of stderr.
+ */
+public class WorkerExecutionRunImpl implements IExecutionRun {
+
+    /**
+     * Name of the file with the request.
+     */
+    static final String REQUEST_FILE = "request.json";
+    /**
+     * Name of the file with the content for stdin.
+     */
+    static final String STDIN_FILE = "stdin";
+    /**
+     * Name of the file with the content of stdout.
+     */
+    static final String STDOUT_FILE = "stdout";
+    /**
+     * Name of the file with the content of stderr.
+     */
+    static final String STDERR_FILE = "stderr";
+    /**
+     * Name of the file with the exit value.
+     */
+    static final String EXIT_VALUE_FILE = "exitValue";
+
+    /**
+     * Suffix for the request file while it is written.
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+    /**
+     * Time between the first two checks for the exit value.
+     */
+    private static final long MIN_POLL_MILLIS = 2;
+    /**
+     * Maximum time between two checks for the exit value.
+     */
+    private static final long MAX_POLL_MILLIS = 200;
+    /**
+     * Size of the buffer to read the stderr file while polling.
+     */
+    private static final int STDERR_BUFFER_SIZE = 8192;
+    /**
+     * Time between two health checks of the worker while waiting.
+     */
+    private static final long HEALTH_CHECK_MILLIS = 2000;
+    /**
+     * Exit value if the request was killed (the same as docker
+     * gives for a killed container).
+     */
+    private static final int KILLED_EXIT_VALUE = 137;
+
+    /**
+     * Request directory on the host.
+     */
+    private final Path requestDirectory;
+    /**
+     * Files directory of the request as the worker sees it.
+     */
+    private final String filesInWorker;
+    /**
+     * Configured working directory (with the programs of the image).
+     */
+    private final String workingDirectory;
+    /**
+     * Command for the worker.
+     */
+    private final List<String> command;
+    /**
+     * Check if the worker is still alive.
+     */
+    private final BooleanSupplier workerAlive;
+    /**
+     * Stops the worker (which is the only way to stop the request).
+     */
+    private final Runnable workerStop;
+    /**
+     * Stream to write stdin into the request directory.
+     */
+    private final PrintStream stdin;
+    /**
+     * Flag that the request was submitted to the worker.
+     */
+    private boolean submitted;
+    /**
+     * Flag that the run was killed.
+     */
+    private volatile boolean killed;
+    /**
+     * Time of the last health check of the worker.
+     * This is kept over several calls of waitForCompletion, as
+     * callers may wait in short slices.
+     */
+    private long lastHealthCheck;
+    /**
+     * Current time between two checks for the exit value.
+     */
+    private long pollMillis;
+    /**
+     * Splitter for the lines of stderr (null if nobody watches stderr).
+     */
+    private StreamLineSplitter stderrLines;
+    /**
+     * Number of bytes of the stderr file that are already given
+     * to the watcher.
+     */
+    private long stderrOffset;
+
+    /**
+     * Default constructor.
+     * @param aRequestDirectory request directory on the host
+     * @param aFilesInWorker files directory as the worker sees it
+     * @param aWorkingDirectory configured working directory
+     * @param aCommand command for the worker
+     * @param aWorkerAlive check if the worker is still alive
+     * @param aWorkerStop stops the worker
+     * @throws IOException exception on creating the stdin file
+     */
+    WorkerExecutionRunImpl(
+            final Path aRequestDirectory,
+            final String aFilesInWorker,
+            final String aWorkingDirectory,
+            final List<String> aCommand,
+            final BooleanSupplier aWorkerAlive,
+            final Runnable aWorkerStop) throws IOException {
+        this.requestDirectory = aRequestDirectory;
+        this.filesInWorker = aFilesInWorker;
+        this.workingDirectory = aWorkingDirectory;
+        this.command = aCommand;
+        this.workerAlive = aWorkerAlive;
+        this.workerStop = aWorkerStop;
+        this.stdin = new PrintStream(Files.newOutputStream(
+                requestDirectory.resolve(STDIN_FILE)));
+        this.submitted = false;
+        this.killed = false;
+        this.pollMillis = MIN_POLL_MILLIS;
+        this.stderrOffset = 0;
+    }
+
+    /**
+     *
+     * @return stdin stream (written into the request directory)
+     */
+    @Override
+    public PrintStream getStdin() {
+        return stdin;
+    }
+
+    /**
+     * Waits until the worker finished the request.
+     * @return result of the request
+     * @throws InterruptedException may throw an InterruptedException
+     */
+    @Override
+    public IExecutionRunResult waitForCompletion()
+            throws InterruptedException {
+        try {
+            return awaitExitValue(-1);
+        } catch (final TimeoutException timeoutException) {
+            // can't happen without a timeout
+            throw new IllegalStateException(timeoutException);
+        }
+    }
+
+    /**
+     * Waits until the worker finished the request, but not longer
+     * than the timeout.
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return result of the request
+     * @throws InterruptedException may throw an InterruptedException
+     * @throws TimeoutException exception if the worker did not finish
+     * the request in time
+     */
+    @Override
+    public IExecutionRunResult waitForCompletion(
+            final long timeout,
+            final TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        return awaitExitValue(unit.toMillis(timeout));
+    }
+
+    /**
+     * Stops the request.
+     * As a worker can't be told to stop a single request, the worker
+     * itself is stopped (and replaced by a new one for the next request).
+     * Waiting for the completion returns with the exit value 137 then.
+     */
+    @Override
+    public void kill() {
+        killed = true;
+        workerStop.run();
+    }
+
+    /**
+     * Registers a consumer for the lines on stderr.
+     * The stderr file is read while waiting for the completion, so
+     * the consumer is called in the thread that waits.
+     * @param lineConsumer consumer for the lines of stderr
+     * @throws IOException exception on reading the stderr file
+     */
+    @Override
+    public synchronized void watchStderr(
+            final Consumer<String> lineConsumer) throws IOException {
+        stderrLines = new StreamLineSplitter(lineConsumer);
+        stderrOffset = 0;
+        tailStderr();
+    }
+
+    /**
+     * Submits the request and polls for the exit value.
+     * @param timeoutMillis maximum time to wait (negative for no limit)
+     * @return result of the request
+     * @throws InterruptedException may throw an InterruptedException
+     * @throws TimeoutException exception if the timeout is over
+     */
+    private IExecutionRunResult awaitExitValue(final long timeoutMillis)
+            throws InterruptedException, TimeoutException {
+        final long start = System.currentTimeMillis();
+        try {
+            submit();
+            final Path exitValueFile =
+                    requestDirectory.resolve(EXIT_VALUE_FILE);
+            while (!Files.exists(exitValueFile)) {
+                if (killed) {
+                    return createResult(KILLED_EXIT_VALUE);
+                }
+                tailStderr();
+                final long now = System.currentTimeMillis();
+                final long waited = now - start;
+                if (timeoutMillis >= 0 && waited >= timeoutMillis) {
+                    throw new TimeoutException(
+                            "The worker did not finish the request within "
+                                    + timeoutMillis + " ms");
+                }
+                if (now - lastHealthCheck >= HEALTH_CHECK_MILLIS) {
+                    lastHealthCheck = now;
+                    if (!workerAlive.getAsBoolean()) {
+                        throw new RuntimeException(
+                                "The worker stopped while handling "
+                                        + "the request");
+                    }
+                }
+                if (timeoutMillis >= 0) {
+                    Thread.sleep(Math.min(
+                            pollMillis, timeoutMillis - waited));
+                } else {
+                    Thread.sleep(pollMillis);
+                }
+                pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+            }
+            finishStderr();
+            final String exitValueText = new String(
+                    Files.readAllBytes(exitValueFile),
+                    StandardCharsets.UTF_8).trim();
+            return createResult(Integer.parseInt(exitValueText));
+        } catch (final IOException | NumberFormatException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Writes the request file (only once).
+     * @throws IOException exception on writing the file
+     */
+    @SuppressWarnings("unchecked")
+    private void submit() throws IOException {
+        if (submitted) {
+            return;
+        }
+        stdin.close();
+
+        final JSONArray commandArray = new JSONArray();
+        commandArray.addAll(command);
+        final JSONObject request = new JSONObject();
+        request.put("command", commandArray);
+        request.put("directory", filesInWorker);
+        request.put("workingDirectory", workingDirectory);
+
+        final Path requestFile = requestDirectory.resolve(REQUEST_FILE);
+        final Path tempFile = requestDirectory.resolve(
+                REQUEST_FILE + TEMP_SUFFIX);
+        Files.write(
+                tempFile,
+                request.toJSONString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, requestFile, StandardCopyOption.ATOMIC_MOVE);
+        submitted = true;
+        lastHealthCheck = System.currentTimeMillis();
+    }
+
+    /**
+     * Gives the new content of the stderr file to the watcher
+     * (if there is one).
+     * @throws IOException exception on reading the stderr file
+     */
+    private synchronized void tailStderr() throws IOException {
+        final Path stderrFile = requestDirectory.resolve(STDERR_FILE);
+        if (stderrLines == null || !Files.exists(stderrFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(
+                stderrFile, StandardOpenOption.READ)) {
+            channel.position(stderrOffset);
+            final ByteBuffer buffer = ByteBuffer.allocate(STDERR_BUFFER_SIZE);
+            int read = channel.read(buffer);
+            while (read > 0) {
+                stderrLines.accept(buffer.array(), 0, read);
+                stderrOffset += read;
+                buffer.clear();
+                read = channel.read(buffer);
+            }
+        }
+    }
+
+    /**
+     * Gives the rest of the stderr file to the watcher once the
+     * request is finished.
+     * @throws IOException exception on reading the stderr file
+     */
+    private synchronized void finishStderr() throws IOException {
+        tailStderr();
+        if (stderrLines != null) {
+            stderrLines.finish();
+            stderrLines = null;
+        }
+    }
+
+    /**
+     * Creates the result with the stdout and stderr files of the request.
+     * @param exitValue exit value of the request
+     * @return result of the request
+     */
+    private IExecutionRunResult createResult(final int exitValue) {
+        return new WorkerExecutionRunResultImpl(
+                exitValue,
+                requestDirectory.resolve(STDERR_FILE),
+                requestDirectory.resolve(STDOUT_FILE));
+    }
+}
@@ -0,0 +1,140 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Result of a request in a persistent worker.
+ * Stdout and stderr are read from the files of the request
+ * (missing files are taken as empty output).
+ */
+public class WorkerExecutionRunResultImpl implements IExecutionRunResult {
+
+    /**
+     * Exit value of the request.
+     */
+    private final int exitValue;
+    /**
+     * File with the stderr output.
+     */
+    private final Path stderrFile;
+    /**
+     * File with the stdout output.
+     */
+    private final Path stdoutFile;
+
+    /**
+     * Default constructor.
+     * @param aExitValue exit value of the request
+     * @param aStderrFile file with the stderr output
+     * @param aStdoutFile file with the stdout output
+     */
+    WorkerExecutionRunResultImpl(
+            final int aExitValue,
+            final Path aStderrFile,
+            final Path aStdoutFile) {
+        this.exitValue = aExitValue;
+        this.stderrFile = aStderrFile;
+        this.stdoutFile = aStdoutFile;
+    }
+
+    /**
+     *
+     * @return exit value of the request
+     */
+    @Override
+    public int getExitValue() {
+        return exitValue;
+    }
+
+    /**
+     *
+     * @return stderr output of the request
+     */
+    @Override
+    public String getStderrResult() {
+        return readText(stderrFile);
+    }
+
+    /**
+     *
+     * @return stdout output of the request
+     */
+    @Override
+    public String getStdoutResult() {
+        return readText(stdoutFile);
+    }
+
+    /**
+     *
+     * @return stream with the raw bytes of stderr
+     * @throws IOException exception on opening the file
+     */
+    @Override
+    public InputStream openStderrStream() throws IOException {
+        return openFile(stderrFile);
+    }
+
+    /**
+     *
+     * @return stream with the raw bytes of stdout
+     * @throws IOException exception on opening the file
+     */
+    @Override
+    public InputStream openStdoutStream() throws IOException {
+        return openFile(stdoutFile);
+    }
+
+    /**
+     * Opens the file (or an empty stream if there is no file).
+     * @param file file to open
+     * @return stream with the content of the file
+     * @throws IOException exception on opening the file
+     */
+    private static InputStream openFile(final Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        return Files.newInputStream(file);
+    }
+
+    /**
+     * Reads the file as text with UTF-8.
+     * @param file file to read
+     * @return text of the file (empty if there is no file)
+     */
+    private static String readText(final Path file) {
+        try {
+            if (!Files.exists(file)) {
+                return "";
+            }
+            return new String(Files.readAllBytes(file),
+                    StandardCharsets.UTF_8);
+        } catch (final IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+}
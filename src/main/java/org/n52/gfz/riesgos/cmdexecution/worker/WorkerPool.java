@@ -0,0 +1,197 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of workers for one process.
+ *
+ * Workers are started lazily up to the size of the pool. Before
+ * a worker is handed out it is checked; unhealthy workers are stopped
+ * and replaced by a new one. Workers that failed while handling
+ * a request are stopped on release, so that the next request
+ * starts a fresh one.
+ */
+public class WorkerPool {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(WorkerPool.class);
+
+    /**
+     * Factory to start new workers.
+     */
+    private final IWorkerFactory factory;
+
+    /**
+     * Maximum number of workers.
+     */
+    private final int poolSize;
+
+    /**
+     * Workers that wait for a request.
+     */
+    private final Deque<IWorker> idleWorkers;
+
+    /**
+     * Number of workers that are started (idle or busy).
+     */
+    private int startedWorkers;
+
+    /**
+     * Number of workers that were replaced because they were unhealthy.
+     */
+    private long restartedWorkers;
+
+    /**
+     * Flag if the pool was shut down.
+     */
+    private boolean shutDown;
+
+    /**
+     * Constructor with the factory and the size.
+     * @param aFactory factory to start new workers
+     * @param aPoolSize maximum number of workers
+     */
+    public WorkerPool(final IWorkerFactory aFactory, final int aPoolSize) {
+        this.factory = aFactory;
+        this.poolSize = aPoolSize;
+        this.idleWorkers = new ArrayDeque<>();
+        this.startedWorkers = 0;
+        this.restartedWorkers = 0;
+        this.shutDown = false;
+    }
+
+    /**
+     * Takes a healthy worker out of the pool.
+     * Blocks if all the workers are busy.
+     * @return worker that must be given back with release
+     * @throws IOException exception if a new worker can't be started
+     * @throws InterruptedException exception if the waiting is interrupted
+     */
+    public IWorker acquire() throws IOException, InterruptedException {
+        IWorker worker = null;
+        synchronized (this) {
+            while (!shutDown
+                    && idleWorkers.isEmpty()
+                    && startedWorkers >= poolSize) {
+                wait();
+            }
+            if (shutDown) {
+                throw new IOException("The worker pool is shut down");
+            }
+            if (idleWorkers.isEmpty()) {
+                startedWorkers += 1;
+            } else {
+                worker = idleWorkers.pollFirst();
+            }
+        }
+        try {
+            if (worker == null) {
+                return factory.startWorker();
+            }
+            if (!worker.isHealthy()) {
+                LOGGER.warn("Worker failed the health check; restarting it");
+                worker.stop();
+                synchronized (this) {
+                    restartedWorkers += 1;
+                }
+                return factory.startWorker();
+            }
+            return worker;
+        } catch (final IOException | RuntimeException exception) {
+            synchronized (this) {
+                startedWorkers -= 1;
+                notifyAll();
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Gives a worker back to the pool.
+     * @param worker worker that was acquired before
+     * @param healthy false if the worker failed on handling the request
+     *                (it will be stopped then)
+     */
+    public void release(final IWorker worker, final boolean healthy) {
+        final boolean keep;
+        synchronized (this) {
+            keep = healthy && !shutDown;
+            if (keep) {
+                idleWorkers.addFirst(worker);
+            } else {
+                startedWorkers -= 1;
+            }
+            notifyAll();
+        }
+        if (!keep) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Stops all the idle workers. Busy workers are stopped
+     * once they are given back.
+     */
+    public void shutDown() {
+        final Deque<IWorker> toStop;
+        synchronized (this) {
+            shutDown = true;
+            toStop = new ArrayDeque<>(idleWorkers);
+            startedWorkers -= idleWorkers.size();
+            idleWorkers.clear();
+            notifyAll();
+        }
+        for (final IWorker worker : toStop) {
+            worker.stop();
+        }
+    }
+
+    /**
+     *
+     * @return maximum number of workers
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     *
+     * @return number of workers that are started (idle or busy)
+     */
+    public synchronized int getStartedWorkers() {
+        return startedWorkers;
+    }
+
+    /**
+     *
+     * @return number of workers that were replaced after
+     * a failed health check
+     */
+    public synchronized long getRestartedWorkers() {
+        return restartedWorkers;
+    }
+}
@@ -0,0 +1,122 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry for the worker pools, so that all the runs of a process
+ * share the same pool (as the algorithm instances are created for
+ * every request).
+ */
+public class WorkerPoolRegistry {
+
+    /**
+     * Pools by the factory of their workers.
+     */
+    private final Map<IWorkerFactory, WorkerPool> pools;
+
+    /**
+     * Default constructor.
+     */
+    public WorkerPoolRegistry() {
+        this.pools = new HashMap<>();
+    }
+
+    /**
+     *
+     * @return registry that is shared by all the processes
+     */
+    public static WorkerPoolRegistry getShared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Returns the pool for the worker factory.
+     * If there is a pool with another size (because the configuration
+     * changed) it is shut down and replaced.
+     * @param factory factory to start the workers
+     * @param poolSize maximum number of workers
+     * @return pool for the workers of the factory
+     */
+    public WorkerPool getPool(
+            final IWorkerFactory factory,
+            final int poolSize) {
+        final WorkerPool replaced;
+        final WorkerPool result;
+        synchronized (this) {
+            final WorkerPool existing = pools.get(factory);
+            if (existing != null && existing.getPoolSize() == poolSize) {
+                return existing;
+            }
+            replaced = existing;
+            result = new WorkerPool(factory, poolSize);
+            pools.put(factory, result);
+        }
+        if (replaced != null) {
+            replaced.shutDown();
+        }
+        return result;
+    }
+
+    /**
+     * Shuts down all the pools.
+     */
+    public void shutDown() {
+        final List<WorkerPool> toShutDown;
+        synchronized (this) {
+            toShutDown = new ArrayList<>(pools.values());
+            pools.clear();
+        }
+        for (final WorkerPool pool : toShutDown) {
+            pool.shutDown();
+        }
+    }
+
+    /**
+     * Holder for the lazy creation of the shared registry.
+     * The workers are stopped when the jvm shuts down, so that there are
+     * no containers left running.
+     */
+    private static final class Holder {
+        /**
+         * Shared registry.
+         */
+        private static final WorkerPoolRegistry SHARED = createShared();
+
+        /**
+         * Private constructor.
+         */
+        private Holder() {
+            // static only
+        }
+
+        /**
+         *
+         * @return shared registry with a shutdown hook
+         */
+        private static WorkerPoolRegistry createShared() {
+            final WorkerPoolRegistry registry = new WorkerPoolRegistry();
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(registry::shutDown, "worker-pool-shutdown"));
+            return registry;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+/**
+ * This is the package for the persistent worker mode.
+ *
+ * A worker is a long lived process (normally a docker container) that
+ * runs a request loop. Every worker has a spool directory and every
+ * request gets its own sub directory there:
+ *
+ * <pre>
+ * spool/request-id/files/      input files (written by the wps) and
+ *                              output files (written by the worker)
+ * spool/request-id/stdin       content for stdin
+ * spool/request-id/request.json json object with the command to run
+ *                              (list of strings), the directory of the
+ *                              files and the configured working directory;
+ *                              written as last file of the wps
+ * spool/request-id/stdout      written by the worker
+ * spool/request-id/stderr      written by the worker
+ * spool/request-id/exitValue   exit value as text, written as last file
+ *                              of the worker
+ * </pre>
+ *
+ * Arguments of the command that point into the configured working
+ * directory are rewritten to point into the files directory of the
+ * request. The worker runs the command with this directory as
+ * working directory. As the programs of the image are in the configured
+ * working directory, the worker first links its files into the files
+ * directory (the input files of the request are kept).
+ * The reference implementation is the riesgos_worker.py in the
+ * resources of this package.
+ *
+ * The request.json and the exitValue files are moved in place atomically,
+ * so that they are only visible once they are complete.
+ */
+package org.n52.gfz.riesgos.cmdexecution.worker;
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package org.n52.gfz.riesgos.configuration;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Resource limits for the container of a process
+ * (cpus, memory, cpu pinning and number of processes).
+ *
+ * All the values are optional; if a value is not set there
+ * is no limit for it.
+ */
+public final class ContainerResourceLimits {
+
+    /**
+     * Number of cpus (can be fractional, like 1.5).
+     */
+    private final Double cpus;
+    /**
+     * Memory limit in the docker format (like 512m or 2g).
+     */
+    private final String memory;
+    /**
+     * Cpus to run on in the docker format (like 0-3 or 0,2).
+     */
+    private final String cpusetCpus;
+    /**
+     * Maximum number of processes inside of the container.
+     */
+    private final Integer pidsLimit;
+
+    /**
+     * Private constructor.
+     * Use the builder.build instead.
+     * @param builder builder with all the data
+     */
+    private ContainerResourceLimits(final Builder builder) {
+        this.cpus = builder.cpus;
+        this.memory = builder.memory;
+        this.cpusetCpus = builder.cpusetCpus;
+        this.pidsLimit = builder.pidsLimit;
+    }
+
+    /**
+     *
+     * @return number of cpus
+     */
+    public Optional<Double> getCpus() {
+        return Optional.ofNullable(cpus);
+    }
+
+    /**
+     *
+     * @return memory limit (like 512m or 2g)
+     */
+    public Optional<String> getMemory() {
+        return Optional.ofNullable(memory);
+    }
+
+    /**
+     *
+     * @return cpus to run on (like 0-3 or 0,2)
+     */
+    public Optional<String> getCpusetCpus() {
+        return Optional.ofNullable(cpusetCpus);
+    }
+
+    /**
+     *
+     * @return maximum number of processes
+     */
+    public Optional<Integer> getPidsLimit() {
+        return Optional.ofNullable(pidsLimit);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ContainerResourceLimits that = (ContainerResourceLimits) o;
+        return Objects.equals(cpus, that.cpus)
+                && Objects.equals(memory, that.memory)
+                && Objects.equals(cpusetCpus, that.cpusetCpus)
+                && Objects.equals(pidsLimit, that.pidsLimit);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cpus, memory, cpusetCpus, pidsLimit);
+    }
+
+    /**
+     * The builder class helps to build the resource limits.
+     */
+    public static class Builder {
+        /**
+         * Number of cpus.
+         */
+        private Double cpus;
+        /**
+         * Memory limit.
+         */
+        private String memory;
+        /**
+         * Cpus to run on.
+         */
+        private String cpusetCpus;
+        /**
+         * Maximum number of processes.
+         */
+        private Integer pidsLimit;
+
+        /**
+         * Sets the number of cpus.
+         * @param aCpus number of cpus (can be fractional)
+         * @return builder instance
+         */
+        public Builder withCpus(final Double aCpus) {
+            this.cpus = aCpus;
+            return this;
+        }
+
+        /**
+         * Sets the memory limit.
+         * @param aMemory memory limit (like 512m or 2g)
+         * @return builder instance
+         */
+        public Builder withMemory(final String aMemory) {
+            this.memory = aMemory;
+            return this;
+        }
+
+        /**
+         * Sets the cpus to run on.
+         * @param aCpusetCpus cpus (like 0-3 or 0,2)
+         * @return builder instance
+         */
+        public Builder withCpusetCpus(final String aCpusetCpus) {
+            this.cpusetCpus = aCpusetCpus;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of processes.
+         * @param aPidsLimit maximum number of processes
+         * @return builder instance
+         */
+        public Builder withPidsLimit(final Integer aPidsLimit) {
+            this.pidsLimit = aPidsLimit;
+            return this;
+        }
+
+        /**
+         * Creates the resource limits.
+         * @return ContainerResourceLimits created by the builder
+         */
+        public ContainerResourceLimits build() {
+            return new ContainerResourceLimits(this);
+        }
+    }
+}
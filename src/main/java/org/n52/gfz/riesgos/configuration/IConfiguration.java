@@ -16,6 +16,7 @@ package org.n52.gfz.riesgos.configuration;
  * limitations under the Licence.
  */
 
+import org.n52.gfz.riesgos.cmdexecution.util.IExecutionContextManagerFactory;
 import org.n52.gfz.riesgos.functioninterfaces.IExitValueHandler;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
 import org.n52.gfz.riesgos.functioninterfaces.IStdoutHandler;
@@ -58,7 +59,8 @@ public interface IConfiguration {
     /**
      *
      * @return ID of the docker imaged used to create a
-     * container for running the process
+     * container for running the process (may be null if the process
+     * does not run inside of docker)
      */
     String getImageId();
 
@@ -111,4 +113,59 @@ public interface IConfiguration {
      * @return handler for stdout (logging, ...)
      */
     Optional<IStdoutHandler> getStdoutHandler();
+
+    /**
+     *
+     * @return factory for the context to run the process in
+     * (if empty the process runs in a docker container)
+     */
+    default Optional<IExecutionContextManagerFactory>
+        getExecutionContextManagerFactory() {
+        return Optional.empty();
+    }
+
+    /**
+     *
+     * @return maximum number of runs of this process at the same time
+     * (if empty there is only the global limit)
+     */
+    default Optional<Integer> getMaxConcurrentRuns() {
+        return Optional.empty();
+    }
+
+    /**
+     *
+     * @return priority of the runs of this process in the execution
+     * queue (higher values run first)
+     */
+    default int getExecutionPriority() {
+        return 0;
+    }
+
+    /**
+     *
+     * @return resource limits for the container of the process
+     * (if empty there are no limits)
+     */
+    default Optional<ContainerResourceLimits> getContainerResourceLimits() {
+        return Optional.empty();
+    }
+
+    /**
+     *
+     * @return maximum wall clock time for a run in seconds
+     * (if empty there is no timeout)
+     */
+    default Optional<Integer> getTimeoutSeconds() {
+        return Optional.empty();
+    }
+
+    /**
+     *
+     * @return configuration for the persistent worker mode
+     * (if empty there is a new container for every run)
+     */
+    default Optional<WorkerConfiguration> getWorkerConfiguration() {
+        return Optional.empty();
+    }
 }
@@ -33,11 +33,11 @@ import org.n52.gfz.riesgos.functioninterfaces.ICheckDataAndGetErrorMessage;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGTVectorDataBindingToBytes;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGenericFileDataBindingToBytes;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGenericXMLDataBindingToBytes;
-import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGeotiffBindingToBytes;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertJsonFileBindingToBytes;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertLiteralStringToBytes;
 import org.n52.gfz.riesgos.validators.LiteralStringBindingWithAllowedValues;
 import org.n52.gfz.riesgos.validators.XmlBindingWithAllowedSchema;
+import org.n52.gfz.riesgos.writeidatatofiles.WriteGeotiffToPath;
 import org.n52.gfz.riesgos.writeidatatofiles.WriteShapeFileToPath;
 import org.n52.gfz.riesgos.writeidatatofiles.WriteSingleByteStreamToPath;
 import org.n52.wps.io.data.binding.bbox.BoundingBoxData;
@@ -445,8 +445,7 @@ public enum InputParameterFactory {
                 new FileToStringCmd<>(filename, flag));
         builder.withPath(filename);
         builder.withFunctionToWriteToFiles(
-                new WriteSingleByteStreamToPath<>(
-                        new ConvertGeotiffBindingToBytes()));
+                new WriteGeotiffToPath());
         builder.withDefaultFormat(defaultFormat);
 
         return builder.build();
@@ -673,8 +672,7 @@ public enum InputParameterFactory {
                 optionalAbstract);
         builder.withPath(path);
         builder.withFunctionToWriteToFiles(
-                new WriteSingleByteStreamToPath<>(
-                        new ConvertGeotiffBindingToBytes()));
+                new WriteGeotiffToPath());
         builder.withDefaultFormat(defaultFormat);
         return builder.build();
     }
@@ -710,6 +708,38 @@ public enum InputParameterFactory {
         return builder.build();
     }
 
+    /**
+     * Creates a input file argument (FlatGeobuf file).
+     * @param identifier identifier of the data
+     * @param isOptional true if the value is optional
+     * @param optionalAbstract optional description of the parameter
+     * @param defaultFormat optional default format
+     * @param path path of the file to write before staring the process
+     * @return FlatGeobuf input file
+     */
+    public IInputParameter createFileInFlatGeobuf(
+            final String identifier,
+            final boolean isOptional,
+            final String optionalAbstract,
+            final FormatEntry defaultFormat,
+            final String path) {
+
+        final InputParameterImpl.Builder<GTVectorDataBinding> builder =
+                new InputParameterImpl.Builder<>(
+                        identifier,
+                        GTVectorDataBinding.class,
+                        isOptional,
+                        optionalAbstract);
+        builder.withPath(path);
+        builder.withFunctionToWriteToFiles(
+                new WriteSingleByteStreamToPath<>(
+                        new ConvertGTVectorDataBindingToBytes(
+                            ConvertGTVectorDataBindingToBytes.Format
+                                    .FLATGEOBUF)));
+        builder.withDefaultFormat(defaultFormat);
+        return builder.build();
+    }
+
     /**
      * Creates a input file argument (shapefile - with all the other files to
      * care about).
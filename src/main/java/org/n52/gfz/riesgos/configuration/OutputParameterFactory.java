@@ -19,7 +19,6 @@ package org.n52.gfz.riesgos.configuration;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGTVectorDataBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGenericFileDataBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGenericXMLDataBinding;
-import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGeotiffBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToJsonFileBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToLiteralStringBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToNrmlXMLDataBinding;
@@ -34,6 +33,8 @@ import org.n52.gfz.riesgos.formats.nrml.binding.NrmlXmlDataBinding;
 import org.n52.gfz.riesgos.formats.quakeml.binding.QuakeMLXmlDataBinding;
 import org.n52.gfz.riesgos.formats.shakemap.binding.ShakemapXmlDataBinding;
 import org.n52.gfz.riesgos.functioninterfaces.ICheckDataAndGetErrorMessage;
+import org.n52.gfz.riesgos.readidatafromfiles.ReadGeoJsonFromPath;
+import org.n52.gfz.riesgos.readidatafromfiles.ReadGeotiffFromPath;
 import org.n52.gfz.riesgos.readidatafromfiles.ReadShapeFileFromPath;
 import org.n52.gfz.riesgos.readidatafromfiles.ReadSingleByteStreamFromPath;
 import org.n52.gfz.riesgos.validators.XmlBindingWithAllowedSchema;
@@ -270,9 +271,7 @@ public enum OutputParameterFactory {
                         optionalAbstract);
         builder.withPath(path);
         builder.withFunctionToReadFromFiles(
-                new ReadSingleByteStreamFromPath<>(
-                        new ConvertBytesToGeotiffBinding(),
-                        GeotiffBinding.class));
+                new ReadGeotiffFromPath());
         builder.withDefaultFormat(defaultFormat);
 
         return builder.build();
@@ -301,10 +300,39 @@ public enum OutputParameterFactory {
                         isOptional,
                         optionalAbstract);
         builder.withPath(path);
+        builder.withFunctionToReadFromFiles(new ReadGeoJsonFromPath());
+        builder.withDefaultFormat(defaultFormat);
+        return builder.build();
+    }
+
+    /**
+     * Creates a FlatGeobuf file (output) on a given path.
+     * @param identifier identifier of the data
+     * @param isOptional true if the output is optional
+     * @param optionalAbstract optional description of the parameter
+     * @param defaultFormat optional default format
+     * @param path path of the file to read after process termination
+     * @return output argument containing the FlatGeobuf data that will be
+     * read from a given file
+     */
+    public IOutputParameter createFileOutFlatGeobuf(
+            final String identifier,
+            final boolean isOptional,
+            final String optionalAbstract,
+            final FormatEntry defaultFormat,
+            final String path) {
+        final OutputParameterImpl.Builder<GTVectorDataBinding> builder =
+                new OutputParameterImpl.Builder<>(
+                        identifier,
+                        GTVectorDataBinding.class,
+                        isOptional,
+                        optionalAbstract);
+        builder.withPath(path);
         builder.withFunctionToReadFromFiles(
                 new ReadSingleByteStreamFromPath<>(
                         new ConvertBytesToGTVectorDataBinding(
-                            ConvertBytesToGTVectorDataBinding.Format.JSON),
+                            ConvertBytesToGTVectorDataBinding.Format
+                                    .FLATGEOBUF),
                         GTVectorDataBinding.class));
         builder.withDefaultFormat(defaultFormat);
         return builder.build();
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Configuration for a pipeline process that runs several
+ * configured processes one after another.
+ *
+ * Inputs of a step can be linked to outputs of earlier steps.
+ * All the other inputs of the steps are inputs of the pipeline,
+ * the outputs of the last step are the outputs of the pipeline.
+ */
+public final class PipelineConfiguration {
+
+    /**
+     * Identifier of the pipeline.
+     */
+    private final String identifier;
+    /**
+     * Optional abstract of the pipeline.
+     */
+    private final String optionalAbstract;
+    /**
+     * Steps of the pipeline (in the order to run).
+     */
+    private final List<Step> steps;
+
+    /**
+     * Private constructor.
+     * Use the builder.build instead.
+     * @param builder builder with all the data
+     */
+    private PipelineConfiguration(final Builder builder) {
+        this.identifier = builder.identifier;
+        this.optionalAbstract = builder.optionalAbstract;
+        this.steps = Collections.unmodifiableList(
+                new ArrayList<>(builder.steps));
+    }
+
+    /**
+     *
+     * @return identifier of the pipeline
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     *
+     * @return full qualified identifier of the pipeline
+     */
+    public String getFullQualifiedIdentifier() {
+        return IConfiguration.PATH_FULL_QUALIFIED + identifier;
+    }
+
+    /**
+     *
+     * @return optional abstract of the pipeline
+     */
+    public Optional<String> getAbstract() {
+        return Optional.ofNullable(optionalAbstract);
+    }
+
+    /**
+     *
+     * @return steps of the pipeline
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PipelineConfiguration that = (PipelineConfiguration) o;
+        return Objects.equals(identifier, that.identifier)
+                && Objects.equals(optionalAbstract, that.optionalAbstract)
+                && Objects.equals(steps, that.steps);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(identifier, optionalAbstract, steps);
+    }
+
+    /**
+     * Single step of the pipeline.
+     */
+    public static final class Step {
+        /**
+         * Identifier of the configured process to run.
+         */
+        private final String processIdentifier;
+        /**
+         * Links from the input identifiers of the step to the outputs
+         * of earlier steps.
+         */
+        private final Map<String, OutputReference> links;
+
+        /**
+         * Constructor.
+         * @param aProcessIdentifier identifier of the process to run
+         * @param aLinks links from the inputs of the step to the
+         *               outputs of earlier steps
+         */
+        public Step(
+                final String aProcessIdentifier,
+                final Map<String, OutputReference> aLinks) {
+            this.processIdentifier = aProcessIdentifier;
+            this.links = Collections.unmodifiableMap(
+                    new LinkedHashMap<>(aLinks));
+        }
+
+        /**
+         *
+         * @return identifier of the process to run
+         */
+        public String getProcessIdentifier() {
+            return processIdentifier;
+        }
+
+        /**
+         *
+         * @return links by input identifier
+         */
+        public Map<String, OutputReference> getLinks() {
+            return links;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Step that = (Step) o;
+            return Objects.equals(processIdentifier, that.processIdentifier)
+                    && Objects.equals(links, that.links);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(processIdentifier, links);
+        }
+    }
+
+    /**
+     * Reference to an output of a step (written as "Process.output"
+     * in the configuration).
+     */
+    public static final class OutputReference {
+        /**
+         * Identifier of the process of the step.
+         */
+        private final String processIdentifier;
+        /**
+         * Identifier of the output.
+         */
+        private final String outputIdentifier;
+
+        /**
+         * Constructor.
+         * @param aProcessIdentifier identifier of the process of the step
+         * @param aOutputIdentifier identifier of the output
+         */
+        public OutputReference(
+                final String aProcessIdentifier,
+                final String aOutputIdentifier) {
+            this.processIdentifier = aProcessIdentifier;
+            this.outputIdentifier = aOutputIdentifier;
+        }
+
+        /**
+         *
+         * @return identifier of the process of the step
+         */
+        public String getProcessIdentifier() {
+            return processIdentifier;
+        }
+
+        /**
+         *
+         * @return identifier of the output
+         */
+        public String getOutputIdentifier() {
+            return outputIdentifier;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final OutputReference that = (OutputReference) o;
+            return Objects.equals(processIdentifier, that.processIdentifier)
+                    && Objects.equals(outputIdentifier, that.outputIdentifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(processIdentifier, outputIdentifier);
+        }
+
+        @Override
+        public String toString() {
+            return processIdentifier + "." + outputIdentifier;
+        }
+    }
+
+    /**
+     * The builder class helps to build the pipeline configuration.
+     */
+    public static class Builder {
+        /**
+         * Identifier of the pipeline.
+         */
+        private final String identifier;
+        /**
+         * Optional abstract of the pipeline.
+         */
+        private final String optionalAbstract;
+        /**
+         * Steps of the pipeline.
+         */
+        private final List<Step> steps;
+
+        /**
+         * Constructor with the identifier and the abstract.
+         * @param aIdentifier identifier of the pipeline
+         * @param aOptionalAbstract optional abstract (may be null)
+         */
+        public Builder(
+                final String aIdentifier,
+                final String aOptionalAbstract) {
+            this.identifier = aIdentifier;
+            this.optionalAbstract = aOptionalAbstract;
+            this.steps = new ArrayList<>();
+        }
+
+        /**
+         * Adds the next step.
+         * @param step step to add
+         * @return builder instance
+         */
+        public Builder withAddedStep(final Step step) {
+            this.steps.add(step);
+            return this;
+        }
+
+        /**
+         * Creates the pipeline configuration.
+         * @return PipelineConfiguration created by the builder
+         */
+        public PipelineConfiguration build() {
+            return new PipelineConfiguration(this);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package org.n52.gfz.riesgos.configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Configuration for the persistent worker mode.
+ *
+ * Instead of creating a new container for every run, a pool of long
+ * lived containers runs a request loop. So expensive startup work
+ * (importing libraries, loading models) is done only once per worker.
+ */
+public final class WorkerConfiguration {
+
+    /**
+     * Default number of workers in the pool.
+     */
+    private static final int DEFAULT_POOL_SIZE = 1;
+
+    /**
+     * Command that starts the request loop inside of the container.
+     */
+    private final List<String> command;
+    /**
+     * Number of workers in the pool.
+     */
+    private final int poolSize;
+
+    /**
+     * Private constructor.
+     * Use the builder.build instead.
+     * @param builder builder with all the data
+     */
+    private WorkerConfiguration(final Builder builder) {
+        this.command = Collections.unmodifiableList(
+                new ArrayList<>(builder.command));
+        this.poolSize = builder.poolSize;
+    }
+
+    /**
+     *
+     * @return command that starts the request loop
+     */
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     *
+     * @return number of workers in the pool
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final WorkerConfiguration that = (WorkerConfiguration) o;
+        return Objects.equals(command, that.command)
+                && poolSize == that.poolSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(command, poolSize);
+    }
+
+    /**
+     * The builder class helps to build the worker configuration.
+     */
+    public static class Builder {
+        /**
+         * Command that starts the request loop.
+         */
+        private final List<String> command;
+        /**
+         * Number of workers in the pool.
+         */
+        private int poolSize;
+
+        /**
+         * Constructor with the command for the request loop.
+         * @param aCommand command that starts the request loop
+         */
+        public Builder(final List<String> aCommand) {
+            this.command = aCommand;
+            this.poolSize = DEFAULT_POOL_SIZE;
+        }
+
+        /**
+         * Sets the number of workers.
+         * @param aPoolSize number of workers in the pool
+         * @return builder instance
+         */
+        public Builder withPoolSize(final int aPoolSize) {
+            this.poolSize = aPoolSize;
+            return this;
+        }
+
+        /**
+         * Creates the worker configuration.
+         * @return WorkerConfiguration created by the builder
+         */
+        public WorkerConfiguration build() {
+            return new WorkerConfiguration(this);
+        }
+    }
+}
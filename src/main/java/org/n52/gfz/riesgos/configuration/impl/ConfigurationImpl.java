@@ -16,9 +16,12 @@ package org.n52.gfz.riesgos.configuration.impl;
  *  limitations under the Licence.
  */
 
+import org.n52.gfz.riesgos.cmdexecution.util.IExecutionContextManagerFactory;
+import org.n52.gfz.riesgos.configuration.ContainerResourceLimits;
 import org.n52.gfz.riesgos.configuration.IConfiguration;
 import org.n52.gfz.riesgos.configuration.IInputParameter;
 import org.n52.gfz.riesgos.configuration.IOutputParameter;
+import org.n52.gfz.riesgos.configuration.WorkerConfiguration;
 import org.n52.gfz.riesgos.functioninterfaces.IExitValueHandler;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
 import org.n52.gfz.riesgos.functioninterfaces.IStdoutHandler;
@@ -93,6 +96,31 @@ public final class ConfigurationImpl implements IConfiguration {
      * Handler for the stdout text.
      */
     private final IStdoutHandler stdoutHandler;
+    /**
+     * Factory for the context to run the process in.
+     */
+    private final IExecutionContextManagerFactory
+            executionContextManagerFactory;
+    /**
+     * Maximum number of runs of this process at the same time.
+     */
+    private final Integer maxConcurrentRuns;
+    /**
+     * Priority of the runs in the execution queue.
+     */
+    private final int executionPriority;
+    /**
+     * Resource limits for the container.
+     */
+    private final ContainerResourceLimits containerResourceLimits;
+    /**
+     * Maximum wall clock time for a run in seconds.
+     */
+    private final Integer timeoutSeconds;
+    /**
+     * Configuration for the persistent worker mode.
+     */
+    private final WorkerConfiguration workerConfiguration;
 
     /**
      * Private constructor.
@@ -112,6 +140,13 @@ public final class ConfigurationImpl implements IConfiguration {
         this.stderrHandler = builder.stderrHandler;
         this.exitValueHandler = builder.exitValueHandler;
         this.stdoutHandler = builder.stdoutHandler;
+        this.executionContextManagerFactory =
+                builder.executionContextManagerFactory;
+        this.maxConcurrentRuns = builder.maxConcurrentRuns;
+        this.executionPriority = builder.executionPriority;
+        this.containerResourceLimits = builder.containerResourceLimits;
+        this.timeoutSeconds = builder.timeoutSeconds;
+        this.workerConfiguration = builder.workerConfiguration;
     }
 
     @Override
@@ -169,6 +204,37 @@ public final class ConfigurationImpl implements IConfiguration {
         return Optional.ofNullable(stdoutHandler);
     }
 
+    @Override
+    public Optional<IExecutionContextManagerFactory>
+        getExecutionContextManagerFactory() {
+        return Optional.ofNullable(executionContextManagerFactory);
+    }
+
+    @Override
+    public Optional<Integer> getMaxConcurrentRuns() {
+        return Optional.ofNullable(maxConcurrentRuns);
+    }
+
+    @Override
+    public int getExecutionPriority() {
+        return executionPriority;
+    }
+
+    @Override
+    public Optional<ContainerResourceLimits> getContainerResourceLimits() {
+        return Optional.ofNullable(containerResourceLimits);
+    }
+
+    @Override
+    public Optional<Integer> getTimeoutSeconds() {
+        return Optional.ofNullable(timeoutSeconds);
+    }
+
+    @Override
+    public Optional<WorkerConfiguration> getWorkerConfiguration() {
+        return Optional.ofNullable(workerConfiguration);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -188,7 +254,16 @@ public final class ConfigurationImpl implements IConfiguration {
                 && Objects.equals(outputIdentifier, that.outputIdentifier)
                 && Objects.equals(stderrHandler, that.stderrHandler)
                 && Objects.equals(exitValueHandler, that.exitValueHandler)
-                && Objects.equals(stdoutHandler, that.stdoutHandler);
+                && Objects.equals(stdoutHandler, that.stdoutHandler)
+                && Objects.equals(executionContextManagerFactory,
+                that.executionContextManagerFactory)
+                && Objects.equals(maxConcurrentRuns, that.maxConcurrentRuns)
+                && executionPriority == that.executionPriority
+                && Objects.equals(containerResourceLimits,
+                that.containerResourceLimits)
+                && Objects.equals(timeoutSeconds, that.timeoutSeconds)
+                && Objects.equals(workerConfiguration,
+                that.workerConfiguration);
     }
 
     @Override
@@ -196,7 +271,10 @@ public final class ConfigurationImpl implements IConfiguration {
         return Objects.hash(identifier, imageId, workingDirectory,
                 commandToExecute, defaultCommandLineFlags, inputIdentifier,
                 outputIdentifier, stderrHandler, exitValueHandler,
-                stdoutHandler);
+                stdoutHandler, executionContextManagerFactory,
+                maxConcurrentRuns, executionPriority,
+                containerResourceLimits, timeoutSeconds,
+                workerConfiguration);
     }
 
     /**
@@ -250,6 +328,31 @@ public final class ConfigurationImpl implements IConfiguration {
          * Handler for the stdout text.
          */
         private IStdoutHandler stdoutHandler;
+        /**
+         * Factory for the context to run the process in.
+         */
+        private IExecutionContextManagerFactory
+                executionContextManagerFactory;
+        /**
+         * Maximum number of runs of this process at the same time.
+         */
+        private Integer maxConcurrentRuns;
+        /**
+         * Priority of the runs in the execution queue.
+         */
+        private int executionPriority;
+        /**
+         * Resource limits for the container.
+         */
+        private ContainerResourceLimits containerResourceLimits;
+        /**
+         * Maximum wall clock time for a run in seconds.
+         */
+        private Integer timeoutSeconds;
+        /**
+         * Configuration for the persistent worker mode.
+         */
+        private WorkerConfiguration workerConfiguration;
 
 
         /**
@@ -367,6 +470,76 @@ public final class ConfigurationImpl implements IConfiguration {
             return this;
         }
 
+        /**
+         * Sets the factory for the execution context.
+         * @param aExecutionContextManagerFactory factory to create the
+         *                                       context to run the
+         *                                       process in
+         * @return builder instance
+         */
+        public Builder withExecutionContextManagerFactory(
+                final IExecutionContextManagerFactory
+                        aExecutionContextManagerFactory) {
+            this.executionContextManagerFactory =
+                    aExecutionContextManagerFactory;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of runs of this process
+         * at the same time.
+         * @param aMaxConcurrentRuns maximum number of runs
+         * @return builder instance
+         */
+        public Builder withMaxConcurrentRuns(
+                final Integer aMaxConcurrentRuns) {
+            this.maxConcurrentRuns = aMaxConcurrentRuns;
+            return this;
+        }
+
+        /**
+         * Sets the priority of the runs in the execution queue.
+         * @param aExecutionPriority priority (higher values run first)
+         * @return builder instance
+         */
+        public Builder withExecutionPriority(
+                final int aExecutionPriority) {
+            this.executionPriority = aExecutionPriority;
+            return this;
+        }
+
+        /**
+         * Sets the resource limits for the container.
+         * @param aContainerResourceLimits limits for cpus, memory, ...
+         * @return builder instance
+         */
+        public Builder withContainerResourceLimits(
+                final ContainerResourceLimits aContainerResourceLimits) {
+            this.containerResourceLimits = aContainerResourceLimits;
+            return this;
+        }
+
+        /**
+         * Sets the timeout for the runs.
+         * @param aTimeoutSeconds maximum wall clock time in seconds
+         * @return builder instance
+         */
+        public Builder withTimeoutSeconds(final Integer aTimeoutSeconds) {
+            this.timeoutSeconds = aTimeoutSeconds;
+            return this;
+        }
+
+        /**
+         * Sets the configuration for the persistent worker mode.
+         * @param aWorkerConfiguration command and pool size of the workers
+         * @return builder instance
+         */
+        public Builder withWorkerConfiguration(
+                final WorkerConfiguration aWorkerConfiguration) {
+            this.workerConfiguration = aWorkerConfiguration;
+            return this;
+        }
+
         /**
          * Creates the new configuration.
          * @return IConfiguration created by the builder
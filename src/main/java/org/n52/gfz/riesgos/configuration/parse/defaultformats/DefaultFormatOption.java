@@ -45,6 +45,16 @@ public enum DefaultFormatOption implements IMimeTypeAndSchemaConstants {
                     DEFAULT_ENCODING,
                     true)),
 
+    /**
+     * Enum for the FlatGeobuf format.
+     */
+    FLATGEOBUF("flatgeobuf",
+            new FormatEntry(
+                    MIME_TYPE_FLATGEOBUF,
+                    null,
+                    DEFAULT_ENCODING,
+                    true)),
+
     /**
      * Enum for GML 3.2.1 format.
      */
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.configuration.parse.executioncontext;
+
+import org.n52.gfz.riesgos.cmdexecution.docker.DockerExecutionContextManagerFactory;
+import org.n52.gfz.riesgos.cmdexecution.host.HostExecutionContextManagerFactory;
+import org.n52.gfz.riesgos.cmdexecution.util.IExecutionContextManagerFactory;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Enum with the options for the context in that the
+ * command line programs run.
+ */
+public enum ExecutionContextOption {
+    /**
+     * docker will create a new docker container for every run.
+     * This is the default.
+     */
+    DOCKER("docker", DockerExecutionContextManagerFactory::new, true),
+    /**
+     * host will run the program directly on the host in
+     * a scratch directory (for small trusted tools only).
+     */
+    HOST("host", HostExecutionContextManagerFactory::new, false);
+
+    /**
+     * Text for the executionContext attribute.
+     */
+    private static final String ATTRIBUTE = "executionContext";
+
+    /**
+     * The key for the option.
+     */
+    private final String key;
+    /**
+     * The factory to create the execution context manager factory.
+     */
+    private final Supplier<IExecutionContextManagerFactory> factory;
+    /**
+     * Flag if the option needs an image id.
+     */
+    private final boolean imageIdRequired;
+
+    /**
+     * Default constructor.
+     * @param aKey key for the lookup
+     * @param aFactory factory to create the execution context
+     *                 manager factory
+     * @param aImageIdRequired true if there must be an image id
+     */
+    ExecutionContextOption(
+            final String aKey,
+            final Supplier<IExecutionContextManagerFactory> aFactory,
+            final boolean aImageIdRequired) {
+        this.key = aKey;
+        this.factory = aFactory;
+        this.imageIdRequired = aImageIdRequired;
+    }
+
+    /**
+     *
+     * @return key to lookup the options for the execution context
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     *
+     * @return factory to create the execution context manager factory
+     */
+    public Supplier<IExecutionContextManagerFactory> getFactory() {
+        return factory;
+    }
+
+    /**
+     *
+     * @return true if the configuration must contain an image id
+     */
+    public boolean isImageIdRequired() {
+        return imageIdRequired;
+    }
+
+    /**
+     *
+     * @return map by the name of the options
+     */
+    public static Map<String, ExecutionContextOption> asMap() {
+        return Stream.of(ExecutionContextOption.values())
+                .collect(Collectors.toMap(
+                        ExecutionContextOption::getKey,
+                        Function.identity()));
+    }
+
+    /**
+     *
+     * @return text for the executionContext attribute
+     */
+    public static String getAttribute() {
+        return ATTRIBUTE;
+    }
+}
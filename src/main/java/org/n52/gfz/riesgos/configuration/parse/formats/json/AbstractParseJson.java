@@ -157,6 +157,37 @@ public abstract class AbstractParseJson {
         return value;
     }
 
+    /**
+     * Searches for the key in the json object.
+     * If the key is not there it returns an empty optional.
+     * If the key is there but the value is not an integer number it throws
+     * an exception.
+     * @param json json object that may contain the key
+     * @param key key to search for
+     * @return Optional with the integer value
+     * @throws ParseConfigurationException exception that is thrown if the
+     * key is there but the value is not an integer number
+     */
+    protected Optional<Integer> getOptionalInteger(
+            final JSONObject json,
+            final String key)
+            throws ParseConfigurationException {
+        final Optional<Integer> result;
+        if (json.containsKey(key)) {
+            final Object rawValue = json.get(key);
+            if (!(rawValue instanceof Long || rawValue instanceof Integer)) {
+                throw new ParseConfigurationException(
+                        "Wrong type for element '"
+                                + key
+                                + "', expected an Integer");
+            }
+            result = Optional.of(((Number) rawValue).intValue());
+        } else {
+            result = Optional.empty();
+        }
+        return result;
+    }
+
     /**
      * Searches for an optional list of strings in the given json object.
      * @param json json object that may contain the key
@@ -21,11 +21,14 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import org.n52.gfz.riesgos.configuration.ContainerResourceLimits;
 import org.n52.gfz.riesgos.configuration.IConfiguration;
 import org.n52.gfz.riesgos.configuration.IInputParameter;
 import org.n52.gfz.riesgos.configuration.IOutputParameter;
+import org.n52.gfz.riesgos.configuration.WorkerConfiguration;
 import org.n52.gfz.riesgos.configuration.impl.ConfigurationImpl;
 import org.n52.gfz.riesgos.configuration.parse.IParseConfiguration;
+import org.n52.gfz.riesgos.configuration.parse.executioncontext.ExecutionContextOption;
 import org.n52.gfz.riesgos.configuration.parse.exitvaluehandler.ExitValueHandlerOption;
 import org.n52.gfz.riesgos.configuration.parse.formats.json.subimpl.ParseJsonForInputImpl;
 import org.n52.gfz.riesgos.configuration.parse.formats.json.subimpl.ParseJsonForOutputImpl;
@@ -40,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Implementation that parses a json configuration.
@@ -48,6 +52,28 @@ public class ParseJsonConfigurationImpl
         extends AbstractParseJson
         implements IParseConfiguration {
 
+    /**
+     * Key for the resource limits of the container.
+     */
+    private static final String RESOURCE_LIMITS = "resourceLimits";
+
+    /**
+     * Key for the persistent worker of the process.
+     */
+    private static final String WORKER = "worker";
+
+    /**
+     * Pattern for memory values in the docker format (like 512m or 2g).
+     */
+    private static final Pattern MEMORY_PATTERN =
+            Pattern.compile("^[0-9]+[bkmgBKMG]?$");
+
+    /**
+     * Pattern for the cpu sets in the docker format (like 0-3 or 0,2).
+     */
+    private static final Pattern CPUSET_PATTERN =
+            Pattern.compile("^[0-9]+(-[0-9]+)?(,[0-9]+(-[0-9]+)?)*$");
+
     /**
      * Sub parser for the input elements.
      */
@@ -70,6 +96,11 @@ public class ParseJsonConfigurationImpl
      * Map with the stdout handlers by name.
      */
     private final Map<String, StdoutHandlerOption> optionsForStdoutHandler;
+    /**
+     * Map with the execution contexts by name.
+     */
+    private final Map<String, ExecutionContextOption>
+            optionsForExecutionContext;
 
     /**
      * Default constructor.
@@ -81,6 +112,7 @@ public class ParseJsonConfigurationImpl
         this.optionsForStderrHandler = StderrHandlerOption.asMap();
         this.optionsForExitValueHandler = ExitValueHandlerOption.asMap();
         this.optionsForStdoutHandler = StdoutHandlerOption.asMap();
+        this.optionsForExecutionContext = ExecutionContextOption.asMap();
     }
 
     /**
@@ -105,7 +137,15 @@ public class ParseJsonConfigurationImpl
                 final String optionalAbstract =
                         getOptionalString(json, "abstract")
                                 .orElse(null);
-                final String imageId = getString(json, "imageId");
+                final ExecutionContextOption executionContext =
+                        parseExecutionContext(json);
+                final String imageId;
+                if (executionContext.isImageIdRequired()) {
+                    imageId = getString(json, "imageId");
+                } else {
+                    imageId = getOptionalString(json, "imageId")
+                            .orElse(null);
+                }
                 final String workingDirectory =
                         getString(json, "workingDirectory");
 
@@ -122,6 +162,18 @@ public class ParseJsonConfigurationImpl
                         parseExitValueHandler(json);
                 final IStdoutHandler stdoutHandler = parseStdoutHandler(json);
 
+                final Integer maxConcurrentRuns =
+                        parsePositiveInteger(json, "maxConcurrentRuns");
+                final int executionPriority =
+                        getOptionalInteger(json, "executionPriority")
+                                .orElse(0);
+                final ContainerResourceLimits containerResourceLimits =
+                        parseContainerResourceLimits(json);
+                final Integer timeoutSeconds =
+                        parsePositiveInteger(json, "timeoutSeconds");
+                final WorkerConfiguration workerConfiguration =
+                        parseWorkerConfiguration(json, executionContext);
+
                 return new ConfigurationImpl.Builder(
                         identifier,
                         optionalAbstract,
@@ -134,6 +186,13 @@ public class ParseJsonConfigurationImpl
                     .withStderrHandler(stderrHandler)
                     .withExitValueHandler(exitValueHandler)
                     .withStdoutHandler(stdoutHandler)
+                    .withExecutionContextManagerFactory(
+                            executionContext.getFactory().get())
+                    .withMaxConcurrentRuns(maxConcurrentRuns)
+                    .withExecutionPriority(executionPriority)
+                    .withContainerResourceLimits(containerResourceLimits)
+                    .withTimeoutSeconds(timeoutSeconds)
+                    .withWorkerConfiguration(workerConfiguration)
                     .build();
 
             } else {
@@ -374,5 +433,191 @@ public class ParseJsonConfigurationImpl
         return result;
     }
 
+    /**
+     * Reads an optional integer that must be at least one
+     * (for example the maximum number of parallel runs).
+     * @param jsonObject json object to search in
+     * @param key key to search for
+     * @return value of the key (null if the key is not there)
+     * @throws ParseConfigurationException exception that is thrown if the
+     * value is not a positive integer
+     */
+    private Integer parsePositiveInteger(
+            final JSONObject jsonObject,
+            final String key)
+            throws ParseConfigurationException {
+        final Integer value =
+                getOptionalInteger(jsonObject, key).orElse(null);
+        if (value != null && value < 1) {
+            throw new ParseConfigurationException(
+                    "Unsupported value '"
+                            + value
+                            + "' for key '" + key + "'");
+        }
+        return value;
+    }
+
+    /**
+     * Reads the cpu, memory, cpuset & pids limits for the container.
+     * @param jsonObject json object to search in
+     * @return resource limits for the container (null if there
+     * are no limits given)
+     * @throws ParseConfigurationException exception that is thrown if
+     * the limits are not a json object or contain unsupported values
+     */
+    private ContainerResourceLimits parseContainerResourceLimits(
+            final JSONObject jsonObject)
+            throws ParseConfigurationException {
+        if (!jsonObject.containsKey(RESOURCE_LIMITS)) {
+            return null;
+        }
+        final Object rawValue = jsonObject.get(RESOURCE_LIMITS);
+        if (!(rawValue instanceof JSONObject)) {
+            throw new ParseConfigurationException(
+                    "Wrong type for key '" + RESOURCE_LIMITS
+                            + "', expected a JSON object");
+        }
+        final JSONObject limits = (JSONObject) rawValue;
+        final List<String> supportedKeys = Arrays.asList(
+                "cpus", "memory", "cpusetCpus", "pidsLimit");
+        for (final Object key : limits.keySet()) {
+            if (!supportedKeys.contains(key)) {
+                throw new ParseConfigurationException(
+                        "Unsupported key '" + key + "' in '"
+                                + RESOURCE_LIMITS + "'");
+            }
+        }
+
+        final ContainerResourceLimits.Builder builder =
+                new ContainerResourceLimits.Builder();
+
+        if (limits.containsKey("cpus")) {
+            final Object cpus = limits.get("cpus");
+            if (!(cpus instanceof Number)
+                    || ((Number) cpus).doubleValue() <= 0.0) {
+                throw new ParseConfigurationException(
+                        "Unsupported value '" + cpus
+                                + "' for key 'cpus', expected a "
+                                + "positive number");
+            }
+            builder.withCpus(((Number) cpus).doubleValue());
+        }
+
+        final String memory =
+                getOptionalString(limits, "memory").orElse(null);
+        if (memory != null && !MEMORY_PATTERN.matcher(memory).matches()) {
+            throw new ParseConfigurationException(
+                    "Unsupported value '" + memory + "' for key 'memory'");
+        }
+        builder.withMemory(memory);
+
+        final String cpusetCpus =
+                getOptionalString(limits, "cpusetCpus").orElse(null);
+        if (cpusetCpus != null
+                && !CPUSET_PATTERN.matcher(cpusetCpus).matches()) {
+            throw new ParseConfigurationException(
+                    "Unsupported value '" + cpusetCpus
+                            + "' for key 'cpusetCpus'");
+        }
+        builder.withCpusetCpus(cpusetCpus);
+
+        final Integer pidsLimit =
+                getOptionalInteger(limits, "pidsLimit").orElse(null);
+        if (pidsLimit != null && pidsLimit < 1) {
+            throw new ParseConfigurationException(
+                    "Unsupported value '" + pidsLimit
+                            + "' for key 'pidsLimit'");
+        }
+        builder.withPidsLimit(pidsLimit);
+
+        return builder.build();
+    }
+
+    /**
+     * Parses the optional configuration for the persistent worker.
+     * @param jsonObject json object to search in
+     * @param executionContext execution context of the process
+     * @return configuration for the persistent worker (null if there
+     * is no worker given)
+     * @throws ParseConfigurationException exception that is thrown if
+     * the worker is not a json object, contains unsupported values or
+     * is used without docker
+     */
+    private WorkerConfiguration parseWorkerConfiguration(
+            final JSONObject jsonObject,
+            final ExecutionContextOption executionContext)
+            throws ParseConfigurationException {
+        if (!jsonObject.containsKey(WORKER)) {
+            return null;
+        }
+        if (executionContext != ExecutionContextOption.DOCKER) {
+            throw new ParseConfigurationException(
+                    "The key '" + WORKER + "' is only supported for "
+                            + "the docker execution context");
+        }
+        final Object rawValue = jsonObject.get(WORKER);
+        if (!(rawValue instanceof JSONObject)) {
+            throw new ParseConfigurationException(
+                    "Wrong type for key '" + WORKER
+                            + "', expected a JSON object");
+        }
+        final JSONObject worker = (JSONObject) rawValue;
+        final List<String> supportedKeys = Arrays.asList(
+                "command", "poolSize");
+        for (final Object key : worker.keySet()) {
+            if (!supportedKeys.contains(key)) {
+                throw new ParseConfigurationException(
+                        "Unsupported key '" + key + "' in '"
+                                + WORKER + "'");
+            }
+        }
+
+        // same format as the commandToExecute
+        final List<String> command = Arrays.asList(
+                Commandline.translateCommandline(
+                        getString(worker, "command")));
+        if (command.isEmpty()) {
+            throw new ParseConfigurationException(
+                    "Empty value for key 'command' in '" + WORKER + "'");
+        }
+        final WorkerConfiguration.Builder builder =
+                new WorkerConfiguration.Builder(command);
+        final Integer poolSize = parsePositiveInteger(worker, "poolSize");
+        if (poolSize != null) {
+            builder.withPoolSize(poolSize);
+        }
+        return builder.build();
+    }
 
+    /**
+     * Reads where the process runs (in a docker container
+     * or directly on the host).
+     * @param jsonObject json object to search in
+     * @return option for the execution context (docker if there is
+     * no value)
+     * @throws ParseConfigurationException exception that is thrown if the
+     * value for the execution context is not supported or
+     * the type of the value is wrong
+     */
+    private ExecutionContextOption parseExecutionContext(
+            final JSONObject jsonObject)
+            throws ParseConfigurationException {
+        final String key = ExecutionContextOption.getAttribute();
+        if (!jsonObject.containsKey(key)) {
+            return ExecutionContextOption.DOCKER;
+        }
+        final Object rawValue = jsonObject.get(key);
+        if (!(rawValue instanceof String)) {
+            throw new ParseConfigurationException(
+                    "Wrong type for key '" + key + "', expected a String");
+        }
+        final String value = (String) rawValue;
+        if (!optionsForExecutionContext.containsKey(value)) {
+            throw new ParseConfigurationException(
+                    "Unsupported value '"
+                            + value
+                            + "' for key '" + key + "'");
+        }
+        return optionsForExecutionContext.get(value);
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.configuration.parse.formats.json;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.n52.gfz.riesgos.configuration.PipelineConfiguration;
+import org.n52.gfz.riesgos.exceptions.ParseConfigurationException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation that parses a json configuration of a pipeline.
+ *
+ * A pipeline is recognized by the key "steps".
+ */
+public class ParseJsonPipelineConfigurationImpl extends AbstractParseJson {
+
+    /**
+     * Key for the steps of the pipeline.
+     */
+    private static final String STEPS = "steps";
+
+    /**
+     * Key for the process of a step.
+     */
+    private static final String PROCESS = "process";
+
+    /**
+     * Key for the links of a step.
+     */
+    private static final String LINKS = "links";
+
+    /**
+     * Separator between the process and the output in a link.
+     */
+    private static final char REFERENCE_SEPARATOR = '.';
+
+    /**
+     * Checks if the text is a pipeline configuration (and not
+     * the configuration of a single process).
+     * @param inputText input text with a json object
+     * @return true if the text is a json object with steps
+     */
+    public boolean isPipeline(final String inputText) {
+        if (inputText == null) {
+            return false;
+        }
+        try {
+            final Object parsed = new JSONParser().parse(inputText);
+            return parsed instanceof JSONObject
+                    && ((JSONObject) parsed).containsKey(STEPS);
+        } catch (final ParseException parseException) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses the pipeline configuration.
+     * @param inputText input text with a json object
+     * @return PipelineConfiguration of the input text
+     * @throws ParseConfigurationException exception indicating that there
+     * is problem on parsing the input
+     */
+    public PipelineConfiguration parse(final String inputText)
+            throws ParseConfigurationException {
+        try {
+            if (inputText == null) {
+                throw new ParseConfigurationException("No input text");
+            }
+            final Object parsed = new JSONParser().parse(inputText);
+            if (!(parsed instanceof JSONObject)) {
+                throw new ParseConfigurationException(
+                        "There must be a json document (as json object)");
+            }
+            final JSONObject json = (JSONObject) parsed;
+
+            final PipelineConfiguration.Builder builder =
+                    new PipelineConfiguration.Builder(
+                            getString(json, TITLE),
+                            getOptionalString(json, ABSTRACT).orElse(null));
+
+            final Object rawSteps = json.get(STEPS);
+            if (!(rawSteps instanceof JSONArray)
+                    || ((JSONArray) rawSteps).isEmpty()) {
+                throw new ParseConfigurationException(
+                        "Wrong type for key '" + STEPS
+                                + "', expected a non empty Array");
+            }
+            final Set<String> processes = new HashSet<>();
+            for (final Object element : (JSONArray) rawSteps) {
+                if (!(element instanceof JSONObject)) {
+                    throw new ParseConfigurationException(
+                            "Wrong type for element in '" + STEPS
+                                    + "', expected an JSONObject");
+                }
+                final PipelineConfiguration.Step step =
+                        parseStep((JSONObject) element);
+                if (!processes.add(step.getProcessIdentifier())) {
+                    // the links would be ambiguous otherwise
+                    throw new ParseConfigurationException(
+                            "The process '" + step.getProcessIdentifier()
+                                    + "' is used in more than one step");
+                }
+                builder.withAddedStep(step);
+            }
+            return builder.build();
+        } catch (final ParseException parseException) {
+            throw new ParseConfigurationException(parseException);
+        }
+    }
+
+    /**
+     *
+     * @param json json object of the step
+     * @return step of the pipeline
+     * @throws ParseConfigurationException exception that is thrown if
+     * the step contains unsupported keys or values
+     */
+    private PipelineConfiguration.Step parseStep(final JSONObject json)
+            throws ParseConfigurationException {
+        final List<String> supportedKeys = Arrays.asList(PROCESS, LINKS);
+        for (final Object key : json.keySet()) {
+            if (!supportedKeys.contains(key)) {
+                throw new ParseConfigurationException(
+                        "Unsupported key '" + key + "' in a step");
+            }
+        }
+        final String process = getString(json, PROCESS);
+
+        final Map<String, PipelineConfiguration.OutputReference> links =
+                new LinkedHashMap<>();
+        if (json.containsKey(LINKS)) {
+            final Object rawLinks = json.get(LINKS);
+            if (!(rawLinks instanceof JSONObject)) {
+                throw new ParseConfigurationException(
+                        "Wrong type for key '" + LINKS
+                                + "', expected a JSON object");
+            }
+            final JSONObject linksObject = (JSONObject) rawLinks;
+            for (final Object input : linksObject.keySet()) {
+                final String inputIdentifier = String.valueOf(input);
+                links.put(
+                        inputIdentifier,
+                        parseReference(
+                                getString(linksObject, inputIdentifier)));
+            }
+        }
+        return new PipelineConfiguration.Step(process, links);
+    }
+
+    /**
+     *
+     * @param text reference in the form "Process.output"
+     * @return reference to the output
+     * @throws ParseConfigurationException exception if the text is
+     * not a valid reference
+     */
+    private PipelineConfiguration.OutputReference parseReference(
+            final String text) throws ParseConfigurationException {
+        final int index = text.indexOf(REFERENCE_SEPARATOR);
+        if (index <= 0 || index == text.length() - 1) {
+            throw new ParseConfigurationException(
+                    "Unsupported value '" + text
+                            + "' for a link, expected 'Process.output'");
+        }
+        return new PipelineConfiguration.OutputReference(
+                text.substring(0, index),
+                text.substring(index + 1));
+    }
+}
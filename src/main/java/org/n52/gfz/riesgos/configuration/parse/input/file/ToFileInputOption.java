@@ -33,6 +33,10 @@ public enum ToFileInputOption {
      * This is a enum to read the input from a geojson file.
      */
     GEOJSON("geojson", new InputFileGeojsonFactory()),
+    /**
+     * This is a enum to read the input from a FlatGeobuf file.
+     */
+    FLATGEOBUF("flatgeobuf", new InputFileFlatGeobufFactory()),
     /**
      * This is a enum to read the input from a shapefile.
      */
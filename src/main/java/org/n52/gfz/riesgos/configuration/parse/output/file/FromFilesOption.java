@@ -71,6 +71,25 @@ public enum FromFilesOption {
                             optionalAbstract,
                             defaultFormat,
                             path)),
+    /**
+     * This is the enum to read FlatGeobuf from files.
+     */
+    FLATGEOBUF("flatgeobuf",
+            (
+                    identifier,
+                    isOptional,
+                    optionalAbstract,
+                    defaultFormat,
+                    path,
+                    schema
+            ) ->
+                    // ignore schema
+                    OutputParameterFactory.INSTANCE.createFileOutFlatGeobuf(
+                            identifier,
+                            isOptional,
+                            optionalAbstract,
+                            defaultFormat,
+                            path)),
     /**
      * This is the enum to read geotiff rasters from files.
      */
@@ -58,6 +58,11 @@ public interface IMimeTypeAndSchemaConstants {
      */
     String MIME_TYPE_GEOJSON = "application/vnd.geo+json";
 
+    /**
+     * Mime-Type for FlatGeobuf.
+     */
+    String MIME_TYPE_FLATGEOBUF = "application/flatgeobuf";
+
     /**
      * Mime-Type for geotiff.
      */
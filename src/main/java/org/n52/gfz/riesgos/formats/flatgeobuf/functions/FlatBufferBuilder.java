@@ -0,0 +1,546 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.flatgeobuf.functions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimal builder for flatbuffers as they are used in FlatGeobuf.
+ *
+ * In contrast to the official flatbuffers library this builder
+ * writes the buffer from front to back: The tables are collected first
+ * and serialized in one step on finish.
+ * It supports only the kind of fields that FlatGeobuf needs
+ * (scalars, strings, scalar vectors, tables and vectors of tables).
+ *
+ * All the values are aligned to their size, so that
+ * verifying readers (like the one in gdal) accept the buffers.
+ */
+public final class FlatBufferBuilder {
+
+    /**
+     * Size of an offset in the buffer.
+     */
+    private static final int OFFSET_SIZE = 4;
+
+    /**
+     * Size of the entries in the vtable.
+     */
+    private static final int VTABLE_ENTRY_SIZE = 2;
+
+    /**
+     * Maximum alignment that we need (for doubles and longs).
+     */
+    private static final int MAX_ALIGNMENT = 8;
+
+    /**
+     * Initial size of the buffer.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Buffer to write the content to.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Private constructor.
+     * Use the static finish method to serialize a table.
+     */
+    private FlatBufferBuilder() {
+        this.buffer = ByteBuffer
+                .allocate(INITIAL_CAPACITY)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Serializes the table as root table of a flatbuffer.
+     * @param root root table
+     * @return byte array with the flatbuffer
+     */
+    public static byte[] finish(final Table root) {
+        final FlatBufferBuilder builder = new FlatBufferBuilder();
+        final int rootOffsetPosition = builder.reserve(OFFSET_SIZE);
+        final int rootPosition = builder.writeTable(root);
+        builder.buffer.putInt(
+                rootOffsetPosition, rootPosition - rootOffsetPosition);
+        return Arrays.copyOf(builder.buffer.array(), builder.position());
+    }
+
+    /**
+     *
+     * @return current write position
+     */
+    private int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Ensures that there is enough space in the buffer.
+     * @param bytes number of bytes that should be written next
+     */
+    private void ensureCapacity(final int bytes) {
+        if (buffer.remaining() < bytes) {
+            int newCapacity = buffer.capacity() * 2;
+            while (newCapacity - buffer.position() < bytes) {
+                newCapacity *= 2;
+            }
+            final ByteBuffer newBuffer = ByteBuffer
+                    .allocate(newCapacity)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+
+    /**
+     * Reserves some bytes (filled with zeros).
+     * @param bytes number of bytes
+     * @return position of the reserved bytes
+     */
+    private int reserve(final int bytes) {
+        ensureCapacity(bytes);
+        final int start = buffer.position();
+        for (int i = 0; i < bytes; i += 1) {
+            buffer.put((byte) 0);
+        }
+        return start;
+    }
+
+    /**
+     * Pads the buffer, so that the position is aligned.
+     * @param alignment alignment to use
+     * @param additionalBytes bytes that will be written before the
+     *                        value that must be aligned
+     */
+    private void align(final int alignment, final int additionalBytes) {
+        final int misalignment =
+                (position() + additionalBytes) % alignment;
+        if (misalignment != 0) {
+            reserve(alignment - misalignment);
+        }
+    }
+
+    /**
+     * Writes a table with all of its children.
+     * @param table table to write
+     * @return position of the table
+     */
+    private int writeTable(final Table table) {
+        final int numberOfFields = table.fields.length;
+        final int[] fieldOffsets = new int[numberOfFields];
+
+        // layout of the inline data: the soffset to the vtable first,
+        // then the fields sorted by their size (largest first),
+        // so that all of them are aligned
+        int tableSize = OFFSET_SIZE;
+        for (final int size : new int[]{
+                Long.BYTES, Integer.BYTES, Short.BYTES, Byte.BYTES}) {
+            for (int i = 0; i < numberOfFields; i += 1) {
+                final Field field = table.fields[i];
+                if (field != null && field.inlineSize() == size) {
+                    if (tableSize % size != 0) {
+                        tableSize += size - tableSize % size;
+                    }
+                    fieldOffsets[i] = tableSize;
+                    tableSize += size;
+                }
+            }
+        }
+
+        // vtable first, so that all the offsets to the children
+        // point forward
+        final int vtableSize = OFFSET_SIZE + VTABLE_ENTRY_SIZE * numberOfFields;
+        align(VTABLE_ENTRY_SIZE, 0);
+        final int vtablePosition = reserve(vtableSize);
+        buffer.putShort(vtablePosition, (short) vtableSize);
+        buffer.putShort(vtablePosition + VTABLE_ENTRY_SIZE, (short) tableSize);
+        for (int i = 0; i < numberOfFields; i += 1) {
+            buffer.putShort(
+                    vtablePosition + OFFSET_SIZE + VTABLE_ENTRY_SIZE * i,
+                    (short) fieldOffsets[i]);
+        }
+
+        align(MAX_ALIGNMENT, 0);
+        final int tablePosition = reserve(tableSize);
+        buffer.putInt(tablePosition, tablePosition - vtablePosition);
+
+        for (int i = 0; i < numberOfFields; i += 1) {
+            final Field field = table.fields[i];
+            if (field != null && !field.isReference()) {
+                field.writeInline(buffer, tablePosition + fieldOffsets[i]);
+            }
+        }
+        for (int i = 0; i < numberOfFields; i += 1) {
+            final Field field = table.fields[i];
+            if (field != null && field.isReference()) {
+                final int fieldPosition = tablePosition + fieldOffsets[i];
+                final int childPosition = field.writeReferenced(this);
+                buffer.putInt(fieldPosition, childPosition - fieldPosition);
+            }
+        }
+        return tablePosition;
+    }
+
+    /**
+     * Writes a vector of scalars.
+     * @param content content of the elements (already little endian)
+     * @param elementSize size of a single element
+     * @return position of the vector
+     */
+    private int writeScalarVector(
+            final byte[] content,
+            final int elementSize) {
+        align(Math.max(OFFSET_SIZE, elementSize), OFFSET_SIZE);
+        ensureCapacity(OFFSET_SIZE + content.length);
+        final int start = position();
+        buffer.putInt(content.length / elementSize);
+        buffer.put(content);
+        return start;
+    }
+
+    /**
+     * Writes a string (with a null terminator).
+     * @param value string to write
+     * @return position of the string
+     */
+    private int writeString(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        align(OFFSET_SIZE, 0);
+        ensureCapacity(OFFSET_SIZE + bytes.length + 1);
+        final int start = position();
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        buffer.put((byte) 0);
+        return start;
+    }
+
+    /**
+     * Writes a vector of tables.
+     * @param tables tables to write
+     * @return position of the vector
+     */
+    private int writeTableVector(final List<Table> tables) {
+        align(OFFSET_SIZE, 0);
+        final int start = reserve(OFFSET_SIZE + OFFSET_SIZE * tables.size());
+        buffer.putInt(start, tables.size());
+        for (int i = 0; i < tables.size(); i += 1) {
+            final int elementPosition = start + OFFSET_SIZE + OFFSET_SIZE * i;
+            final int tablePosition = writeTable(tables.get(i));
+            buffer.putInt(elementPosition, tablePosition - elementPosition);
+        }
+        return start;
+    }
+
+    /**
+     * Interface for the fields of a table.
+     */
+    private interface Field {
+        /**
+         *
+         * @return size of the field in the table itself
+         */
+        int inlineSize();
+
+        /**
+         *
+         * @return true if the field is an offset to other data
+         */
+        boolean isReference();
+
+        /**
+         * Writes the scalar value into the table.
+         * @param target buffer to write to
+         * @param position position of the field
+         */
+        void writeInline(ByteBuffer target, int position);
+
+        /**
+         * Writes the referenced data.
+         * @param builder builder to write with
+         * @return position of the referenced data
+         */
+        int writeReferenced(FlatBufferBuilder builder);
+    }
+
+    /**
+     * Field with a scalar value.
+     */
+    private static final class ScalarField implements Field {
+
+        /**
+         * Little endian bytes of the value.
+         */
+        private final byte[] value;
+
+        /**
+         * Constructor with the bytes of the value.
+         * @param aValue little endian bytes of the value
+         */
+        private ScalarField(final byte[] aValue) {
+            this.value = aValue;
+        }
+
+        @Override
+        public int inlineSize() {
+            return value.length;
+        }
+
+        @Override
+        public boolean isReference() {
+            return false;
+        }
+
+        @Override
+        public void writeInline(final ByteBuffer target, final int position) {
+            for (int i = 0; i < value.length; i += 1) {
+                target.put(position + i, value[i]);
+            }
+        }
+
+        @Override
+        public int writeReferenced(final FlatBufferBuilder builder) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Field that references other data.
+     */
+    private abstract static class ReferenceField implements Field {
+
+        @Override
+        public int inlineSize() {
+            return OFFSET_SIZE;
+        }
+
+        @Override
+        public boolean isReference() {
+            return true;
+        }
+
+        @Override
+        public void writeInline(final ByteBuffer target, final int position) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Table with its fields.
+     * The field indices are the ids of the fields in the schema.
+     */
+    public static final class Table {
+
+        /**
+         * Fields of the table (null if not set).
+         */
+        private final Field[] fields;
+
+        /**
+         * Constructor with the number of fields.
+         * @param numberOfFields number of fields that the schema
+         *                       defines for the table
+         */
+        public Table(final int numberOfFields) {
+            this.fields = new Field[numberOfFields];
+        }
+
+        /**
+         * Helper to set a scalar field.
+         * @param index index of the field
+         * @param size size of the value
+         * @param value value as long
+         * @return this table
+         */
+        private Table addScalar(
+                final int index,
+                final int size,
+                final long value) {
+            final ByteBuffer bytes = ByteBuffer
+                    .allocate(size)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < size; i += 1) {
+                bytes.put((byte) (value >>> (Byte.SIZE * i)));
+            }
+            fields[index] = new ScalarField(bytes.array());
+            return this;
+        }
+
+        /**
+         * Sets a ubyte value.
+         * @param index index of the field
+         * @param value value to set
+         * @return this table
+         */
+        public Table addUByte(final int index, final int value) {
+            return addScalar(index, Byte.BYTES, value);
+        }
+
+        /**
+         * Sets a bool value.
+         * @param index index of the field
+         * @param value value to set
+         * @return this table
+         */
+        public Table addBool(final int index, final boolean value) {
+            return addScalar(index, Byte.BYTES, value ? 1 : 0);
+        }
+
+        /**
+         * Sets a ushort value.
+         * @param index index of the field
+         * @param value value to set
+         * @return this table
+         */
+        public Table addUShort(final int index, final int value) {
+            return addScalar(index, Short.BYTES, value);
+        }
+
+        /**
+         * Sets an int value.
+         * @param index index of the field
+         * @param value value to set
+         * @return this table
+         */
+        public Table addInt(final int index, final int value) {
+            return addScalar(index, Integer.BYTES, value);
+        }
+
+        /**
+         * Sets a (u)long value.
+         * @param index index of the field
+         * @param value value to set
+         * @return this table
+         */
+        public Table addLong(final int index, final long value) {
+            return addScalar(index, Long.BYTES, value);
+        }
+
+        /**
+         * Sets a string value.
+         * @param index index of the field
+         * @param value value to set
+         * @return this table
+         */
+        public Table addString(final int index, final String value) {
+            fields[index] = new ReferenceField() {
+                @Override
+                public int writeReferenced(final FlatBufferBuilder builder) {
+                    return builder.writeString(value);
+                }
+            };
+            return this;
+        }
+
+        /**
+         * Sets a vector of ubytes.
+         * @param index index of the field
+         * @param values values to set
+         * @return this table
+         */
+        public Table addUBytes(final int index, final byte[] values) {
+            fields[index] = new ReferenceField() {
+                @Override
+                public int writeReferenced(final FlatBufferBuilder builder) {
+                    return builder.writeScalarVector(values, Byte.BYTES);
+                }
+            };
+            return this;
+        }
+
+        /**
+         * Sets a vector of uints.
+         * @param index index of the field
+         * @param values values to set
+         * @return this table
+         */
+        public Table addUInts(final int index, final int[] values) {
+            final ByteBuffer bytes = ByteBuffer
+                    .allocate(values.length * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            bytes.asIntBuffer().put(values);
+            fields[index] = new ReferenceField() {
+                @Override
+                public int writeReferenced(final FlatBufferBuilder builder) {
+                    return builder.writeScalarVector(
+                            bytes.array(), Integer.BYTES);
+                }
+            };
+            return this;
+        }
+
+        /**
+         * Sets a vector of doubles.
+         * @param index index of the field
+         * @param values values to set
+         * @return this table
+         */
+        public Table addDoubles(final int index, final double[] values) {
+            final ByteBuffer bytes = ByteBuffer
+                    .allocate(values.length * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            bytes.asDoubleBuffer().put(values);
+            fields[index] = new ReferenceField() {
+                @Override
+                public int writeReferenced(final FlatBufferBuilder builder) {
+                    return builder.writeScalarVector(
+                            bytes.array(), Double.BYTES);
+                }
+            };
+            return this;
+        }
+
+        /**
+         * Sets a sub table.
+         * @param index index of the field
+         * @param table table to set
+         * @return this table
+         */
+        public Table addTable(final int index, final Table table) {
+            fields[index] = new ReferenceField() {
+                @Override
+                public int writeReferenced(final FlatBufferBuilder builder) {
+                    return builder.writeTable(table);
+                }
+            };
+            return this;
+        }
+
+        /**
+         * Sets a vector of tables.
+         * @param index index of the field
+         * @param tables tables to set
+         * @return this table
+         */
+        public Table addTables(final int index, final List<Table> tables) {
+            final List<Table> copy = new ArrayList<>(tables);
+            fields[index] = new ReferenceField() {
+                @Override
+                public int writeReferenced(final FlatBufferBuilder builder) {
+                    return builder.writeTableVector(copy);
+                }
+            };
+            return this;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.flatgeobuf.functions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal read access to a table in a flatbuffer.
+ *
+ * It reads the values directly from the buffer without copying
+ * (except for strings and vectors that are requested as arrays).
+ */
+public final class FlatBufferTable {
+
+    /**
+     * Size of an offset in the buffer.
+     */
+    private static final int OFFSET_SIZE = 4;
+
+    /**
+     * Size of the entries in the vtable.
+     */
+    private static final int VTABLE_ENTRY_SIZE = 2;
+
+    /**
+     * Mask to read unsigned bytes.
+     */
+    private static final int UBYTE_MASK = 0xFF;
+
+    /**
+     * Mask to read unsigned shorts.
+     */
+    private static final int USHORT_MASK = 0xFFFF;
+
+    /**
+     * Buffer with the flatbuffer (index 0 is the start of the flatbuffer).
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Position of the table in the buffer.
+     */
+    private final int position;
+
+    /**
+     * Position of the vtable in the buffer.
+     */
+    private final int vtablePosition;
+
+    /**
+     * Size of the vtable.
+     */
+    private final int vtableSize;
+
+    /**
+     * Constructor with the buffer and the position of the table.
+     * @param aBuffer buffer with the flatbuffer
+     * @param aPosition position of the table
+     */
+    private FlatBufferTable(final ByteBuffer aBuffer, final int aPosition) {
+        this.buffer = aBuffer;
+        this.position = aPosition;
+        this.vtablePosition = aPosition - aBuffer.getInt(aPosition);
+        this.vtableSize = aBuffer.getShort(vtablePosition) & USHORT_MASK;
+    }
+
+    /**
+     * Reads the root table of a flatbuffer.
+     * @param content content of the flatbuffer
+     * @return root table
+     */
+    public static FlatBufferTable root(final byte[] content) {
+        final ByteBuffer buffer = ByteBuffer
+                .wrap(content)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        return new FlatBufferTable(buffer, buffer.getInt(0));
+    }
+
+    /**
+     * Offset of a field in the table.
+     * @param index index of the field in the schema
+     * @return offset of the field or 0 if it is not set
+     */
+    private int fieldOffset(final int index) {
+        final int vtableOffset = OFFSET_SIZE + VTABLE_ENTRY_SIZE * index;
+        if (vtableOffset >= vtableSize) {
+            return 0;
+        }
+        return buffer.getShort(vtablePosition + vtableOffset) & USHORT_MASK;
+    }
+
+    /**
+     * Follows the offset stored in a field.
+     * @param index index of the field
+     * @return position of the referenced data or -1 if the field is not set
+     */
+    private int referencedPosition(final int index) {
+        final int offset = fieldOffset(index);
+        if (offset == 0) {
+            return -1;
+        }
+        final int fieldPosition = position + offset;
+        return fieldPosition + buffer.getInt(fieldPosition);
+    }
+
+    /**
+     * @param index index of the field
+     * @return true if the field is set
+     */
+    public boolean has(final int index) {
+        return fieldOffset(index) != 0;
+    }
+
+    /**
+     * Reads an ubyte.
+     * @param index index of the field
+     * @param defaultValue default value if the field is not set
+     * @return value
+     */
+    public int getUByte(final int index, final int defaultValue) {
+        final int offset = fieldOffset(index);
+        if (offset == 0) {
+            return defaultValue;
+        }
+        return buffer.get(position + offset) & UBYTE_MASK;
+    }
+
+    /**
+     * Reads a bool.
+     * @param index index of the field
+     * @param defaultValue default value if the field is not set
+     * @return value
+     */
+    public boolean getBool(final int index, final boolean defaultValue) {
+        final int offset = fieldOffset(index);
+        if (offset == 0) {
+            return defaultValue;
+        }
+        return buffer.get(position + offset) != 0;
+    }
+
+    /**
+     * Reads an ushort.
+     * @param index index of the field
+     * @param defaultValue default value if the field is not set
+     * @return value
+     */
+    public int getUShort(final int index, final int defaultValue) {
+        final int offset = fieldOffset(index);
+        if (offset == 0) {
+            return defaultValue;
+        }
+        return buffer.getShort(position + offset) & USHORT_MASK;
+    }
+
+    /**
+     * Reads an int.
+     * @param index index of the field
+     * @param defaultValue default value if the field is not set
+     * @return value
+     */
+    public int getInt(final int index, final int defaultValue) {
+        final int offset = fieldOffset(index);
+        if (offset == 0) {
+            return defaultValue;
+        }
+        return buffer.getInt(position + offset);
+    }
+
+    /**
+     * Reads a (u)long.
+     * @param index index of the field
+     * @param defaultValue default value if the field is not set
+     * @return value
+     */
+    public long getLong(final int index, final long defaultValue) {
+        final int offset = fieldOffset(index);
+        if (offset == 0) {
+            return defaultValue;
+        }
+        return buffer.getLong(position + offset);
+    }
+
+    /**
+     * Reads a string.
+     * @param index index of the field
+     * @return string or null if the field is not set
+     */
+    public String getString(final int index) {
+        final int stringPosition = referencedPosition(index);
+        if (stringPosition < 0) {
+            return null;
+        }
+        final int length = buffer.getInt(stringPosition);
+        return new String(
+                buffer.array(),
+                buffer.arrayOffset() + stringPosition + OFFSET_SIZE,
+                length,
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a sub table.
+     * @param index index of the field
+     * @return table or null if the field is not set
+     */
+    public FlatBufferTable getTable(final int index) {
+        final int tablePosition = referencedPosition(index);
+        if (tablePosition < 0) {
+            return null;
+        }
+        return new FlatBufferTable(buffer, tablePosition);
+    }
+
+    /**
+     * Length of a vector.
+     * @param index index of the field
+     * @return number of elements (0 if the field is not set)
+     */
+    public int getVectorLength(final int index) {
+        final int vectorPosition = referencedPosition(index);
+        if (vectorPosition < 0) {
+            return 0;
+        }
+        return buffer.getInt(vectorPosition);
+    }
+
+    /**
+     * Reads a table out of a vector of tables.
+     * @param index index of the field
+     * @param element index of the element in the vector
+     * @return table
+     */
+    public FlatBufferTable getTableOfVector(
+            final int index,
+            final int element) {
+        final int vectorPosition = referencedPosition(index);
+        final int elementPosition =
+                vectorPosition + OFFSET_SIZE + OFFSET_SIZE * element;
+        return new FlatBufferTable(
+                buffer, elementPosition + buffer.getInt(elementPosition));
+    }
+
+    /**
+     * Reads a vector of ubytes.
+     * @param index index of the field
+     * @return buffer view (little endian) on the bytes; empty if the
+     * field is not set
+     */
+    public ByteBuffer getUBytes(final int index) {
+        final int vectorPosition = referencedPosition(index);
+        if (vectorPosition < 0) {
+            return ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        final int length = buffer.getInt(vectorPosition);
+        final ByteBuffer view = buffer.duplicate();
+        view.position(vectorPosition + OFFSET_SIZE);
+        view.limit(vectorPosition + OFFSET_SIZE + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads a vector of uints.
+     * @param index index of the field
+     * @return values (empty if the field is not set)
+     */
+    public int[] getUInts(final int index) {
+        final int vectorPosition = referencedPosition(index);
+        if (vectorPosition < 0) {
+            return new int[0];
+        }
+        final int[] result = new int[buffer.getInt(vectorPosition)];
+        for (int i = 0; i < result.length; i += 1) {
+            result[i] = buffer.getInt(
+                    vectorPosition + OFFSET_SIZE + Integer.BYTES * i);
+        }
+        return result;
+    }
+
+    /**
+     * Reads a vector of doubles.
+     * @param index index of the field
+     * @return values (empty if the field is not set)
+     */
+    public double[] getDoubles(final int index) {
+        final int vectorPosition = referencedPosition(index);
+        if (vectorPosition < 0) {
+            return new double[0];
+        }
+        final double[] result = new double[buffer.getInt(vectorPosition)];
+        for (int i = 0; i < result.length; i += 1) {
+            result[i] = buffer.getDouble(
+                    vectorPosition + OFFSET_SIZE + Double.BYTES * i);
+        }
+        return result;
+    }
+}
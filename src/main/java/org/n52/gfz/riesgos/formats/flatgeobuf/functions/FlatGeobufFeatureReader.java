@@ -0,0 +1,606 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.flatgeobuf.functions;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import org.apache.commons.io.IOUtils;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.CRS;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads FlatGeobuf data into a feature collection.
+ *
+ * The stream is read feature by feature, so the complete
+ * FlatGeobuf content must never be in memory at once.
+ * A spatial index (if there is one) is skipped.
+ */
+public class FlatGeobufFeatureReader {
+
+    /**
+     * Name of the geometry attribute.
+     */
+    private static final String GEOMETRY_ATTRIBUTE = "geometry";
+
+    /**
+     * Default name of the feature type if the header has none.
+     */
+    private static final String DEFAULT_TYPE_NAME = "features";
+
+    /**
+     * Number of bytes in the magic number that must match exactly.
+     * (the prefix "fgb")
+     */
+    private static final int MAGIC_PREFIX_LENGTH = 3;
+
+    /**
+     * Mask to read unsigned bytes.
+     */
+    private static final int UBYTE_MASK = 0xFF;
+
+    /**
+     * Mask to read unsigned shorts.
+     */
+    private static final int USHORT_MASK = 0xFFFF;
+
+    /**
+     * Mask to read unsigned ints.
+     */
+    private static final long UINT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Factory to create the geometries.
+     */
+    private final GeometryFactory geometryFactory;
+
+    /**
+     * Default constructor.
+     */
+    public FlatGeobufFeatureReader() {
+        this.geometryFactory = new GeometryFactory();
+    }
+
+    /**
+     * Reads all the features of the stream.
+     * @param inputStream stream with the FlatGeobuf content
+     * @return feature collection
+     * @throws IOException exception if the content can't be read
+     */
+    public SimpleFeatureCollection read(
+            final InputStream stream) throws IOException {
+        final DataInputStream inputStream = new DataInputStream(stream);
+        readMagicBytes(inputStream);
+
+        final byte[] headerContent = readSizePrefixed(inputStream);
+        if (headerContent == null) {
+            throw new EOFException("There is no FlatGeobuf header");
+        }
+        final FlatBufferTable header = FlatBufferTable.root(headerContent);
+
+        final int headerGeometryType = header.getUByte(
+                FlatGeobufSchema.HEADER_GEOMETRY_TYPE,
+                FlatGeobufSchema.TYPE_UNKNOWN);
+        final long featuresCount = header.getLong(
+                FlatGeobufSchema.HEADER_FEATURES_COUNT, 0);
+        final int indexNodeSize = header.getUShort(
+                FlatGeobufSchema.HEADER_INDEX_NODE_SIZE,
+                FlatGeobufSchema.DEFAULT_INDEX_NODE_SIZE);
+
+        final int numberOfColumns =
+                header.getVectorLength(FlatGeobufSchema.HEADER_COLUMNS);
+        final int[] columnTypes = new int[numberOfColumns];
+        for (int i = 0; i < numberOfColumns; i += 1) {
+            columnTypes[i] = header
+                    .getTableOfVector(FlatGeobufSchema.HEADER_COLUMNS, i)
+                    .getUByte(FlatGeobufSchema.COLUMN_TYPE,
+                            FlatGeobufSchema.COLUMN_BYTE);
+        }
+
+        final SimpleFeatureType featureType =
+                createFeatureType(header, headerGeometryType, columnTypes);
+
+        skipIndex(inputStream, featuresCount, indexNodeSize);
+
+        final SimpleFeatureBuilder builder =
+                new SimpleFeatureBuilder(featureType);
+        final List<SimpleFeature> features = new ArrayList<>();
+
+        byte[] featureContent = readSizePrefixed(inputStream);
+        while (featureContent != null) {
+            final FlatBufferTable feature =
+                    FlatBufferTable.root(featureContent);
+
+            final FlatBufferTable geometry =
+                    feature.getTable(FlatGeobufSchema.FEATURE_GEOMETRY);
+            builder.set(
+                    GEOMETRY_ATTRIBUTE,
+                    geometry == null
+                            ? null
+                            : readGeometry(geometry, headerGeometryType));
+            readProperties(
+                    feature.getUBytes(FlatGeobufSchema.FEATURE_PROPERTIES),
+                    columnTypes,
+                    builder);
+
+            features.add(builder.buildFeature(
+                    featureType.getTypeName() + "." + features.size()));
+            featureContent = readSizePrefixed(inputStream);
+        }
+
+        return new ListFeatureCollection(featureType, features);
+    }
+
+    /**
+     * Reads and checks the magic bytes.
+     * @param inputStream stream to read from
+     * @throws IOException exception if it is not FlatGeobuf
+     */
+    private static void readMagicBytes(
+            final DataInputStream inputStream) throws IOException {
+        final byte[] magic = new byte[FlatGeobufSchema.MAGIC_BYTES.length];
+        inputStream.readFully(magic);
+        final byte[] expectedPrefix = Arrays.copyOf(
+                FlatGeobufSchema.MAGIC_BYTES, MAGIC_PREFIX_LENGTH);
+        if (!Arrays.equals(
+                Arrays.copyOf(magic, MAGIC_PREFIX_LENGTH), expectedPrefix)
+                || magic[FlatGeobufSchema.MAGIC_VERSION_INDEX]
+                != FlatGeobufSchema.MAGIC_BYTES[
+                        FlatGeobufSchema.MAGIC_VERSION_INDEX]) {
+            throw new IOException("The content is not FlatGeobuf (version 3)");
+        }
+    }
+
+    /**
+     * Reads a size prefixed flatbuffer.
+     * @param inputStream stream to read from
+     * @return content of the flatbuffer or null if the stream is at its end
+     * @throws IOException exception on reading
+     */
+    private static byte[] readSizePrefixed(
+            final DataInputStream inputStream) throws IOException {
+        final byte[] sizeBytes = new byte[Integer.BYTES];
+        final int firstByte = inputStream.read();
+        if (firstByte < 0) {
+            return null;
+        }
+        sizeBytes[0] = (byte) firstByte;
+        inputStream.readFully(sizeBytes, 1, Integer.BYTES - 1);
+        final int size = ByteBuffer
+                .wrap(sizeBytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .getInt();
+        final byte[] content = new byte[size];
+        inputStream.readFully(content);
+        return content;
+    }
+
+    /**
+     * Skips the packed hilbert r-tree if there is one.
+     * @param inputStream stream to read from
+     * @param featuresCount number of features
+     * @param indexNodeSize node size of the index
+     * @throws IOException exception on reading
+     */
+    private static void skipIndex(
+            final InputStream inputStream,
+            final long featuresCount,
+            final int indexNodeSize) throws IOException {
+        if (indexNodeSize == 0 || featuresCount == 0) {
+            return;
+        }
+        long numberOfNodes = featuresCount;
+        long numberOfNodesInLevel = featuresCount;
+        do {
+            numberOfNodesInLevel =
+                    (numberOfNodesInLevel + indexNodeSize - 1) / indexNodeSize;
+            numberOfNodes += numberOfNodesInLevel;
+        } while (numberOfNodesInLevel != 1);
+
+        IOUtils.skipFully(
+                inputStream,
+                numberOfNodes * FlatGeobufSchema.INDEX_NODE_ITEM_SIZE);
+    }
+
+    /**
+     * Creates the feature type out of the header.
+     * @param header header table
+     * @param geometryType geometry type of the header
+     * @param columnTypes types of the columns
+     * @return feature type
+     * @throws IOException exception if the crs can't be read
+     */
+    private static SimpleFeatureType createFeatureType(
+            final FlatBufferTable header,
+            final int geometryType,
+            final int[] columnTypes) throws IOException {
+        final SimpleFeatureTypeBuilder builder =
+                new SimpleFeatureTypeBuilder();
+        final String name = header.getString(FlatGeobufSchema.HEADER_NAME);
+        builder.setName(name == null || name.isEmpty()
+                ? DEFAULT_TYPE_NAME
+                : name);
+
+        final FlatBufferTable crs =
+                header.getTable(FlatGeobufSchema.HEADER_CRS);
+        if (crs != null) {
+            builder.setCRS(readCrs(crs));
+        }
+
+        builder.add(GEOMETRY_ATTRIBUTE, toGeometryClass(geometryType));
+        for (int i = 0; i < columnTypes.length; i += 1) {
+            builder.add(
+                    header.getTableOfVector(
+                            FlatGeobufSchema.HEADER_COLUMNS, i)
+                            .getString(FlatGeobufSchema.COLUMN_NAME),
+                    toAttributeClass(columnTypes[i]));
+        }
+        builder.setDefaultGeometry(GEOMETRY_ATTRIBUTE);
+        return builder.buildFeatureType();
+    }
+
+    /**
+     * Reads the crs (via epsg code if possible, otherwise via wkt).
+     * @param crs crs table
+     * @return crs or null if there is no information in the table
+     * @throws IOException exception if the crs can't be decoded
+     */
+    private static CoordinateReferenceSystem readCrs(
+            final FlatBufferTable crs) throws IOException {
+        final String org = crs.getString(FlatGeobufSchema.CRS_ORG);
+        final int code = crs.getInt(FlatGeobufSchema.CRS_CODE, 0);
+        final String wkt = crs.getString(FlatGeobufSchema.CRS_WKT);
+        try {
+            if (code != 0 && (org == null || "EPSG".equalsIgnoreCase(org))) {
+                return CRS.decode("EPSG:" + code);
+            }
+            if (wkt != null && !wkt.isEmpty()) {
+                return CRS.parseWKT(wkt);
+            }
+        } catch (final FactoryException factoryException) {
+            throw new IOException(factoryException);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the properties and sets them in the builder.
+     * @param properties encoded properties
+     * @param columnTypes types of the columns
+     * @param builder builder for the current feature
+     * @throws IOException exception if the properties can't be read
+     */
+    private static void readProperties(
+            final ByteBuffer properties,
+            final int[] columnTypes,
+            final SimpleFeatureBuilder builder) throws IOException {
+        while (properties.hasRemaining()) {
+            final int columnIndex = properties.getShort() & USHORT_MASK;
+            if (columnIndex >= columnTypes.length) {
+                throw new IOException(
+                        "Property for unknown column " + columnIndex);
+            }
+            // + 1 because the geometry is the first attribute
+            builder.set(
+                    columnIndex + 1,
+                    readValue(properties, columnTypes[columnIndex]));
+        }
+    }
+
+    /**
+     * Reads a single property value.
+     * @param properties buffer with the properties
+     * @param columnType type of the column
+     * @return value
+     * @throws IOException exception if the column type is unknown
+     */
+    private static Object readValue(
+            final ByteBuffer properties,
+            final int columnType) throws IOException {
+        switch (columnType) {
+            case FlatGeobufSchema.COLUMN_BYTE:
+                return properties.get();
+            case FlatGeobufSchema.COLUMN_UBYTE:
+                return (short) (properties.get() & UBYTE_MASK);
+            case FlatGeobufSchema.COLUMN_BOOL:
+                return properties.get() != 0;
+            case FlatGeobufSchema.COLUMN_SHORT:
+                return properties.getShort();
+            case FlatGeobufSchema.COLUMN_USHORT:
+                return properties.getShort() & USHORT_MASK;
+            case FlatGeobufSchema.COLUMN_INT:
+                return properties.getInt();
+            case FlatGeobufSchema.COLUMN_UINT:
+                return properties.getInt() & UINT_MASK;
+            case FlatGeobufSchema.COLUMN_LONG:
+            case FlatGeobufSchema.COLUMN_ULONG:
+                return properties.getLong();
+            case FlatGeobufSchema.COLUMN_FLOAT:
+                return properties.getFloat();
+            case FlatGeobufSchema.COLUMN_DOUBLE:
+                return properties.getDouble();
+            case FlatGeobufSchema.COLUMN_STRING:
+            case FlatGeobufSchema.COLUMN_JSON:
+            case FlatGeobufSchema.COLUMN_DATETIME:
+                return new String(
+                        readBinary(properties), StandardCharsets.UTF_8);
+            case FlatGeobufSchema.COLUMN_BINARY:
+                return readBinary(properties);
+            default:
+                throw new IOException(
+                        "Column type " + columnType + " is not supported");
+        }
+    }
+
+    /**
+     * Reads a length prefixed value.
+     * @param properties buffer with the properties
+     * @return bytes of the value
+     */
+    private static byte[] readBinary(final ByteBuffer properties) {
+        final byte[] bytes = new byte[properties.getInt()];
+        properties.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a geometry.
+     * @param geometry geometry table
+     * @param headerGeometryType geometry type given in the header
+     * @return geometry
+     * @throws IOException exception if the geometry type is not supported
+     */
+    private Geometry readGeometry(
+            final FlatBufferTable geometry,
+            final int headerGeometryType) throws IOException {
+        final int type = headerGeometryType == FlatGeobufSchema.TYPE_UNKNOWN
+                ? geometry.getUByte(
+                        FlatGeobufSchema.GEOMETRY_TYPE,
+                        FlatGeobufSchema.TYPE_UNKNOWN)
+                : headerGeometryType;
+
+        switch (type) {
+            case FlatGeobufSchema.TYPE_POINT:
+                return readPoint(geometry);
+            case FlatGeobufSchema.TYPE_MULTIPOINT:
+                return geometryFactory.createMultiPoint(
+                        readCoordinates(geometry));
+            case FlatGeobufSchema.TYPE_LINESTRING:
+                return geometryFactory.createLineString(
+                        readCoordinates(geometry));
+            case FlatGeobufSchema.TYPE_MULTILINESTRING:
+                return readMultiLineString(geometry);
+            case FlatGeobufSchema.TYPE_POLYGON:
+                return readPolygon(geometry);
+            case FlatGeobufSchema.TYPE_MULTIPOLYGON:
+                return readMultiPolygon(geometry);
+            case FlatGeobufSchema.TYPE_GEOMETRYCOLLECTION:
+                return readGeometryCollection(geometry);
+            default:
+                throw new IOException(
+                        "Geometry type " + type + " is not supported");
+        }
+    }
+
+    /**
+     * Reads a point.
+     * @param geometry geometry table
+     * @return point
+     */
+    private Point readPoint(final FlatBufferTable geometry) {
+        final Coordinate[] coordinates = readCoordinates(geometry);
+        return geometryFactory.createPoint(
+                coordinates.length == 0 ? null : coordinates[0]);
+    }
+
+    /**
+     * Reads a multi line string.
+     * @param geometry geometry table
+     * @return multi line string
+     */
+    private MultiLineString readMultiLineString(
+            final FlatBufferTable geometry) {
+        final List<Coordinate[]> parts = splitByEnds(geometry);
+        final LineString[] lines = new LineString[parts.size()];
+        for (int i = 0; i < lines.length; i += 1) {
+            lines[i] = geometryFactory.createLineString(parts.get(i));
+        }
+        return geometryFactory.createMultiLineString(lines);
+    }
+
+    /**
+     * Reads a polygon.
+     * @param geometry geometry table
+     * @return polygon
+     */
+    private Polygon readPolygon(final FlatBufferTable geometry) {
+        final List<Coordinate[]> parts = splitByEnds(geometry);
+        if (parts.isEmpty()) {
+            return geometryFactory.createPolygon((LinearRing) null);
+        }
+        final LinearRing shell =
+                geometryFactory.createLinearRing(parts.get(0));
+        final LinearRing[] holes = new LinearRing[parts.size() - 1];
+        for (int i = 0; i < holes.length; i += 1) {
+            holes[i] = geometryFactory.createLinearRing(parts.get(i + 1));
+        }
+        return geometryFactory.createPolygon(shell, holes);
+    }
+
+    /**
+     * Reads a multi polygon.
+     * @param geometry geometry table
+     * @return multi polygon
+     */
+    private MultiPolygon readMultiPolygon(final FlatBufferTable geometry) {
+        final int numberOfParts =
+                geometry.getVectorLength(FlatGeobufSchema.GEOMETRY_PARTS);
+        final Polygon[] polygons = new Polygon[numberOfParts];
+        for (int i = 0; i < numberOfParts; i += 1) {
+            polygons[i] = readPolygon(geometry.getTableOfVector(
+                    FlatGeobufSchema.GEOMETRY_PARTS, i));
+        }
+        return geometryFactory.createMultiPolygon(polygons);
+    }
+
+    /**
+     * Reads a geometry collection.
+     * @param geometry geometry table
+     * @return geometry collection
+     * @throws IOException exception if a geometry type is not supported
+     */
+    private GeometryCollection readGeometryCollection(
+            final FlatBufferTable geometry) throws IOException {
+        final int numberOfParts =
+                geometry.getVectorLength(FlatGeobufSchema.GEOMETRY_PARTS);
+        final Geometry[] geometries = new Geometry[numberOfParts];
+        for (int i = 0; i < numberOfParts; i += 1) {
+            geometries[i] = readGeometry(
+                    geometry.getTableOfVector(
+                            FlatGeobufSchema.GEOMETRY_PARTS, i),
+                    FlatGeobufSchema.TYPE_UNKNOWN);
+        }
+        return geometryFactory.createGeometryCollection(geometries);
+    }
+
+    /**
+     * Splits the coordinates into the parts given by the ends vector.
+     * @param geometry geometry table
+     * @return list with the coordinates of each part
+     */
+    private static List<Coordinate[]> splitByEnds(
+            final FlatBufferTable geometry) {
+        final Coordinate[] coordinates = readCoordinates(geometry);
+        final List<Coordinate[]> parts = new ArrayList<>();
+        if (coordinates.length == 0) {
+            return parts;
+        }
+        int[] ends = geometry.getUInts(FlatGeobufSchema.GEOMETRY_ENDS);
+        if (ends.length == 0) {
+            ends = new int[]{coordinates.length};
+        }
+        int start = 0;
+        for (final int end : ends) {
+            parts.add(Arrays.copyOfRange(coordinates, start, end));
+            start = end;
+        }
+        return parts;
+    }
+
+    /**
+     * Reads the coordinates (with z values if there are some).
+     * @param geometry geometry table
+     * @return coordinates
+     */
+    private static Coordinate[] readCoordinates(
+            final FlatBufferTable geometry) {
+        final double[] xy = geometry.getDoubles(FlatGeobufSchema.GEOMETRY_XY);
+        final double[] z = geometry.getDoubles(FlatGeobufSchema.GEOMETRY_Z);
+        final Coordinate[] coordinates = new Coordinate[xy.length / 2];
+        for (int i = 0; i < coordinates.length; i += 1) {
+            coordinates[i] = z.length > i
+                    ? new Coordinate(xy[2 * i], xy[2 * i + 1], z[i])
+                    : new Coordinate(xy[2 * i], xy[2 * i + 1]);
+        }
+        return coordinates;
+    }
+
+    /**
+     * Maps the FlatGeobuf geometry type to the jts class.
+     * @param geometryType FlatGeobuf geometry type
+     * @return class of the geometries
+     */
+    private static Class<? extends Geometry> toGeometryClass(
+            final int geometryType) {
+        switch (geometryType) {
+            case FlatGeobufSchema.TYPE_POINT:
+                return Point.class;
+            case FlatGeobufSchema.TYPE_LINESTRING:
+                return LineString.class;
+            case FlatGeobufSchema.TYPE_POLYGON:
+                return Polygon.class;
+            case FlatGeobufSchema.TYPE_MULTIPOINT:
+                return MultiPoint.class;
+            case FlatGeobufSchema.TYPE_MULTILINESTRING:
+                return MultiLineString.class;
+            case FlatGeobufSchema.TYPE_MULTIPOLYGON:
+                return MultiPolygon.class;
+            case FlatGeobufSchema.TYPE_GEOMETRYCOLLECTION:
+                return GeometryCollection.class;
+            default:
+                return Geometry.class;
+        }
+    }
+
+    /**
+     * Maps the FlatGeobuf column type to the attribute class.
+     * @param columnType FlatGeobuf column type
+     * @return class for the attribute
+     */
+    private static Class<?> toAttributeClass(final int columnType) {
+        switch (columnType) {
+            case FlatGeobufSchema.COLUMN_BYTE:
+                return Byte.class;
+            case FlatGeobufSchema.COLUMN_UBYTE:
+            case FlatGeobufSchema.COLUMN_SHORT:
+                return Short.class;
+            case FlatGeobufSchema.COLUMN_BOOL:
+                return Boolean.class;
+            case FlatGeobufSchema.COLUMN_USHORT:
+            case FlatGeobufSchema.COLUMN_INT:
+                return Integer.class;
+            case FlatGeobufSchema.COLUMN_UINT:
+            case FlatGeobufSchema.COLUMN_LONG:
+            case FlatGeobufSchema.COLUMN_ULONG:
+                return Long.class;
+            case FlatGeobufSchema.COLUMN_FLOAT:
+                return Float.class;
+            case FlatGeobufSchema.COLUMN_DOUBLE:
+                return Double.class;
+            case FlatGeobufSchema.COLUMN_BINARY:
+                return byte[].class;
+            default:
+                return String.class;
+        }
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.flatgeobuf.functions;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import org.geotools.feature.FeatureCollection;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.referencing.CRS;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Writes a feature collection as FlatGeobuf.
+ *
+ * The features are written one by one to the stream, so there is
+ * no need to hold the complete output in memory.
+ * There is no spatial index written (index node size 0) and
+ * only x & y values are supported.
+ */
+public class FlatGeobufFeatureWriter {
+
+    /**
+     * Format for DateTime columns.
+     */
+    private static final String ISO_8601 = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+    /**
+     * Writes the features as FlatGeobuf into the output stream.
+     * @param featureCollection features to write
+     * @param outputStream stream to write to
+     * @throws IOException exception if the features can't be written
+     */
+    public void write(
+            final FeatureCollection<?, ?> featureCollection,
+            final OutputStream outputStream) throws IOException {
+
+        if (!(featureCollection.getSchema() instanceof SimpleFeatureType)) {
+            throw new IOException(
+                    "Only simple features can be written as FlatGeobuf");
+        }
+        final SimpleFeatureType featureType =
+                (SimpleFeatureType) featureCollection.getSchema();
+
+        final List<AttributeDescriptor> columns = new ArrayList<>();
+        final List<Integer> columnTypes = new ArrayList<>();
+        for (final AttributeDescriptor descriptor
+                : featureType.getAttributeDescriptors()) {
+            if (!(descriptor instanceof GeometryDescriptor)) {
+                columns.add(descriptor);
+                columnTypes.add(toColumnType(
+                        descriptor.getType().getBinding()));
+            }
+        }
+
+        final int geometryType = toGeometryType(featureType);
+
+        outputStream.write(FlatGeobufSchema.MAGIC_BYTES);
+        writeSizePrefixed(outputStream, FlatBufferBuilder.finish(
+                createHeader(
+                        featureType,
+                        geometryType,
+                        columns,
+                        columnTypes,
+                        featureCollection.size())));
+
+        try (FeatureIterator<?> iterator = featureCollection.features()) {
+            while (iterator.hasNext()) {
+                final SimpleFeature feature = (SimpleFeature) iterator.next();
+                writeSizePrefixed(outputStream, FlatBufferBuilder.finish(
+                        createFeature(
+                                feature, geometryType, columns, columnTypes)));
+            }
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the flatbuffer with a (little endian) size prefix.
+     * @param outputStream stream to write to
+     * @param flatBuffer content to write
+     * @throws IOException exception on writing
+     */
+    private static void writeSizePrefixed(
+            final OutputStream outputStream,
+            final byte[] flatBuffer) throws IOException {
+        outputStream.write(ByteBuffer
+                .allocate(Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(flatBuffer.length)
+                .array());
+        outputStream.write(flatBuffer);
+    }
+
+    /**
+     * Creates the header table.
+     * @param featureType type of the features
+     * @param geometryType FlatGeobuf geometry type
+     * @param columns attributes to write as columns
+     * @param columnTypes FlatGeobuf types of the columns
+     * @param featuresCount number of features
+     * @return header table
+     * @throws IOException exception if the crs can't be handled
+     */
+    private static FlatBufferBuilder.Table createHeader(
+            final SimpleFeatureType featureType,
+            final int geometryType,
+            final List<AttributeDescriptor> columns,
+            final List<Integer> columnTypes,
+            final int featuresCount) throws IOException {
+        final List<FlatBufferBuilder.Table> columnTables = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i += 1) {
+            columnTables.add(
+                    new FlatBufferBuilder.Table(FlatGeobufSchema.COLUMN_FIELDS)
+                            .addString(
+                                    FlatGeobufSchema.COLUMN_NAME,
+                                    columns.get(i).getLocalName())
+                            .addUByte(
+                                    FlatGeobufSchema.COLUMN_TYPE,
+                                    columnTypes.get(i)));
+        }
+
+        final FlatBufferBuilder.Table header =
+                new FlatBufferBuilder.Table(FlatGeobufSchema.HEADER_FIELDS)
+                        .addString(
+                                FlatGeobufSchema.HEADER_NAME,
+                                featureType.getTypeName())
+                        .addUByte(
+                                FlatGeobufSchema.HEADER_GEOMETRY_TYPE,
+                                geometryType)
+                        .addLong(
+                                FlatGeobufSchema.HEADER_FEATURES_COUNT,
+                                featuresCount)
+                        // no spatial index
+                        .addUShort(FlatGeobufSchema.HEADER_INDEX_NODE_SIZE, 0);
+        if (!columnTables.isEmpty()) {
+            header.addTables(FlatGeobufSchema.HEADER_COLUMNS, columnTables);
+        }
+
+        final CoordinateReferenceSystem crs =
+                featureType.getCoordinateReferenceSystem();
+        if (crs != null) {
+            header.addTable(FlatGeobufSchema.HEADER_CRS, createCrs(crs));
+        }
+        return header;
+    }
+
+    /**
+     * Creates the crs table.
+     * @param crs crs of the features
+     * @return crs table
+     * @throws IOException exception if the lookup of the epsg code fails
+     */
+    private static FlatBufferBuilder.Table createCrs(
+            final CoordinateReferenceSystem crs) throws IOException {
+        final FlatBufferBuilder.Table table =
+                new FlatBufferBuilder.Table(FlatGeobufSchema.CRS_FIELDS);
+        try {
+            final Integer code = CRS.lookupEpsgCode(crs, true);
+            if (code != null) {
+                table.addString(FlatGeobufSchema.CRS_ORG, "EPSG");
+                table.addInt(FlatGeobufSchema.CRS_CODE, code);
+            }
+        } catch (final FactoryException factoryException) {
+            throw new IOException(factoryException);
+        }
+        table.addString(FlatGeobufSchema.CRS_WKT, crs.toWKT());
+        return table;
+    }
+
+    /**
+     * Creates the feature table.
+     * @param feature feature to write
+     * @param headerGeometryType geometry type given in the header
+     * @param columns attributes to write as columns
+     * @param columnTypes FlatGeobuf types of the columns
+     * @return feature table
+     * @throws IOException exception if a geometry or value is not supported
+     */
+    private static FlatBufferBuilder.Table createFeature(
+            final SimpleFeature feature,
+            final int headerGeometryType,
+            final List<AttributeDescriptor> columns,
+            final List<Integer> columnTypes) throws IOException {
+        final FlatBufferBuilder.Table table =
+                new FlatBufferBuilder.Table(FlatGeobufSchema.FEATURE_FIELDS);
+
+        final Object geometry = feature.getDefaultGeometry();
+        if (geometry instanceof Geometry && !((Geometry) geometry).isEmpty()) {
+            table.addTable(
+                    FlatGeobufSchema.FEATURE_GEOMETRY,
+                    createGeometry(fitToHeader(
+                            (Geometry) geometry, headerGeometryType)));
+        }
+
+        final ByteArrayOutputStream properties = new ByteArrayOutputStream();
+        for (int i = 0; i < columns.size(); i += 1) {
+            final Object value =
+                    feature.getAttribute(columns.get(i).getLocalName());
+            if (value != null) {
+                writeProperty(properties, i, columnTypes.get(i), value);
+            }
+        }
+        if (properties.size() > 0) {
+            table.addUBytes(
+                    FlatGeobufSchema.FEATURE_PROPERTIES,
+                    properties.toByteArray());
+        }
+        return table;
+    }
+
+    /**
+     * Writes a single property (column index + value).
+     * @param properties stream to write to
+     * @param columnIndex index of the column
+     * @param columnType FlatGeobuf type of the column
+     * @param value value to write
+     * @throws IOException exception if the value can't be written
+     */
+    private static void writeProperty(
+            final ByteArrayOutputStream properties,
+            final int columnIndex,
+            final int columnType,
+            final Object value) throws IOException {
+        final ByteBuffer buffer;
+        switch (columnType) {
+            case FlatGeobufSchema.COLUMN_BOOL:
+                buffer = allocate(Byte.BYTES)
+                        .put((byte) (Boolean.TRUE.equals(value) ? 1 : 0));
+                break;
+            case FlatGeobufSchema.COLUMN_BYTE:
+                buffer = allocate(Byte.BYTES)
+                        .put(((Number) value).byteValue());
+                break;
+            case FlatGeobufSchema.COLUMN_SHORT:
+                buffer = allocate(Short.BYTES)
+                        .putShort(((Number) value).shortValue());
+                break;
+            case FlatGeobufSchema.COLUMN_INT:
+                buffer = allocate(Integer.BYTES)
+                        .putInt(((Number) value).intValue());
+                break;
+            case FlatGeobufSchema.COLUMN_LONG:
+                buffer = allocate(Long.BYTES)
+                        .putLong(((Number) value).longValue());
+                break;
+            case FlatGeobufSchema.COLUMN_FLOAT:
+                buffer = allocate(Float.BYTES)
+                        .putFloat(((Number) value).floatValue());
+                break;
+            case FlatGeobufSchema.COLUMN_DOUBLE:
+                buffer = allocate(Double.BYTES)
+                        .putDouble(((Number) value).doubleValue());
+                break;
+            case FlatGeobufSchema.COLUMN_DATETIME:
+                buffer = encodeString(formatDate((Date) value));
+                break;
+            case FlatGeobufSchema.COLUMN_STRING:
+                buffer = encodeString(String.valueOf(value));
+                break;
+            default:
+                throw new IOException(
+                        "Column type " + columnType + " is not supported");
+        }
+        properties.write(allocate(Short.BYTES)
+                .putShort((short) columnIndex)
+                .array());
+        properties.write(buffer.array());
+    }
+
+    /**
+     * Encodes a string value (length + utf-8 bytes).
+     * @param value string to encode
+     * @return buffer with the encoded string
+     */
+    private static ByteBuffer encodeString(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return allocate(Integer.BYTES + bytes.length)
+                .putInt(bytes.length)
+                .put(bytes);
+    }
+
+    /**
+     * Formats a date as ISO 8601 string in UTC.
+     * @param date date to format
+     * @return formatted string
+     */
+    private static String formatDate(final Date date) {
+        final SimpleDateFormat format = new SimpleDateFormat(ISO_8601);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    /**
+     * Allocates a little endian buffer.
+     * @param size size of the buffer
+     * @return buffer
+     */
+    private static ByteBuffer allocate(final int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates the geometry table.
+     * @param geometry geometry to write
+     * @return geometry table
+     * @throws IOException exception if the geometry type is not supported
+     */
+    private static FlatBufferBuilder.Table createGeometry(
+            final Geometry geometry) throws IOException {
+        final FlatBufferBuilder.Table table =
+                new FlatBufferBuilder.Table(FlatGeobufSchema.GEOMETRY_FIELDS);
+        final int type = toGeometryType(geometry.getClass());
+        table.addUByte(FlatGeobufSchema.GEOMETRY_TYPE, type);
+
+        switch (type) {
+            case FlatGeobufSchema.TYPE_POINT:
+            case FlatGeobufSchema.TYPE_LINESTRING:
+            case FlatGeobufSchema.TYPE_MULTIPOINT:
+                table.addDoubles(
+                        FlatGeobufSchema.GEOMETRY_XY,
+                        toXy(geometry.getCoordinates()));
+                break;
+            case FlatGeobufSchema.TYPE_POLYGON:
+                addRings(table, (Polygon) geometry);
+                break;
+            case FlatGeobufSchema.TYPE_MULTILINESTRING:
+                addParts(table, (MultiLineString) geometry);
+                break;
+            case FlatGeobufSchema.TYPE_MULTIPOLYGON:
+            case FlatGeobufSchema.TYPE_GEOMETRYCOLLECTION:
+                table.addTables(
+                        FlatGeobufSchema.GEOMETRY_PARTS,
+                        createParts(geometry));
+                break;
+            default:
+                throw new IOException("Geometry type "
+                        + geometry.getGeometryType() + " is not supported");
+        }
+        return table;
+    }
+
+    /**
+     * Makes sure that the geometry has the type given in the header,
+     * as readers use the header type for all the features.
+     * Single geometries are promoted to their multi type (for example
+     * a polygon in a multi polygon schema).
+     * @param geometry geometry of the feature
+     * @param headerGeometryType geometry type given in the header
+     * @return geometry with the type of the header
+     * @throws IOException exception if the geometry can't be converted
+     * to the type of the header
+     */
+    private static Geometry fitToHeader(
+            final Geometry geometry,
+            final int headerGeometryType) throws IOException {
+        if (headerGeometryType == FlatGeobufSchema.TYPE_UNKNOWN
+                || headerGeometryType
+                    == toGeometryType(geometry.getClass())) {
+            return geometry;
+        }
+        final GeometryFactory factory = geometry.getFactory();
+        if (headerGeometryType == FlatGeobufSchema.TYPE_MULTIPOINT
+                && geometry instanceof Point) {
+            return factory.createMultiPoint(
+                    new Point[] {(Point) geometry});
+        }
+        if (headerGeometryType == FlatGeobufSchema.TYPE_MULTILINESTRING
+                && geometry instanceof LineString) {
+            return factory.createMultiLineString(
+                    new LineString[] {(LineString) geometry});
+        }
+        if (headerGeometryType == FlatGeobufSchema.TYPE_MULTIPOLYGON
+                && geometry instanceof Polygon) {
+            return factory.createMultiPolygon(
+                    new Polygon[] {(Polygon) geometry});
+        }
+        throw new IOException("Geometry type "
+                + geometry.getGeometryType()
+                + " does not fit the geometry type of the schema");
+    }
+
+    /**
+     * Creates the geometry tables for all the parts.
+     * @param geometry multi geometry or geometry collection
+     * @return list of geometry tables
+     * @throws IOException exception if a geometry type is not supported
+     */
+    private static List<FlatBufferBuilder.Table> createParts(
+            final Geometry geometry) throws IOException {
+        final List<FlatBufferBuilder.Table> parts = new ArrayList<>();
+        for (int i = 0; i < geometry.getNumGeometries(); i += 1) {
+            parts.add(createGeometry(geometry.getGeometryN(i)));
+        }
+        return parts;
+    }
+
+    /**
+     * Adds the coordinates of all rings of the polygon.
+     * @param table geometry table to add the values
+     * @param polygon polygon to write
+     */
+    private static void addRings(
+            final FlatBufferBuilder.Table table,
+            final Polygon polygon) {
+        final List<LineString> rings = new ArrayList<>();
+        rings.add(polygon.getExteriorRing());
+        for (int i = 0; i < polygon.getNumInteriorRing(); i += 1) {
+            rings.add(polygon.getInteriorRingN(i));
+        }
+        addLines(table, rings);
+    }
+
+    /**
+     * Adds the coordinates of all lines of the multi line string.
+     * @param table geometry table to add the values
+     * @param multiLineString lines to write
+     */
+    private static void addParts(
+            final FlatBufferBuilder.Table table,
+            final MultiLineString multiLineString) {
+        final List<LineString> lines = new ArrayList<>();
+        for (int i = 0; i < multiLineString.getNumGeometries(); i += 1) {
+            lines.add((LineString) multiLineString.getGeometryN(i));
+        }
+        addLines(table, lines);
+    }
+
+    /**
+     * Adds the coordinates of lines and their end indices.
+     * @param table geometry table to add the values
+     * @param lines lines to write
+     */
+    private static void addLines(
+            final FlatBufferBuilder.Table table,
+            final List<LineString> lines) {
+        final List<Coordinate> coordinates = new ArrayList<>();
+        final int[] ends = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i += 1) {
+            for (final Coordinate coordinate : lines.get(i).getCoordinates()) {
+                coordinates.add(coordinate);
+            }
+            ends[i] = coordinates.size();
+        }
+        table.addDoubles(
+                FlatGeobufSchema.GEOMETRY_XY,
+                toXy(coordinates.toArray(new Coordinate[0])));
+        if (ends.length > 1) {
+            table.addUInts(FlatGeobufSchema.GEOMETRY_ENDS, ends);
+        }
+    }
+
+    /**
+     * Converts the coordinates to interleaved x & y values.
+     * @param coordinates coordinates to convert
+     * @return interleaved x & y values
+     */
+    private static double[] toXy(final Coordinate[] coordinates) {
+        final double[] xy = new double[coordinates.length * 2];
+        for (int i = 0; i < coordinates.length; i += 1) {
+            xy[2 * i] = coordinates[i].x;
+            xy[2 * i + 1] = coordinates[i].y;
+        }
+        return xy;
+    }
+
+    /**
+     * Geometry type for the header.
+     * @param featureType type of the features
+     * @return FlatGeobuf geometry type for all of the features
+     */
+    private static int toGeometryType(final SimpleFeatureType featureType) {
+        final GeometryDescriptor descriptor =
+                featureType.getGeometryDescriptor();
+        if (descriptor == null) {
+            return FlatGeobufSchema.TYPE_UNKNOWN;
+        }
+        return toGeometryType(descriptor.getType().getBinding());
+    }
+
+    /**
+     * Maps the jts classes to the FlatGeobuf geometry types.
+     * @param geometryClass class of the geometry
+     * @return FlatGeobuf geometry type
+     */
+    private static int toGeometryType(final Class<?> geometryClass) {
+        if (Point.class.equals(geometryClass)) {
+            return FlatGeobufSchema.TYPE_POINT;
+        }
+        if (LineString.class.isAssignableFrom(geometryClass)) {
+            return FlatGeobufSchema.TYPE_LINESTRING;
+        }
+        if (Polygon.class.equals(geometryClass)) {
+            return FlatGeobufSchema.TYPE_POLYGON;
+        }
+        if (MultiPoint.class.equals(geometryClass)) {
+            return FlatGeobufSchema.TYPE_MULTIPOINT;
+        }
+        if (MultiLineString.class.equals(geometryClass)) {
+            return FlatGeobufSchema.TYPE_MULTILINESTRING;
+        }
+        if (MultiPolygon.class.equals(geometryClass)) {
+            return FlatGeobufSchema.TYPE_MULTIPOLYGON;
+        }
+        if (GeometryCollection.class.equals(geometryClass)) {
+            return FlatGeobufSchema.TYPE_GEOMETRYCOLLECTION;
+        }
+        return FlatGeobufSchema.TYPE_UNKNOWN;
+    }
+
+    /**
+     * Maps the attribute classes to the FlatGeobuf column types.
+     * Everything that is not supported directly is written as string.
+     * @param binding class of the attribute
+     * @return FlatGeobuf column type
+     */
+    private static int toColumnType(final Class<?> binding) {
+        if (Boolean.class.equals(binding)) {
+            return FlatGeobufSchema.COLUMN_BOOL;
+        }
+        if (Byte.class.equals(binding)) {
+            return FlatGeobufSchema.COLUMN_BYTE;
+        }
+        if (Short.class.equals(binding)) {
+            return FlatGeobufSchema.COLUMN_SHORT;
+        }
+        if (Integer.class.equals(binding)) {
+            return FlatGeobufSchema.COLUMN_INT;
+        }
+        if (Long.class.equals(binding)) {
+            return FlatGeobufSchema.COLUMN_LONG;
+        }
+        if (Float.class.equals(binding)) {
+            return FlatGeobufSchema.COLUMN_FLOAT;
+        }
+        if (Number.class.isAssignableFrom(binding)) {
+            return FlatGeobufSchema.COLUMN_DOUBLE;
+        }
+        if (Date.class.isAssignableFrom(binding)) {
+            return FlatGeobufSchema.COLUMN_DATETIME;
+        }
+        return FlatGeobufSchema.COLUMN_STRING;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.flatgeobuf.functions;
+
+/**
+ * Constants of the FlatGeobuf format (version 3).
+ *
+ * The field indices are the ids of the fields in the
+ * header.fbs and feature.fbs schema files.
+ */
+final class FlatGeobufSchema {
+
+    /**
+     * Magic bytes at the start of every FlatGeobuf file.
+     */
+    static final byte[] MAGIC_BYTES = {
+            0x66, 0x67, 0x62, 0x03, 0x66, 0x67, 0x62, 0x00
+    };
+
+    /**
+     * Index of the byte with the major version in the magic bytes.
+     */
+    static final int MAGIC_VERSION_INDEX = 3;
+
+    /**
+     * Size of the node items in the packed r-tree index.
+     * (4 doubles for the bbox + 1 ulong for the offset).
+     */
+    static final int INDEX_NODE_ITEM_SIZE = 40;
+
+    /**
+     * Default size of the index nodes (if not given in the header).
+     */
+    static final int DEFAULT_INDEX_NODE_SIZE = 16;
+
+    // Header table
+
+    /**
+     * Number of fields in the header table.
+     */
+    static final int HEADER_FIELDS = 14;
+    /**
+     * Name of the dataset.
+     */
+    static final int HEADER_NAME = 0;
+    /**
+     * Type of all the geometries (or unknown).
+     */
+    static final int HEADER_GEOMETRY_TYPE = 2;
+    /**
+     * Flag if there are z values.
+     */
+    static final int HEADER_HAS_Z = 3;
+    /**
+     * Columns of the dataset.
+     */
+    static final int HEADER_COLUMNS = 7;
+    /**
+     * Number of features.
+     */
+    static final int HEADER_FEATURES_COUNT = 8;
+    /**
+     * Node size of the index (0 for no index).
+     */
+    static final int HEADER_INDEX_NODE_SIZE = 9;
+    /**
+     * Crs of the dataset.
+     */
+    static final int HEADER_CRS = 10;
+
+    // Column table
+
+    /**
+     * Number of fields in the column table.
+     */
+    static final int COLUMN_FIELDS = 11;
+    /**
+     * Name of the column.
+     */
+    static final int COLUMN_NAME = 0;
+    /**
+     * Type of the column.
+     */
+    static final int COLUMN_TYPE = 1;
+
+    // Crs table
+
+    /**
+     * Number of fields in the crs table.
+     */
+    static final int CRS_FIELDS = 6;
+    /**
+     * Organization of the crs code.
+     */
+    static final int CRS_ORG = 0;
+    /**
+     * Code of the crs.
+     */
+    static final int CRS_CODE = 1;
+    /**
+     * Wkt of the crs.
+     */
+    static final int CRS_WKT = 4;
+
+    // Feature table
+
+    /**
+     * Number of fields in the feature table.
+     */
+    static final int FEATURE_FIELDS = 3;
+    /**
+     * Geometry of the feature.
+     */
+    static final int FEATURE_GEOMETRY = 0;
+    /**
+     * Encoded properties of the feature.
+     */
+    static final int FEATURE_PROPERTIES = 1;
+
+    // Geometry table
+
+    /**
+     * Number of fields in the geometry table.
+     */
+    static final int GEOMETRY_FIELDS = 8;
+    /**
+     * End indices of the rings / parts.
+     */
+    static final int GEOMETRY_ENDS = 0;
+    /**
+     * Interleaved x & y values.
+     */
+    static final int GEOMETRY_XY = 1;
+    /**
+     * Z values.
+     */
+    static final int GEOMETRY_Z = 2;
+    /**
+     * Type of the geometry.
+     */
+    static final int GEOMETRY_TYPE = 6;
+    /**
+     * Parts of the geometry (for multi polygons & collections).
+     */
+    static final int GEOMETRY_PARTS = 7;
+
+    // Geometry types
+
+    /**
+     * Unknown geometry type (mixed types).
+     */
+    static final int TYPE_UNKNOWN = 0;
+    /**
+     * Point.
+     */
+    static final int TYPE_POINT = 1;
+    /**
+     * LineString.
+     */
+    static final int TYPE_LINESTRING = 2;
+    /**
+     * Polygon.
+     */
+    static final int TYPE_POLYGON = 3;
+    /**
+     * MultiPoint.
+     */
+    static final int TYPE_MULTIPOINT = 4;
+    /**
+     * MultiLineString.
+     */
+    static final int TYPE_MULTILINESTRING = 5;
+    /**
+     * MultiPolygon.
+     */
+    static final int TYPE_MULTIPOLYGON = 6;
+    /**
+     * GeometryCollection.
+     */
+    static final int TYPE_GEOMETRYCOLLECTION = 7;
+
+    // Column types
+
+    /**
+     * Signed byte.
+     */
+    static final int COLUMN_BYTE = 0;
+    /**
+     * Unsigned byte.
+     */
+    static final int COLUMN_UBYTE = 1;
+    /**
+     * Boolean.
+     */
+    static final int COLUMN_BOOL = 2;
+    /**
+     * Signed short.
+     */
+    static final int COLUMN_SHORT = 3;
+    /**
+     * Unsigned short.
+     */
+    static final int COLUMN_USHORT = 4;
+    /**
+     * Signed int.
+     */
+    static final int COLUMN_INT = 5;
+    /**
+     * Unsigned int.
+     */
+    static final int COLUMN_UINT = 6;
+    /**
+     * Signed long.
+     */
+    static final int COLUMN_LONG = 7;
+    /**
+     * Unsigned long.
+     */
+    static final int COLUMN_ULONG = 8;
+    /**
+     * Float.
+     */
+    static final int COLUMN_FLOAT = 9;
+    /**
+     * Double.
+     */
+    static final int COLUMN_DOUBLE = 10;
+    /**
+     * String.
+     */
+    static final int COLUMN_STRING = 11;
+    /**
+     * Json (encoded as string).
+     */
+    static final int COLUMN_JSON = 12;
+    /**
+     * DateTime (ISO 8601 string).
+     */
+    static final int COLUMN_DATETIME = 13;
+    /**
+     * Binary.
+     */
+    static final int COLUMN_BINARY = 14;
+
+    /**
+     * Private constructor - just constants here.
+     */
+    private FlatGeobufSchema() {
+        // just constants
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.flatgeobuf.generators;
+
+import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOption;
+import org.n52.gfz.riesgos.formats.flatgeobuf.functions.FlatGeobufFeatureWriter;
+import org.n52.wps.io.data.IData;
+import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
+import org.n52.wps.io.datahandler.generator.AbstractGenerator;
+import org.n52.wps.webapp.api.FormatEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Generator to give back vector data as FlatGeobuf.
+ */
+public class FlatGeobufGenerator extends AbstractGenerator {
+
+    /**
+     * Logger to log unexpected behaviour.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(FlatGeobufGenerator.class);
+
+    /**
+     * Default constructor.
+     */
+    public FlatGeobufGenerator() {
+        super();
+
+        final FormatEntry flatgeobuf =
+                DefaultFormatOption.FLATGEOBUF.getFormat();
+        supportedIDataTypes.add(GTVectorDataBinding.class);
+        supportedFormats.add(flatgeobuf.getMimeType());
+        supportedEncodings.add(flatgeobuf.getEncoding());
+        formats.add(flatgeobuf);
+    }
+
+    /**
+     * Generates in input stream with the data.
+     * @param data data to give back.
+     * @param mimeType mime type for the data
+     * @param schema schema for the data
+     * @return input stream with the data
+     * @throws IOException exception that may be thrown on writing the
+     * features
+     */
+    @Override
+    public InputStream generateStream(
+            final IData data,
+            final String mimeType,
+            final String schema)
+            throws IOException {
+
+        if (data instanceof GTVectorDataBinding) {
+            final GTVectorDataBinding binding = (GTVectorDataBinding) data;
+            final ByteArrayOutputStream outputStream =
+                    new ByteArrayOutputStream();
+            new FlatGeobufFeatureWriter().write(
+                    binding.getPayload(), outputStream);
+            return new ByteArrayInputStream(outputStream.toByteArray());
+        } else {
+            LOGGER.error(
+                    "Can't convert another data "
+                            + "binding as GTVectorDataBinding");
+        }
+        return null;
+    }
+}
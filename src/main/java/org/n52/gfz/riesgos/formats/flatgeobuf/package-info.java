@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+/**
+ * FlatGeobuf specific functionality.
+ *
+ * FlatGeobuf is a binary format for vector data
+ * (https://flatgeobuf.org/) that is quite fast to read and write
+ * compared to geojson or shapefiles.
+ */
+package org.n52.gfz.riesgos.formats.flatgeobuf;
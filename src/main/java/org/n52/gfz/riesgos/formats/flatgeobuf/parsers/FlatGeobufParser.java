@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.flatgeobuf.parsers;
+
+import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOption;
+import org.n52.gfz.riesgos.formats.flatgeobuf.functions.FlatGeobufFeatureReader;
+import org.n52.wps.io.data.IData;
+import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
+import org.n52.wps.io.datahandler.parser.AbstractParser;
+import org.n52.wps.webapp.api.FormatEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parser for FlatGeobuf input data.
+ */
+public class FlatGeobufParser extends AbstractParser {
+
+    /**
+     * Logger for logging unexpected behaviour.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(FlatGeobufParser.class);
+
+    /**
+     * Default constructor.
+     */
+    public FlatGeobufParser() {
+        super();
+
+        final FormatEntry flatgeobuf =
+                DefaultFormatOption.FLATGEOBUF.getFormat();
+        supportedIDataTypes.add(GTVectorDataBinding.class);
+        supportedFormats.add(flatgeobuf.getMimeType());
+        supportedEncodings.add(flatgeobuf.getEncoding());
+        formats.add(flatgeobuf);
+    }
+
+    /**
+     * Parses the input stream to a IData binding class.
+     * @param input stream with the input data
+     * @param mimeType mimetype of the data
+     * @param schema schema of the data
+     * @return GTVectorDataBinding
+     */
+    @Override
+    public IData parse(
+            final InputStream input,
+            final String mimeType,
+            final String schema) {
+
+        try {
+            return new GTVectorDataBinding(
+                    new FlatGeobufFeatureReader().read(input));
+        } catch (final IOException exception) {
+            LOGGER.error(
+                    "It is not possible to parse the flatgeobuf", exception);
+        }
+
+        return null;
+    }
+}
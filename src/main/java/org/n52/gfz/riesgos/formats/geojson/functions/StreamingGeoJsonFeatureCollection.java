@@ -0,0 +1,439 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.geojson.functions;
+
+import com.vividsolutions.jts.geom.Geometry;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.feature.collection.AbstractFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geojson.feature.FeatureJSON;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.util.Converters;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Feature collection that reads its features from a GeoJSON file
+ * every time it is iterated.
+ *
+ * So the features are never all in memory at the same time - which
+ * makes a big difference for large outputs (the in memory
+ * representation of features takes several times the size of the
+ * GeoJSON text).
+ *
+ * The schema is inferred from the first features of the file.
+ * Attributes that show up later are not part of the collection;
+ * values are converted to the types of the schema.
+ *
+ * The file is retained in the temp file arena as long as
+ * the collection is in use.
+ */
+public class StreamingGeoJsonFeatureCollection
+        extends AbstractFeatureCollection {
+
+    /**
+     * Default number of features to read for inferring the schema.
+     */
+    public static final int DEFAULT_SCHEMA_PREFIX_SIZE = 1000;
+
+    /**
+     * Name of the geometry attribute (the same that FeatureJSON uses).
+     */
+    private static final String GEOMETRY_NAME = "geometry";
+
+    /**
+     * Name of the feature type (the same that FeatureJSON uses).
+     */
+    private static final String TYPE_NAME = "feature";
+
+    /**
+     * File with the GeoJSON content.
+     */
+    private final File file;
+
+    /**
+     * Number of features (computed on first use).
+     */
+    private volatile Integer size;
+
+    /**
+     * Bounds of the features (computed on first use).
+     */
+    private volatile ReferencedEnvelope bounds;
+
+    /**
+     * Creates the collection with an already known schema.
+     * @param aFile file with the GeoJSON content
+     * @param aFeatureType schema of the features
+     */
+    private StreamingGeoJsonFeatureCollection(
+            final File aFile,
+            final SimpleFeatureType aFeatureType) {
+        super(aFeatureType);
+        this.file = aFile;
+        TempFileArenaSingleton.INSTANCE.retain(aFile, this);
+    }
+
+    /**
+     * Creates a collection for the given file and infers the
+     * schema from the first features.
+     * @param file file with the GeoJSON content
+     * @param schemaPrefixSize number of features to inspect for the schema
+     * @return feature collection
+     * @throws IOException exception in case the file can't be read
+     */
+    public static StreamingGeoJsonFeatureCollection fromFile(
+            final File file,
+            final int schemaPrefixSize) throws IOException {
+        return new StreamingGeoJsonFeatureCollection(
+                file, inferSchema(file, schemaPrefixSize));
+    }
+
+    /**
+     * Creates a collection for the given file and infers the
+     * schema from the first features.
+     * @param file file with the GeoJSON content
+     * @return feature collection
+     * @throws IOException exception in case the file can't be read
+     */
+    public static StreamingGeoJsonFeatureCollection fromFile(
+            final File file) throws IOException {
+        return fromFile(file, DEFAULT_SCHEMA_PREFIX_SIZE);
+    }
+
+    /**
+     * Reads the first features of the file and creates a schema
+     * with all the attributes that are used in those.
+     * @param file file with the GeoJSON content
+     * @param schemaPrefixSize number of features to inspect
+     * @return feature type
+     * @throws IOException exception in case the file can't be read
+     */
+    private static SimpleFeatureType inferSchema(
+            final File file,
+            final int schemaPrefixSize) throws IOException {
+
+        final Map<String, Class<?>> attributes = new LinkedHashMap<>();
+        Class<?> geometryBinding = null;
+        CoordinateReferenceSystem crs = null;
+
+        try (InputStream inputStream = openStream(file)) {
+            final FeatureIterator<SimpleFeature> iterator =
+                    new FeatureJSON().streamFeatureCollection(inputStream);
+            try {
+                int count = 0;
+                while (count < schemaPrefixSize && iterator.hasNext()) {
+                    final SimpleFeature feature = iterator.next();
+                    final SimpleFeatureType type = feature.getFeatureType();
+                    if (crs == null) {
+                        crs = type.getCoordinateReferenceSystem();
+                    }
+                    final Object geometry = feature.getDefaultGeometry();
+                    if (geometry != null) {
+                        geometryBinding = widen(
+                                geometryBinding, geometry.getClass());
+                    }
+                    for (final AttributeDescriptor descriptor
+                            : type.getAttributeDescriptors()) {
+                        final String name = descriptor.getLocalName();
+                        final Object value = feature.getAttribute(name);
+                        if (GEOMETRY_NAME.equals(name)) {
+                            continue;
+                        }
+                        final Class<?> known = attributes.get(name);
+                        if (value == null) {
+                            if (!attributes.containsKey(name)) {
+                                attributes.put(name, null);
+                            }
+                        } else {
+                            attributes.put(
+                                    name, widen(known, value.getClass()));
+                        }
+                    }
+                    count += 1;
+                }
+            } finally {
+                iterator.close();
+            }
+        }
+
+        final SimpleFeatureTypeBuilder builder =
+                new SimpleFeatureTypeBuilder();
+        builder.setName(TYPE_NAME);
+        if (crs != null) {
+            builder.setCRS(crs);
+        }
+        builder.add(GEOMETRY_NAME, geometryBinding == null
+                ? Geometry.class : geometryBinding);
+        for (final Map.Entry<String, Class<?>> entry
+                : attributes.entrySet()) {
+            // attributes that only had null values in the prefix
+            // are kept as strings
+            builder.add(entry.getKey(), entry.getValue() == null
+                    ? String.class : entry.getValue());
+        }
+        builder.setDefaultGeometry(GEOMETRY_NAME);
+        return builder.buildFeatureType();
+    }
+
+    /**
+     * Combines the class that is known so far with another one.
+     * @param known class that is known so far (may be null)
+     * @param other class of another value
+     * @return class that can hold both
+     */
+    private static Class<?> widen(final Class<?> known, final Class<?> other) {
+        if (known == null || known.equals(other)) {
+            return other;
+        }
+        if (Geometry.class.isAssignableFrom(known)
+                && Geometry.class.isAssignableFrom(other)) {
+            return Geometry.class;
+        }
+        if (Number.class.isAssignableFrom(known)
+                && Number.class.isAssignableFrom(other)) {
+            if (isIntegral(known) && isIntegral(other)) {
+                return Long.class;
+            }
+            return Double.class;
+        }
+        return String.class;
+    }
+
+    /**
+     * Checks if the class is an integral number type.
+     * @param clazz class to check
+     * @return true if the type has no fractional part
+     */
+    private static boolean isIntegral(final Class<?> clazz) {
+        return Integer.class.equals(clazz)
+                || Long.class.equals(clazz)
+                || Short.class.equals(clazz)
+                || Byte.class.equals(clazz);
+    }
+
+    /**
+     * Opens a buffered stream for the file.
+     * @param file file to read
+     * @return input stream
+     * @throws IOException exception in case the file can't be opened
+     */
+    private static InputStream openStream(final File file)
+            throws IOException {
+        return new BufferedInputStream(new FileInputStream(file));
+    }
+
+    /**
+     *
+     * @return file with the content of the collection
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Opens a new iterator that reads through the file.
+     * @return iterator with the features
+     */
+    @Override
+    protected Iterator<SimpleFeature> openIterator() {
+        try {
+            return new RetypingIterator(openStream(file), getSchema());
+        } catch (final IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     *
+     * @return number of features
+     */
+    @Override
+    public int size() {
+        computeStatistics();
+        return size;
+    }
+
+    /**
+     *
+     * @return bounds of all the features
+     */
+    @Override
+    public ReferencedEnvelope getBounds() {
+        computeStatistics();
+        return bounds;
+    }
+
+    /**
+     * Runs once through the file to compute size and bounds.
+     */
+    private synchronized void computeStatistics() {
+        if (size != null) {
+            return;
+        }
+        final ReferencedEnvelope envelope = new ReferencedEnvelope(
+                getSchema().getCoordinateReferenceSystem());
+        int count = 0;
+        try (RetypingIterator iterator = (RetypingIterator) openIterator()) {
+            while (iterator.hasNext()) {
+                final Object geometry = iterator.next().getDefaultGeometry();
+                if (geometry instanceof Geometry) {
+                    envelope.expandToInclude(
+                            ((Geometry) geometry).getEnvelopeInternal());
+                }
+                count += 1;
+            }
+        }
+        bounds = envelope;
+        size = count;
+    }
+
+    /**
+     * Iterator that streams the features of the file and
+     * brings them into the schema of the collection.
+     *
+     * As it is a SimpleFeatureIterator itself the collection
+     * hands it out directly, so closing it closes the file.
+     */
+    private static final class RetypingIterator
+            implements Iterator<SimpleFeature>, SimpleFeatureIterator,
+            AutoCloseable {
+
+        /**
+         * Stream to read from.
+         */
+        private final InputStream inputStream;
+
+        /**
+         * Iterator of the GeoJSON parser.
+         */
+        private final FeatureIterator<SimpleFeature> delegate;
+
+        /**
+         * Builder for the features in the schema of the collection.
+         */
+        private final SimpleFeatureBuilder builder;
+
+        /**
+         * Schema of the collection.
+         */
+        private final SimpleFeatureType featureType;
+
+        /**
+         * Creates the iterator.
+         * @param anInputStream stream to read from
+         * @param aFeatureType schema of the collection
+         * @throws IOException exception in case the stream can't be read
+         */
+        private RetypingIterator(
+                final InputStream anInputStream,
+                final SimpleFeatureType aFeatureType) throws IOException {
+            this.inputStream = anInputStream;
+            this.delegate =
+                    new FeatureJSON().streamFeatureCollection(anInputStream);
+            this.featureType = aFeatureType;
+            this.builder = new SimpleFeatureBuilder(aFeatureType);
+        }
+
+        /**
+         *
+         * @return true if there is another feature
+         */
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        /**
+         *
+         * @return next feature in the schema of the collection
+         */
+        @Override
+        public SimpleFeature next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final SimpleFeature source = delegate.next();
+            final SimpleFeatureType sourceType = source.getFeatureType();
+            for (final AttributeDescriptor descriptor
+                    : featureType.getAttributeDescriptors()) {
+                final String name = descriptor.getLocalName();
+                if (GEOMETRY_NAME.equals(name)) {
+                    builder.add(source.getDefaultGeometry());
+                } else if (sourceType.getDescriptor(name) == null) {
+                    builder.add(null);
+                } else {
+                    builder.add(convert(
+                            source.getAttribute(name),
+                            descriptor.getType().getBinding()));
+                }
+            }
+            return builder.buildFeature(source.getID());
+        }
+
+        /**
+         * Converts the value to the binding of the schema.
+         * @param value value to convert
+         * @param binding target class
+         * @return converted value (or null if there is no conversion)
+         */
+        private static Object convert(
+                final Object value,
+                final Class<?> binding) {
+            if (value == null || binding.isInstance(value)) {
+                return value;
+            }
+            final Object converted = Converters.convert(value, binding);
+            if (converted == null && String.class.equals(binding)) {
+                return String.valueOf(value);
+            }
+            return converted;
+        }
+
+        /**
+         * Closes the parser and the underlying stream.
+         */
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                try {
+                    inputStream.close();
+                } catch (final IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.geotiff.generators;
+
+import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOption;
+import org.n52.gfz.riesgos.util.Base64EncodingInputStream;
+import org.n52.wps.io.data.IData;
+import org.n52.wps.io.data.binding.complex.GTRasterDataBinding;
+import org.n52.wps.io.data.binding.complex.GeotiffBinding;
+import org.n52.wps.io.datahandler.generator.AbstractGenerator;
+import org.n52.wps.io.datahandler.generator.GeotiffGenerator;
+import org.n52.wps.webapp.api.FormatEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Generator for geotiffs (binary & base64) that encodes the
+ * base64 output while streaming it to the response.
+ *
+ * The tiff itself is generated by the GeotiffGenerator of the wps
+ * (which uses a file for it), so only a small buffer is needed
+ * for the base64 output instead of the complete encoded raster.
+ *
+ * It doesn't extend the GeotiffGenerator, so that the original
+ * generator can be rejected in the repository.
+ */
+public class StreamingGeotiffGenerator extends AbstractGenerator {
+
+    /**
+     * Mime type that is also used for geotiffs.
+     */
+    private static final String MIME_TYPE_TIFF = "image/tiff";
+
+    /**
+     * Generator that writes the tiffs.
+     */
+    private final GeotiffGenerator tiffGenerator;
+
+    /**
+     * Default constructor.
+     */
+    public StreamingGeotiffGenerator() {
+        super();
+
+        final FormatEntry geotiff =
+                DefaultFormatOption.GEOTIFF.getFormat();
+        final FormatEntry geotiff64 =
+                DefaultFormatOption.GEOTIFF_BASE_64.getFormat();
+
+        supportedIDataTypes.add(GeotiffBinding.class);
+        supportedIDataTypes.add(GTRasterDataBinding.class);
+        supportedEncodings.add(geotiff.getEncoding());
+        supportedEncodings.add(geotiff64.getEncoding());
+        supportedFormats.add(geotiff.getMimeType());
+        supportedFormats.add(MIME_TYPE_TIFF);
+        formats.add(geotiff);
+        formats.add(geotiff64);
+
+        tiffGenerator = new GeotiffGenerator();
+    }
+
+    /**
+     * Generates the stream with the binary tiff.
+     * @param data data to give back
+     * @param mimeType mimetype of the data
+     * @param schema schema of the data
+     * @return input stream with the data
+     * @throws IOException exception on writing the tiff
+     */
+    @Override
+    public InputStream generateStream(
+            final IData data,
+            final String mimeType,
+            final String schema) throws IOException {
+        return tiffGenerator.generateStream(data, mimeType, schema);
+    }
+
+    /**
+     * Generates the stream with the base64 encoded tiff.
+     * @param data data to give back
+     * @param mimeType mimetype of the data
+     * @param schema schema of the data
+     * @return input stream that encodes the tiff while reading
+     * @throws IOException exception on writing the tiff
+     */
+    @Override
+    public InputStream generateBase64Stream(
+            final IData data,
+            final String mimeType,
+            final String schema) throws IOException {
+        final InputStream tiff = generateStream(data, mimeType, schema);
+        if (tiff == null) {
+            return null;
+        }
+        return new Base64EncodingInputStream(tiff);
+    }
+}
@@ -18,6 +18,8 @@ package org.n52.gfz.riesgos.formats.geotiff.parsers;
 
 import org.apache.commons.io.IOUtils;
 import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOption;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileScope;
 import org.n52.wps.io.data.IData;
 import org.n52.wps.io.data.binding.complex.GeotiffBinding;
 import org.n52.wps.io.datahandler.parser.AbstractParser;
@@ -68,17 +70,20 @@ public class GeotiffParser extends AbstractParser {
             final String mimeType,
             final String schema) {
 
-        try {
-        final File tempFile = File.createTempFile(
-                "parseGeotiff", ".tiff");
-            tempFile.deleteOnExit();
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            final File tempFile = scope.createTempFile(
+                    "parseGeotiff", ".tiff");
 
             try (FileOutputStream fileOutputStream =
                          new FileOutputStream(tempFile)) {
                 IOUtils.copy(input, fileOutputStream);
             }
 
-            return new GeotiffBinding(tempFile);
+            // the file lives as long as the binding (or a reader
+            // of the file) is in use
+            return new GeotiffBinding(
+                    TempFileArenaSingleton.INSTANCE.createHandle(tempFile));
 
         } catch (IOException exception) {
             LOGGER.error("It is not possible to parse the geotiff", exception);
@@ -14,16 +14,25 @@
  * limitations under the Licence.
  */
 
+
 package org.n52.gfz.riesgos.formats.json.binding;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 /**
  * Wrapper to support both arrays and objects.
+ *
+ * If it is created from the raw bytes (fromBytes), only the syntax
+ * is checked with a streaming tokenizer. The tree of JSONObjects and
+ * JSONArrays is only created if someone asks for it, so json that is
+ * just passed through is never materialized.
  */
 public class JsonObjectOrArray implements Serializable {
 
@@ -37,6 +46,18 @@ public class JsonObjectOrArray implements Serializable {
      * This contains the json array if it used.
      */
     private final JSONArray jsonArray;
+    /**
+     * Raw json content (utf-8) if it was created from bytes.
+     */
+    private final byte[] content;
+    /**
+     * True if the raw content is an array, false if it is an object.
+     */
+    private final boolean contentIsArray;
+    /**
+     * Tree of the raw content - created on first access.
+     */
+    private transient Object parsedContent;
 
     /**
      * This is the constructor with the json object.
@@ -45,6 +66,8 @@ public class JsonObjectOrArray implements Serializable {
     public JsonObjectOrArray(final JSONObject aJsonObject) {
         this.jsonObject = aJsonObject;
         this.jsonArray = null;
+        this.content = null;
+        this.contentIsArray = false;
     }
 
     /**
@@ -54,6 +77,44 @@ public class JsonObjectOrArray implements Serializable {
     public JsonObjectOrArray(final JSONArray aJsonArray) {
         this.jsonObject = null;
         this.jsonArray = aJsonArray;
+        this.content = null;
+        this.contentIsArray = true;
+    }
+
+    /**
+     * This is the constructor with the raw content.
+     * @param aContent json content
+     * @param aContentIsArray true if the content is an array
+     */
+    private JsonObjectOrArray(
+            final byte[] aContent,
+            final boolean aContentIsArray) {
+        this.jsonObject = null;
+        this.jsonArray = null;
+        this.content = aContent;
+        this.contentIsArray = aContentIsArray;
+    }
+
+    /**
+     * Creates the wrapper from the raw content.
+     * The content is only scanned for syntax errors and for the type
+     * of the top level element - there is no tree created here.
+     * @param content json content (utf-8)
+     * @return wrapper with the raw content
+     * @throws ParseException exception if the content is no valid json
+     * or if it is neither an object nor an array
+     */
+    public static JsonObjectOrArray fromBytes(final byte[] content)
+            throws ParseException {
+        final StreamingJsonScanner.TopLevelType type =
+                StreamingJsonScanner.scan(content);
+        if (type == StreamingJsonScanner.TopLevelType.PRIMITIVE) {
+            throw new ParseException(
+                    ParseException.ERROR_UNEXPECTED_TOKEN,
+                    "Json content is neither an object nor an array");
+        }
+        return new JsonObjectOrArray(
+                content, type == StreamingJsonScanner.TopLevelType.ARRAY);
     }
 
     /**
@@ -61,6 +122,12 @@ public class JsonObjectOrArray implements Serializable {
      * @return optional json object
      */
     public Optional<JSONObject> getJsonObject() {
+        if (content != null) {
+            if (contentIsArray) {
+                return Optional.empty();
+            }
+            return Optional.of((JSONObject) getParsedContent());
+        }
         return Optional.ofNullable(jsonObject);
     }
 
@@ -69,6 +136,67 @@ public class JsonObjectOrArray implements Serializable {
      * @return optional json array
      */
     public Optional<JSONArray> getJsonArray() {
+        if (content != null) {
+            if (!contentIsArray) {
+                return Optional.empty();
+            }
+            return Optional.of((JSONArray) getParsedContent());
+        }
         return Optional.ofNullable(jsonArray);
     }
+
+    /**
+     * Returns the json content as bytes.
+     * If the wrapper was created from bytes, they are given back
+     * without any parsing or serialization (so they must not be
+     * modified).
+     * @return json content (utf-8)
+     */
+    public byte[] toBytes() {
+        if (content != null) {
+            return content;
+        }
+        final String text;
+        if (jsonObject != null) {
+            text = jsonObject.toJSONString();
+        } else if (jsonArray != null) {
+            text = jsonArray.toJSONString();
+        } else {
+            text = "null";
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     *
+     * @return true if there is neither an object nor an array
+     */
+    public boolean isEmpty() {
+        return content == null && jsonObject == null && jsonArray == null;
+    }
+
+    /**
+     *
+     * @return true if there is a tree of json objects in memory
+     */
+    public synchronized boolean isMaterialized() {
+        return content == null || parsedContent != null;
+    }
+
+    /**
+     * Parses the raw content on the first call.
+     * @return tree of the raw content
+     */
+    private synchronized Object getParsedContent() {
+        if (parsedContent == null) {
+            try {
+                parsedContent = new JSONParser().parse(
+                        new String(content, StandardCharsets.UTF_8));
+            } catch (final ParseException parseException) {
+                // the syntax was checked before in fromBytes
+                throw new IllegalStateException(parseException);
+            }
+        }
+        return parsedContent;
+    }
 }
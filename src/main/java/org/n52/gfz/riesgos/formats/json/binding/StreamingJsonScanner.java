@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+
+package org.n52.gfz.riesgos.formats.json.binding;
+
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks the syntax of json content with the streaming (sax like)
+ * interface of the json-simple parser.
+ *
+ * In contrast to the normal parse method there is no tree of
+ * JSONObjects & JSONArrays created - the tokens are just consumed.
+ * The only information that is kept is the type of the top level
+ * element.
+ */
+final class StreamingJsonScanner implements ContentHandler {
+
+    /**
+     * Type of the top level element.
+     */
+    enum TopLevelType {
+        /**
+         * The content is a json object.
+         */
+        OBJECT,
+        /**
+         * The content is a json array.
+         */
+        ARRAY,
+        /**
+         * The content is a primitive value.
+         */
+        PRIMITIVE
+    }
+
+    /**
+     * Current depth of the objects & arrays.
+     */
+    private int depth;
+
+    /**
+     * Type of the top level element (null as long as it is unknown).
+     */
+    private TopLevelType topLevelType;
+
+    /**
+     * Private constructor; use scan.
+     */
+    private StreamingJsonScanner() {
+        depth = 0;
+        topLevelType = null;
+    }
+
+    /**
+     * Scans the content and returns the type of the top level element.
+     * @param content json content (utf-8)
+     * @return type of the top level element
+     * @throws ParseException exception if the content is not valid json
+     */
+    static TopLevelType scan(final byte[] content) throws ParseException {
+        final StreamingJsonScanner scanner = new StreamingJsonScanner();
+        try {
+            new JSONParser().parse(
+                    new InputStreamReader(
+                            new ByteArrayInputStream(content),
+                            StandardCharsets.UTF_8),
+                    scanner);
+        } catch (final IOException ioException) {
+            // there is no io on a byte array
+            throw new ParseException(
+                    ParseException.ERROR_UNEXPECTED_EXCEPTION, ioException);
+        }
+        if (scanner.topLevelType == null) {
+            throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN);
+        }
+        return scanner.topLevelType;
+    }
+
+    /**
+     * Remembers the type of the top level element.
+     * @param type type of the element that starts
+     */
+    private void enter(final TopLevelType type) {
+        if (depth == 0 && topLevelType == null) {
+            topLevelType = type;
+        }
+        depth += 1;
+    }
+
+    @Override
+    public void startJSON() {
+        // nothing to do
+    }
+
+    @Override
+    public void endJSON() {
+        // nothing to do
+    }
+
+    @Override
+    public boolean startObject() {
+        enter(TopLevelType.OBJECT);
+        return true;
+    }
+
+    @Override
+    public boolean endObject() {
+        depth -= 1;
+        return true;
+    }
+
+    @Override
+    public boolean startObjectEntry(final String key) {
+        return true;
+    }
+
+    @Override
+    public boolean endObjectEntry() {
+        return true;
+    }
+
+    @Override
+    public boolean startArray() {
+        enter(TopLevelType.ARRAY);
+        return true;
+    }
+
+    @Override
+    public boolean endArray() {
+        depth -= 1;
+        return true;
+    }
+
+    @Override
+    public boolean primitive(final Object value) {
+        if (depth == 0 && topLevelType == null) {
+            topLevelType = TopLevelType.PRIMITIVE;
+        }
+        return true;
+    }
+}
@@ -16,8 +16,6 @@
 
 package org.n52.gfz.riesgos.formats.json.generators;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOption;
 import org.n52.gfz.riesgos.formats.json.binding.JsonDataBinding;
 import org.n52.gfz.riesgos.formats.json.binding.JsonObjectOrArray;
@@ -29,7 +27,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.util.Optional;
 
 /**
  * Generator for json data.
@@ -72,19 +69,9 @@ public class JsonGenerator
             final JsonDataBinding binding = (JsonDataBinding) data;
             final JsonObjectOrArray jsonObject = binding.getPayload();
 
-            final Optional<JSONObject> asJsonObject =
-                    jsonObject.getJsonObject();
-
-            if (asJsonObject.isPresent()) {
-                return new ByteArrayInputStream(
-                        asJsonObject.get().toJSONString().getBytes());
-            }
-
-            final Optional<JSONArray> asJsonArray = jsonObject.getJsonArray();
-
-            if (asJsonArray.isPresent()) {
-                return new ByteArrayInputStream(
-                        asJsonArray.get().toJSONString().getBytes());
+            if (!jsonObject.isEmpty()) {
+                // raw content is passed through without parsing
+                return new ByteArrayInputStream(jsonObject.toBytes());
             }
 
             LOGGER.error("JSON not an object nor an array");
@@ -17,6 +17,7 @@
 package org.n52.gfz.riesgos.formats.json.parsers;
 
 import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOption;
+import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.formats.json.binding.JsonDataBinding;
 import org.n52.wps.io.data.IData;
 import org.n52.wps.io.datahandler.parser.AbstractParser;
@@ -71,6 +72,12 @@ public class JsonParser
             final InputStream stream,
             final String mimeType,
             final String schema) {
-        return logic.parse(stream);
+        try {
+            return logic.parse(stream);
+        } catch (final ConvertToIDataException exception) {
+            LOGGER.error("Can't parse the provided json", exception);
+            // the parser interface of the wps allows no checked exceptions
+            throw new IllegalArgumentException(exception);
+        }
     }
 }
@@ -16,22 +16,22 @@
 
 package org.n52.gfz.riesgos.formats.json.parsers;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
+import org.apache.commons.io.IOUtils;
 import org.json.simple.parser.ParseException;
+import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.formats.json.binding.JsonDataBinding;
 import org.n52.gfz.riesgos.formats.json.binding.JsonObjectOrArray;
-import org.n52.wps.io.data.IData;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 
 /**
  * This is the class that captures all the logic for the JsonParser.
  * This is an additional class to make it easier to test it
  * (since the JsonParser needs some interaction with the WPS Server).
+ *
+ * The content is kept as raw bytes and only checked with a streaming
+ * tokenizer; the tree of json objects is created lazily.
  */
 public class JsonParserLogic {
 
@@ -39,23 +39,16 @@ public class JsonParserLogic {
      * Parses the stream to an JsonDataBinding.
      * @param stream stream with json
      * @return JsonDataBinding
+     * @throws ConvertToIDataException exception if the stream can't be
+     * read or if the content is not a json object or array
      */
-    public IData parse(
-            final InputStream stream) {
+    public JsonDataBinding parse(
+            final InputStream stream) throws ConvertToIDataException {
         try {
-            final JSONParser parser = new JSONParser();
-            final Object parsed = parser.parse(new InputStreamReader(stream));
-            if (parsed instanceof JSONObject) {
-                final JSONObject jsonObject = (JSONObject) parsed;
-                return new JsonDataBinding(new JsonObjectOrArray(jsonObject));
-            } else if (parsed instanceof JSONArray) {
-                final JSONArray jsonArray = (JSONArray) parsed;
-                return new JsonDataBinding(new JsonObjectOrArray(jsonArray));
-            }
-            throw new RuntimeException(
-                    "Can't parse the content to an json object");
+            final byte[] content = IOUtils.toByteArray(stream);
+            return new JsonDataBinding(JsonObjectOrArray.fromBytes(content));
         } catch (final IOException | ParseException exception) {
-            throw new RuntimeException(exception);
+            throw new ConvertToIDataException(exception);
         }
     }
 
@@ -16,8 +16,8 @@
 
 package org.n52.gfz.riesgos.formats.jsonfile.binding;
 
-
-import org.n52.gfz.riesgos.util.StreamUtils;
+import org.n52.gfz.riesgos.util.compression.CompressedBytes;
+import org.n52.gfz.riesgos.util.compression.PayloadKind;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -30,20 +30,16 @@ public final class JsonFileData implements Serializable {
     private static final long serialVersionUID = -3251367434563873184L;
 
     /**
-     * Configuration value to use internal compression.
-     */
-    private static final boolean USE_COMPRESSION_INTERNALLY = false;
-
-    /**
-     * The content of the JSON file.
+     * The content of the JSON file (compressed if configured
+     * and if it pays off).
      */
-    private final byte[] content;
+    private final CompressedBytes content;
 
     /**
      * Constructor with the json contents.
      * @param theContent json object to store
      */
-    private JsonFileData(final byte[] theContent) {
+    private JsonFileData(final CompressedBytes theContent) {
         this.content = theContent;
     }
 
@@ -56,15 +52,9 @@ public final class JsonFileData implements Serializable {
     public static JsonFileData fromUncompressedBytes(
         final byte[] inputContent
     ) throws IOException {
-        final byte[] content;
-
-        if (USE_COMPRESSION_INTERNALLY) {
-            content = StreamUtils.compress(inputContent);
-        } else {
-            content = inputContent;
-        }
-
-        return new JsonFileData(content);
+        return new JsonFileData(
+            CompressedBytes.store(inputContent, PayloadKind.JSONFILE)
+        );
     }
 
     /**
@@ -73,9 +63,6 @@ public final class JsonFileData implements Serializable {
      * @throws IOException if decompression failed
      */
     public byte[] getContent() throws IOException {
-        if (USE_COMPRESSION_INTERNALLY) {
-            return StreamUtils.decompress(content);
-        }
-        return content;
+        return content.getBytes();
     }
 }
@@ -31,6 +31,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import javax.media.jai.RasterFactory;
 import java.awt.image.WritableRaster;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,19 +62,39 @@ public class ShakemapToGridCoverageForMultipleRegularGrids
      */
     private final int type;
 
+    /**
+     * Names of the fields that should be converted.
+     * If null, then all the custom fields are converted.
+     */
+    private final Collection<String> fieldNames;
+
     /**
      * Create the converter for a specific data type.
      *
      * @param atype DataBuffer.TYPE_FLOAT or DataBuffer.TYPE_DOUBLE
      */
     public ShakemapToGridCoverageForMultipleRegularGrids(final int atype) {
+        this(atype, null);
+    }
+
+    /**
+     * Create the converter for a specific data type that only
+     * creates grids for some of the fields.
+     *
+     * @param atype DataBuffer.TYPE_FLOAT or DataBuffer.TYPE_DOUBLE
+     * @param aFieldNames names of the fields to convert (null for all)
+     */
+    public ShakemapToGridCoverageForMultipleRegularGrids(
+            final int atype,
+            final Collection<String> aFieldNames) {
         this.type = atype;
+        this.fieldNames = aFieldNames;
     }
 
 
     /**
      * Converts the shakemap to a mutliple grid coverages (one per column
-     * in the shakemap).
+     * in the shakemap - or one per requested field).
      * @param shakemap shakemap to convert
      * @return Grid coverage with some bands for the data rows in shakemap
      */
@@ -97,6 +118,8 @@ public class ShakemapToGridCoverageForMultipleRegularGrids
 
         final List<IShakemapField> customFields = shakemap.getFields().stream()
                 .filter(IShakemapField::isCustom)
+                .filter(field -> fieldNames == null
+                        || fieldNames.contains(field.getName()))
                 .collect(Collectors.toList());
 
         // long (x), lat (y)
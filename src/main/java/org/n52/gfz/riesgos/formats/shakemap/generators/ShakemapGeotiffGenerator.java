@@ -21,6 +21,7 @@ import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOptio
 import org.n52.gfz.riesgos.formats.shakemap.IShakemap;
 import org.n52.gfz.riesgos.formats.shakemap.binding.ShakemapXmlDataBinding;
 import org.n52.gfz.riesgos.formats.shakemap.functions.ShakemapToGridCoverageForRegularGrid;
+import org.n52.gfz.riesgos.util.Base64EncodingInputStream;
 import org.n52.wps.io.data.IData;
 import org.n52.wps.io.data.binding.complex.GTRasterDataBinding;
 import org.n52.wps.io.datahandler.generator.AbstractGenerator;
@@ -105,4 +106,27 @@ public class ShakemapGeotiffGenerator extends AbstractGenerator {
         }
         return null;
     }
+
+    /**
+     * Generates the stream with the base64 encoded geotiff.
+     * The encoding is done while the response is written, so there is
+     * no encoded copy of the raster in memory.
+     * @param data data to give back
+     * @param mimeType mimetype of the data
+     * @param schema schema of the data
+     * @return input stream that encodes the geotiff while reading
+     * @throws IOException can throw an IOException on handling the
+     * input stream
+     */
+    @Override
+    public InputStream generateBase64Stream(
+            final IData data,
+            final String mimeType,
+            final String schema) throws IOException {
+        final InputStream tiff = generateStream(data, mimeType, schema);
+        if (tiff == null) {
+            return null;
+        }
+        return new Base64EncodingInputStream(tiff);
+    }
 }
@@ -36,7 +36,7 @@ import java.awt.image.DataBuffer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -66,12 +66,13 @@ public class ShakemapMultipleWMSGenerator extends AbstractGenerator {
 
     /**
      * Function to convert the shakemap to a map of grids (
-     * all with double numbers, all have hteir own grid).
-     *
+     * all with float numbers, all have their own grid).
+     * Only the grids for the intensity measurements that we
+     * publish are created.
      */
     private static final Function<IShakemap, Map<String, GridCoverage2D>>
             TO_GRIDS = new ShakemapToGridCoverageForMultipleRegularGrids(
-                    DataBuffer.TYPE_FLOAT);
+                    DataBuffer.TYPE_FLOAT, INTENSITY_MEASUREMENTS);
 
     /**
      * The basic wms format.
@@ -127,22 +128,27 @@ public class ShakemapMultipleWMSGenerator extends AbstractGenerator {
 
             final Map<String, GridCoverage2D> grids = TO_GRIDS.apply(shakemap);
 
-            final Map<String, InputStream> streams = new HashMap<>();
+            // we keep the order of the intensity measurements
+            final Map<String, GridCoverage2D> gridsToPublish =
+                    new LinkedHashMap<>();
+            for (final String imt : INTENSITY_MEASUREMENTS) {
+                if (grids.containsKey(imt)) {
+                    gridsToPublish.put(imt, grids.get(imt));
+                }
+            }
+
             try {
-                for (final Map.Entry<String, GridCoverage2D> entry
-                        : grids.entrySet()) {
-                    final String imt = entry.getKey();
-                    if (INTENSITY_MEASUREMENTS.contains(imt)) {
-                        final GridCoverage2D floatGrid = entry.getValue();
-                        final InputStream innerInputStream =
-                                IOUtils.toInputStream(
-                                        new RiesgosWmsGenerator()
-                                                .storeGridAndReturnGetMapUrl(
-                                                        floatGrid
-                                                )
-                                );
-                        streams.put(imt, innerInputStream);
-                    }
+                // encoding & upload run in parallel
+                final Map<String, String> urls = new RiesgosWmsGenerator()
+                        .storeGridsAndReturnGetMapUrls(gridsToPublish);
+
+                final Map<String, InputStream> streams =
+                        new LinkedHashMap<>();
+                for (final Map.Entry<String, String> entry
+                        : urls.entrySet()) {
+                    streams.put(
+                            entry.getKey(),
+                            IOUtils.toInputStream(entry.getValue()));
                 }
 
                 return StreamUtils.INSTANCE.combineInputStreamsAsJsonObject(
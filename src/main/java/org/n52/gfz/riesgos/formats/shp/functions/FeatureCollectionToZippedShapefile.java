@@ -0,0 +1,493 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.shp.functions;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.geotools.data.shapefile.dbf.DbaseFileHeader;
+import org.geotools.data.shapefile.dbf.DbaseFileWriter;
+import org.geotools.data.shapefile.shp.JTSUtilities;
+import org.geotools.data.shapefile.shp.ShapeHandler;
+import org.geotools.data.shapefile.shp.ShapeType;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a feature collection as zipped shapefile (.shp, .shx, .dbf
+ * and .prj) directly into an output stream.
+ *
+ * This is the counterpart of the ShapefileBuffersToFeatureCollection:
+ * there are no temporary files involved. As the zip entries must be
+ * written one after another, the features are iterated once for the
+ * sizes and then once for each of the .shp and .dbf parts.
+ *
+ * The zip entries have a fixed time, so the same features result in
+ * the same bytes.
+ */
+public class FeatureCollectionToZippedShapefile {
+
+    /**
+     * Size of the header of the .shp and .shx files.
+     */
+    private static final int HEADER_BYTES = 100;
+
+    /**
+     * Size of the record header in the .shp file
+     * (and of an entry in the .shx file).
+     */
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    /**
+     * Size of the content of a null shape (just the shape type).
+     */
+    private static final int NULL_SHAPE_BYTES = 4;
+
+    /**
+     * The .shp format gives all the lengths in 16 bit words.
+     */
+    private static final int BYTES_PER_WORD = 2;
+
+    /**
+     * File code for the header.
+     */
+    private static final int FILE_CODE = 9994;
+
+    /**
+     * Version for the header.
+     */
+    private static final int VERSION = 1000;
+
+    /**
+     * Number of unused ints in the header after the file code.
+     */
+    private static final int UNUSED_HEADER_INTS = 5;
+
+    /**
+     * Number of doubles for the z and m ranges in the header.
+     */
+    private static final int Z_M_RANGE_DOUBLES = 4;
+
+    /**
+     * Charset for the dbf content
+     * (the same default as in the ShapefileDataStore).
+     */
+    private static final Charset DBF_CHARSET = StandardCharsets.ISO_8859_1;
+
+    /**
+     * Maximum length of character fields in the dbf.
+     */
+    private static final int MAX_CHAR_LENGTH = 254;
+
+    /**
+     * Length of integer fields in the dbf.
+     */
+    private static final int INT_LENGTH = 9;
+
+    /**
+     * Length of long fields in the dbf.
+     */
+    private static final int LONG_LENGTH = 19;
+
+    /**
+     * Length of floating point fields in the dbf.
+     */
+    private static final int DOUBLE_LENGTH = 33;
+
+    /**
+     * Decimal places of floating point fields in the dbf.
+     */
+    private static final int DOUBLE_DECIMALS = 15;
+
+    /**
+     * Length of date fields in the dbf.
+     */
+    private static final int DATE_LENGTH = 8;
+
+    /**
+     * Fixed time for the zip entries.
+     */
+    private static final long ZIP_ENTRY_TIME = 0L;
+
+    /**
+     * Base name of the files in the zip.
+     */
+    private final String baseName;
+
+    /**
+     * Constructor with the base name of the files in the zip.
+     * @param aBaseName base name of the files (the geoserver will
+     *                  use it for the layer name)
+     */
+    public FeatureCollectionToZippedShapefile(final String aBaseName) {
+        this.baseName = aBaseName;
+    }
+
+    /**
+     * Writes the features as zipped shapefile.
+     * The output stream will not be closed.
+     * @param features features to write
+     * @param outputStream stream to write the zip to
+     * @throws IOException exception on writing
+     */
+    public void write(
+            final SimpleFeatureCollection features,
+            final OutputStream outputStream) throws IOException {
+
+        final SimpleFeatureType featureType = features.getSchema();
+        final ShapeType shapeType = findShapeType(features);
+        final ShapeHandler handler =
+                shapeType.getShapeHandler(new GeometryFactory());
+
+        // first pass: the lengths of all the records & the bounds
+        final Envelope bounds = new Envelope();
+        int[] recordLengths = new int[0];
+        int count = 0;
+        try (SimpleFeatureIterator iterator = features.features()) {
+            while (iterator.hasNext()) {
+                final Geometry geometry =
+                        toShapeGeometry(iterator.next(), shapeType);
+                if (count == recordLengths.length) {
+                    recordLengths = Arrays.copyOf(
+                            recordLengths, Math.max(1, count * 2));
+                }
+                if (geometry == null) {
+                    recordLengths[count] = NULL_SHAPE_BYTES;
+                } else {
+                    recordLengths[count] = handler.getLength(geometry);
+                    bounds.expandToInclude(geometry.getEnvelopeInternal());
+                }
+                count += 1;
+            }
+        }
+
+        long shpLength = HEADER_BYTES;
+        for (int i = 0; i < count; i += 1) {
+            shpLength += RECORD_HEADER_BYTES + recordLengths[i];
+        }
+
+        final ZipOutputStream zip = new ZipOutputStream(
+                new CloseShieldOutputStream(outputStream));
+
+        putEntry(zip, ".shp");
+        zip.write(createHeader(shapeType, shpLength, bounds));
+        writeShapes(features, shapeType, handler, zip);
+
+        putEntry(zip, ".shx");
+        zip.write(createHeader(
+                shapeType,
+                HEADER_BYTES + (long) RECORD_HEADER_BYTES * count,
+                bounds));
+        final ByteBuffer index = ByteBuffer
+                .allocate(RECORD_HEADER_BYTES)
+                .order(ByteOrder.BIG_ENDIAN);
+        int offset = HEADER_BYTES;
+        for (int i = 0; i < count; i += 1) {
+            index.clear();
+            index.putInt(offset / BYTES_PER_WORD);
+            index.putInt(recordLengths[i] / BYTES_PER_WORD);
+            zip.write(index.array());
+            offset += RECORD_HEADER_BYTES + recordLengths[i];
+        }
+
+        putEntry(zip, ".dbf");
+        writeAttributes(features, featureType, count, zip);
+
+        final CoordinateReferenceSystem crs =
+                featureType.getCoordinateReferenceSystem();
+        if (crs != null) {
+            putEntry(zip, ".prj");
+            zip.write(crs.toWKT().getBytes(StandardCharsets.UTF_8));
+        }
+
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Starts a new entry in the zip.
+     * @param zip zip output stream
+     * @param extension extension of the file
+     * @throws IOException exception on writing
+     */
+    private void putEntry(
+            final ZipOutputStream zip,
+            final String extension) throws IOException {
+        final ZipEntry entry = new ZipEntry(baseName + extension);
+        entry.setTime(ZIP_ENTRY_TIME);
+        zip.putNextEntry(entry);
+    }
+
+    /**
+     * Writes the records of the .shp file.
+     * @param features features to write
+     * @param shapeType shape type of the file
+     * @param handler handler to write the geometries
+     * @param outputStream stream to write to
+     * @throws IOException exception on writing
+     */
+    private static void writeShapes(
+            final SimpleFeatureCollection features,
+            final ShapeType shapeType,
+            final ShapeHandler handler,
+            final OutputStream outputStream) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(0);
+        int recordNumber = 1;
+        try (SimpleFeatureIterator iterator = features.features()) {
+            while (iterator.hasNext()) {
+                final Geometry geometry =
+                        toShapeGeometry(iterator.next(), shapeType);
+                final int length = geometry == null
+                        ? NULL_SHAPE_BYTES
+                        : handler.getLength(geometry);
+                if (buffer.capacity() < RECORD_HEADER_BYTES + length) {
+                    buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+                }
+                buffer.clear();
+                buffer.order(ByteOrder.BIG_ENDIAN);
+                buffer.putInt(recordNumber);
+                buffer.putInt(length / BYTES_PER_WORD);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (geometry == null) {
+                    buffer.putInt(ShapeType.NULL.id);
+                } else {
+                    buffer.putInt(shapeType.id);
+                    handler.write(buffer, geometry);
+                }
+                outputStream.write(buffer.array(), 0, buffer.position());
+                recordNumber += 1;
+            }
+        }
+    }
+
+    /**
+     * Writes the .dbf file.
+     * @param features features to write
+     * @param featureType type of the features
+     * @param count number of features
+     * @param outputStream stream to write to
+     * @throws IOException exception on writing
+     */
+    private static void writeAttributes(
+            final SimpleFeatureCollection features,
+            final SimpleFeatureType featureType,
+            final int count,
+            final OutputStream outputStream) throws IOException {
+        final List<String> names = new ArrayList<>();
+        final DbaseFileHeader header = new DbaseFileHeader();
+        for (final AttributeDescriptor descriptor
+                : featureType.getAttributeDescriptors()) {
+            if (descriptor instanceof GeometryDescriptor) {
+                continue;
+            }
+            addColumn(header, descriptor);
+            names.add(descriptor.getLocalName());
+        }
+        header.setNumRecords(count);
+
+        // the writer closes the channel, but we want to keep the zip open
+        final DbaseFileWriter writer = new DbaseFileWriter(
+                header,
+                Channels.newChannel(new CloseShieldOutputStream(outputStream)),
+                DBF_CHARSET);
+        final Object[] record = new Object[names.size()];
+        try (SimpleFeatureIterator iterator = features.features()) {
+            while (iterator.hasNext()) {
+                final SimpleFeature feature = iterator.next();
+                for (int i = 0; i < record.length; i += 1) {
+                    record[i] = feature.getAttribute(names.get(i));
+                }
+                writer.write(record);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Adds a column for the attribute to the dbf header.
+     * @param header dbf header
+     * @param descriptor attribute to add
+     * @throws IOException exception if the column can't be added
+     */
+    private static void addColumn(
+            final DbaseFileHeader header,
+            final AttributeDescriptor descriptor) throws IOException {
+        final String name = descriptor.getLocalName();
+        final Class<?> binding = descriptor.getType().getBinding();
+        if (Integer.class.equals(binding)
+                || Short.class.equals(binding)
+                || Byte.class.equals(binding)) {
+            header.addColumn(name, 'N', INT_LENGTH, 0);
+        } else if (Long.class.equals(binding)
+                || BigInteger.class.equals(binding)) {
+            header.addColumn(name, 'N', LONG_LENGTH, 0);
+        } else if (Number.class.isAssignableFrom(binding)) {
+            header.addColumn(name, 'N', DOUBLE_LENGTH, DOUBLE_DECIMALS);
+        } else if (Boolean.class.equals(binding)) {
+            header.addColumn(name, 'L', 1, 0);
+        } else if (Date.class.isAssignableFrom(binding)) {
+            header.addColumn(name, 'D', DATE_LENGTH, 0);
+        } else {
+            header.addColumn(name, 'C', MAX_CHAR_LENGTH, 0);
+        }
+    }
+
+    /**
+     * Creates the header for the .shp or the .shx file.
+     * @param shapeType shape type
+     * @param fileLength length of the file in bytes
+     * @param bounds bounds of all geometries
+     * @return bytes of the header
+     */
+    private static byte[] createHeader(
+            final ShapeType shapeType,
+            final long fileLength,
+            final Envelope bounds) {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.order(ByteOrder.BIG_ENDIAN);
+        header.putInt(FILE_CODE);
+        for (int i = 0; i < UNUSED_HEADER_INTS; i += 1) {
+            header.putInt(0);
+        }
+        header.putInt((int) (fileLength / BYTES_PER_WORD));
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(VERSION);
+        header.putInt(shapeType.id);
+        if (bounds.isNull()) {
+            header.putDouble(0.0);
+            header.putDouble(0.0);
+            header.putDouble(0.0);
+            header.putDouble(0.0);
+        } else {
+            header.putDouble(bounds.getMinX());
+            header.putDouble(bounds.getMinY());
+            header.putDouble(bounds.getMaxX());
+            header.putDouble(bounds.getMaxY());
+        }
+        for (int i = 0; i < Z_M_RANGE_DOUBLES; i += 1) {
+            header.putDouble(0.0);
+        }
+        return header.array();
+    }
+
+    /**
+     * Gives back the geometry of the feature in the form that the
+     * shape handler expects (for example multi polygons for polygons).
+     * @param feature feature with the geometry
+     * @param shapeType shape type of the file
+     * @return geometry or null
+     */
+    private static Geometry toShapeGeometry(
+            final SimpleFeature feature,
+            final ShapeType shapeType) {
+        final Object geometry = feature.getDefaultGeometry();
+        if (!(geometry instanceof Geometry)
+                || ((Geometry) geometry).isEmpty()) {
+            return null;
+        }
+        return JTSUtilities.convertToCollection(
+                (Geometry) geometry, shapeType);
+    }
+
+    /**
+     * Finds the shape type for the features.
+     * If the schema only says that there is some geometry, the first
+     * geometry of the features is used.
+     * @param features features to write
+     * @return shape type
+     * @throws IOException exception if there is no geometry that can be
+     * written to a shapefile
+     */
+    private static ShapeType findShapeType(
+            final SimpleFeatureCollection features) throws IOException {
+        final GeometryDescriptor descriptor =
+                features.getSchema().getGeometryDescriptor();
+        if (descriptor == null) {
+            throw new IOException("The features have no geometry");
+        }
+        final ShapeType fromSchema =
+                toShapeType(descriptor.getType().getBinding());
+        if (fromSchema != null) {
+            return fromSchema;
+        }
+        try (SimpleFeatureIterator iterator = features.features()) {
+            while (iterator.hasNext()) {
+                final Object geometry = iterator.next().getDefaultGeometry();
+                if (geometry != null) {
+                    final ShapeType fromGeometry =
+                            toShapeType(geometry.getClass());
+                    if (fromGeometry != null) {
+                        return fromGeometry;
+                    }
+                }
+            }
+        }
+        // no geometries at all - so every record will be a null shape
+        return ShapeType.POINT;
+    }
+
+    /**
+     * Maps the geometry class to the shape type.
+     * @param binding geometry class
+     * @return shape type or null if there is no specific shape type
+     */
+    private static ShapeType toShapeType(final Class<?> binding) {
+        if (Point.class.equals(binding)) {
+            return ShapeType.POINT;
+        }
+        if (MultiPoint.class.equals(binding)) {
+            return ShapeType.MULTIPOINT;
+        }
+        if (LineString.class.isAssignableFrom(binding)
+                || MultiLineString.class.equals(binding)) {
+            return ShapeType.ARC;
+        }
+        if (Polygon.class.equals(binding)
+                || MultiPolygon.class.equals(binding)) {
+            return ShapeType.POLYGON;
+        }
+        return null;
+    }
+}
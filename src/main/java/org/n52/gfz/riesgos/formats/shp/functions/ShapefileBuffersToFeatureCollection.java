@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.shp.functions;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.shapefile.dbf.DbaseFileHeader;
+import org.geotools.data.shapefile.dbf.DbaseFileReader;
+import org.geotools.data.shapefile.shp.ShapeHandler;
+import org.geotools.data.shapefile.shp.ShapeType;
+import org.geotools.data.shapefile.shp.ShapefileHeader;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.CRS;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.referencing.FactoryException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the parts of a shapefile (.shp, .dbf and .prj) directly
+ * from buffers into a feature collection.
+ *
+ * In contrast to the ShapefileDataStore there is no need to write
+ * the parts to temporary files first. The buffers can be heap buffers
+ * (from byte arrays) or memory mapped ones.
+ *
+ * The .shx file is not needed as all the records are read sequentially.
+ */
+public class ShapefileBuffersToFeatureCollection {
+
+    /**
+     * Name for the geometry column (the same that the ShapefileDataStore
+     * uses).
+     */
+    private static final String GEOM_COLUMN = "the_geom";
+
+    /**
+     * Default charset for the dbf content
+     * (the same default as in the ShapefileDataStore).
+     */
+    private static final Charset DBF_CHARSET = StandardCharsets.ISO_8859_1;
+
+    /**
+     * Size of the record header in the .shp file.
+     * (Record number & content length - both big endian ints).
+     */
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    /**
+     * The .shp format gives all the lengths in 16 bit words.
+     */
+    private static final int BYTES_PER_WORD = 2;
+
+    /**
+     * Name for the resulting feature type.
+     */
+    private final String typeName;
+
+    /**
+     * Factory to create the geometries.
+     */
+    private final GeometryFactory geometryFactory;
+
+    /**
+     * Constructor with the name of the resulting feature type.
+     * @param aTypeName name of the feature type (normally the base name
+     *                  of the shapefile)
+     */
+    public ShapefileBuffersToFeatureCollection(final String aTypeName) {
+        this.typeName = aTypeName;
+        this.geometryFactory = new GeometryFactory();
+    }
+
+    /**
+     * Reads the feature collection.
+     * @param shp content of the .shp file
+     * @param dbf content of the .dbf file
+     * @param prj content of the .prj file (wkt); may be null
+     * @return feature collection with all the features of the shapefile
+     * @throws IOException exception if the content can't be parsed
+     */
+    public SimpleFeatureCollection read(
+            final ByteBuffer shp,
+            final ByteBuffer dbf,
+            final String prj) throws IOException {
+
+        final ByteBuffer shpBuffer = shp.duplicate();
+        final ShapefileHeader header = new ShapefileHeader();
+        header.read(shpBuffer, true);
+
+        final ShapeType shapeType = header.getShapeType();
+        final ShapeHandler handler =
+                shapeType.getShapeHandler(geometryFactory);
+
+        final DbaseFileReader dbfReader = new DbaseFileReader(
+                new ByteBufferChannel(dbf.duplicate()), false, DBF_CHARSET);
+
+        try {
+            final SimpleFeatureType featureType = createFeatureType(
+                    shapeType, dbfReader.getHeader(), prj);
+            final SimpleFeatureBuilder builder =
+                    new SimpleFeatureBuilder(featureType);
+            final List<SimpleFeature> features = new ArrayList<>();
+
+            final int fileEnd = Math.min(
+                    header.getFileLength() * BYTES_PER_WORD,
+                    shpBuffer.limit());
+
+            int featureIndex = 0;
+            while (shpBuffer.position() + RECORD_HEADER_BYTES < fileEnd) {
+                shpBuffer.order(ByteOrder.BIG_ENDIAN);
+                // record number - we just use our own index
+                shpBuffer.getInt();
+                final int contentLength =
+                        shpBuffer.getInt() * BYTES_PER_WORD;
+                final int recordEnd = shpBuffer.position() + contentLength;
+
+                shpBuffer.order(ByteOrder.LITTLE_ENDIAN);
+                final ShapeType recordType =
+                        ShapeType.forID(shpBuffer.getInt());
+
+                final Object geometry;
+                if (recordType == ShapeType.NULL) {
+                    geometry = null;
+                } else {
+                    geometry = handler.read(shpBuffer, recordType, false);
+                }
+                shpBuffer.position(recordEnd);
+
+                if (!dbfReader.hasNext()) {
+                    throw new IOException(
+                            "The dbf file contains less records "
+                                    + "than the shp file");
+                }
+                builder.add(geometry);
+                for (final Object value : dbfReader.readEntry()) {
+                    builder.add(value);
+                }
+                features.add(builder.buildFeature(
+                        typeName + "." + (featureIndex + 1)));
+                featureIndex += 1;
+            }
+
+            return new ListFeatureCollection(featureType, features);
+        } finally {
+            dbfReader.close();
+        }
+    }
+
+    /**
+     * Creates the feature type for the shapefile.
+     * @param shapeType shape type of the .shp file
+     * @param dbfHeader header of the dbf file with the attribute fields
+     * @param prj wkt of the crs (may be null)
+     * @return feature type
+     * @throws IOException exception if the crs can't be parsed
+     */
+    private SimpleFeatureType createFeatureType(
+            final ShapeType shapeType,
+            final DbaseFileHeader dbfHeader,
+            final String prj) throws IOException {
+        final SimpleFeatureTypeBuilder builder =
+                new SimpleFeatureTypeBuilder();
+        builder.setName(typeName);
+
+        if (prj != null && !prj.trim().isEmpty()) {
+            try {
+                builder.setCRS(CRS.parseWKT(prj));
+            } catch (final FactoryException factoryException) {
+                throw new IOException(factoryException);
+            }
+        }
+
+        builder.add(GEOM_COLUMN, toGeometryClass(shapeType));
+        for (int i = 0; i < dbfHeader.getNumFields(); i += 1) {
+            builder.add(dbfHeader.getFieldName(i), dbfHeader.getFieldClass(i));
+        }
+        builder.setDefaultGeometry(GEOM_COLUMN);
+
+        return builder.buildFeatureType();
+    }
+
+    /**
+     * Maps the shape type to the geometry class.
+     * (Same mapping as the ShapefileDataStore does).
+     * @param shapeType shape type of the .shp file
+     * @return class of the geometries
+     */
+    private static Class<? extends Geometry> toGeometryClass(
+            final ShapeType shapeType) {
+        if (shapeType.isPointType()) {
+            return Point.class;
+        }
+        if (shapeType.isMultiPointType()) {
+            return MultiPoint.class;
+        }
+        if (shapeType.isLineType()) {
+            return MultiLineString.class;
+        }
+        if (shapeType.isPolygonType()) {
+            return MultiPolygon.class;
+        }
+        return Geometry.class;
+    }
+
+    /**
+     * Readable channel over a buffer, so that the dbf reader
+     * can consume the content without a file.
+     */
+    private static final class ByteBufferChannel
+            implements ReadableByteChannel {
+
+        /**
+         * Buffer to read from.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Flag to store if the channel is open.
+         */
+        private boolean open;
+
+        /**
+         * Constructor with the buffer to read from.
+         * @param aBuffer buffer with the content
+         */
+        private ByteBufferChannel(final ByteBuffer aBuffer) {
+            this.buffer = aBuffer;
+            this.open = true;
+        }
+
+        /**
+         * Reads from the buffer into the destination.
+         * @param dst destination to write the content to
+         * @return number of bytes read or -1 if there is nothing more
+         */
+        @Override
+        public int read(final ByteBuffer dst) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int length = Math.min(dst.remaining(), buffer.remaining());
+            final ByteBuffer slice = buffer.slice();
+            slice.limit(length);
+            dst.put(slice);
+            buffer.position(buffer.position() + length);
+            return length;
+        }
+
+        /**
+         *
+         * @return true if the channel is not closed
+         */
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * Closes the channel.
+         */
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package org.n52.gfz.riesgos.formats.shp.generators;
 
 import org.apache.commons.io.IOUtils;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.feature.FeatureCollection;
 import org.n52.gfz.riesgos.configuration.parse.defaultformats.DefaultFormatOption;
 import org.n52.gfz.riesgos.formats.IMimeTypeAndSchemaConstants;
@@ -27,6 +29,8 @@ import org.n52.wps.io.data.IData;
 import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
 import org.n52.wps.io.datahandler.generator.AbstractGenerator;
 import org.n52.wps.webapp.api.FormatEntry;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,6 +78,7 @@ public class ShapefileWMSGenerator extends AbstractGenerator {
      * @throws IOException exception if we have problems generating wms output
      */
     @Override
+    @SuppressWarnings("unchecked")
     public InputStream generateStream(
             final IData data,
             final String mimeType,
@@ -83,6 +88,12 @@ public class ShapefileWMSGenerator extends AbstractGenerator {
             final GTVectorDataBinding binding = (GTVectorDataBinding) data;
             final FeatureCollection<?, ?> featureCollection =
                     binding.getPayload();
+            if (featureCollection.getSchema() instanceof SimpleFeatureType) {
+                // we can write the shapefile directly into the upload
+                return storeFeatures(DataUtilities.simple(
+                        (FeatureCollection<SimpleFeatureType, SimpleFeature>)
+                                featureCollection));
+            }
             final GenericFileDataWithGT fileData =
                     new GenericFileDataWithGT(featureCollection);
             final File baseFile = fileData.getBaseFile(true);
@@ -102,4 +113,23 @@ public class ShapefileWMSGenerator extends AbstractGenerator {
         }
         return null;
     }
+
+    /**
+     * Uploads the features without writing temporary files.
+     * @param features features to upload
+     * @return input stream with the get map url
+     * @throws IOException exception if we have problems uploading the data
+     */
+    private InputStream storeFeatures(final SimpleFeatureCollection features)
+            throws IOException {
+        try {
+            return IOUtils.toInputStream(
+                    new RiesgosWmsGenerator().storeFeaturesAndReturnGetMapUrl(
+                            features
+                    )
+            );
+        } catch (GeoserverClientException geoserverClientException) {
+            throw new IOException(geoserverClientException);
+        }
+    }
 }
@@ -17,14 +17,22 @@
 package org.n52.gfz.riesgos.formats.wms.generators;
 
 import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.n52.gfz.riesgos.formats.shp.functions.FeatureCollectionToZippedShapefile;
 import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
 import org.n52.gfz.riesgos.util.CoverageUtils;
 import org.n52.gfz.riesgos.util.StringUtils;
+import org.n52.gfz.riesgos.util.geoserver.GeoserverClientProvider;
+import org.n52.gfz.riesgos.util.geoserver.IContentWriter;
+import org.n52.gfz.riesgos.util.geoserver.IGeoserverClient;
+import org.n52.gfz.riesgos.util.geoserver.LayerContentHash;
+import org.n52.gfz.riesgos.util.geoserver.PublishedLayer;
+import org.n52.gfz.riesgos.util.geoserver.exceptions.GeoserverClientException;
 import org.n52.gfz.riesgos.util.geoserver.exceptions.UnableToCreateCoverageException;
 import org.n52.gfz.riesgos.util.geoserver.exceptions.UnableToCreateWorkspaceException;
 import org.n52.gfz.riesgos.util.geoserver.exceptions.UnableToUploadShpException;
-import org.n52.gfz.riesgos.util.geoserver.exceptions.WorkspaceAlreadyExistsException;
-import org.n52.gfz.riesgos.util.geoserver.impl.GeoserverRestApiClient;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileScope;
 import org.n52.wps.io.IOUtils;
 import org.n52.wps.io.data.GenericFileDataWithGT;
 import org.slf4j.Logger;
@@ -32,8 +40,14 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 /**
@@ -50,12 +64,49 @@ public class RiesgosWmsGenerator {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(RiesgosWmsGenerator.class);
 
+    /**
+     * Maximum number of grids that are encoded at the same
+     * time (shared by all the generator instances).
+     * The uploads themselves run on the executor of the geoserver client.
+     */
+    private static final int MAX_PARALLEL_PUBLISHES = 4;
+
+    /**
+     * Base name for the stores of streamed shapefiles
+     * (the feature type names may contain chars that are not
+     * allowed in file names).
+     */
+    private static final String SHP_STORE_BASE_NAME = "riesgos";
+
+    /**
+     * Executor for publishing multiple grids at once.
+     */
+    private static final ExecutorService PUBLISH_EXECUTOR =
+            createPublishExecutor();
+
+    /**
+     * Creates the executor with daemon threads, so that it doesn't
+     * block the shutdown of the server.
+     * @return bounded executor
+     */
+    private static ExecutorService createPublishExecutor() {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(MAX_PARALLEL_PUBLISHES, (r) -> {
+            final Thread thread = new Thread(
+                    r, "wms-publish-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * Store a shapefile on the geoserver and return a url that
      * can be used as WMS client.
      * @param shp Shapefile (explicitly the .shp file)
      *            The geoserver currently only supports to upload shapefiles
      *            for vector data (no support for geojson for example).
+     *            If the same content was published before, the existing
+     *            layer is used.
      * @return a string to access the wms on our geoserver
      * @throws UnableToCreateWorkspaceException exception if we can't create
      * the workspace on the geoserver
@@ -73,11 +124,52 @@ public class RiesgosWmsGenerator {
         final File shx = new File(baseName + ".shx");
         final File dbf = new File(baseName + ".dbf");
         final File prj = new File(baseName + ".prj");
-        File zipped = null;
 
-        try {
+        // After we uploaded it, we don't need the files anymore.
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            Stream.of(shp, shx, dbf, prj).forEach(scope::adopt);
+
+            // the same content is only uploaded once
+            final String contentHash =
+                    LayerContentHash.ofShapefile(shp, shx, dbf, prj);
+
+            return GeoserverClientProvider.INSTANCE.getLayerIndex()
+                    .getOrPublish(
+                            "vector:" + contentHash,
+                            () -> uploadVector(scope, shp, shx, dbf, prj));
+        } catch (final UnableToCreateWorkspaceException
+                | UnableToUploadShpException exception) {
+            throw exception;
+        } catch (final GeoserverClientException exception) {
+            throw new UnableToUploadShpException(exception);
+        } catch (final IOException ioException) {
+            throw new UnableToUploadShpException(ioException);
+        }
+    }
 
-            zipped = IOUtils.zip(shp, shx, dbf, prj);
+    /**
+     * Upload the shapefile to the geoserver.
+     * @param scope scope for the temporary zip file
+     * @param shp the .shp file
+     * @param shx the .shx file
+     * @param dbf the .dbf file
+     * @param prj the .prj file
+     * @return the published layer
+     * @throws UnableToCreateWorkspaceException exception if we can't create
+     * the workspace on the geoserver
+     * @throws UnableToUploadShpException exception if we can't upload our
+     * shapefile to the geoserver
+     */
+    private PublishedLayer uploadVector(
+            final TempFileScope scope,
+            final File shp,
+            final File shx,
+            final File dbf,
+            final File prj
+    ) throws UnableToCreateWorkspaceException, UnableToUploadShpException {
+        try {
+            final File zipped = scope.adopt(IOUtils.zip(shp, shx, dbf, prj));
 
             final String storeName = StringUtils.makeUniqueFileName(
                     zipped.getName()
@@ -87,103 +179,148 @@ public class RiesgosWmsGenerator {
                     .INSTANCE
                     .getGeoserverWorkspace();
 
-            final GeoserverRestApiClient geoserverClient =
-                new GeoserverRestApiClient(
-                        RiesgosWpsSettings.INSTANCE.getGeoserverSendBaseUrl(),
-                        RiesgosWpsSettings.INSTANCE.getGeoserverUsername(),
-                        RiesgosWpsSettings.INSTANCE.getGeoserverPassword()
-                );
+            final IGeoserverClient geoserverClient =
+                    GeoserverClientProvider.INSTANCE.getClient();
 
-            LOGGER.debug("Start to create workspace");
+            LOGGER.debug("Make sure that the workspace exists");
             LOGGER.debug(workspace);
 
-            tryToCreateTheWorkspaceAndBeFineIfItAlreadyExists(
-                    geoserverClient, workspace
-            );
+            geoserverClient.ensureWorkspaceExists(workspace);
 
             // First we upload our file (but the answer by the geoserver is
             // not that useful. It only says it created it.
-            geoserverClient.uploadShp(zipped, workspace, storeName);
-
-            LOGGER.debug("File stored on the geoserver");
-            // We need to ask explicitly for the layer names
-            final List<String> layerNames =
-                    geoserverClient.getLayerNamesForDataStore(
-                            workspace, storeName);
-            // And we only have one in this new store.
-            final String layerName = layerNames.get(0);
-
-            LOGGER.debug("Extracted the layerName");
-            LOGGER.debug(layerName);
-
-            return RiesgosWpsSettings.INSTANCE.getGeoserverAccessBaseUrl()
-                    + "/wms?Service=WMS&Request=GetMap&Version=1.1.1&layers="
-                    + workspace + ":" + layerName
-                    + "&format=image/png";
+            // The upload runs on the executor of the client, so that
+            // the number of parallel uploads is limited by the client.
+            try {
+                geoserverClient.uploadShpAsync(
+                        zipped, workspace, storeName).join();
+            } catch (final CompletionException completionException) {
+                final Throwable cause = completionException.getCause();
+                if (cause instanceof UnableToUploadShpException) {
+                    throw (UnableToUploadShpException) cause;
+                }
+                throw new UnableToUploadShpException(
+                        new RuntimeException(cause));
+            }
+
+            return createVectorLayer(geoserverClient, workspace, storeName);
         } catch (final IOException ioException) {
             throw new UnableToUploadShpException(ioException);
-        } finally {
-            // After we uploaded it, we don't need the file anymore.
-            Stream.of(zipped, shp, shx, dbf, prj)
-                    .filter(this::notNull)
-                    .forEach(this::cleanUpFile);
         }
     }
 
     /**
-     * Helper method to check if a value is not null.
-     * @param t object to check
-     * @param <T> any kind of input type
-     * @return true if the object is not null, false otherwise
+     * Store features on the geoserver and return a url that
+     * can be used as WMS client.
+     * The features are written as zipped shapefile directly into
+     * the upload request, so there are no temporary files.
+     * If the same content was published before, the existing
+     * layer is used.
+     * @param features features to publish
+     * @return a string to access the wms on our geoserver
+     * @throws UnableToCreateWorkspaceException exception if we can't create
+     * the workspace on the geoserver
+     * @throws UnableToUploadShpException exception if we can't upload our
+     * features to the geoserver
      */
-    private <T> boolean  notNull(final T t) {
-        return t != null;
+    public String storeFeaturesAndReturnGetMapUrl(
+            final SimpleFeatureCollection features
+    ) throws UnableToCreateWorkspaceException, UnableToUploadShpException {
+        // the geoserver takes the name of the shp file as layer name
+        // and the names must be unique in the workspace
+        final String storeName = StringUtils.makeUniqueFileName(
+                SHP_STORE_BASE_NAME
+        );
+        final IContentWriter zippedShp = (outputStream) ->
+                new FeatureCollectionToZippedShapefile(storeName)
+                        .write(features, outputStream);
+
+        try {
+            // the features are hashed directly, so the hash doesn't
+            // depend on the random store name or the date in the dbf
+            // & there is no need to zip them just for the hash
+            final String contentHash = LayerContentHash.ofFeatures(features);
+            return GeoserverClientProvider.INSTANCE.getLayerIndex()
+                    .getOrPublish(
+                            "vector:" + contentHash,
+                            () -> uploadZippedShp(zippedShp, storeName));
+        } catch (final UnableToCreateWorkspaceException
+                | UnableToUploadShpException exception) {
+            throw exception;
+        } catch (final GeoserverClientException exception) {
+            throw new UnableToUploadShpException(exception);
+        }
     }
 
     /**
-     * Helper method to cleanup (delete) a file.
-     *
-     * It will only try to delete. When an exception happens we warn about it,
-     * but we don't raise other exceptions to make the rest of the geoserver
-     * code go on.
-     * @param file file to delete
+     * Upload the zipped shapefile to the geoserver.
+     * @param zippedShp writer for the zipped shapefile
+     * @param storeName name of the store
+     * @return the published layer
+     * @throws UnableToCreateWorkspaceException exception if we can't create
+     * the workspace on the geoserver
+     * @throws UnableToUploadShpException exception if we can't upload our
+     * shapefile to the geoserver
      */
-    private void cleanUpFile(final File file) {
+    private PublishedLayer uploadZippedShp(
+            final IContentWriter zippedShp,
+            final String storeName
+    ) throws UnableToCreateWorkspaceException, UnableToUploadShpException {
         try {
-            final boolean deleteSuccess = Files.deleteIfExists(file.toPath());
-            if (!deleteSuccess) {
-                LOGGER.warn("Could not delete the file {}", file.getPath());
-            }
-        } catch (IOException ioException) {
-            LOGGER.warn("Could not delete the file {}", file.getPath());
-            LOGGER.warn(ioException.getMessage());
+            final String workspace = RiesgosWpsSettings
+                    .INSTANCE
+                    .getGeoserverWorkspace();
+
+            final IGeoserverClient geoserverClient =
+                    GeoserverClientProvider.INSTANCE.getClient();
+
+            geoserverClient.ensureWorkspaceExists(workspace);
+            geoserverClient.uploadShp(zippedShp, workspace, storeName);
+
+            return createVectorLayer(geoserverClient, workspace, storeName);
+        } catch (final IOException ioException) {
+            throw new UnableToUploadShpException(ioException);
         }
     }
 
     /**
-     * Helper method to try to create the workspace.
-     * If the workspace already exists then it is fine.
+     * Extracts the layer of the uploaded data store.
      * @param geoserverClient geoserver client
-     * @param workspace name of the workspace
-     * @throws UnableToCreateWorkspaceException thrown if we have other trouble
-     * creating the workspace (other then that it already exists).
+     * @param workspace workspace of the store
+     * @param storeName name of the data store
+     * @return the published layer
+     * @throws IOException if asking for the layers fails
      */
-    private void tryToCreateTheWorkspaceAndBeFineIfItAlreadyExists(
-            final GeoserverRestApiClient geoserverClient,
-            final String workspace
-    ) throws UnableToCreateWorkspaceException {
-        try {
-            geoserverClient.createWorkspace(workspace);
-        } catch (
-                WorkspaceAlreadyExistsException
-                        alreadyExistingWorkspaceException
-        ) {
-            LOGGER.debug("Workspace exists already - fine as well");
-        }
+    private PublishedLayer createVectorLayer(
+            final IGeoserverClient geoserverClient,
+            final String workspace,
+            final String storeName
+    ) throws IOException {
+        LOGGER.debug("File stored on the geoserver");
+        // We need to ask explicitly for the layer names
+        final List<String> layerNames =
+                geoserverClient.getLayerNamesForDataStore(
+                        workspace, storeName);
+        // And we only have one in this new store.
+        final String layerName = layerNames.get(0);
+
+        LOGGER.debug("Extracted the layerName");
+        LOGGER.debug(layerName);
+
+        return new PublishedLayer(
+                RiesgosWpsSettings.INSTANCE.getGeoserverAccessBaseUrl()
+                + "/wms?Service=WMS&Request=GetMap&Version=1.1.1&layers="
+                + workspace + ":" + layerName
+                + "&format=image/png",
+                workspace,
+                storeName,
+                PublishedLayer.StoreType.DATASTORE
+        );
     }
 
     /**
      * Upload the grid to a geoserver & return the get map url.
+     * If the same grid was published before, the existing layer is used.
      * @param gridCoverage2D grid to upload as tiff.
      * @return get map url
      * @throws UnableToCreateWorkspaceException if something bad happens on
@@ -193,13 +330,112 @@ public class RiesgosWmsGenerator {
      */
     public String storeGridAndReturnGetMapUrl(
             final GridCoverage2D gridCoverage2D
+    ) throws UnableToCreateWorkspaceException, UnableToCreateCoverageException {
+        // the same content is only uploaded once
+        final String contentHash = LayerContentHash.ofCoverage(gridCoverage2D);
+        try {
+            return GeoserverClientProvider.INSTANCE.getLayerIndex()
+                    .getOrPublish(
+                            "grid:" + contentHash,
+                            () -> uploadGrid(gridCoverage2D));
+        } catch (final UnableToCreateWorkspaceException
+                | UnableToCreateCoverageException exception) {
+            throw exception;
+        } catch (final GeoserverClientException exception) {
+            throw new UnableToCreateCoverageException(exception);
+        }
+    }
+
+    /**
+     * Encode the grid as tiff and upload it to the geoserver.
+     * @param gridCoverage2D grid to upload as tiff.
+     * @return the published layer
+     * @throws UnableToCreateWorkspaceException if something bad happens on
+     *                                          creating the workspace
+     * @throws UnableToCreateCoverageException if something bas happens on
+     *                                         creating the coverage
+     */
+    private PublishedLayer uploadGrid(
+            final GridCoverage2D gridCoverage2D
     ) throws UnableToCreateWorkspaceException, UnableToCreateCoverageException {
         LOGGER.debug("Start with sending a coverage to the geoserver");
         final GenericFileDataWithGT fileData = new GenericFileDataWithGT(
                 gridCoverage2D, null
         );
-        final File file = fileData.getBaseFile(true);
+        // the tiff is only needed for the upload
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            final File file = scope.adopt(fileData.getBaseFile(true));
+            return uploadCoverage(file, gridCoverage2D);
+        }
+    }
 
+    /**
+     * Upload multiple grids to the geoserver & return the get map urls.
+     * The grids are encoded concurrently and uploaded with the
+     * asynchronous methods of the geoserver client.
+     * @param grids map with the names & the grids to upload
+     * @return map with the names & the get map urls (in the order
+     * of the given map)
+     * @throws UnableToCreateWorkspaceException if something bad happens on
+     *                                          creating the workspace
+     * @throws UnableToCreateCoverageException if something bas happens on
+     *                                         creating the coverage
+     */
+    public Map<String, String> storeGridsAndReturnGetMapUrls(
+            final Map<String, GridCoverage2D> grids
+    ) throws UnableToCreateWorkspaceException, UnableToCreateCoverageException {
+        final Map<String, CompletableFuture<String>> futures =
+                new LinkedHashMap<>();
+        for (final Map.Entry<String, GridCoverage2D> entry
+                : grids.entrySet()) {
+            final GridCoverage2D grid = entry.getValue();
+            futures.put(entry.getKey(), CompletableFuture.supplyAsync(() -> {
+                try {
+                    return storeGridAndReturnGetMapUrl(grid);
+                } catch (final GeoserverClientException exception) {
+                    throw new CompletionException(exception);
+                }
+            }, PUBLISH_EXECUTOR));
+        }
+
+        final Map<String, String> result = new LinkedHashMap<>();
+        try {
+            CompletableFuture.allOf(
+                    futures.values().toArray(new CompletableFuture<?>[0])
+            ).join();
+            for (final Map.Entry<String, CompletableFuture<String>> entry
+                    : futures.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().join());
+            }
+        } catch (final CompletionException completionException) {
+            final Throwable cause = completionException.getCause();
+            if (cause instanceof UnableToCreateWorkspaceException) {
+                throw (UnableToCreateWorkspaceException) cause;
+            }
+            if (cause instanceof UnableToCreateCoverageException) {
+                throw (UnableToCreateCoverageException) cause;
+            }
+            throw new UnableToCreateCoverageException(
+                    new RuntimeException(cause));
+        }
+        return result;
+    }
+
+    /**
+     * Upload the tiff file of the grid.
+     * @param file tiff file to upload
+     * @param gridCoverage2D grid to extract the metadata for the url
+     * @return the published layer
+     * @throws UnableToCreateWorkspaceException if something bad happens on
+     *                                          creating the workspace
+     * @throws UnableToCreateCoverageException if something bas happens on
+     *                                         creating the coverage
+     */
+    private PublishedLayer uploadCoverage(
+            final File file,
+            final GridCoverage2D gridCoverage2D
+    ) throws UnableToCreateWorkspaceException, UnableToCreateCoverageException {
         final String layerName = StringUtils.makeUniqueFileName(file.getName());
         LOGGER.debug("Prepared file with unique filename");
 
@@ -207,24 +443,21 @@ public class RiesgosWmsGenerator {
                 .INSTANCE
                 .getGeoserverWorkspace();
 
-        final GeoserverRestApiClient geoserverClient =
-                new GeoserverRestApiClient(
-                 RiesgosWpsSettings.INSTANCE.getGeoserverSendBaseUrl(),
-                 RiesgosWpsSettings.INSTANCE.getGeoserverUsername(),
-                 RiesgosWpsSettings.INSTANCE.getGeoserverPassword()
-                );
+        final IGeoserverClient geoserverClient =
+                GeoserverClientProvider.INSTANCE.getClient();
 
-        LOGGER.debug("Start to create workspace");
+        LOGGER.debug("Make sure that the workspace exists");
         LOGGER.debug(workspace);
 
-        tryToCreateTheWorkspaceAndBeFineIfItAlreadyExists(
-                geoserverClient, workspace
-        );
+        geoserverClient.ensureWorkspaceExists(workspace);
 
         LOGGER.debug("Start sending the coverage");
-        geoserverClient.createCoverage(file, workspace, layerName);
-        LOGGER.debug("Finished sending the coverage");
+        final CompletableFuture<Void> upload =
+                geoserverClient.createCoverageAsync(
+                        file, workspace, layerName);
 
+        // the metadata for the url is extracted while the tiff
+        // is on its way to the geoserver
         final String bboxString =
                 CoverageUtils.extractBBoxString(gridCoverage2D);
 
@@ -234,12 +467,29 @@ public class RiesgosWmsGenerator {
         final int width = gridCoverage2D.getRenderedImage().getWidth();
         final int height = gridCoverage2D.getRenderedImage().getHeight();
 
-        return
+        try {
+            upload.join();
+        } catch (final CompletionException completionException) {
+            final Throwable cause = completionException.getCause();
+            if (cause instanceof UnableToCreateCoverageException) {
+                throw (UnableToCreateCoverageException) cause;
+            }
+            throw new UnableToCreateCoverageException(
+                    new RuntimeException(cause));
+        }
+        LOGGER.debug("Finished sending the coverage");
+
+        return new PublishedLayer(
                 RiesgosWpsSettings.INSTANCE.getGeoserverAccessBaseUrl()
                 + "/wms?Service=WMS&Request=GetMap&Version=1.1.1&layers="
                 + workspace + ":" + layerName
                 + "&width=" + width + "&height=" + height
                 + "&format=image/png"
-                + "&bbox=" + bboxString + "&srs=" + srsString;
+                + "&bbox=" + bboxString + "&srs=" + srsString,
+                workspace,
+                // the coverage store has the same name as the layer
+                layerName,
+                PublishedLayer.StoreType.COVERAGESTORE
+        );
     }
 }
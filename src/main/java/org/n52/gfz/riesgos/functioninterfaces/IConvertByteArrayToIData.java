@@ -1,5 +1,7 @@
 package org.n52.gfz.riesgos.functioninterfaces;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 
 /*
@@ -18,6 +20,7 @@ import java.io.Serializable;
  * limitations under the Licence.
  */
 
+import org.apache.commons.io.IOUtils;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.wps.io.data.IData;
 
@@ -36,4 +39,24 @@ public interface IConvertByteArrayToIData<T extends IData>
      *                                 exception on conversion
      */
     T convertToIData(byte[] content) throws ConvertToIDataException;
+
+    /**
+     * Converts the content of a stream to an IData element.
+     * The default implementation reads the stream into a byte array.
+     * Converters that can work on the stream directly (for example
+     * by writing it into a file) should override this, so that
+     * large content doesn't have to fit into memory.
+     * @param content stream with the content (is not closed here)
+     * @return IData element
+     * @throws ConvertToIDataException exception if there is an internal error /
+     *                                 exception on conversion or on reading
+     */
+    default T convertToIData(final InputStream content)
+            throws ConvertToIDataException {
+        try {
+            return convertToIData(IOUtils.toByteArray(content));
+        } catch (final IOException ioException) {
+            throw new ConvertToIDataException(ioException);
+        }
+    }
 }
@@ -20,7 +20,7 @@ import java.io.Serializable;
  */
 
 import org.n52.gfz.riesgos.cache.DataWithRecreatorTuple;
-import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IReadOnlyFileAccessor;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.wps.io.data.IData;
 
@@ -46,7 +46,7 @@ public interface IReadIDataFromFiles<T extends IData> extends Serializable {
      *                     mechanism on java
      */
     DataWithRecreatorTuple<T> readFromFiles(
-        IExecutionContext context,
+        IReadOnlyFileAccessor context,
         String workingDirectory,
         String path
     ) throws ConvertToIDataException, IOException;
@@ -17,8 +17,13 @@ package org.n52.gfz.riesgos.functioninterfaces;
  */
 
 import org.n52.gfz.riesgos.exceptions.NonEmptyStderrException;
+import org.n52.gfz.riesgos.util.StreamUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 /**
  * Handler for text from stderr.
@@ -35,4 +40,41 @@ public interface IStderrHandler extends Serializable {
      */
     void handleStderr(String stderr, ILogger logger)
         throws NonEmptyStderrException;
+
+    /**
+     * Handles the stderr output without reading all of it into memory.
+     * The default gives the last getMaxStderrBytes bytes as text to
+     * handleStderr, as the error messages are at the end of the output.
+     * @param stderr stream with the stderr output (is not closed here)
+     * @param logger logger of the algorithm
+     * @throws NonEmptyStderrException there may be an exception on non empty
+     *                                 stderr
+     * @throws IOException exception on reading the stream
+     */
+    default void handleStderr(InputStream stderr, ILogger logger)
+        throws NonEmptyStderrException, IOException {
+        final byte[] tail =
+                StreamUtils.readTail(stderr, getMaxStderrBytes());
+        handleStderr(new String(tail, StandardCharsets.UTF_8), logger);
+    }
+
+    /**
+     * Maximum number of bytes of stderr that the stream variant of
+     * handleStderr reads into memory.
+     * @return maximum number of bytes (1 MiB by default)
+     */
+    default int getMaxStderrBytes() {
+        return 1024 * 1024;
+    }
+
+    /**
+     * Creates a monitor to inspect stderr while the process is running.
+     * If the monitor detects a fatal error, the run is stopped early
+     * and the stderr content is given to handleStderr as usual.
+     * The default is to wait for the process to finish.
+     * @return optional monitor for a single run
+     */
+    default Optional<IStderrMonitor> createMonitor() {
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,36 @@
+package org.n52.gfz.riesgos.functioninterfaces;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+/**
+ * Monitor that inspects the lines of stderr while the process
+ * is still running.
+ *
+ * In contrast to the IStderrHandler a monitor has a state and is
+ * only used for one single run.
+ */
+@FunctionalInterface
+public interface IStderrMonitor {
+
+    /**
+     * Inspects the next line of stderr.
+     * @param line line of stderr (without the line break)
+     * @return true if the output shows that the run failed and
+     * there is no need to wait for the process to finish
+     */
+    boolean isFatal(String line);
+}
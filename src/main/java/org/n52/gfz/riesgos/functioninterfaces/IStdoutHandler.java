@@ -16,7 +16,12 @@ package org.n52.gfz.riesgos.functioninterfaces;
  * limitations under the Licence.
  */
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Handler for stdout text.
@@ -29,4 +34,19 @@ public interface IStdoutHandler extends Serializable {
      * @param stdout text from stdout
      */
     void handleStdout(String stdout);
+
+    /**
+     * Handles the raw bytes from stdout.
+     * The default implementation decodes the bytes with UTF-8
+     * and hands them over to the text based handling.
+     * Handlers that can work on the stream directly should override
+     * this, so that the output doesn't have to fit into memory.
+     * @param stdout stream with the bytes from stdout
+     * @throws IOException exception on reading the stream
+     */
+    default void handleStdout(final InputStream stdout) throws IOException {
+        handleStdout(
+                new String(IOUtils.toByteArray(stdout),
+                        StandardCharsets.UTF_8));
+    }
 }
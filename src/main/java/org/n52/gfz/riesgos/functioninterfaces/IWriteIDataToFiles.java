@@ -18,7 +18,7 @@ import java.io.IOException;
  *  limitations under the Licence.
  */
 
-import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IWriteOnlyFileAccessor;
 import org.n52.gfz.riesgos.exceptions.ConvertToBytesException;
 import org.n52.wps.io.data.IData;
 
@@ -44,7 +44,7 @@ public interface IWriteIDataToFiles<T extends IData> {
      */
     void writeToFiles(
             T iData,
-            IExecutionContext context,
+            IWriteOnlyFileAccessor context,
             String workingDirectory,
             String path) throws ConvertToBytesException, IOException;
 }
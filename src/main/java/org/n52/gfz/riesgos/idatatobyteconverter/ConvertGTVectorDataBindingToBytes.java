@@ -19,6 +19,7 @@ package org.n52.gfz.riesgos.idatatobyteconverter;
 import org.geotools.feature.FeatureCollection;
 import org.geotools.geojson.feature.FeatureJSON;
 import org.n52.gfz.riesgos.exceptions.ConvertToBytesException;
+import org.n52.gfz.riesgos.formats.flatgeobuf.functions.FlatGeobufFeatureWriter;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertIDataToByteArray;
 import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
 
@@ -105,6 +106,13 @@ public final class ConvertGTVectorDataBindingToBytes
         JSON(
             (featureCollection, out) -> new FeatureJSON()
                 .writeFeatureCollection(featureCollection, out)
+        ),
+        /**
+         * FlatGeobuf.
+         */
+        FLATGEOBUF(
+            (featureCollection, out) -> new FlatGeobufFeatureWriter()
+                .write(featureCollection, out)
         );
 
         /**
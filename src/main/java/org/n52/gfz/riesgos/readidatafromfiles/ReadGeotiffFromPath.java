@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.readidatafromfiles;
+
+import org.n52.gfz.riesgos.cache.DataWithRecreatorTuple;
+import org.n52.gfz.riesgos.cache.RecreateGeotiffFromFile;
+import org.n52.gfz.riesgos.cmdexecution.IReadOnlyFileAccessor;
+import org.n52.gfz.riesgos.functioninterfaces.IReadIDataFromFiles;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileScope;
+import org.n52.wps.io.data.binding.complex.GeotiffBinding;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Implementation that reads a geotiff directly into a file
+ * (without holding the whole raster in memory).
+ * The binding and the cache share the content on disk.
+ */
+public final class ReadGeotiffFromPath
+    implements IReadIDataFromFiles<GeotiffBinding> {
+
+    private static final long serialVersionUID = 3605627591416224180L;
+
+    @Override
+    public DataWithRecreatorTuple<GeotiffBinding> readFromFiles(
+            final IReadOnlyFileAccessor context,
+            final String workingDirectory,
+            final String path) throws IOException {
+
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            final File cacheFile = scope.createTempFile(
+                    "readGeotiff", ".tiff");
+            context.readToFile(
+                Paths.get(workingDirectory, path).toString(),
+                cacheFile
+            );
+
+            // the cache gets the file we read, the binding uses a
+            // hard link of it
+            final RecreateGeotiffFromFile recreator =
+                new RecreateGeotiffFromFile(cacheFile);
+            final GeotiffBinding binding =
+                (GeotiffBinding) recreator.recreate();
+
+            return new DataWithRecreatorTuple<>(binding, recreator);
+        } catch (final UncheckedIOException uncheckedIOException) {
+            throw uncheckedIOException.getCause();
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName());
+    }
+}
@@ -16,76 +16,61 @@ package org.n52.gfz.riesgos.readidatafromfiles;
  *  limitations under the Licence.
  */
 
-import org.apache.commons.io.IOUtils;
-import org.geotools.data.DataStore;
-import org.geotools.data.shapefile.ShapefileDataStore;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.n52.gfz.riesgos.cache.DataWithRecreatorTuple;
 import org.n52.gfz.riesgos.cache.RecreateFromBindingClass;
-import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IReadOnlyFileAccessor;
+import org.n52.gfz.riesgos.formats.shp.functions.ShapefileBuffersToFeatureCollection;
 import org.n52.gfz.riesgos.functioninterfaces.IReadIDataFromFiles;
 import org.n52.gfz.riesgos.writeidatatofiles.WriteShapeFileToPath;
 import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.Objects;
 
 /**
  * Implementation to read multiple files for a shapefile.
+ *
+ * The single files are read into memory and parsed from there,
+ * so there are no temporary files involved.
  */
 public final class ReadShapeFileFromPath
     implements IReadIDataFromFiles<GTVectorDataBinding> {
 
     private static final long serialVersionUID = -8077547979877603576L;
 
+    /**
+     * Name of the feature type (the same name that we had
+     * in the times as we wrote the files to a temporary output.shp).
+     */
+    private static final String TYPE_NAME = "output";
+
     @Override
     public DataWithRecreatorTuple<GTVectorDataBinding> readFromFiles(
-            final IExecutionContext context,
+            final IReadOnlyFileAccessor context,
             final String workingDirectory,
             final String path) throws IOException {
 
-        final Path tempDir = Files.createTempDirectory("tempshapefile");
-        final File tempDirAsFile = new File(path);
-        tempDirAsFile.deleteOnExit();
-
-        final String outputFileTemplate = "output";
-        final String outputFileTemplatePath = Paths.get(
-            tempDir.toString(),
-            outputFileTemplate
-        ).toString();
-        final String outputFilePathShp = outputFileTemplatePath + ".shp";
-
-        int overallSize = 0;
-        for (final WriteShapeFileToPath.SingleFile singleFile
-            : WriteShapeFileToPath.SingleFile.values()
-        ) {
-            final String pathToRead = singleFile
-                .getSpecificPathByShapeFilePath(path);
-
-            final byte[] content = context.readFromFile(
-                Paths.get(workingDirectory, pathToRead).toString()
+        // the shx file is not necessary as we read the records
+        // of the shp file sequentially
+        final byte[] shp = readSingleFile(context, workingDirectory, path,
+            WriteShapeFileToPath.SingleFile.SHP);
+        final byte[] dbf = readSingleFile(context, workingDirectory, path,
+            WriteShapeFileToPath.SingleFile.DBF);
+        final byte[] prj = readSingleFile(context, workingDirectory, path,
+            WriteShapeFileToPath.SingleFile.PRJ);
+
+        final int overallSize = shp.length + dbf.length + prj.length;
+
+        final SimpleFeatureCollection features =
+            new ShapefileBuffersToFeatureCollection(TYPE_NAME).read(
+                ByteBuffer.wrap(shp),
+                ByteBuffer.wrap(dbf),
+                new String(prj, StandardCharsets.UTF_8)
             );
-            overallSize += content.length;
-
-            final File tempOutFile = new File(
-                outputFileTemplatePath + singleFile.getEnding()
-            );
-            writeFile(tempOutFile, content);
-            tempOutFile.deleteOnExit();
-        }
-
-        // that code is reused from GTBinZippedSHPParser
-        final DataStore store = new ShapefileDataStore(
-            new File(outputFilePathShp).toURI().toURL()
-        );
-        final SimpleFeatureCollection features = store.getFeatureSource(
-            store.getTypeNames()[0]
-        ).getFeatures();
 
         final GTVectorDataBinding binding = new GTVectorDataBinding(features);
 
@@ -101,16 +86,25 @@ public final class ReadShapeFileFromPath
     }
 
     /**
-     * Helper function to write a file with given contents.
-     * @param file File to write to
-     * @param content Content to be written
-     * @throws IOException For errors while writing
+     * Helper function to read one part of the shapefile.
+     * @param context context to read the file from
+     * @param workingDirectory working directory of the context
+     * @param path path of the shp file
+     * @param singleFile part of the shapefile to read
+     * @return content of the file
+     * @throws IOException For errors while reading
      */
-    private void writeFile(final File file, final byte[] content)
+    private byte[] readSingleFile(
+            final IReadOnlyFileAccessor context,
+            final String workingDirectory,
+            final String path,
+            final WriteShapeFileToPath.SingleFile singleFile)
             throws IOException {
-        try (FileOutputStream outputStream = new FileOutputStream(file)) {
-            IOUtils.write(content, outputStream);
-        }
+        final String pathToRead = singleFile
+            .getSpecificPathByShapeFilePath(path);
+        return context.readFromFile(
+            Paths.get(workingDirectory, pathToRead).toString()
+        );
     }
 
     @Override
@@ -18,7 +18,7 @@ package org.n52.gfz.riesgos.readidatafromfiles;
 
 import org.n52.gfz.riesgos.cache.DataWithRecreatorTuple;
 import org.n52.gfz.riesgos.cache.RecreateFromByteArray;
-import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IReadOnlyFileAccessor;
 import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
 import org.n52.gfz.riesgos.functioninterfaces.IReadIDataFromFiles;
@@ -66,7 +66,7 @@ public final class ReadSingleByteStreamFromPath<T extends IData>
 
     @Override
     public DataWithRecreatorTuple<T> readFromFiles(
-        final IExecutionContext context,
+        final IReadOnlyFileAccessor context,
         final String workingDirectory,
         final String path
     ) throws ConvertToIDataException, IOException {
@@ -16,6 +16,9 @@ package org.n52.gfz.riesgos.repository;
  * limitations under the Licence.
  */
 
+import org.n52.gfz.riesgos.formats.flatgeobuf.generators.FlatGeobufGenerator;
+import org.n52.gfz.riesgos.formats.flatgeobuf.parsers.FlatGeobufParser;
+import org.n52.gfz.riesgos.formats.geotiff.generators.StreamingGeotiffGenerator;
 import org.n52.gfz.riesgos.formats.geotiff.parsers.GeotiffParser;
 import org.n52.gfz.riesgos.formats.shp.generators.ShapefileWMSGenerator;
 import org.n52.gfz.riesgos.formats.jsonfile.generators.JsonFileGenerator;
@@ -45,6 +48,7 @@ import org.n52.wps.io.IGenerator;
 import org.n52.wps.io.IParser;
 import org.n52.wps.io.ParserFactory;
 import org.n52.wps.io.datahandler.generator.GeoserverWMSGenerator;
+import org.n52.wps.io.datahandler.generator.GeotiffGenerator;
 import org.n52.wps.server.IAlgorithm;
 import org.n52.wps.server.ITransactionalAlgorithmRepository;
 import org.n52.wps.server.ProcessDescription;
@@ -112,6 +116,10 @@ public class GfzRiesgosRepository implements ITransactionalAlgorithmRepository {
                 // nrml
                 new NrmlXmlGenerator(),
                 new NrmlGeoJsonGenerator(),
+                // flatgeobuf
+                new FlatGeobufGenerator(),
+                // geotiff with streaming base64 encoding
+                new StreamingGeotiffGenerator(),
                 // overwrite the existing WMS Generator
                 new ShapefileWMSGenerator()
         ).forEach(new RegisterGeneratorTask());
@@ -119,8 +127,11 @@ public class GfzRiesgosRepository implements ITransactionalAlgorithmRepository {
         // We don't want to use an existing geoserver WMS generator.
         // But we have our own one.
         // (The existing one doesn't support https).
+        // The same for the geotiff generator, which encodes base64
+        // outputs completely in memory.
         Stream.of(
-                GeoserverWMSGenerator.class
+                GeoserverWMSGenerator.class,
+                GeotiffGenerator.class
         ).forEach(new RejectGeneratorTask());
     }
 
@@ -131,6 +142,8 @@ public class GfzRiesgosRepository implements ITransactionalAlgorithmRepository {
         Stream.of(
                 // geotiff
                 new GeotiffParser(),
+                // flatgeobuf
+                new FlatGeobufParser(),
                 // quakeml
                 new QuakeMLValidatedXmlParser(),
                 new QuakeMLOriginalXmlParser(),
@@ -19,6 +19,7 @@ package org.n52.gfz.riesgos.repository.modules;
 import org.apache.commons.io.IOUtils;
 import org.n52.gfz.riesgos.algorithm.BaseGfzRiesgosService;
 import org.n52.gfz.riesgos.algorithm.CachedProcess;
+import org.n52.gfz.riesgos.algorithm.PipelineProcess;
 import org.n52.gfz.riesgos.algorithm.ReadDataFromCacheProcess;
 import org.n52.gfz.riesgos.algorithm.TransformDataFormatProcess;
 import org.n52.gfz.riesgos.cache.hash.HasherSingleton;
@@ -26,8 +27,10 @@ import org.n52.gfz.riesgos.cache.impl.CacheSingleton;
 import org.n52.gfz.riesgos.cmdexecution.docker.DockerExecutionContextManagerFactory;
 import org.n52.gfz.riesgos.configuration.IConfiguration;
 import org.n52.gfz.riesgos.configuration.IOutputParameter;
+import org.n52.gfz.riesgos.configuration.PipelineConfiguration;
 import org.n52.gfz.riesgos.configuration.parse.IParseConfiguration;
 import org.n52.gfz.riesgos.configuration.parse.formats.json.ParseJsonConfigurationImpl;
+import org.n52.gfz.riesgos.configuration.parse.formats.json.ParseJsonPipelineConfigurationImpl;
 import org.n52.gfz.riesgos.exceptions.ParseConfigurationException;
 import org.n52.gfz.riesgos.formats.IMimeTypeAndSchemaConstants;
 import org.n52.gfz.riesgos.formats.jsonfile.binding.JsonFileBinding;
@@ -284,16 +287,43 @@ public class GfzRiesgosRepositoryCM extends ClassKnowingModule {
         // can be overwritten by improved ones on server runtime
         final Map<String, IConfiguration> configurationProcesses =
                 new HashMap<>();
+        final List<PipelineConfiguration> pipelines = new ArrayList<>();
 
         // others can be added by using the folder
         addConfigurationsFromFolder(
                 this::getFileNamesFromConfig,
-                configurationProcesses::put);
+                configurationProcesses::put,
+                pipelines::add);
 
         // than add all to the result
-        configurationProcesses.values().stream()
-                .map(this::configurationToAlgorithm)
-                .forEach(result::addAll);
+        final Map<String, BaseGfzRiesgosService> services = new HashMap<>();
+        for (final IConfiguration configuration
+                : configurationProcesses.values()) {
+            final BaseGfzRiesgosService baseService =
+                    createBaseService(configuration);
+            services.put(configuration.getIdentifier(), baseService);
+            result.addAll(
+                    configurationToAlgorithm(configuration, baseService));
+        }
+
+        // pipelines use the processes of the configurations
+        for (final PipelineConfiguration pipeline : pipelines) {
+            if (configurationProcesses.containsKey(
+                    pipeline.getIdentifier())) {
+                LOGGER.error("The pipeline '"
+                        + pipeline.getIdentifier()
+                        + "' has the same identifier as a process");
+                continue;
+            }
+            try {
+                result.addAll(pipelineToAlgorithm(pipeline, services));
+            } catch (final ParseConfigurationException parseConfigException) {
+                LOGGER.error("Can't create the pipeline '"
+                        + pipeline.getIdentifier()
+                        + "': "
+                        + parseConfigException);
+            }
+        }
 
         // and add all for reading cached data
         result.addAll(createCacheReaderProcesses(
@@ -390,21 +420,32 @@ public class GfzRiesgosRepositoryCM extends ClassKnowingModule {
     }
 
     /**
-     * Function to wrap the configurations into a algorithm data.
-     * @param configuration configuration to transform into an
-     *                      algorithm data object
-     * @return algorithm data
+     * Creates the service for a configuration.
+     * @param configuration configuration of the process
+     * @return service to run the process
      */
-    private List<AlgorithmData> configurationToAlgorithm(
+    private BaseGfzRiesgosService createBaseService(
             final IConfiguration configuration) {
-
-        final BaseGfzRiesgosService baseService = new BaseGfzRiesgosService(
+        return new BaseGfzRiesgosService(
                 configuration,
                 LoggerFactory.getLogger(
                         configuration.getFullQualifiedIdentifier()),
                 HasherSingleton.INSTANCE,
                 CacheSingleton.INSTANCE,
-                new DockerExecutionContextManagerFactory());
+                configuration.getExecutionContextManagerFactory()
+                        .orElseGet(DockerExecutionContextManagerFactory::new));
+    }
+
+    /**
+     * Function to wrap the configurations into a algorithm data.
+     * @param configuration configuration to transform into an
+     *                      algorithm data object
+     * @param baseService service to run the process
+     * @return algorithm data
+     */
+    private List<AlgorithmData> configurationToAlgorithm(
+            final IConfiguration configuration,
+            final BaseGfzRiesgosService baseService) {
 
         final AlgorithmData algorithmDataForBaseService = new AlgorithmData(
                 configuration.getFullQualifiedIdentifier(), baseService);
@@ -425,6 +466,43 @@ public class GfzRiesgosRepositoryCM extends ClassKnowingModule {
                 algorithmDataForBaseService, algorithmDataForCachedService);
     }
 
+    /**
+     * Function to wrap a pipeline into a algorithm data.
+     * @param pipeline configuration of the pipeline
+     * @param services services of the processes by identifier
+     * @return algorithm data for the pipeline and for reading
+     * its results from the cache
+     * @throws ParseConfigurationException exception if the steps of the
+     * pipeline don't fit together
+     */
+    private List<AlgorithmData> pipelineToAlgorithm(
+            final PipelineConfiguration pipeline,
+            final Map<String, BaseGfzRiesgosService> services)
+            throws ParseConfigurationException {
+
+        final PipelineProcess pipelineProcess = new PipelineProcess(
+                pipeline,
+                services,
+                LoggerFactory.getLogger(
+                        pipeline.getFullQualifiedIdentifier()),
+                HasherSingleton.INSTANCE,
+                CacheSingleton.INSTANCE);
+
+        final CachedProcess cachedService =
+                new CachedProcess(pipelineProcess,
+                        "Cached" + pipeline.getIdentifier(),
+                "Process to read from the cache for the pipeline "
+                        + pipeline.getIdentifier());
+
+        return Arrays.asList(
+                new AlgorithmData(
+                        pipelineProcess.getFullQualifiedIdentifier(),
+                        pipelineProcess),
+                new AlgorithmData(
+                        cachedService.getFullQualifiedIdentifier(),
+                        cachedService));
+    }
+
     /**
      *
      * @return list of json files in the given
@@ -493,17 +571,25 @@ public class GfzRiesgosRepositoryCM extends ClassKnowingModule {
      * @param fileProvider supplier with a collection of file names
      * @param adder bi consumer to add the configurations
      *              with a given name and the configuration
+     * @param pipelineAdder consumer to add the pipeline configurations
      */
     private void addConfigurationsFromFolder(
             final Supplier<Collection<String>> fileProvider,
-            final BiConsumer<String, IConfiguration> adder) {
+            final BiConsumer<String, IConfiguration> adder,
+            final Consumer<PipelineConfiguration> pipelineAdder) {
         final IParseConfiguration parser = new ParseJsonConfigurationImpl();
+        final ParseJsonPipelineConfigurationImpl pipelineParser =
+                new ParseJsonPipelineConfigurationImpl();
 
         for (final String fileName : fileProvider.get()) {
             try (FileInputStream inputStream =
                         new FileInputStream(fileName)) {
                 final String content = new String(
                         IOUtils.toByteArray(inputStream));
+                if (pipelineParser.isPipeline(content)) {
+                    pipelineAdder.accept(pipelineParser.parse(content));
+                    continue;
+                }
                 final IConfiguration configuration = parser.parse(content);
 
                 adder.accept(configuration.getIdentifier(), configuration);
@@ -16,7 +16,11 @@
 
 package org.n52.gfz.riesgos.settings;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Singleton class to handle our riesgos wps config in java.
@@ -88,6 +92,99 @@ public enum RiesgosWpsSettings {
      */
     private final long maxCacheSizeMb;
 
+    /**
+     * Maximum size in MB of the files that the cache keeps on disk
+     * (for example geotiffs of the cached results).
+     */
+    private final long maxCacheDiskSizeMb;
+
+    /**
+     * Time in minutes that a published layer stays on the geoserver
+     * after its last use.
+     * Zero or less means that the layers will never be removed.
+     */
+    private final long geoserverLayerTtlMinutes;
+
+    /**
+     * Directory with a catalog.xml for additional local xml schemas.
+     * Empty if there is no such directory.
+     */
+    private final String xmlSchemaCatalogDir;
+
+    /**
+     * Flag if remote xml schemas that are not in a catalog
+     * should be rejected without trying to load them.
+     */
+    private final boolean xmlSchemaOffline;
+
+    /**
+     * Kinds of payloads that should be compressed (for example
+     * jsonfile or cache).
+     */
+    private final Set<String> payloadCompressionKinds;
+
+    /**
+     * Minimum size of a payload in bytes to try the compression.
+     */
+    private final int payloadCompressionMinBytes;
+
+    /**
+     * Minimum compression ratio for a payload to be stored compressed.
+     */
+    private final double payloadCompressionMinRatio;
+
+    /**
+     * Base directory for the scratch directories of processes
+     * that run directly on the host (empty for the java temp dir).
+     */
+    private final String hostScratchDir;
+
+    /**
+     * Maximum number of command line program runs at the same time
+     * (0 for the number of available processors).
+     */
+    private final int maxConcurrentRuns;
+
+    /**
+     * Order of the runs that wait for a slot (fifo or priority).
+     */
+    private final String executionQueueOrder;
+
+    /**
+     * Interval for the sweep of orphaned docker containers in minutes
+     * (0 to disable the sweep).
+     */
+    private final long containerSweepMinutes;
+
+    /**
+     * Id of this server for the label of the docker containers
+     * (empty to use the host name).
+     */
+    private final String instanceId;
+
+    /**
+     * Number of bytes of stdout / stderr that are kept in memory
+     * before the output is moved to a temporary file.
+     */
+    private final int streamCaptureMemoryBytes;
+
+    /**
+     * Base directory for the spool directories of the persistent
+     * workers (empty for the java temp dir).
+     */
+    private final String workerSpoolDir;
+
+    /**
+     * Number of threads to convert the inputs of the runs.
+     */
+    private final int inputConversionThreads;
+
+    /**
+     * Maximum size of a converted input file that is kept in memory
+     * until the execution context exists.
+     */
+    private final int stagingMemoryBytes;
+
     /**
      * Init the config by env variables.
      */
@@ -113,6 +210,78 @@ public enum RiesgosWpsSettings {
                 "RIESGOS_MAX_CACHE_SIZE_MB", "1024"
             )
         );
+        maxCacheDiskSizeMb = Long.valueOf(
+            env.getOrDefault(
+                "RIESGOS_MAX_CACHE_DISK_SIZE_MB", "10240"
+            )
+        );
+        geoserverLayerTtlMinutes = Long.valueOf(
+            env.getOrDefault(
+                "RIESGOS_GEOSERVER_LAYER_TTL_MINUTES", "1440"
+            )
+        );
+        xmlSchemaCatalogDir = env.getOrDefault(
+                "RIESGOS_XML_SCHEMA_CATALOG_DIR", ""
+        );
+        xmlSchemaOffline = Boolean.valueOf(
+            env.getOrDefault(
+                "RIESGOS_XML_SCHEMA_OFFLINE", "false"
+            )
+        );
+        payloadCompressionKinds = Arrays.stream(
+            env.getOrDefault(
+                "RIESGOS_PAYLOAD_COMPRESSION", "jsonfile,cache"
+            ).split(",")
+        ).map(String::trim)
+            .filter(kind -> !kind.isEmpty())
+            .collect(Collectors.toSet());
+        payloadCompressionMinBytes = Integer.valueOf(
+            env.getOrDefault(
+                "RIESGOS_PAYLOAD_COMPRESSION_MIN_BYTES", "16384"
+            )
+        );
+        payloadCompressionMinRatio = Double.valueOf(
+            env.getOrDefault(
+                "RIESGOS_PAYLOAD_COMPRESSION_MIN_RATIO", "2.0"
+            )
+        );
+        hostScratchDir = env.getOrDefault(
+                "RIESGOS_HOST_SCRATCH_DIR", ""
+        );
+        maxConcurrentRuns = Integer.valueOf(
+            env.getOrDefault(
+                "RIESGOS_MAX_CONCURRENT_RUNS", "0"
+            )
+        );
+        executionQueueOrder = env.getOrDefault(
+                "RIESGOS_EXECUTION_QUEUE_ORDER", "priority"
+        );
+        containerSweepMinutes = Long.valueOf(
+            env.getOrDefault(
+                "RIESGOS_CONTAINER_SWEEP_MINUTES", "10"
+            )
+        );
+        instanceId = env.getOrDefault(
+                "RIESGOS_INSTANCE_ID", ""
+        );
+        streamCaptureMemoryBytes = Integer.valueOf(
+            env.getOrDefault(
+                "RIESGOS_STREAM_CAPTURE_MEMORY_BYTES", "4194304"
+            )
+        );
+        workerSpoolDir = env.getOrDefault(
+                "RIESGOS_WORKER_SPOOL_DIR", ""
+        );
+        inputConversionThreads = Integer.valueOf(
+            env.getOrDefault(
+                "RIESGOS_INPUT_CONVERSION_THREADS", "4"
+            )
+        );
+        stagingMemoryBytes = Integer.valueOf(
+            env.getOrDefault(
+                "RIESGOS_STAGING_MEMORY_BYTES", "1048576"
+            )
+        );
     }
 
     /**
@@ -162,4 +331,143 @@ public enum RiesgosWpsSettings {
     public long getMaxCacheSizeMb() {
         return maxCacheSizeMb;
     }
+
+    /**
+     * Getter for the maximum size of the files of the cache in MB.
+     * @return the maximum size of the files on disk in MB
+     */
+    public long getMaxCacheDiskSizeMb() {
+        return maxCacheDiskSizeMb;
+    }
+
+    /**
+     * Getter for the time that published layers stay on the geoserver
+     * after their last use.
+     * @return time in minutes (zero or less for no expiry)
+     */
+    public long getGeoserverLayerTtlMinutes() {
+        return geoserverLayerTtlMinutes;
+    }
+
+    /**
+     * Getter for the directory with the additional schema catalog.
+     * @return path of the directory or an empty string
+     */
+    public String getXmlSchemaCatalogDir() {
+        return xmlSchemaCatalogDir;
+    }
+
+    /**
+     * Getter for the offline mode of the xml schema resolution.
+     * @return true if remote schemas that are not in a catalog
+     * should not be loaded
+     */
+    public boolean isXmlSchemaOffline() {
+        return xmlSchemaOffline;
+    }
+
+    /**
+     * Getter for the kinds of payloads that should be compressed.
+     * @return set with names like jsonfile or cache
+     */
+    public Set<String> getPayloadCompressionKinds() {
+        return Collections.unmodifiableSet(payloadCompressionKinds);
+    }
+
+    /**
+     * Getter for the minimum payload size to try the compression.
+     * @return size in bytes
+     */
+    public int getPayloadCompressionMinBytes() {
+        return payloadCompressionMinBytes;
+    }
+
+    /**
+     * Getter for the minimum ratio that the compression must reach.
+     * @return ratio of uncompressed size / compressed size
+     */
+    public double getPayloadCompressionMinRatio() {
+        return payloadCompressionMinRatio;
+    }
+
+    /**
+     * Getter for the base directory of the host scratch directories.
+     * @return path of the directory or an empty string to use the
+     * default temp directory
+     */
+    public String getHostScratchDir() {
+        return hostScratchDir;
+    }
+
+    /**
+     * Getter for the maximum number of runs at the same time.
+     * @return maximum number of runs (0 for the number of processors)
+     */
+    public int getMaxConcurrentRuns() {
+        return maxConcurrentRuns;
+    }
+
+    /**
+     * Getter for the order of the waiting runs.
+     * @return fifo or priority
+     */
+    public String getExecutionQueueOrder() {
+        return executionQueueOrder;
+    }
+
+    /**
+     * Getter for the interval of the sweep of orphaned docker containers.
+     * @return interval in minutes (0 if the sweep is disabled)
+     */
+    public long getContainerSweepMinutes() {
+        return containerSweepMinutes;
+    }
+
+    /**
+     * Getter for the id of this server. The docker containers get
+     * the id in their label, so that the sweep only removes the
+     * containers of this server (and not the ones of other servers
+     * that use the same docker daemon).
+     * It should stay the same over restarts, so that the containers
+     * that are left over after a crash are found.
+     * @return id of the server (empty to use the host name)
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Getter for the memory limit of the stdout / stderr capture.
+     * @return number of bytes that are kept in memory
+     */
+    public int getStreamCaptureMemoryBytes() {
+        return streamCaptureMemoryBytes;
+    }
+
+    /**
+     * Getter for the base directory of the worker spool directories.
+     * It must be possible to mount the directories into the containers.
+     * @return base directory (empty if the java temp dir should be used)
+     */
+    public String getWorkerSpoolDir() {
+        return workerSpoolDir;
+    }
+
+    /**
+     * Getter for the number of threads that convert the inputs of
+     * all the runs (to files or to the content for stdin).
+     * @return number of threads
+     */
+    public int getInputConversionThreads() {
+        return inputConversionThreads;
+    }
+
+    /**
+     * Getter for the memory limit of the staged input files.
+     * Larger files are written to temporary files.
+     * @return number of bytes of a single file that are kept in memory
+     */
+    public int getStagingMemoryBytes() {
+        return stagingMemoryBytes;
+    }
 }
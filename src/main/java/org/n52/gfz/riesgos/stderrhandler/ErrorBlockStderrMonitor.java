@@ -0,0 +1,66 @@
+package org.n52.gfz.riesgos.stderrhandler;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the Licence is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the Licence for the specific language governing permissions and
+ *  limitations under the Licence.
+ */
+
+import org.n52.gfz.riesgos.functioninterfaces.IStderrMonitor;
+
+import java.util.function.Predicate;
+
+/**
+ * Monitor for error blocks on stderr.
+ *
+ * An error block starts with a line that matches the start condition.
+ * The following indented lines belong to the block; the first line
+ * that is not indented completes it (for example the exception line
+ * of a python traceback or the "Execution halted" of R).
+ * Once the block is complete the run is considered fatal.
+ */
+class ErrorBlockStderrMonitor implements IStderrMonitor {
+
+    /**
+     * Condition for the first line of an error block.
+     */
+    private final Predicate<String> startOfBlock;
+
+    /**
+     * Flag if the monitor is inside an error block.
+     */
+    private boolean inBlock;
+
+    /**
+     * Constructor with the condition for the start of an error block.
+     * @param aStartOfBlock condition for the first line of the block
+     */
+    ErrorBlockStderrMonitor(final Predicate<String> aStartOfBlock) {
+        this.startOfBlock = aStartOfBlock;
+        this.inBlock = false;
+    }
+
+    /**
+     * Inspects the next line of stderr.
+     * @param line line of stderr
+     * @return true if an error block is complete
+     */
+    @Override
+    public boolean isFatal(final String line) {
+        if (inBlock) {
+            return !line.isEmpty() && !Character.isWhitespace(line.charAt(0));
+        }
+        inBlock = startOfBlock.test(line);
+        return false;
+    }
+}
@@ -19,8 +19,10 @@ package org.n52.gfz.riesgos.stderrhandler;
 import org.n52.gfz.riesgos.exceptions.NonEmptyStderrException;
 import org.n52.gfz.riesgos.functioninterfaces.ILogger;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
+import org.n52.gfz.riesgos.functioninterfaces.IStderrMonitor;
 
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Handler for stderr that throws an exception on non empty stderr.
@@ -48,6 +50,16 @@ public class ExceptionIfStderrIsNotEmptyHandler implements IStderrHandler {
         }
     }
 
+    /**
+     * Creates a monitor that stops the run on the first
+     * non empty line on stderr.
+     * @return monitor for non empty stderr
+     */
+    @Override
+    public Optional<IStderrMonitor> createMonitor() {
+        return Optional.of(line -> !line.trim().isEmpty());
+    }
+
     /**
      * Tests for equality.
      * @param o other object
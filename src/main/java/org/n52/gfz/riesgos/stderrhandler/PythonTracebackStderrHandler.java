@@ -19,8 +19,10 @@ package org.n52.gfz.riesgos.stderrhandler;
 import org.n52.gfz.riesgos.exceptions.NonEmptyStderrException;
 import org.n52.gfz.riesgos.functioninterfaces.ILogger;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
+import org.n52.gfz.riesgos.functioninterfaces.IStderrMonitor;
 
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Implementation that searches for the text of a python traceback and
@@ -58,6 +60,17 @@ public class PythonTracebackStderrHandler implements IStderrHandler  {
         }
     }
 
+    /**
+     * Creates a monitor that stops the run as soon as a traceback
+     * is complete (with the line of the exception).
+     * @return monitor for a python traceback
+     */
+    @Override
+    public Optional<IStderrMonitor> createMonitor() {
+        return Optional.of(new ErrorBlockStderrMonitor(
+                line -> line.contains(TRACEBACK)));
+    }
+
     /**
      * Tests for equality.
      * @param o other object
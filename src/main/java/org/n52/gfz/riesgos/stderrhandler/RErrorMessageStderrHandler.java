@@ -19,8 +19,10 @@ package org.n52.gfz.riesgos.stderrhandler;
 import org.n52.gfz.riesgos.exceptions.NonEmptyStderrException;
 import org.n52.gfz.riesgos.functioninterfaces.ILogger;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
+import org.n52.gfz.riesgos.functioninterfaces.IStderrMonitor;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -61,6 +63,17 @@ public class RErrorMessageStderrHandler implements IStderrHandler {
         }
     }
 
+    /**
+     * Creates a monitor that stops the run as soon as the
+     * error message is complete.
+     * @return monitor for the error messages of R
+     */
+    @Override
+    public Optional<IStderrMonitor> createMonitor() {
+        return Optional.of(new ErrorBlockStderrMonitor(
+                line -> ERROR_PATTERN.matcher(line).find()));
+    }
+
     /**
      * Tests equality.
      * @param o other object
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Input stream that encodes the content of another stream
+ * with base64 while reading.
+ *
+ * Only one chunk of the source is held in memory at a time, so
+ * the whole content never needs to be encoded in memory.
+ * The output is the same as Base64.getEncoder().encode on the
+ * complete content (no line breaks).
+ */
+public class Base64EncodingInputStream extends InputStream {
+
+    /**
+     * Number of bytes that are read from the source at once.
+     * It must be a multiple of 3, so that there is no padding inside
+     * of the encoded content.
+     */
+    private static final int RAW_CHUNK_BYTES = 3 * 4096;
+
+    /**
+     * Number of base64 chars for a full chunk.
+     */
+    private static final int ENCODED_CHUNK_BYTES = RAW_CHUNK_BYTES / 3 * 4;
+
+    /**
+     * Mask to convert a byte to an unsigned int.
+     */
+    private static final int BYTE_MASK = 0xff;
+
+    /**
+     * Source of the raw content.
+     */
+    private final InputStream source;
+
+    /**
+     * Encoder to use.
+     */
+    private final Base64.Encoder encoder;
+
+    /**
+     * Buffer for the raw chunk.
+     */
+    private final byte[] rawBuffer;
+
+    /**
+     * Buffer for the encoded chunk.
+     */
+    private final byte[] encodedBuffer;
+
+    /**
+     * Number of encoded bytes in the buffer.
+     */
+    private int encodedLength;
+
+    /**
+     * Position of the next byte to read in the encoded buffer.
+     */
+    private int position;
+
+    /**
+     * Flag if the source is completely read.
+     */
+    private boolean sourceFinished;
+
+    /**
+     * Constructor with the source stream.
+     * @param aSource stream with the raw content
+     */
+    public Base64EncodingInputStream(final InputStream aSource) {
+        this.source = aSource;
+        this.encoder = Base64.getEncoder();
+        this.rawBuffer = new byte[RAW_CHUNK_BYTES];
+        this.encodedBuffer = new byte[ENCODED_CHUNK_BYTES];
+        this.encodedLength = 0;
+        this.position = 0;
+        this.sourceFinished = false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        final int result = encodedBuffer[position] & BYTE_MASK;
+        position += 1;
+        return result;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        final int count = Math.min(len, encodedLength - position);
+        System.arraycopy(encodedBuffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return encodedLength - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * Encodes the next chunk if the current one is consumed.
+     * @return false if there is nothing more to read
+     * @throws IOException exception on reading the source
+     */
+    private boolean fill() throws IOException {
+        if (position < encodedLength) {
+            return true;
+        }
+        if (sourceFinished) {
+            return false;
+        }
+        final int rawLength = readChunk();
+        if (rawLength < RAW_CHUNK_BYTES) {
+            sourceFinished = true;
+        }
+        if (rawLength == 0) {
+            return false;
+        }
+        final byte[] raw = rawLength == RAW_CHUNK_BYTES
+                ? rawBuffer
+                : Arrays.copyOf(rawBuffer, rawLength);
+        encodedLength = encoder.encode(raw, encodedBuffer);
+        position = 0;
+        return true;
+    }
+
+    /**
+     * Reads until the raw buffer is full or the source ends.
+     * @return number of bytes in the raw buffer
+     * @throws IOException exception on reading the source
+     */
+    private int readChunk() throws IOException {
+        int filled = 0;
+        while (filled < RAW_CHUNK_BYTES) {
+            final int count =
+                    source.read(rawBuffer, filled, RAW_CHUNK_BYTES - filled);
+            if (count < 0) {
+                break;
+            }
+            filled += count;
+        }
+        return filled;
+    }
+}
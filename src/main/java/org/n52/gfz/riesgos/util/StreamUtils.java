@@ -43,6 +43,13 @@ public enum StreamUtils {
      */
     INSTANCE;
 
+    /**
+     * Compression level that is fast enough to be used on the
+     * hot paths (the best compression is several times slower
+     * and gains only some percent).
+     */
+    public static final int FAST_COMPRESSION = Deflater.BEST_SPEED;
+
     /**
      * Private constructor for the class that should only be used static.
      */
@@ -111,21 +118,37 @@ public enum StreamUtils {
     }
 
     /**
-     * Compress a byte array.
+     * Compress a byte array with the fast compression level.
      * @param data the byte array to compress
      * @return the compressed byte array
      * @throws IOException if compression failed
      */
     public static byte[] compress(final byte[] data) throws IOException {
+        return compress(data, FAST_COMPRESSION);
+    }
 
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        final DeflaterOutputStream deflaterOutputStream =
-            new DeflaterOutputStream(
-                outputStream, new Deflater(Deflater.BEST_COMPRESSION)
-            );
+    /**
+     * Compress a byte array.
+     * @param data the byte array to compress
+     * @param level deflater level (0-9)
+     * @return the compressed byte array
+     * @throws IOException if compression failed
+     */
+    public static byte[] compress(final byte[] data, final int level)
+            throws IOException {
 
-        deflaterOutputStream.write(data);
-        deflaterOutputStream.finish();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(level);
+        try {
+            final DeflaterOutputStream deflaterOutputStream =
+                new DeflaterOutputStream(outputStream, deflater);
+
+            deflaterOutputStream.write(data);
+            deflaterOutputStream.finish();
+        } finally {
+            // release the native memory right away
+            deflater.end();
+        }
         return outputStream.toByteArray();
     }
 
@@ -148,4 +171,37 @@ public enum StreamUtils {
 
         return outputStream.toByteArray();
     }
+
+    /**
+     * Reads a stream to the end, but keeps only the last bytes.
+     * This way the end of a large output (for example the error
+     * message after a lot of logging) can be read with a limited
+     * amount of memory.
+     * @param inputStream stream to read (is not closed here)
+     * @param maxBytes maximum number of bytes to keep
+     * @return the last bytes of the stream (at most maxBytes)
+     * @throws IOException exception on reading the stream
+     */
+    public static byte[] readTail(
+            final InputStream inputStream,
+            final int maxBytes) throws IOException {
+        // the buffer is twice as large as the tail, so that it
+        // only needs to be shifted once the second half is full
+        final byte[] buffer = new byte[Math.max(1, 2 * maxBytes)];
+        int length = 0;
+        int read;
+        while ((read = inputStream.read(
+                buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                System.arraycopy(
+                        buffer, length - maxBytes, buffer, 0, maxBytes);
+                length = maxBytes;
+            }
+        }
+        final int start = Math.max(0, length - maxBytes);
+        final byte[] result = new byte[length - start];
+        System.arraycopy(buffer, start, result, 0, result.length);
+        return result;
+    }
 }
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util;
+
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.SAXException;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+/**
+ * Singleton cache for the compiled xml schemas.
+ *
+ * Compiling a schema (especially the QuakeML one) is expensive,
+ * but the compiled javax.xml.validation.Schema is thread safe
+ * and can be shared. Only the validators that are created from
+ * the schema must be used by one thread at a time.
+ *
+ * The schema uris are resolved with the XmlSchemaFileTranslator
+ * (local catalog first). Imports & includes inside of the schemas
+ * are resolved with the same catalog.
+ *
+ * Schemas that can't be compiled are remembered for some minutes,
+ * so that the following requests fail fast instead of trying to
+ * load an unreachable schema again & again.
+ */
+public enum XmlSchemaCache {
+    /**
+     * Singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * Time to remember schemas that failed to compile.
+     */
+    private static final long FAILURE_RETRY_MILLIS =
+            TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Compiled schemas by the schema uri.
+     */
+    private final ConcurrentMap<String, Schema> schemas =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Schemas that failed to compile (the exception & the time
+     * of the failure) by the schema uri.
+     */
+    private final ConcurrentMap<String, Tuple<SAXException, Long>> failures =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Translator to get the (local) schema files.
+     */
+    private final XmlSchemaFileTranslator translator =
+            new XmlSchemaFileTranslator();
+
+    /**
+     * Returns the compiled schema for the uri.
+     * The schema is only compiled on the first call for the uri.
+     * @param schemaUri uri of the schema
+     * @return compiled schema
+     * @throws SAXException exception if the schema can't be loaded
+     * or compiled
+     */
+    public Schema getSchema(final String schemaUri) throws SAXException {
+        final Schema cached = schemas.get(schemaUri);
+        if (cached != null) {
+            return cached;
+        }
+        final Tuple<SAXException, Long> failure = failures.get(schemaUri);
+        if (failure != null) {
+            if (System.currentTimeMillis() - failure.getSecond()
+                    < FAILURE_RETRY_MILLIS) {
+                throw failure.getFirst();
+            }
+            failures.remove(schemaUri, failure);
+        }
+        try {
+            return schemas.computeIfAbsent(schemaUri, (uri) -> {
+                try {
+                    return compile(uri);
+                } catch (final SAXException exception) {
+                    throw new SchemaCompileException(exception);
+                }
+            });
+        } catch (final SchemaCompileException exception) {
+            failures.put(schemaUri, new Tuple<>(
+                    exception.getSaxException(),
+                    System.currentTimeMillis()));
+            throw exception.getSaxException();
+        }
+    }
+
+    /**
+     *
+     * @return number of compiled schemas in the cache
+     */
+    public int size() {
+        return schemas.size();
+    }
+
+    /**
+     * Removes all the compiled schemas.
+     */
+    public void clear() {
+        schemas.clear();
+        failures.clear();
+    }
+
+    /**
+     * Compiles the schema.
+     * @param schemaUri uri of the schema
+     * @return compiled schema
+     * @throws SAXException exception if the schema can't be loaded
+     * or compiled
+     */
+    private Schema compile(final String schemaUri) throws SAXException {
+        final URL schemaUrl = translator.translateUri(schemaUri);
+        if (schemaUrl == null) {
+            throw new SAXException(
+                    "XML schema file could not be loaded: " + schemaUri);
+        }
+        // the schema factory is not thread safe, so we create
+        // a new one for every compilation
+        final SchemaFactory schemaFactory =
+                SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        schemaFactory.setResourceResolver(
+                new CatalogResourceResolver(translator));
+        return schemaFactory.newSchema(schemaUrl);
+    }
+
+    /**
+     * Resolver for imports & includes of the schemas, that uses
+     * the translator (and so the local catalog).
+     */
+    private static class CatalogResourceResolver
+            implements LSResourceResolver {
+
+        /**
+         * Translator with the catalog.
+         */
+        private final XmlSchemaFileTranslator translator;
+
+        /**
+         * Implementation to create the LSInput objects.
+         */
+        private DOMImplementationLS domImplementation;
+
+        /**
+         * Constructor with the translator.
+         * @param aTranslator translator with the catalog
+         */
+        CatalogResourceResolver(final XmlSchemaFileTranslator aTranslator) {
+            this.translator = aTranslator;
+        }
+
+        /**
+         * Resolves a schema that is referenced by another schema.
+         * @param type type of the resource
+         * @param namespaceURI namespace of the resource
+         * @param publicId public id of the resource
+         * @param systemId system id (normally the schema location)
+         * @param baseURI uri of the referencing schema
+         * @return input with the location of the catalog entry or
+         * null to use the default resolution
+         */
+        @Override
+        public LSInput resolveResource(
+                final String type,
+                final String namespaceURI,
+                final String publicId,
+                final String systemId,
+                final String baseURI) {
+            final XmlSchemaCatalog catalog = translator.getCatalog();
+            final String absoluteSystemId = toAbsolute(systemId, baseURI);
+            final Optional<URL> local = Stream.of(
+                    absoluteSystemId, systemId, namespaceURI)
+                    .map(catalog::resolve)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .findFirst();
+            if (local.isPresent()) {
+                return createInput(publicId, local.get().toExternalForm());
+            }
+            if (absoluteSystemId != null
+                    && translator.translateUri(absoluteSystemId) == null) {
+                // offline mode: an empty document fails fast instead
+                // of waiting for a network timeout
+                final LSInput input = createInput(publicId, absoluteSystemId);
+                if (input != null) {
+                    input.setStringData("");
+                }
+                return input;
+            }
+            return null;
+        }
+
+        /**
+         * Resolves the system id against the base uri.
+         * @param systemId system id (may be relative)
+         * @param baseURI uri of the referencing schema
+         * @return absolute system id or the system id itself
+         */
+        private static String toAbsolute(
+                final String systemId,
+                final String baseURI) {
+            if (systemId == null || baseURI == null) {
+                return systemId;
+            }
+            try {
+                return new URI(baseURI).resolve(systemId).toString();
+            } catch (final URISyntaxException | IllegalArgumentException e) {
+                return systemId;
+            }
+        }
+
+        /**
+         * Creates an input for the system id.
+         * @param publicId public id of the resource
+         * @param systemId system id to load the resource from
+         * @return input or null if there is no dom implementation
+         */
+        private LSInput createInput(
+                final String publicId,
+                final String systemId) {
+            if (domImplementation == null) {
+                try {
+                    domImplementation = (DOMImplementationLS)
+                            DocumentBuilderFactory.newInstance()
+                                    .newDocumentBuilder()
+                                    .getDOMImplementation();
+                } catch (final ParserConfigurationException e) {
+                    return null;
+                }
+            }
+            final LSInput input = domImplementation.createLSInput();
+            input.setPublicId(publicId);
+            input.setSystemId(systemId);
+            return input;
+        }
+    }
+
+    /**
+     * Unchecked wrapper to get the SAXException out of
+     * the computeIfAbsent call.
+     */
+    private static class SchemaCompileException extends RuntimeException {
+
+        private static final long serialVersionUID = 6048197349223401857L;
+
+        /**
+         * Constructor with the wrapped exception.
+         * @param cause the sax exception
+         */
+        SchemaCompileException(final SAXException cause) {
+            super(cause);
+        }
+
+        /**
+         *
+         * @return the wrapped sax exception
+         */
+        SAXException getSaxException() {
+            return (SAXException) getCause();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Local catalog for xml schemas in the style of the OASIS xml catalogs.
+ *
+ * It supports the uri and system entries of a catalog file:
+ *
+ * <pre>
+ * &lt;catalog xmlns="urn:oasis:names:tc:entity:xmlns:xml:catalog"&gt;
+ *     &lt;uri name="http://example.org/schema" uri="schema.xsd"/&gt;
+ *     &lt;system systemId="http://example.org/x.xsd" uri="x.xsd"/&gt;
+ * &lt;/catalog&gt;
+ * </pre>
+ *
+ * Relative uris are resolved against the location of the catalog file.
+ * Loading the catalog never accesses the network.
+ */
+public class XmlSchemaCatalog {
+
+    /**
+     * Namespace of the OASIS xml catalogs.
+     */
+    public static final String CATALOG_NAMESPACE =
+            "urn:oasis:names:tc:entity:xmlns:xml:catalog";
+
+    /**
+     * Name of the catalog file in a catalog directory.
+     */
+    public static final String CATALOG_FILE_NAME = "catalog.xml";
+
+    /**
+     * Location of the catalog with the bundled schemas.
+     */
+    public static final String BUNDLED_CATALOG_RES =
+            "/org/n52/gfz/riesgos/validators/xml/catalog.xml";
+
+    /**
+     * Mapping of the schema uris (and system ids) to the local files.
+     */
+    private final Map<String, URL> entries;
+
+    /**
+     * Constructor with the entries.
+     * @param aEntries mapping of the schema uris to the local files
+     */
+    public XmlSchemaCatalog(final Map<String, URL> aEntries) {
+        this.entries = Collections.unmodifiableMap(new HashMap<>(aEntries));
+    }
+
+    /**
+     *
+     * @return catalog without any entry
+     */
+    public static XmlSchemaCatalog empty() {
+        return new XmlSchemaCatalog(Collections.emptyMap());
+    }
+
+    /**
+     * Loads the catalog with the schemas that are bundled
+     * in the resources.
+     * @return catalog with the bundled schemas
+     * @throws IOException exception if the catalog can't be read
+     */
+    public static XmlSchemaCatalog bundled() throws IOException {
+        final URL catalogUrl =
+                XmlSchemaCatalog.class.getResource(BUNDLED_CATALOG_RES);
+        if (catalogUrl == null) {
+            throw new IOException(
+                    "Bundled schema catalog is missing: "
+                            + BUNDLED_CATALOG_RES);
+        }
+        return fromUrl(catalogUrl);
+    }
+
+    /**
+     * Loads the catalog.xml of a directory.
+     * If the directory has no catalog file, the catalog is empty.
+     * @param directory directory with the catalog.xml and the schemas
+     * @return catalog of the directory
+     * @throws IOException exception if the catalog can't be read
+     */
+    public static XmlSchemaCatalog fromDirectory(final File directory)
+            throws IOException {
+        final File catalogFile = new File(directory, CATALOG_FILE_NAME);
+        if (!catalogFile.isFile()) {
+            return empty();
+        }
+        return fromUrl(catalogFile.toURI().toURL());
+    }
+
+    /**
+     * Reads a catalog file.
+     * @param catalogUrl location of the catalog file
+     * @return catalog with the entries of the file
+     * @throws IOException exception if the catalog can't be read
+     */
+    public static XmlSchemaCatalog fromUrl(final URL catalogUrl)
+            throws IOException {
+        final Document document = parse(catalogUrl);
+        final Map<String, URL> entries = new HashMap<>();
+        addEntries(document, "uri", "name", catalogUrl, entries);
+        addEntries(document, "system", "systemId", catalogUrl, entries);
+        return new XmlSchemaCatalog(entries);
+    }
+
+    /**
+     * Creates a new catalog with the entries of this and the other
+     * catalog. The entries of the other catalog win.
+     * @param other catalog with the entries that override ours
+     * @return combined catalog
+     */
+    public XmlSchemaCatalog overriddenBy(final XmlSchemaCatalog other) {
+        final Map<String, URL> combined = new HashMap<>(entries);
+        combined.putAll(other.entries);
+        return new XmlSchemaCatalog(combined);
+    }
+
+    /**
+     * Looks up the local file for a schema uri.
+     * @param uri uri of the schema (or system id)
+     * @return location of the local file if there is an entry
+     */
+    public Optional<URL> resolve(final String uri) {
+        if (uri == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entries.get(uri));
+    }
+
+    /**
+     *
+     * @return number of entries in the catalog
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Parses the catalog file without loading any external dtd.
+     * @param catalogUrl location of the catalog file
+     * @return dom document
+     * @throws IOException exception if the catalog can't be parsed
+     */
+    private static Document parse(final URL catalogUrl) throws IOException {
+        final DocumentBuilderFactory factory =
+                DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        factory.setExpandEntityReferences(false);
+        try (InputStream inputStream = catalogUrl.openStream()) {
+            // catalog files often refer to the OASIS dtd, which
+            // would need network access
+            factory.setFeature(
+                    "http://apache.org/xml/features/"
+                            + "nonvalidating/load-external-dtd",
+                    false);
+            return factory.newDocumentBuilder()
+                    .parse(inputStream, catalogUrl.toExternalForm());
+        } catch (final ParserConfigurationException | SAXException exception) {
+            throw new IOException(
+                    "Can't parse the schema catalog " + catalogUrl,
+                    exception);
+        }
+    }
+
+    /**
+     * Adds all the entries of one element type.
+     * @param document catalog document
+     * @param elementName name of the catalog entry element
+     * @param keyAttribute attribute with the uri that should be mapped
+     * @param catalogUrl location of the catalog file
+     * @param entries map to add the entries to
+     * @throws MalformedURLException exception if the uri of an entry is
+     * invalid
+     */
+    private static void addEntries(
+            final Document document,
+            final String elementName,
+            final String keyAttribute,
+            final URL catalogUrl,
+            final Map<String, URL> entries) throws MalformedURLException {
+        final NodeList nodes = document.getElementsByTagNameNS(
+                CATALOG_NAMESPACE, elementName);
+        for (int i = 0; i < nodes.getLength(); i += 1) {
+            final Element element = (Element) nodes.item(i);
+            final String key = element.getAttribute(keyAttribute);
+            final String target = element.getAttribute("uri");
+            if (!key.isEmpty() && !target.isEmpty()) {
+                entries.put(key, new URL(catalogUrl, target));
+            }
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package org.n52.gfz.riesgos.util;
 
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
-import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 /*
  * Copyright (C) 2019 GFZ German Research Centre for Geosciences
@@ -25,6 +31,13 @@ import java.util.Map;
 
 /**
  * Utility class for XML schema translation.
+ *
+ * The schema uris are looked up in a local catalog (the bundled
+ * schemas & an optional catalog directory). There is no network
+ * access to find out if an uri is reachable; remote schemas are
+ * only loaded when the schema is compiled (and the compiled schema
+ * is cached then). In offline mode remote schemas that are not in
+ * the catalog are not resolved at all.
  */
 public class XmlSchemaFileTranslator {
     /**
@@ -40,72 +53,130 @@ public class XmlSchemaFileTranslator {
         "/org/n52/gfz/riesgos/validators/xml/shakemap.xsd";
 
     /**
-     * Mapping of all available schema translations.
+     * Logger to report problems with the catalogs.
+     */
+    private static final Logger LOGGER =
+        LoggerFactory.getLogger(XmlSchemaFileTranslator.class);
+
+    /**
+     * Schemes of uris that need a network access.
+     */
+    private static final List<String> REMOTE_SCHEMES =
+        Arrays.asList("http", "https", "ftp");
+
+    /**
+     * Catalog with the local schema files.
+     */
+    private final XmlSchemaCatalog catalog;
+
+    /**
+     * Flag if remote schemas that are not in the catalog are forbidden.
      */
-    private final Map<String, URI> translator;
+    private final boolean offline;
 
     /**
-     * Initialization of the mappings.
+     * Initialization with the bundled catalog & the catalog
+     * directory and offline mode of the riesgos wps settings.
      */
     public XmlSchemaFileTranslator() {
-        translator = new HashMap<>();
-        URI quakemlSchemaFile = null,
-            shakemapSchemaFile = null;
+        this(
+            loadDefaultCatalog(),
+            RiesgosWpsSettings.INSTANCE.isXmlSchemaOffline()
+        );
+    }
+
+    /**
+     * Initialization with a given catalog.
+     * @param aCatalog catalog with the local schema files
+     * @param aOffline true if remote schemas that are not in the catalog
+     *                 should not be resolved
+     */
+    public XmlSchemaFileTranslator(
+            final XmlSchemaCatalog aCatalog,
+            final boolean aOffline) {
+        this.catalog = aCatalog;
+        this.offline = aOffline;
+    }
 
+    /**
+     * Loads the bundled catalog and overrides it with the entries of
+     * the configured catalog directory.
+     * @return catalog
+     */
+    private static XmlSchemaCatalog loadDefaultCatalog() {
+        XmlSchemaCatalog result;
         try {
-            quakemlSchemaFile = getClass().getResource(
-                QUAKEML_SCHEMA_RES
-            ).toURI();
-            shakemapSchemaFile = getClass().getResource(
-                SHAKEMAP_SCHEMA_RES
-            ).toURI();
-        } catch (URISyntaxException e) { }
-
-        translator.put(
-            "http://quakeml.org/xmlns/quakeml/1.2/QuakeML-1.2.xsd",
-            quakemlSchemaFile
-        );
-        translator.put(
-            "http://earthquake.usgs.gov/eqcenter/shakemap",
-            shakemapSchemaFile
-        );
+            result = XmlSchemaCatalog.bundled();
+        } catch (final IOException exception) {
+            LOGGER.error("Can't load the bundled schema catalog", exception);
+            result = XmlSchemaCatalog.empty();
+        }
+        final String catalogDir =
+            RiesgosWpsSettings.INSTANCE.getXmlSchemaCatalogDir();
+        if (!catalogDir.isEmpty()) {
+            try {
+                result = result.overriddenBy(
+                    XmlSchemaCatalog.fromDirectory(new File(catalogDir)));
+            } catch (final IOException exception) {
+                LOGGER.error(
+                    "Can't load the schema catalog in " + catalogDir,
+                    exception);
+            }
+        }
+        return result;
     }
 
     /**
-     * Check if a given string is a URL.
+     *
+     * @return catalog with the local schema files
+     */
+    public XmlSchemaCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Check if a given string is an uri that needs network access.
+     * This only checks the syntax - there is no connection involved.
      * @param str String to check
-     * @return true if string is a URL, otherwise false
+     * @return true if string is a remote URL, otherwise false
      */
-    public static boolean isURL(final String str) {
+    public static boolean isRemoteUrl(final String str) {
         try {
-            URL url = new URL(str);
-            url.openStream().close();
-            return true;
-        } catch (Exception e) { }
-
-        return false;
+            final String scheme = new URI(str).getScheme();
+            return scheme != null && REMOTE_SCHEMES.contains(
+                scheme.toLowerCase());
+        } catch (final Exception e) {
+            return false;
+        }
     }
 
     /**
-     * Translate given URI to URL or File.
+     * Translate given URI to the URL to load the schema from.
      * @param uri uri that should be changed
-     * @return File
+     * @return URL of the schema or null if the schema can't be
+     * resolved
      */
-    public Object translateUri(final String uri) {
-        if (translator.containsKey(uri)) {
-            try {
-                return translator.get(uri).toURL();
-            } catch (Exception e) {
-                return null;
-            }
+    public URL translateUri(final String uri) {
+        final Optional<URL> local = catalog.resolve(uri);
+        if (local.isPresent()) {
+            return local.get();
         }
 
-        if (isURL(uri)) {
+        if (isRemoteUrl(uri)) {
+            if (offline) {
+                return null;
+            }
             try {
                 return new URL(uri);
-            } catch (Exception e) { }
+            } catch (final MalformedURLException e) {
+                return null;
+            }
         }
 
-        return new File(uri);
+        try {
+            return new File(uri).toURI().toURL();
+        } catch (final MalformedURLException e) {
+            return null;
+        }
     }
 }
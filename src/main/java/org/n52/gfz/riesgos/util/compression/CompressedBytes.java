@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.compression;
+
+import org.n52.gfz.riesgos.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Byte payload that is stored compressed if the compression
+ * policy decides so.
+ *
+ * For the users it is transparent if the content is compressed or not.
+ */
+public final class CompressedBytes implements Serializable {
+
+    private static final long serialVersionUID = 2461706829447615033L;
+
+    /**
+     * Stored data (compressed or not).
+     */
+    private final byte[] data;
+
+    /**
+     * Flag if the data are compressed.
+     */
+    private final boolean compressed;
+
+    /**
+     * Constructor with the stored data.
+     * @param aData stored data
+     * @param aCompressed true if the data are compressed
+     */
+    private CompressedBytes(final byte[] aData, final boolean aCompressed) {
+        this.data = aData;
+        this.compressed = aCompressed;
+    }
+
+    /**
+     * Stores the payload (compressed if it pays off).
+     * @param payload uncompressed payload
+     * @param policy policy to decide about the compression
+     * @return stored payload
+     * @throws IOException if the compression fails
+     */
+    public static CompressedBytes store(
+            final byte[] payload,
+            final CompressionPolicy policy) throws IOException {
+        final byte[] compressedPayload = policy.compressIfWorthIt(payload);
+        if (compressedPayload == null) {
+            return new CompressedBytes(payload, false);
+        }
+        return new CompressedBytes(compressedPayload, true);
+    }
+
+    /**
+     * Stores the payload without compression.
+     * @param payload payload to store
+     * @return stored payload
+     */
+    public static CompressedBytes uncompressed(final byte[] payload) {
+        return new CompressedBytes(payload, false);
+    }
+
+    /**
+     * Stores the payload for the given payload kind with the
+     * configured policy.
+     * @param payload uncompressed payload
+     * @param kind kind of the payload
+     * @return stored payload
+     * @throws IOException if the compression fails
+     */
+    public static CompressedBytes store(
+            final byte[] payload,
+            final PayloadKind kind) throws IOException {
+        return store(payload, kind.getPolicy());
+    }
+
+    /**
+     *
+     * @return the uncompressed payload
+     * @throws IOException if the decompression fails
+     */
+    public byte[] getBytes() throws IOException {
+        if (compressed) {
+            return StreamUtils.decompress(data);
+        }
+        return data;
+    }
+
+    /**
+     *
+     * @return true if the payload is stored compressed
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     *
+     * @return size of the stored data in bytes
+     */
+    public int getStoredSize() {
+        return data.length;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.compression;
+
+import org.n52.gfz.riesgos.util.StreamUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Policy to decide if a payload should be compressed.
+ *
+ * Only payloads with a minimum size are considered. For them a sample
+ * from the start of the payload is compressed first and only if this
+ * reaches the minimum ratio, the whole payload is compressed.
+ * So incompressible content (for example already compressed geotiffs)
+ * costs only the compression of the sample.
+ */
+public final class CompressionPolicy {
+
+    /**
+     * Size of the sample to estimate the compression ratio.
+     */
+    private static final int SAMPLE_BYTES = 64 * 1024;
+
+    /**
+     * Policy that never compresses.
+     */
+    private static final CompressionPolicy DISABLED =
+            new CompressionPolicy(false, StreamUtils.FAST_COMPRESSION, 0, 0);
+
+    /**
+     * Flag if the compression is used at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * Deflater level to use.
+     */
+    private final int level;
+
+    /**
+     * Minimum size of the payload to try the compression.
+     */
+    private final int minBytes;
+
+    /**
+     * Minimum ratio (uncompressed size / compressed size) that
+     * the compression must reach to be used.
+     */
+    private final double minRatio;
+
+    /**
+     * Constructor with all the values.
+     * @param aEnabled true if the compression should be used
+     * @param aLevel deflater level
+     * @param aMinBytes minimum size of the payload to try the compression
+     * @param aMinRatio minimum ratio that the compression must reach
+     */
+    public CompressionPolicy(
+            final boolean aEnabled,
+            final int aLevel,
+            final int aMinBytes,
+            final double aMinRatio) {
+        this.enabled = aEnabled;
+        this.level = aLevel;
+        this.minBytes = aMinBytes;
+        this.minRatio = aMinRatio;
+    }
+
+    /**
+     *
+     * @return policy that never compresses
+     */
+    public static CompressionPolicy disabled() {
+        return DISABLED;
+    }
+
+    /**
+     *
+     * @return true if the compression can be used
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Compresses the payload if this pays off.
+     * @param payload uncompressed payload
+     * @return compressed payload or null if the payload should be
+     * stored uncompressed
+     * @throws IOException if the compression fails
+     */
+    public byte[] compressIfWorthIt(final byte[] payload) throws IOException {
+        if (!enabled || payload.length < minBytes) {
+            return null;
+        }
+        if (payload.length > SAMPLE_BYTES) {
+            final byte[] sample = Arrays.copyOf(payload, SAMPLE_BYTES);
+            if (!reachesRatio(sample.length,
+                    StreamUtils.compress(sample, level).length)) {
+                return null;
+            }
+        }
+        final byte[] compressed = StreamUtils.compress(payload, level);
+        if (!reachesRatio(payload.length, compressed.length)) {
+            return null;
+        }
+        return compressed;
+    }
+
+    /**
+     * Checks the ratio.
+     * @param uncompressedLength length of the uncompressed data
+     * @param compressedLength length of the compressed data
+     * @return true if the ratio is at least the minimum ratio
+     */
+    private boolean reachesRatio(
+            final int uncompressedLength,
+            final int compressedLength) {
+        return compressedLength > 0
+                && (double) uncompressedLength / compressedLength >= minRatio;
+    }
+}
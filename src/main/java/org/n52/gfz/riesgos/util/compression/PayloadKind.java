@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.compression;
+
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+import org.n52.gfz.riesgos.util.StreamUtils;
+
+/**
+ * Kinds of payloads that can be compressed.
+ * Each kind has its own policy that is configured by the
+ * riesgos wps settings.
+ */
+public enum PayloadKind {
+    /**
+     * Content of the json file bindings.
+     */
+    JSONFILE("jsonfile"),
+    /**
+     * Byte content in the cache to recreate the bindings
+     * (json, xml, ...).
+     */
+    CACHE("cache");
+
+    /**
+     * Name of the kind in the settings.
+     */
+    private final String settingsName;
+
+    /**
+     * Policy for the kind (created on first use).
+     */
+    private volatile CompressionPolicy policy;
+
+    /**
+     * Constructor with the name in the settings.
+     * @param aSettingsName name of the kind in the settings
+     */
+    PayloadKind(final String aSettingsName) {
+        this.settingsName = aSettingsName;
+    }
+
+    /**
+     *
+     * @return name of the kind in the settings
+     */
+    public String getSettingsName() {
+        return settingsName;
+    }
+
+    /**
+     *
+     * @return the configured policy for this kind of payloads
+     */
+    public CompressionPolicy getPolicy() {
+        if (policy == null) {
+            final RiesgosWpsSettings settings = RiesgosWpsSettings.INSTANCE;
+            if (settings.getPayloadCompressionKinds().contains(settingsName)) {
+                policy = new CompressionPolicy(
+                        true,
+                        StreamUtils.FAST_COMPRESSION,
+                        settings.getPayloadCompressionMinBytes(),
+                        settings.getPayloadCompressionMinRatio());
+            } else {
+                policy = CompressionPolicy.disabled();
+            }
+        }
+        return policy;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2019-2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver;
+
+import org.n52.gfz.riesgos.settings.RiesgosWpsSettings;
+import org.n52.gfz.riesgos.util.geoserver.impl.GeoserverRestApiClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton to give access to one shared geoserver client
+ * (configured by the riesgos wps settings).
+ *
+ * Sharing the client allows to reuse the connections and to
+ * remember the workspaces that we already created.
+ */
+public enum GeoserverClientProvider {
+    /**
+     * Singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * The shared client.
+     */
+    private final IGeoserverClient client;
+
+    /**
+     * The shared index of the layers that we published.
+     */
+    private final GeoserverLayerIndex layerIndex;
+
+    /**
+     * Creates the client & the layer index with the values
+     * of the settings.
+     */
+    GeoserverClientProvider() {
+        client = new GeoserverRestApiClient(
+                RiesgosWpsSettings.INSTANCE.getGeoserverSendBaseUrl(),
+                RiesgosWpsSettings.INSTANCE.getGeoserverUsername(),
+                RiesgosWpsSettings.INSTANCE.getGeoserverPassword()
+        );
+        layerIndex = new GeoserverLayerIndex(
+                client,
+                TimeUnit.MINUTES.toMillis(
+                        RiesgosWpsSettings.INSTANCE
+                                .getGeoserverLayerTtlMinutes())
+        ).startBackgroundExpiry();
+    }
+
+    /**
+     *
+     * @return the shared geoserver client
+     */
+    public IGeoserverClient getClient() {
+        return client;
+    }
+
+    /**
+     *
+     * @return the shared index of the published layers
+     */
+    public GeoserverLayerIndex getLayerIndex() {
+        return layerIndex;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver;
+
+import org.n52.gfz.riesgos.util.geoserver.exceptions.GeoserverClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local index from content hashes to layers on the geoserver.
+ *
+ * If the same content is published again, we give back the
+ * existing layer instead of uploading it again.
+ * Layers that were not requested for a while are removed
+ * from the geoserver in the background.
+ */
+public class GeoserverLayerIndex {
+
+    /**
+     * Logger to log the expiry of layers.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(GeoserverLayerIndex.class);
+
+    /**
+     * Interval to check for unused layers (in minutes).
+     */
+    private static final long EXPIRY_CHECK_MINUTES = 5;
+
+    /**
+     * Function interface for the publishing itself.
+     */
+    @FunctionalInterface
+    public interface ILayerPublisher {
+        /**
+         * Publishes the content on the geoserver.
+         * @return information about the published layer
+         * @throws GeoserverClientException if the publishing fails
+         */
+        PublishedLayer publish() throws GeoserverClientException;
+    }
+
+    /**
+     * Client to remove the layers.
+     */
+    private final IGeoserverClient client;
+
+    /**
+     * Time after that unused layers will be removed (in millis).
+     */
+    private final long ttlMillis;
+
+    /**
+     * Entries of the index by the content hash.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates the index.
+     * @param aClient client to remove expired layers
+     * @param aTtlMillis time after that unused layers are removed;
+     *                   zero or less to never remove them
+     */
+    public GeoserverLayerIndex(
+            final IGeoserverClient aClient,
+            final long aTtlMillis) {
+        this.client = aClient;
+        this.ttlMillis = aTtlMillis;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Starts the background expiry of the layers.
+     * @return the index itself
+     */
+    public GeoserverLayerIndex startBackgroundExpiry() {
+        if (ttlMillis > 0) {
+            final ScheduledExecutorService scheduler =
+                    Executors.newSingleThreadScheduledExecutor((r) -> {
+                        final Thread thread =
+                                new Thread(r, "geoserver-layer-expiry");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            scheduler.scheduleWithFixedDelay(
+                    () -> expireUnusedLayers(System.currentTimeMillis()),
+                    EXPIRY_CHECK_MINUTES,
+                    EXPIRY_CHECK_MINUTES,
+                    TimeUnit.MINUTES);
+        }
+        return this;
+    }
+
+    /**
+     * Gives back the get map url for the content with the hash.
+     * If it is not published yet, the publisher will be called.
+     * Concurrent calls for the same hash wait for one single upload.
+     * If the layer expires while we wait for it, it will be
+     * published again, so the url is always for an existing layer.
+     * @param contentHash hash of the content
+     * @param publisher function to publish the content
+     * @return get map url
+     * @throws GeoserverClientException if the publishing fails
+     */
+    public String getOrPublish(
+            final String contentHash,
+            final ILayerPublisher publisher) throws GeoserverClientException {
+
+        while (true) {
+            final CompletableFuture<PublishedLayer> newFuture =
+                    new CompletableFuture<>();
+            final Entry entry = entries.computeIfAbsent(
+                    contentHash, (key) -> new Entry(newFuture));
+
+            if (entry.getLayer() == newFuture) {
+                try {
+                    newFuture.complete(publisher.publish());
+                } catch (final GeoserverClientException | RuntimeException
+                        exception) {
+                    // the next request should try it again
+                    entries.remove(contentHash, entry);
+                    newFuture.completeExceptionally(exception);
+                }
+            }
+
+            final PublishedLayer layer;
+            try {
+                layer = entry.getLayer().join();
+            } catch (final CompletionException completionException) {
+                final Throwable cause = completionException.getCause();
+                if (cause instanceof GeoserverClientException) {
+                    throw (GeoserverClientException) cause;
+                }
+                throw completionException;
+            }
+
+            // the touch runs under the same lock as the removal
+            // in the expiry, so the layer can't be removed after
+            // we checked that it is still in the index
+            final Entry touched = entries.computeIfPresent(
+                    contentHash,
+                    (key, current) -> {
+                        if (current == entry) {
+                            current.touch();
+                        }
+                        return current;
+                    });
+            if (touched == entry) {
+                return layer.getGetMapUrl();
+            }
+            LOGGER.debug("Layer {} expired in the meantime",
+                    layer.getStoreName());
+        }
+    }
+
+    /**
+     * Removes the layers that were not used since the ttl
+     * from the index & the geoserver.
+     * @param now current time in millis
+     */
+    public void expireUnusedLayers(final long now) {
+        final Iterator<Map.Entry<String, Entry>> iterator =
+                entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Entry> mapEntry = iterator.next();
+            final Entry entry = mapEntry.getValue();
+            final CompletableFuture<PublishedLayer> future = entry.getLayer();
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                continue;
+            }
+            // check & remove under the lock of the map entry,
+            // so that there can't be a touch in between
+            final AtomicBoolean removed = new AtomicBoolean(false);
+            entries.computeIfPresent(mapEntry.getKey(), (key, current) -> {
+                if (current == entry
+                        && now - current.getLastAccess() >= ttlMillis) {
+                    removed.set(true);
+                    return null;
+                }
+                return current;
+            });
+            if (!removed.get()) {
+                continue;
+            }
+            final PublishedLayer layer = future.join();
+            LOGGER.debug("Remove unused layer {}", layer.getStoreName());
+            try {
+                if (layer.getStoreType()
+                        == PublishedLayer.StoreType.DATASTORE) {
+                    client.deleteDataStore(
+                            layer.getWorkspace(), layer.getStoreName());
+                } else {
+                    client.deleteCoverageStore(
+                            layer.getWorkspace(), layer.getStoreName());
+                }
+            } catch (final IOException ioException) {
+                LOGGER.warn("Could not remove the layer {}",
+                        layer.getStoreName(), ioException);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return number of layers in the index
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Entry in the index with the (future) layer
+     * & the time of the last access.
+     */
+    private static final class Entry {
+
+        /**
+         * Future with the layer.
+         */
+        private final CompletableFuture<PublishedLayer> layer;
+
+        /**
+         * Time of the last access (in millis).
+         */
+        private volatile long lastAccess;
+
+        /**
+         * Creates the entry.
+         * @param aLayer future with the layer
+         */
+        private Entry(final CompletableFuture<PublishedLayer> aLayer) {
+            this.layer = aLayer;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        /**
+         *
+         * @return future with the layer
+         */
+        private CompletableFuture<PublishedLayer> getLayer() {
+            return layer;
+        }
+
+        /**
+         *
+         * @return time of the last access
+         */
+        private long getLastAccess() {
+            return lastAccess;
+        }
+
+        /**
+         * Updates the time of the last access.
+         */
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Interface for content that is written directly into
+ * a request body (instead of reading it from a file).
+ *
+ * Implementations must be able to write the same content
+ * more than once (for example if a request must be repeated).
+ */
+@FunctionalInterface
+public interface IContentWriter {
+
+    /**
+     * Writes the content.
+     * @param outputStream stream to write to (must not be closed)
+     * @throws IOException exception on writing
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+}
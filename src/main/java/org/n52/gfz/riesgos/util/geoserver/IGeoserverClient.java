@@ -23,6 +23,7 @@ import org.n52.gfz.riesgos.util.geoserver.exceptions.UnableToUploadShpException;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for a client to work with a geoserver.
@@ -42,6 +43,17 @@ public interface IGeoserverClient {
             throws
             UnableToCreateWorkspaceException;
 
+    /**
+     * Make sure that the workspace exists on the geoserver.
+     * Implementations can remember workspaces that they know to exist,
+     * so that there is no need to ask the geoserver every time.
+     * @param workspace name of the workspace
+     * @throws UnableToCreateWorkspaceException In case the workspace
+     * doesn't exist and we can't create it.
+     */
+    void ensureWorkspaceExists(String workspace)
+            throws UnableToCreateWorkspaceException;
+
     /**
      * Create the coverage on the geoserver.
      * @param file Raster file that we want to send.
@@ -70,6 +82,51 @@ public interface IGeoserverClient {
             String storeName
     ) throws UnableToUploadShpException, IOException;
 
+    /**
+     * Upload a zipped shape file to the geoserver that is written
+     * directly into the request body (chunked, without knowing
+     * the size before).
+     * @param zippedShp writer for the zipped shapefile
+     * @param workspace workspace name in that the file should be added
+     * @param storeName name of the store to add
+     * @return response of the request
+     * @throws UnableToUploadShpException if there is an error in the
+     * communication
+     * @throws IOException if writing the content failed
+     */
+    String uploadShp(
+            IContentWriter zippedShp,
+            String workspace,
+            String storeName
+    ) throws UnableToUploadShpException, IOException;
+
+    /**
+     * Upload a shape file to the geoserver without blocking the caller.
+     * @param file Shapefile that will be send
+     * @param workspace workspace name in that the file should be added
+     * @param storeName name of the store to add
+     * @return future with the response of the request; it completes
+     * exceptionally with an UnableToUploadShpException in case of problems
+     */
+    CompletableFuture<String> uploadShpAsync(
+            File file,
+            String workspace,
+            String storeName
+    );
+
+    /**
+     * Create the coverage on the geoserver without blocking the caller.
+     * @param file Raster file that we want to send.
+     * @param workspace workspace name in that the file should be added
+     * @param layerName name of the layer to add.
+     * @return future that completes once the coverage is created; it
+     * completes exceptionally with an UnableToCreateCoverageException
+     * in case of problems
+     */
+    CompletableFuture<Void> createCoverageAsync(
+            File file, String workspace, String layerName
+    );
+
     /**
      * Get a list of layers for a data store.
      * @param workspace name of the workspace
@@ -82,4 +139,22 @@ public interface IGeoserverClient {
             String workspace,
             String storeName
     ) throws IOException;
+
+    /**
+     * Delete a data store with all its layers.
+     * @param workspace name of the workspace
+     * @param storeName name of the data store
+     * @throws IOException if we have trouble interacting with the geoserver
+     */
+    void deleteDataStore(String workspace, String storeName)
+            throws IOException;
+
+    /**
+     * Delete a coverage store with all its layers and files.
+     * @param workspace name of the workspace
+     * @param storeName name of the coverage store
+     * @throws IOException if we have trouble interacting with the geoserver
+     */
+    void deleteCoverageStore(String workspace, String storeName)
+            throws IOException;
 }
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKBWriter;
+import org.apache.commons.codec.binary.Hex;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+
+/**
+ * Helper to compute hashes of the content that we publish on the
+ * geoserver, so that the same content is only uploaded once.
+ */
+public final class LayerContentHash {
+
+    /**
+     * Algorithm for the hashes.
+     */
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * Size of the buffer to read files.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * End (exclusive) of the date of the last update in the
+     * header of a dbf file (the date is in the bytes 1 to 3).
+     */
+    private static final int DBF_DATE_END = 4;
+
+    /**
+     * Number of dimensions for the wkb of the geometries.
+     */
+    private static final int WKB_DIMENSIONS = 3;
+
+    /**
+     * Marker for null values in the feature hash.
+     */
+    private static final byte NULL_VALUE = 0;
+
+    /**
+     * Marker for geometries in the feature hash.
+     */
+    private static final byte GEOMETRY_VALUE = 1;
+
+    /**
+     * Marker for dates in the feature hash.
+     */
+    private static final byte DATE_VALUE = 2;
+
+    /**
+     * Marker for all the other values in the feature hash.
+     */
+    private static final byte OTHER_VALUE = 3;
+
+    /**
+     * Private constructor as there are only static methods.
+     */
+    private LayerContentHash() {
+        // static only
+    }
+
+    /**
+     * Computes the hash of the parts of a shapefile.
+     * The date of the last update in the header of the dbf file
+     * is ignored, so that the same content written on another day
+     * still has the same hash.
+     * @param shp the .shp file
+     * @param shx the .shx file
+     * @param dbf the .dbf file
+     * @param prj the .prj file (optional)
+     * @return hex string of the hash
+     * @throws IOException if a file can't be read
+     */
+    public static String ofShapefile(
+            final File shp,
+            final File shx,
+            final File dbf,
+            final File prj) throws IOException {
+        final MessageDigest digest = createDigest();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        updateWithFile(digest, shp, buffer, 0);
+        updateWithFile(digest, shx, buffer, 0);
+        updateWithFile(digest, dbf, buffer, DBF_DATE_END);
+        updateWithFile(digest, prj, buffer, 0);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Updates the digest with the content of a file.
+     * @param digest digest to update
+     * @param file file to read
+     * @param buffer buffer for reading
+     * @param maskEnd the bytes from offset 1 until this offset
+     *                (exclusive) are not used for the hash
+     *                (0 to use all of them)
+     * @throws IOException if the file can't be read
+     */
+    private static void updateWithFile(
+            final MessageDigest digest,
+            final File file,
+            final byte[] buffer,
+            final int maskEnd) throws IOException {
+        if (!file.exists()) {
+            // optional files (like the prj) should
+            // still change the hash
+            digest.update((byte) 0);
+            return;
+        }
+        try (InputStream inputStream = new FileInputStream(file)) {
+            long position = 0;
+            int read = inputStream.read(buffer);
+            while (read >= 0) {
+                for (long i = Math.max(position, 1);
+                     i < Math.min(position + read, maskEnd);
+                     i += 1) {
+                    buffer[(int) (i - position)] = 0;
+                }
+                digest.update(buffer, 0, read);
+                position += read;
+                read = inputStream.read(buffer);
+            }
+        }
+        digest.update((byte) 1);
+    }
+
+    /**
+     * Computes the hash of features without encoding them.
+     * The hash covers the feature type (names, bindings & crs),
+     * the geometries (as wkb) and the attribute values of all the
+     * features (in the order of the collection).
+     * @param features features to hash
+     * @return hex string of the hash
+     */
+    public static String ofFeatures(final SimpleFeatureCollection features) {
+        final MessageDigest digest = createDigest();
+
+        final SimpleFeatureType featureType = features.getSchema();
+        for (final AttributeDescriptor descriptor
+                : featureType.getAttributeDescriptors()) {
+            updateWithString(digest, descriptor.getLocalName());
+            updateWithString(digest,
+                    descriptor.getType().getBinding().getName());
+        }
+        final CoordinateReferenceSystem crs =
+                featureType.getCoordinateReferenceSystem();
+        updateWithString(digest, crs == null ? "" : crs.toWKT());
+
+        final WKBWriter wkbWriter = new WKBWriter(WKB_DIMENSIONS);
+        try (SimpleFeatureIterator iterator = features.features()) {
+            while (iterator.hasNext()) {
+                for (final Object value : iterator.next().getAttributes()) {
+                    if (value == null) {
+                        digest.update(NULL_VALUE);
+                    } else if (value instanceof Geometry) {
+                        digest.update(GEOMETRY_VALUE);
+                        updateWithBytes(
+                                digest, wkbWriter.write((Geometry) value));
+                    } else if (value instanceof Date) {
+                        digest.update(DATE_VALUE);
+                        updateWithString(digest, String.valueOf(
+                                ((Date) value).getTime()));
+                    } else {
+                        digest.update(OTHER_VALUE);
+                        updateWithString(digest, String.valueOf(value));
+                    }
+                }
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Updates the digest with a string (with its length, so that
+     * the borders between the strings are part of the hash).
+     * @param digest digest to update
+     * @param text string to add
+     */
+    private static void updateWithString(
+            final MessageDigest digest,
+            final String text) {
+        updateWithBytes(digest, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Updates the digest with a byte array & its length.
+     * @param digest digest to update
+     * @param bytes bytes to add
+     */
+    private static void updateWithBytes(
+            final MessageDigest digest,
+            final byte[] bytes) {
+        digest.update(ByteBuffer.allocate(Integer.BYTES)
+                .putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    /**
+     * Computes the hash of a grid coverage (samples,
+     * envelope & crs) without encoding it.
+     * The samples are read row by row, so there is no complete
+     * copy of the raster.
+     * @param coverage grid coverage
+     * @return hex string of the hash
+     */
+    public static String ofCoverage(final GridCoverage2D coverage) {
+        final MessageDigest digest = createDigest();
+
+        final Envelope envelope = coverage.getEnvelope();
+        final CoordinateReferenceSystem crs =
+                coverage.getCoordinateReferenceSystem();
+        digest.update((String.valueOf(envelope.getLowerCorner())
+                + String.valueOf(envelope.getUpperCorner())
+                + (crs == null ? "" : crs.toWKT())
+        ).getBytes(StandardCharsets.UTF_8));
+
+        final RenderedImage image = coverage.getRenderedImage();
+        final int bands = image.getSampleModel().getNumBands();
+        final ByteBuffer rowBuffer = ByteBuffer.allocate(
+                image.getTileWidth() * bands * Double.BYTES);
+
+        for (int tileY = image.getMinTileY();
+             tileY < image.getMinTileY() + image.getNumYTiles();
+             tileY += 1) {
+            for (int tileX = image.getMinTileX();
+                 tileX < image.getMinTileX() + image.getNumXTiles();
+                 tileX += 1) {
+                final Raster tile = image.getTile(tileX, tileY);
+                double[] row = null;
+                for (int y = tile.getMinY();
+                     y < tile.getMinY() + tile.getHeight();
+                     y += 1) {
+                    row = tile.getPixels(
+                            tile.getMinX(), y, tile.getWidth(), 1, row);
+                    rowBuffer.clear();
+                    for (final double value : row) {
+                        rowBuffer.putDouble(value);
+                    }
+                    digest.update(rowBuffer.array(), 0, rowBuffer.position());
+                }
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Creates the message digest.
+     * @return message digest
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException exception) {
+            // every java platform must support SHA-256
+            throw new IllegalStateException(exception);
+        }
+    }
+}
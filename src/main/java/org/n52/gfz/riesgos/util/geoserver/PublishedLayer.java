@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver;
+
+import java.util.Objects;
+
+/**
+ * Information about a layer that we published on the geoserver.
+ */
+public class PublishedLayer {
+
+    /**
+     * Kind of the store that holds the layer.
+     */
+    public enum StoreType {
+        /**
+         * Data store for vector data.
+         */
+        DATASTORE,
+        /**
+         * Coverage store for raster data.
+         */
+        COVERAGESTORE
+    }
+
+    /**
+     * Url to get the map from the geoserver.
+     */
+    private final String getMapUrl;
+
+    /**
+     * Workspace of the layer.
+     */
+    private final String workspace;
+
+    /**
+     * Name of the store of the layer.
+     */
+    private final String storeName;
+
+    /**
+     * Type of the store.
+     */
+    private final StoreType storeType;
+
+    /**
+     * Constructor with all the values.
+     * @param aGetMapUrl url to get the map
+     * @param aWorkspace workspace of the layer
+     * @param aStoreName name of the store
+     * @param aStoreType type of the store
+     */
+    public PublishedLayer(
+            final String aGetMapUrl,
+            final String aWorkspace,
+            final String aStoreName,
+            final StoreType aStoreType) {
+        this.getMapUrl = aGetMapUrl;
+        this.workspace = aWorkspace;
+        this.storeName = aStoreName;
+        this.storeType = aStoreType;
+    }
+
+    /**
+     *
+     * @return url to get the map
+     */
+    public String getGetMapUrl() {
+        return getMapUrl;
+    }
+
+    /**
+     *
+     * @return workspace of the layer
+     */
+    public String getWorkspace() {
+        return workspace;
+    }
+
+    /**
+     *
+     * @return name of the store
+     */
+    public String getStoreName() {
+        return storeName;
+    }
+
+    /**
+     *
+     * @return type of the store
+     */
+    public StoreType getStoreType() {
+        return storeType;
+    }
+
+    /**
+     * Tests for equality.
+     * @param o other object
+     * @return true if both are equal
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PublishedLayer that = (PublishedLayer) o;
+        return Objects.equals(getMapUrl, that.getMapUrl)
+                && Objects.equals(workspace, that.workspace)
+                && Objects.equals(storeName, that.storeName)
+                && storeType == that.storeType;
+    }
+
+    /**
+     *
+     * @return hashcode of the instance
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(getMapUrl, workspace, storeName, storeType);
+    }
+}
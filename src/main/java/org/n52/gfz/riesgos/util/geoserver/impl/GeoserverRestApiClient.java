@@ -16,27 +16,30 @@
 
 package org.n52.gfz.riesgos.util.geoserver.impl;
 
-import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.httpclient.Credentials;
 import org.apache.commons.httpclient.HttpClient;
-import org.apache.commons.httpclient.HttpException;
+import org.apache.commons.httpclient.HttpMethod;
 import org.apache.commons.httpclient.HttpStatus;
-import org.apache.commons.httpclient.StatusLine;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.methods.DeleteMethod;
 import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
+import org.apache.commons.httpclient.methods.FileRequestEntity;
 import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.PutMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.commons.httpclient.methods.StringRequestEntity;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.params.HttpMethodParams;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.n52.gfz.riesgos.util.constants.Headers;
 import org.n52.gfz.riesgos.util.constants.MimeTypes;
+import org.n52.gfz.riesgos.util.geoserver.IContentWriter;
 import org.n52.gfz.riesgos.util.geoserver.IGeoserverClient;
 import org.n52.gfz.riesgos.util.geoserver.exceptions.UnableToCreateCoverageException;
 import org.n52.gfz.riesgos.util.geoserver.exceptions.UnableToCreateWorkspaceException;
@@ -46,22 +49,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * Rest API client for the geoserver.
+ *
+ * All the requests share one pool of keep-alive connections, so the
+ * client should be created once and reused (see GeoserverClientProvider).
+ * Uploads can run in the background on a bounded executor.
  */
-public class GeoserverRestApiClient implements IGeoserverClient {
+public class GeoserverRestApiClient implements IGeoserverClient, AutoCloseable {
 
     /**
      * Logger (if bad things happen...).
@@ -76,25 +85,50 @@ public class GeoserverRestApiClient implements IGeoserverClient {
      */
     private static final String DEFAULT_CONTENT_CHARSET = "ISO-8859-1";
 
+    /**
+     * Default number of connections to the geoserver (and so
+     * the number of uploads that can run at the same time).
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+    /**
+     * Default time to remember that a workspace exists.
+     * After that time we ask the geoserver again (it could be
+     * that someone removed it in the meantime).
+     */
+    public static final long DEFAULT_WORKSPACE_CACHE_MILLIS =
+            TimeUnit.MINUTES.toMillis(10);
+
     /**
      * Base url to talk with the geoserver.
      * Should look like http://localhost:8080/geoserver
      */
     private final String baseUrl;
+
+    /**
+     * Http client that is shared by all the requests.
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * Connection manager with the pool of connections.
+     */
+    private final MultiThreadedHttpConnectionManager connectionManager;
+
     /**
-     * Credentials to authorize an user.
+     * Executor for the asynchronous uploads.
      */
-    private final Credentials credentials;
+    private final ExecutorService executor;
+
     /**
-     * The user value itself. (For situations in that need to handle
-     * the credentials ourselves).
+     * Time for that we remember that a workspace exists.
      */
-    private final String user;
+    private final long workspaceCacheMillis;
+
     /**
-     * The password value itself. (For situations in that need to handle
-     * the credentials ourselves).
+     * Workspaces that we know to exist with the time we learned about it.
      */
-    private final String password;
+    private final Map<String, Long> knownWorkspaces;
 
     /**
      * Construct the client object.
@@ -106,14 +140,59 @@ public class GeoserverRestApiClient implements IGeoserverClient {
             final String aBaseUrl,
             final String aUsername,
             final String aPassword
+    ) {
+        this(
+                aBaseUrl,
+                aUsername,
+                aPassword,
+                DEFAULT_MAX_CONNECTIONS,
+                DEFAULT_WORKSPACE_CACHE_MILLIS
+        );
+    }
+
+    /**
+     * Construct the client object.
+     * @param aBaseUrl base url (like http://localhost:8080/geoserver)
+     * @param aUsername a username to run the actions
+     * @param aPassword a password to authenticate the user
+     * @param aMaxConnections number of pooled connections & upload threads
+     * @param aWorkspaceCacheMillis time to remember existing workspaces
+     */
+    public GeoserverRestApiClient(
+            final String aBaseUrl,
+            final String aUsername,
+            final String aPassword,
+            final int aMaxConnections,
+            final long aWorkspaceCacheMillis
     ) {
         // baseUrl is something ala http://localhost:8080/geoserver
         this.baseUrl = aBaseUrl;
-        this.user = aUsername;
-        this.password = aPassword;
-        this.credentials = new UsernamePasswordCredentials(
-                aUsername, aPassword
+        this.workspaceCacheMillis = aWorkspaceCacheMillis;
+        this.knownWorkspaces = new ConcurrentHashMap<>();
+
+        this.connectionManager = new MultiThreadedHttpConnectionManager();
+        final HttpConnectionManagerParams connectionParams =
+                connectionManager.getParams();
+        connectionParams.setDefaultMaxConnectionsPerHost(aMaxConnections);
+        connectionParams.setMaxTotalConnections(aMaxConnections);
+
+        this.httpClient = new HttpClient(connectionManager);
+        // we know that the geoserver wants basic auth, so we can
+        // send it with the first request
+        // (and avoid the need to send large uploads twice).
+        this.httpClient.getParams().setAuthenticationPreemptive(true);
+        this.httpClient.getState().setCredentials(
+                AuthScope.ANY,
+                new UsernamePasswordCredentials(aUsername, aPassword)
         );
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(aMaxConnections, (r) -> {
+            final Thread thread = new Thread(
+                    r, "geoserver-upload-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -133,23 +212,10 @@ public class GeoserverRestApiClient implements IGeoserverClient {
         final String payload =
                 "<workspace><name>" + workspace + "</name></workspace>";
 
-
-        final HttpClient client = new HttpClient();
         final EntityEnclosingMethod requestMethod = new PostMethod(url);
-
-
         requestMethod.setRequestHeader(
                 Headers.CONTENT_TYPE, MimeTypes.APPLICATION_XML);
 
-        client.getState().setCredentials(
-                new AuthScope(
-                        AuthScope.ANY_HOST,
-                        AuthScope.ANY_PORT,
-                        AuthScope.ANY_REALM
-                ),
-                this.credentials
-        );
-
         try {
             requestMethod.setRequestEntity(
                     new StringRequestEntity(
@@ -159,63 +225,97 @@ public class GeoserverRestApiClient implements IGeoserverClient {
                     )
             );
 
-            final int statusCode = client.executeMethod(requestMethod);
-            if (workspaceAlreadyExists(statusCode, requestMethod)) {
-                final StatusLine statusLine = requestMethod.getStatusLine();
-                final String errorMsg =
-                        statusLine != null ? statusLine.toString() : null;
-                throw new WorkspaceAlreadyExistsException(errorMsg);
+            final int statusCode = httpClient.executeMethod(requestMethod);
+            final String responseText = readResponseText(requestMethod);
+            if (workspaceAlreadyExists(statusCode, responseText)) {
+                rememberWorkspace(workspace);
+                throw new WorkspaceAlreadyExistsException(
+                        String.valueOf(requestMethod.getStatusLine()));
             }
-            if (!(
-                    (statusCode == HttpStatus.SC_OK)
-                    || (statusCode == HttpStatus.SC_CREATED)
-            )) {
+            if (!isSuccess(statusCode)) {
                 LOGGER.error("Create workspace failed: {}",
                         requestMethod.getStatusLine());
                 throw new UnableToCreateWorkspaceException();
             }
+            rememberWorkspace(workspace);
 
         } catch (IOException ioException) {
             throw new UnableToCreateWorkspaceException(ioException);
+        } finally {
+            requestMethod.releaseConnection();
         }
     }
 
     /**
-     * Check if the status code & the request body indicate that
+     * Make sure that the workspace exists on the geoserver.
+     * If we created it (or learned that it exists) recently, then
+     * there is no request to the geoserver at all.
+     * @param workspace name of the workspace
+     * @throws UnableToCreateWorkspaceException In case the workspace
+     * doesn't exist and we can't create it.
+     */
+    @Override
+    public void ensureWorkspaceExists(
+            final String workspace
+    ) throws UnableToCreateWorkspaceException {
+        final Long knownSince = knownWorkspaces.get(workspace);
+        if (knownSince != null
+                && System.currentTimeMillis() - knownSince
+                    < workspaceCacheMillis) {
+            return;
+        }
+        try {
+            createWorkspace(workspace);
+        } catch (
+                WorkspaceAlreadyExistsException
+                        alreadyExistingWorkspaceException
+        ) {
+            LOGGER.debug("Workspace exists already - fine as well");
+        }
+    }
+
+    /**
+     * Remember that the workspace exists.
+     * @param workspace name of the workspace
+     */
+    private void rememberWorkspace(final String workspace) {
+        knownWorkspaces.put(workspace, System.currentTimeMillis());
+    }
+
+    /**
+     * Forget about the workspace, so that the next call of
+     * ensureWorkspaceExists asks the geoserver again.
+     * We do this if a request for the workspace failed.
+     * @param workspace name of the workspace
+     */
+    private void forgetWorkspace(final String workspace) {
+        knownWorkspaces.remove(workspace);
+    }
+
+    /**
+     * Check if the status code & the response body indicate that
      * the workspace does already exists.
      * @param statusCode http status code of the last request
-     * @param requestMethod request object with responde
+     * @param responseText text of the response
      * @return true if we realize that the workspace already exists.
      */
     private boolean workspaceAlreadyExists(
             final int statusCode,
-            final EntityEnclosingMethod requestMethod
+            final String responseText
     ) {
         if (statusCode == HttpStatus.SC_CONFLICT) {
             return true;
         }
-        if (statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+        if (statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR
+                && responseText != null) {
             // ok we have a generic internal server error
             // this is not enough to check for an existing workspace
-            try {
-                final String responseText = new String(
-                        requestMethod.getResponseBody()
-                ).toLowerCase();
-                // the response may look like:
-                // :Workspace named 'riesgos' already exists.
-                // But we transform to lowercase for our checks anyway.
-                if (
-                        responseText.contains("workspace named")
-                        && responseText.contains("already exists")
-                ) {
-                    return true;
-                }
-
-            } catch (IOException ioException) {
-                // In case we got an IOException we can't work with the
-                // response. So we can't expect that issue is an already
-                // existing workspace.
-            }
+            // the response may look like:
+            // :Workspace named 'riesgos' already exists.
+            // But we transform to lowercase for our checks anyway.
+            final String lowerResponseText = responseText.toLowerCase();
+            return lowerResponseText.contains("workspace named")
+                    && lowerResponseText.contains("already exists");
         }
         return false;
     }
@@ -234,6 +334,7 @@ public class GeoserverRestApiClient implements IGeoserverClient {
             final String workspace,
             final String layerName
     ) throws UnableToCreateCoverageException {
+        EntityEnclosingMethod requestMethod = null;
         try {
 
             File copyOfFile = new File(
@@ -262,8 +363,7 @@ public class GeoserverRestApiClient implements IGeoserverClient {
                     ? "file:" + copyOfFile.getAbsolutePath()
                     : "file:/" + copyOfFile.getAbsolutePath();
 
-            final HttpClient client = new HttpClient();
-            final EntityEnclosingMethod requestMethod = new PutMethod(url);
+            requestMethod = new PutMethod(url);
             requestMethod.setRequestHeader(
                     Headers.CONTENT_TYPE, MimeTypes.TEXT_PLAIN);
             requestMethod.setRequestEntity(
@@ -273,44 +373,61 @@ public class GeoserverRestApiClient implements IGeoserverClient {
                             DEFAULT_CONTENT_CHARSET
                     )
             );
-            client.getState().setCredentials(
-                    new AuthScope(
-                            AuthScope.ANY_HOST,
-                            AuthScope.ANY_PORT,
-                            AuthScope.ANY_REALM
-                    ),
-                    this.credentials
-            );
 
-            final int statusCode = client.executeMethod(requestMethod);
+            final int statusCode = httpClient.executeMethod(requestMethod);
+            final String responseText = readResponseText(requestMethod);
 
-            if (!(
-                    (statusCode == HttpStatus.SC_OK)
-                    || (statusCode == HttpStatus.SC_CREATED)
-            )) {
+            if (!isSuccess(statusCode)) {
                 LOGGER.error("Create coverage failed: {}",
                         requestMethod.getStatusLine());
+                forgetWorkspace(workspace);
                 throw new UnableToCreateCoverageException(
-                        new RuntimeException(
-                                requestMethod.getResponseBodyAsString()
-                        )
+                        new RuntimeException(responseText)
                 );
             }
 
         } catch (IOException ioException) {
             throw new UnableToCreateCoverageException(ioException);
+        } finally {
+            if (requestMethod != null) {
+                requestMethod.releaseConnection();
+            }
         }
     }
 
+    /**
+     * Create the coverage on the geoserver without blocking the caller.
+     * @param file Raster file that we want to send.
+     * @param workspace workspace name in that the file should be added
+     * @param layerName name of the layer to add.
+     * @return future that completes once the coverage is created
+     */
+    @Override
+    public CompletableFuture<Void> createCoverageAsync(
+            final File file,
+            final String workspace,
+            final String layerName
+    ) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                createCoverage(file, workspace, layerName);
+            } catch (final UnableToCreateCoverageException exception) {
+                throw new CompletionException(exception);
+            }
+        }, executor);
+    }
+
     /**
      * Upload a shape file to the geoserver.
+     * The file is streamed to the geoserver, so there is no need
+     * to hold it in memory.
      * @param file Shapefile that will be send
      * @param workspace workspace name in that the file should be added
      * @param storeName name of the store to add
      * @return response of the request
      * @throws UnableToUploadShpException if there is an error in the
      * communication
-     * @throws IOException if writing data to disk failed
+     * @throws IOException if reading the file failed
      */
     @Override
     public String uploadShp(
@@ -319,22 +436,115 @@ public class GeoserverRestApiClient implements IGeoserverClient {
             final String storeName
         ) throws UnableToUploadShpException, IOException {
 
+        return sendShpRequest(
+                createShpUploadUrl(workspace, storeName),
+                new FileRequestEntity(file, MimeTypes.APPLICATION_ZIP),
+                workspace);
+    }
 
-        final String url = this.baseUrl
+    /**
+     * Upload a zipped shape file to the geoserver that is written
+     * directly into the request body.
+     * As we don't know the size before, we use chunked transfer.
+     * @param zippedShp writer for the zipped shapefile
+     * @param workspace workspace name in that the file should be added
+     * @param storeName name of the store to add
+     * @return response of the request
+     * @throws UnableToUploadShpException if there is an error in the
+     * communication
+     * @throws IOException if writing the content failed
+     */
+    @Override
+    public String uploadShp(
+            final IContentWriter zippedShp,
+            final String workspace,
+            final String storeName
+    ) throws UnableToUploadShpException, IOException {
+        return sendShpRequest(
+                createShpUploadUrl(workspace, storeName),
+                new ContentWriterRequestEntity(
+                        zippedShp, MimeTypes.APPLICATION_ZIP),
+                workspace);
+    }
+
+    /**
+     * Creates the url to upload a shapefile.
+     * @param workspace workspace name in that the file should be added
+     * @param storeName name of the store to add
+     * @return url for the upload
+     */
+    private String createShpUploadUrl(
+            final String workspace,
+            final String storeName
+    ) {
+        return this.baseUrl
                 + "/rest/workspaces/"
                 + workspace
                 + "/datastores/" + storeName
                 + "/file.shp?filename=" + storeName;
+    }
+
+    /**
+     * Send a shapefile request (PUT) to GeoServer.
+     * @param url URL to send the request to
+     * @param requestEntity the content to send
+     * @param workspace workspace of the upload
+     * @return response of the request
+     * @throws IOException if sending the data failed
+     */
+    private String sendShpRequest(
+            final String url,
+            final RequestEntity requestEntity,
+            final String workspace
+    ) throws IOException {
+        LOGGER.info("url to send shapefile to: {}", url);
 
-        InputStream request = new FileInputStream(file);
+        final PutMethod requestMethod = new PutMethod(url);
+        // let the geoserver reject the request before we send
+        // the whole file
+        requestMethod.getParams().setBooleanParameter(
+                HttpMethodParams.USE_EXPECT_CONTINUE, true);
+        requestMethod.setRequestEntity(requestEntity);
 
         try {
-            return sendShpRequest(url, request);
-        } catch (HttpException httpException) {
-            throw new UnableToUploadShpException(httpException);
+            final int statusCode = httpClient.executeMethod(requestMethod);
+            final String responseText = readResponseText(requestMethod);
+            if (!isSuccess(statusCode)) {
+                LOGGER.error("Method failed: {}",
+                        requestMethod.getStatusLine());
+                forgetWorkspace(workspace);
+            }
+            return responseText;
+        } finally {
+            requestMethod.releaseConnection();
         }
     }
 
+    /**
+     * Upload a shape file to the geoserver without blocking the caller.
+     * @param file Shapefile that will be send
+     * @param workspace workspace name in that the file should be added
+     * @param storeName name of the store to add
+     * @return future with the response of the request
+     */
+    @Override
+    public CompletableFuture<String> uploadShpAsync(
+            final File file,
+            final String workspace,
+            final String storeName
+    ) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return uploadShp(file, workspace, storeName);
+            } catch (final UnableToUploadShpException exception) {
+                throw new CompletionException(exception);
+            } catch (final IOException ioException) {
+                throw new CompletionException(
+                        new UnableToUploadShpException(ioException));
+            }
+        }, executor);
+    }
+
     /**
      * Get a list of layers for a data store.
      * @param workspace name of the workspace
@@ -377,6 +587,64 @@ public class GeoserverRestApiClient implements IGeoserverClient {
         return result;
     }
 
+    /**
+     * Delete a data store with all its layers.
+     * @param workspace name of the workspace
+     * @param storeName name of the data store
+     * @throws IOException if we have trouble interacting with the geoserver
+     */
+    @Override
+    public void deleteDataStore(
+            final String workspace,
+            final String storeName
+    ) throws IOException {
+        sendDelete(this.baseUrl
+                + "/rest/workspaces/"
+                + workspace
+                + "/datastores/" + storeName
+                + "?recurse=true");
+    }
+
+    /**
+     * Delete a coverage store with all its layers and files.
+     * @param workspace name of the workspace
+     * @param storeName name of the coverage store
+     * @throws IOException if we have trouble interacting with the geoserver
+     */
+    @Override
+    public void deleteCoverageStore(
+            final String workspace,
+            final String storeName
+    ) throws IOException {
+        sendDelete(this.baseUrl
+                + "/rest/workspaces/"
+                + workspace
+                + "/coveragestores/" + storeName
+                + "?recurse=true&purge=all");
+    }
+
+    /**
+     * Helper method to send a delete request.
+     * A store that is already gone is fine.
+     * @param url to send the request to.
+     * @throws IOException exception if the geoserver refused to delete
+     */
+    private void sendDelete(final String url) throws IOException {
+        final DeleteMethod requestMethod = new DeleteMethod(url);
+        try {
+            final int statusCode = httpClient.executeMethod(requestMethod);
+            final String responseText = readResponseText(requestMethod);
+            if (!isSuccess(statusCode)
+                    && statusCode != HttpStatus.SC_NOT_FOUND) {
+                throw new IOException(
+                        "Delete failed: " + requestMethod.getStatusLine()
+                                + " " + responseText);
+            }
+        } finally {
+            requestMethod.releaseConnection();
+        }
+    }
+
     /**
      * Helper method to send the a get feature info request.
      * @param url to send the request to.
@@ -386,223 +654,126 @@ public class GeoserverRestApiClient implements IGeoserverClient {
     private String sendFeatureInfo(
             final String url
     ) throws IOException {
-        final HttpClient client = new HttpClient();
         final GetMethod requestMethod = new GetMethod(url);
         requestMethod.setRequestHeader(
                 Headers.ACCEPT, MimeTypes.APPLICATION_JSON);
 
-        client.getState().setCredentials(
-                new AuthScope(
-                        AuthScope.ANY_HOST,
-                        AuthScope.ANY_PORT,
-                        AuthScope.ANY_REALM
-                ),
-                this.credentials
-        );
+        try {
+            final int statusCode = httpClient.executeMethod(requestMethod);
 
-        final int statusCode = client.executeMethod(requestMethod);
+            if (!isSuccess(statusCode)) {
+                LOGGER.error("Method failed: {}",
+                        requestMethod.getStatusLine());
+            }
 
-        if (
-                !((statusCode == HttpStatus.SC_OK)
-                        || (statusCode == HttpStatus.SC_CREATED))
-        ) {
-            LOGGER.error("Method failed: {}", requestMethod.getStatusLine());
+            return readResponseText(requestMethod);
+        } finally {
+            requestMethod.releaseConnection();
         }
+    }
 
-        // Read the response body.
+    /**
+     * Reads the response body completely, so that the connection
+     * can go back to the pool.
+     * @param requestMethod method with the response
+     * @return text of the response (or null if there is no body)
+     * @throws IOException exception if reading the body fails
+     */
+    private static String readResponseText(
+            final HttpMethod requestMethod
+    ) throws IOException {
         final byte[] responseBody = requestMethod.getResponseBody();
+        if (responseBody == null) {
+            return null;
+        }
         return new String(responseBody);
     }
 
     /**
-     * Send a shapefile request (PUT) to GeoServer.
-     * @param target URL to send the request to
-     * @param request the content to send
-     * @return response of the request
-     * @throws IOException if writing data to disk failed
+     * Check if the status code is one of the success codes
+     * the geoserver uses.
+     * @param statusCode http status code
+     * @return true if the request was successful
      */
-    private String sendShpRequest(
-            final String target,
-            final InputStream request
-    )
-            throws IOException {
-        LOGGER.info("url to send shapefile to: {}", target);
-
-        final byte[] content = IOUtils.toByteArray(request);
-
-        // We found that the HttpClient doesn't work properly for larger files.
-        // So we handle it here with HttpURLConnection (which is part of
-        // the default JDK).
-        // And we tried to have an interface that is a little more like the
-        // requests lib by python.
-        final Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", MimeTypes.APPLICATION_ZIP);
-
-        final Response resp = Requests.put(
-                target,
-                content,
-                headers,
-                new HttpBasicAuth(this.user, this.password)
-        );
-
-        final int statusCode = resp.getStatusCode();
-
-        if (
-                !((statusCode == HttpStatus.SC_OK)
-                        || (statusCode == HttpStatus.SC_CREATED))
-        ) {
-            LOGGER.error("Method failed: {}", resp.getStatusLine());
-        }
-
-        return resp.getText();
+    private static boolean isSuccess(final int statusCode) {
+        return statusCode == HttpStatus.SC_OK
+                || statusCode == HttpStatus.SC_CREATED;
     }
 
     /**
-     * An equivalent to requests.auth.HttpBasicAuth of the python requests lib.
+     * Request entity that writes the content directly into the
+     * request body.
      */
-    private static class HttpBasicAuth {
-        /**
-         * Username entry.
-         */
-        private final String user;
-        /**
-         * Passwort entry.
-         */
-        private final String password;
+    private static final class ContentWriterRequestEntity
+            implements RequestEntity {
 
         /**
-         * Constructor for the HttpBasicAuth class.
-         * @param aUser username
-         * @param aPassword the corresponding password
+         * Writer for the content.
          */
-        HttpBasicAuth(final String aUser, final String aPassword) {
-            this.user = aUser;
-            this.password = aPassword;
-        }
+        private final IContentWriter contentWriter;
 
         /**
-         * We use the "standard" method to send credentials:
-         * A header with the "user:password" entry in base64 encoded.
-         * @return value of the basic auth header.
+         * Content type of the content.
          */
-        String getBasicAuthHeader() {
-            String auth = this.user + ":" + password;
-            byte[] encodedAuth = Base64.encodeBase64(
-                    auth.getBytes(StandardCharsets.UTF_8));
-            return "Basic " + new String(encodedAuth);
-        }
-    }
+        private final String contentType;
 
-    /**
-     * An equivalent of the python requests Response class.
-     */
-    private static class Response {
-        /**
-         * Status code of the response.
-         */
-        private final int statusCode;
         /**
-         * Response status message.
+         * Constructor with the content writer & the content type.
+         * @param aContentWriter writer for the content
+         * @param aContentType content type
          */
-        private final String statusLine;
-        /**
-         * Content of the response (bytes).
-         */
-        private final byte[] content;
+        private ContentWriterRequestEntity(
+                final IContentWriter aContentWriter,
+                final String aContentType) {
+            this.contentWriter = aContentWriter;
+            this.contentType = aContentType;
+        }
 
         /**
-         * Constructor for hte Response class.
-         * @param aStatusCode status code of the response
-         * @param aStatusLine status line of th response
-         * @param aContent body of the response in bytes
+         *
+         * @return true as the writer can write the content again
          */
-        Response(
-                final int aStatusCode,
-                final String aStatusLine,
-                final byte[] aContent
-        ) {
-            this.statusCode = aStatusCode;
-            this.statusLine = aStatusLine;
-            this.content = aContent;
+        @Override
+        public boolean isRepeatable() {
+            return true;
         }
 
         /**
-         * Return the status code as integer.
-         * Examples are: 200, 201, 404, ...
-         * @return status code
+         * Writes the content.
+         * @param outputStream stream of the request body
+         * @throws IOException exception on writing
          */
-        int getStatusCode() {
-            return this.statusCode;
+        @Override
+        public void writeRequest(
+                final OutputStream outputStream) throws IOException {
+            contentWriter.writeTo(outputStream);
         }
 
         /**
-         * Return the status line of the response.
-         * @return status line
+         *
+         * @return -1 as the length is unknown (so chunked transfer is used)
          */
-        String getStatusLine() {
-            return this.statusLine;
+        @Override
+        public long getContentLength() {
+            return -1;
         }
 
         /**
-         * Return the text of the response.
-         * @return text of the response
+         *
+         * @return content type
          */
-        String getText() {
-            return new String(this.content);
+        @Override
+        public String getContentType() {
+            return contentType;
         }
     }
 
     /**
-     * Python requests like interface.
+     * Stops the upload threads and closes all the pooled connections.
      */
-    private enum Requests {
-        /**
-         * Singleton.
-         */
-        INSTANCE;
-
-        /**
-         * Set a put requests.
-         * @param url url to send the request to
-         * @param content byte array with the content
-         * @param headers Map with header values
-         * @param auth auth (in case it is necessary)
-         * @return Response
-         * @throws IOException Can throw an IOException. This should not
-         * happen if the requests just fails (instead 400 or 500 responses).
-         */
-        public static Response put(
-                final String url,
-                final byte[] content,
-                final Map<String, String> headers,
-                final HttpBasicAuth auth
-        ) throws IOException {
-            final HttpURLConnection urlConnection =
-                    (HttpURLConnection) new URL(url).openConnection();
-            urlConnection.setRequestMethod("PUT");
-
-            headers.keySet().forEach(header -> {
-                final String value = headers.get(header);
-                urlConnection.setRequestProperty(header, value);
-            });
-
-            urlConnection.setRequestProperty(
-                    "Authorization", auth.getBasicAuthHeader());
-
-            urlConnection.setConnectTimeout(Integer.MAX_VALUE);
-
-            urlConnection.setDoOutput(true);
-            urlConnection.getOutputStream().write(content);
-
-
-
-            final int statusCode = urlConnection.getResponseCode();
-            final String statusLine = urlConnection.getResponseMessage();
-            final byte[] responponseContent =
-                    IOUtils.toByteArray(urlConnection.getInputStream());
-
-            return new Response(statusCode, statusLine, responponseContent);
-
-        }
+    @Override
+    public void close() {
+        executor.shutdown();
+        connectionManager.shutdown();
     }
 }
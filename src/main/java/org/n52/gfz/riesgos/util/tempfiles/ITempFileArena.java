@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.tempfiles;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Interface to manage temporary files with reference counting.
+ *
+ * Every temporary file has a number of owners. Once the
+ * last owner releases the file, it will be deleted.
+ *
+ * Owners can be explicit (a scope or the code that created the file)
+ * or any object (for example an IData binding) - for those the
+ * file is released once the object is garbage collected.
+ * So as long as a binding is in use (or referenced by a cache entry)
+ * the file stays; as soon as the request is over or the cache entry
+ * is evicted the file goes away.
+ */
+public interface ITempFileArena {
+
+    /**
+     * Creates a new temporary file.
+     * The caller is the first owner of the file and
+     * must call release (or hand it over to another owner with retain
+     * and release it afterwards).
+     * @param prefix prefix for the filename
+     * @param suffix suffix for the filename (file ending)
+     * @return new empty temporary file
+     * @throws IOException exception if the file can't be created
+     */
+    File createTempFile(String prefix, String suffix) throws IOException;
+
+    /**
+     * Creates a new temporary file with the same content as the source.
+     * If possible this is a hard link, so that there is no need to
+     * copy the data. Deleting one of the files does not affect the
+     * other one.
+     * The caller is the first owner of the new file.
+     * @param source file to duplicate
+     * @return new temporary file with the content of the source
+     * @throws IOException exception if the file can't be created
+     */
+    File duplicate(File source) throws IOException;
+
+    /**
+     * Registers an already existing file (that was created by other code)
+     * so that it gets the same life cycle management.
+     * The caller is the first owner of the file.
+     * @param file file to manage
+     */
+    void adopt(File file);
+
+    /**
+     * Adds another owner to the file.
+     * The owner releases the file automatically once it is
+     * garbage collected.
+     * @param file file to retain
+     * @param owner object that uses the file
+     */
+    void retain(File file, Object owner);
+
+    /**
+     * Creates a new File object for the file that is an owner itself.
+     * The file stays as long as the handle is reachable - not only
+     * from the binding that gets it, but also from the objects that
+     * keep the File (for example the reader of a coverage that is
+     * read lazily and outlives its binding).
+     * @param file file to retain
+     * @return handle for the same path
+     */
+    default File createHandle(final File file) {
+        final File handle = new File(file.getPath());
+        retain(file, handle);
+        return handle;
+    }
+
+    /**
+     * Releases one ownership of the file.
+     * If it was the last one, the file will be deleted.
+     * @param file file to release
+     */
+    void release(File file);
+
+    /**
+     * Opens a new scope. All the files created within the
+     * scope will be released when the scope is closed.
+     * @return new scope
+     */
+    TempFileScope openScope();
+
+    /**
+     *
+     * @return number of bytes of all the temporary files that are
+     * currently managed
+     */
+    long getLiveTempBytes();
+
+    /**
+     *
+     * @return number of temporary files that are currently managed
+     */
+    int getLiveTempFileCount();
+}
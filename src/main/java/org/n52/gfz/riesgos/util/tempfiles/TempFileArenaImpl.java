@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.tempfiles;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the temp file arena.
+ *
+ * Files are deleted as soon as the reference count drops to zero.
+ * Owners that are just objects are tracked with phantom references
+ * and a daemon thread releases their files once they are collected.
+ */
+public class TempFileArenaImpl implements ITempFileArena {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(TempFileArenaImpl.class);
+
+    /**
+     * Directory to create the files in (null for the default temp dir).
+     */
+    private final File directory;
+
+    /**
+     * Reference counts for all the managed files.
+     */
+    private final Map<File, Integer> referenceCounts;
+
+    /**
+     * Queue that gets the references of collected owners.
+     */
+    private final ReferenceQueue<Object> collectedOwners;
+
+    /**
+     * Set to keep the phantom references themselves reachable
+     * until the owners are collected.
+     */
+    private final Set<OwnerReference> ownerReferences;
+
+    /**
+     * Constructor with a directory for the temp files.
+     * @param aDirectory directory to create the files in;
+     *                   null for the default temp directory
+     */
+    public TempFileArenaImpl(final File aDirectory) {
+        this.directory = aDirectory;
+        this.referenceCounts = new HashMap<>();
+        this.collectedOwners = new ReferenceQueue<>();
+        this.ownerReferences = ConcurrentHashMap.newKeySet();
+
+        final Thread cleaner = new Thread(
+                this::releaseCollectedOwners, "riesgos-temp-file-cleaner");
+        cleaner.setDaemon(true);
+        cleaner.start();
+    }
+
+    /**
+     * Constructor using the default temp directory.
+     */
+    public TempFileArenaImpl() {
+        this(null);
+    }
+
+    /**
+     * Creates a new temporary file.
+     * @param prefix prefix for the filename
+     * @param suffix suffix for the filename (file ending)
+     * @return new empty temporary file
+     * @throws IOException exception if the file can't be created
+     */
+    @Override
+    public File createTempFile(
+            final String prefix,
+            final String suffix) throws IOException {
+        final File file = File.createTempFile(prefix, suffix, directory);
+        adopt(file);
+        return file;
+    }
+
+    /**
+     * Creates a hard link of the source (or a copy if the
+     * filesystem doesn't support that).
+     * @param source file to duplicate
+     * @return new temporary file with the content of the source
+     * @throws IOException exception if the file can't be created
+     */
+    @Override
+    public File duplicate(final File source) throws IOException {
+        final String name = source.getName();
+        final int indexOfDot = name.lastIndexOf('.');
+        final String suffix = indexOfDot >= 0
+                ? name.substring(indexOfDot)
+                : null;
+        final File target = createTempFile("duplicate", suffix);
+        try {
+            Files.delete(target.toPath());
+            try {
+                Files.createLink(target.toPath(), source.toPath());
+            } catch (final IOException | UnsupportedOperationException
+                    linkException) {
+                Files.copy(source.toPath(), target.toPath());
+            }
+        } catch (final IOException ioException) {
+            release(target);
+            throw ioException;
+        }
+        return target;
+    }
+
+    /**
+     * Registers an existing file with an initial owner.
+     * @param file file to manage
+     */
+    @Override
+    public synchronized void adopt(final File file) {
+        referenceCounts.merge(file, 1, Integer::sum);
+    }
+
+    /**
+     * Adds an owner that releases the file on garbage collection.
+     * @param file file to retain
+     * @param owner object that uses the file
+     */
+    @Override
+    public void retain(final File file, final Object owner) {
+        synchronized (this) {
+            if (!referenceCounts.containsKey(file)) {
+                throw new IllegalStateException(
+                        "The file " + file + " is not managed (anymore)");
+            }
+            referenceCounts.merge(file, 1, Integer::sum);
+        }
+        ownerReferences.add(
+                new OwnerReference(owner, file, collectedOwners));
+    }
+
+    /**
+     * Releases one ownership and deletes the file if it was the last one.
+     * @param file file to release
+     */
+    @Override
+    public void release(final File file) {
+        final boolean lastOwner;
+        synchronized (this) {
+            final Integer count = referenceCounts.get(file);
+            if (count == null) {
+                LOGGER.warn("Release of the unmanaged file {}", file);
+                return;
+            }
+            lastOwner = count <= 1;
+            if (lastOwner) {
+                referenceCounts.remove(file);
+            } else {
+                referenceCounts.put(file, count - 1);
+            }
+        }
+        if (lastOwner) {
+            delete(file);
+        }
+    }
+
+    /**
+     *
+     * @return new scope using this arena
+     */
+    @Override
+    public TempFileScope openScope() {
+        return new TempFileScope(this);
+    }
+
+    /**
+     *
+     * @return sum of the sizes of all managed files
+     */
+    @Override
+    public synchronized long getLiveTempBytes() {
+        long sum = 0;
+        for (final File file : referenceCounts.keySet()) {
+            sum += file.length();
+        }
+        return sum;
+    }
+
+    /**
+     *
+     * @return number of managed files
+     */
+    @Override
+    public synchronized int getLiveTempFileCount() {
+        return referenceCounts.size();
+    }
+
+    /**
+     * Loop for the cleaner thread.
+     * Waits for collected owners and releases their files.
+     */
+    private void releaseCollectedOwners() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                final Reference<?> reference = collectedOwners.remove();
+                if (reference instanceof OwnerReference) {
+                    final OwnerReference ownerReference =
+                            (OwnerReference) reference;
+                    ownerReferences.remove(ownerReference);
+                    release(ownerReference.getFile());
+                }
+            } catch (final InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Deletes the file.
+     * Only warns if that is not possible.
+     * @param file file to delete
+     */
+    private void delete(final File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+            // the sum of the bytes needs a stat of every file
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(
+                        "Deleted temp file {}; {} files with {} bytes left",
+                        file, getLiveTempFileCount(), getLiveTempBytes());
+            }
+        } catch (final IOException ioException) {
+            LOGGER.warn("Could not delete the file {}", file.getPath());
+            LOGGER.warn(ioException.getMessage());
+        }
+    }
+
+    /**
+     * Phantom reference to an owner that knows the file it retains.
+     */
+    private static final class OwnerReference
+            extends PhantomReference<Object> {
+
+        /**
+         * File retained by the owner.
+         */
+        private final File file;
+
+        /**
+         * Constructor.
+         * @param owner owner of the file
+         * @param aFile file that the owner retains
+         * @param queue queue to enqueue the reference after collection
+         */
+        private OwnerReference(
+                final Object owner,
+                final File aFile,
+                final ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.file = aFile;
+        }
+
+        /**
+         *
+         * @return file retained by the owner
+         */
+        private File getFile() {
+            return file;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.tempfiles;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Singleton for the temp file arena that
+ * is used all over the project.
+ */
+public enum TempFileArenaSingleton implements ITempFileArena {
+
+    /**
+     * Singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * The arena implementation that is used for all the work.
+     */
+    private final ITempFileArena innerArena;
+
+    /**
+     * Constructor for assigning the internal arena.
+     */
+    TempFileArenaSingleton() {
+        innerArena = new TempFileArenaImpl();
+    }
+
+    @Override
+    public File createTempFile(
+            final String prefix,
+            final String suffix) throws IOException {
+        return innerArena.createTempFile(prefix, suffix);
+    }
+
+    @Override
+    public File duplicate(final File source) throws IOException {
+        return innerArena.duplicate(source);
+    }
+
+    @Override
+    public void adopt(final File file) {
+        innerArena.adopt(file);
+    }
+
+    @Override
+    public void retain(final File file, final Object owner) {
+        innerArena.retain(file, owner);
+    }
+
+    @Override
+    public void release(final File file) {
+        innerArena.release(file);
+    }
+
+    @Override
+    public TempFileScope openScope() {
+        return new TempFileScope(this);
+    }
+
+    @Override
+    public long getLiveTempBytes() {
+        return innerArena.getLiveTempBytes();
+    }
+
+    @Override
+    public int getLiveTempFileCount() {
+        return innerArena.getLiveTempFileCount();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.tempfiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scope for temporary files.
+ * All the files created or adopted with the scope will be released
+ * on closing the scope (so it is meant to be used with
+ * try-with-resources).
+ */
+public class TempFileScope implements AutoCloseable {
+
+    /**
+     * Arena that manages the files.
+     */
+    private final ITempFileArena arena;
+
+    /**
+     * Files owned by this scope.
+     */
+    private final List<File> files;
+
+    /**
+     * Constructor with the arena.
+     * @param aArena arena that manages the files
+     */
+    public TempFileScope(final ITempFileArena aArena) {
+        this.arena = aArena;
+        this.files = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new temporary file that is owned by the scope.
+     * @param prefix prefix for the filename
+     * @param suffix suffix for the filename
+     * @return new empty temporary file
+     * @throws IOException exception if the file can't be created
+     */
+    public synchronized File createTempFile(
+            final String prefix,
+            final String suffix) throws IOException {
+        final File file = arena.createTempFile(prefix, suffix);
+        files.add(file);
+        return file;
+    }
+
+    /**
+     * Adds an existing file to the scope.
+     * @param file file that should be released when the scope is closed
+     * @return the very same file
+     */
+    public synchronized File adopt(final File file) {
+        arena.adopt(file);
+        files.add(file);
+        return file;
+    }
+
+    /**
+     * Releases all the files of the scope.
+     */
+    @Override
+    public synchronized void close() {
+        for (final File file : files) {
+            arena.release(file);
+        }
+        files.clear();
+    }
+}
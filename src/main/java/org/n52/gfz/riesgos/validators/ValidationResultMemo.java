@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.validators;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded memo for the results of validations.
+ *
+ * The entries are keyed by the validation rule (for example the schema)
+ * and the digest of the content, so that the same input that is given
+ * to several processes (or several times in a chained workflow) is only
+ * validated once.
+ *
+ * If the memo is full, the least recently used entry is removed.
+ */
+public class ValidationResultMemo {
+
+    /**
+     * Default number of entries for the shared memo.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /**
+     * Initial capacity of the map with the results.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Load factor of the map with the results.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Memo that is shared by all the validators.
+     */
+    private static final ValidationResultMemo SHARED =
+            new ValidationResultMemo(DEFAULT_MAX_ENTRIES);
+
+    /**
+     * Value to store a result without error message
+     * (the map can't store empty optionals in a useful way).
+     */
+    private static final String VALID = "";
+
+    /**
+     * The results in least recently used order.
+     */
+    private final Map<String, String> results;
+
+    /**
+     * Constructor with the maximum number of entries.
+     * @param maxEntries maximum number of results to keep
+     */
+    public ValidationResultMemo(final int maxEntries) {
+        this.results = new LinkedHashMap<String, String>(
+                INITIAL_CAPACITY, LOAD_FACTOR, true) {
+
+            private static final long serialVersionUID =
+                    -3702498611526473045L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     *
+     * @return memo that is shared by all validators
+     */
+    public static ValidationResultMemo getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the remembered result or runs the validation and
+     * remembers its result.
+     *
+     * The validation runs outside of the lock, so that multiple
+     * validations can run at the same time.
+     * @param rule identifier of the validation rule (for example the
+     *             schema uri)
+     * @param contentDigest digest of the content to validate
+     * @param validation validation to run if there is no result yet
+     * @return empty if the content is valid; else the error message
+     */
+    public Optional<String> getOrValidate(
+            final String rule,
+            final String contentDigest,
+            final Supplier<Optional<String>> validation) {
+        final String key = rule + "|" + contentDigest;
+        final String remembered;
+        synchronized (results) {
+            remembered = results.get(key);
+        }
+        if (remembered != null) {
+            return toResult(remembered);
+        }
+        final Optional<String> result = validation.get();
+        synchronized (results) {
+            results.put(key, result.orElse(VALID));
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return number of remembered results
+     */
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    /**
+     * Removes all remembered results.
+     */
+    public void clear() {
+        synchronized (results) {
+            results.clear();
+        }
+    }
+
+    /**
+     * Converts the stored value back to the result.
+     * @param remembered stored value
+     * @return empty if the content was valid; else the error message
+     */
+    private static Optional<String> toResult(final String remembered) {
+        if (VALID.equals(remembered)) {
+            return Optional.empty();
+        }
+        return Optional.of(remembered);
+    }
+}
@@ -18,27 +18,34 @@ import org.apache.xmlbeans.XmlObject;
  * limitations under the Licence.
  */
 
+import org.apache.commons.codec.binary.Hex;
 import org.n52.gfz.riesgos.functioninterfaces.ICheckDataAndGetErrorMessage;
-import org.n52.gfz.riesgos.util.XmlSchemaFileTranslator;
+import org.n52.gfz.riesgos.util.XmlSchemaCache;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileScope;
 import org.n52.wps.io.data.binding.complex.GenericXMLDataBinding;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
-import java.net.URL;
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
-import javax.xml.XMLConstants;
-import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 
 /**
@@ -53,13 +60,24 @@ public class XmlBindingWithAllowedSchema<T extends GenericXMLDataBinding>
     private static final long serialVersionUID = 3939394396122529315L;
 
     /**
-     * Variable with the schema that should be checked.
+     * Algorithm to compute the digest of the xml content.
      */
-    private final String allowedschema;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Prefix for the temporary file with the serialized xml.
+     */
+    private static final String TEMP_FILE_PREFIX = "validate";
+
+    /**
+     * Suffix for the temporary file with the serialized xml.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".xml";
+
     /**
-     * List with validation errors.
+     * Variable with the schema that should be checked.
      */
-    private final List<SAXParseException> validationErrors = new LinkedList<>();
+    private final String allowedschema;
 
     /**
      * @param value schema for the given xml file
@@ -70,66 +88,112 @@ public class XmlBindingWithAllowedSchema<T extends GenericXMLDataBinding>
 
     /**
      * Checks a IData and (maybe) gives back the text of the problem.
+     *
+     * The results are remembered by the schema & the digest of the
+     * content, so the same input is only validated once.
+     * The xml object is serialized only once into a temporary file
+     * (the digest is computed while writing it) and the validation
+     * reads that file.
      * @param xmlbinding element to check
      * @return empty if there is no problem with the value; else the
      * text of the problem description
      */
     @Override
     public Optional<String> check(final T xmlbinding) {
-        validationErrors.clear();
+        final Schema schema;
+        try {
+            schema = XmlSchemaCache.INSTANCE.getSchema(allowedschema);
+        } catch (SAXException e) {
+            return Optional.of(
+                    "XML schema file could not be loaded: " + e);
+        }
 
         final XmlObject xml = xmlbinding.getPayload();
-        final XmlSchemaFileTranslator translator =
-                new XmlSchemaFileTranslator();
 
-        // https://stackoverflow.com/a/16054/2249798
-        final Object schemaFile = translator.translateUri(allowedschema);
-
-        if (schemaFile == null) {
-            return Optional.of(
-                    "XML schema file could not be loaded: "
-                            + validationErrors.toString());
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            final File serialized =
+                    scope.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+            final String contentDigest = serialize(xml, serialized);
+            return ValidationResultMemo.getShared().getOrValidate(
+                    allowedschema,
+                    contentDigest,
+                    () -> validate(schema, serialized));
+        } catch (IOException | UncheckedIOException e) {
+            // io problems are not remembered
+            return Optional.of("IO error while reading xml or schema");
         }
+    }
 
-        final Source xmlFile = new StreamSource(
-                new StringReader(xml.toString()));
-        final SchemaFactory schemaFactory =
-                SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-
+    /**
+     * Writes the xml object into the file and computes the digest
+     * of the serialized content on the way.
+     * @param xml xml object
+     * @param file file to write to
+     * @return hex string of the digest
+     * @throws IOException exception if the xml can't be serialized
+     */
+    private static String serialize(
+            final XmlObject xml,
+            final File file) throws IOException {
+        final MessageDigest digest;
         try {
-            final Schema schema;
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        try (OutputStream outputStream = new DigestOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)),
+                digest)) {
+            xml.save(outputStream);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
 
-            if (schemaFile instanceof URL) {
-                schema = schemaFactory.newSchema((URL) schemaFile);
-            } else {
-                schema = schemaFactory.newSchema((File) schemaFile);
+    /**
+     * Validates the serialized xml against the schema.
+     * @param schema compiled schema
+     * @param xml file with the serialized xml
+     * @return empty if there is no problem with the value; else the
+     * text of the problem description
+     * @throws UncheckedIOException exception if the xml can't be read
+     */
+    private static Optional<String> validate(
+            final Schema schema,
+            final File xml) {
+        // the errors are collected per call, so that concurrent
+        // validations with the same validator don't mix them up
+        final List<SAXParseException> validationErrors = new ArrayList<>();
+
+        // the validator itself is not thread safe, but cheap to create
+        final Validator validator = schema.newValidator();
+
+        // https://stackoverflow.com/a/11131775/2249798
+        validator.setErrorHandler(new ErrorHandler() {
+            @Override
+            public void warning(final SAXParseException exception) {
+                validationErrors.add(exception);
             }
 
-            final Validator validator = schema.newValidator();
-
-            // https://stackoverflow.com/a/11131775/2249798
-            validator.setErrorHandler(new ErrorHandler() {
-                @Override
-                public void warning(final SAXParseException exception) {
-                    validationErrors.add(exception);
-                }
-
-                @Override
-                public void fatalError(final SAXParseException exception) {
-                    validationErrors.add(exception);
-                }
+            @Override
+            public void fatalError(final SAXParseException exception) {
+                validationErrors.add(exception);
+            }
 
-                @Override
-                public void error(final SAXParseException exception) {
-                    validationErrors.add(exception);
-                }
-            });
+            @Override
+            public void error(final SAXParseException exception) {
+                validationErrors.add(exception);
+            }
+        });
 
-            validator.validate(xmlFile);
+        // the validator streams the file - so there is no
+        // copy of the whole document in memory
+        try (InputStream xmlStream = new FileInputStream(xml)) {
+            validator.validate(new StreamSource(xmlStream));
         } catch (SAXException e) {
             return Optional.of("XML file does not validate: " + e);
         } catch (IOException e) {
-            return Optional.of("IO error while reading xml or schema");
+            throw new UncheckedIOException(e);
         }
 
         if (validationErrors.isEmpty()) {
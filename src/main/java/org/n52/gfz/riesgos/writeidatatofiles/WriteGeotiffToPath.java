@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.writeidatatofiles;
+
+import org.n52.gfz.riesgos.cmdexecution.IWriteOnlyFileAccessor;
+import org.n52.gfz.riesgos.functioninterfaces.IWriteIDataToFiles;
+import org.n52.wps.io.data.binding.complex.GeotiffBinding;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Implementation that writes the file of the geotiff binding
+ * directly (without reading the whole raster into a byte array).
+ */
+public class WriteGeotiffToPath
+        implements IWriteIDataToFiles<GeotiffBinding> {
+
+    /**
+     * Fixed version, so that the writer keeps the same serialized
+     * form if it is stored together with its input parameter.
+     */
+    private static final long serialVersionUID = 4418836105093872561L;
+
+    /**
+     * Writes the file of the geotiff to the filesystem
+     * (maybe in a container).
+     * @param iData Binding class to write
+     * @param context context (maybe a container)
+     * @param workingDirectory directory to copy the file to
+     * @param path destination of the iData
+     * @throws IOException a normal IOException that may happen
+     * on writing the files
+     */
+    @Override
+    public void writeToFiles(
+            final GeotiffBinding iData,
+            final IWriteOnlyFileAccessor context,
+            final String workingDirectory,
+            final String path) throws IOException {
+        context.writeToFile(iData.getPayload(), workingDirectory, path);
+    }
+
+    /**
+     * Tests equality.
+     * @param o other object
+     * @return true if both are equal
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o != null && getClass() == o.getClass();
+    }
+
+    /**
+     *
+     * @return hashcode of the object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass().getName());
+    }
+}
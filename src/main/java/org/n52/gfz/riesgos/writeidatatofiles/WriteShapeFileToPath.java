@@ -17,7 +17,7 @@ package org.n52.gfz.riesgos.writeidatatofiles;
  */
 
 import org.apache.commons.io.IOUtils;
-import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IWriteOnlyFileAccessor;
 import org.n52.gfz.riesgos.functioninterfaces.IWriteIDataToFiles;
 import org.n52.gfz.riesgos.util.FileEndingReplacer;
 import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
@@ -46,7 +46,7 @@ public class WriteShapeFileToPath
     @Override
     public void writeToFiles(
             final GTVectorDataBinding bindingClass,
-            final IExecutionContext context,
+            final IWriteOnlyFileAccessor context,
             final String workingDirectory,
             final String path) throws IOException {
 
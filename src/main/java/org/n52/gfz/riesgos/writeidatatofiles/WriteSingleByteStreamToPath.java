@@ -16,7 +16,7 @@ package org.n52.gfz.riesgos.writeidatatofiles;
  *  limitations under the Licence.
  */
 
-import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IWriteOnlyFileAccessor;
 import org.n52.gfz.riesgos.exceptions.ConvertToBytesException;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertIDataToByteArray;
 import org.n52.gfz.riesgos.functioninterfaces.IWriteIDataToFiles;
@@ -65,7 +65,7 @@ public class WriteSingleByteStreamToPath<T extends IData>
     @Override
     public void writeToFiles(
             final T iData,
-            final IExecutionContext context,
+            final IWriteOnlyFileAccessor context,
             final String workingDirectory,
             final String path)
 
@@ -0,0 +1,241 @@
+#!/usr/bin/env python3
+
+# Copyright (C) 2019 GFZ German Research Centre for Geosciences
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#   http://apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the Licence is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the Licence for the specific language governing permissions and
+# limitations under the Licence.
+
+"""
+Reference request loop for the persistent worker mode.
+
+Copy this file into the docker image of the process and use it as
+the worker command, for example:
+
+    "worker": {
+        "command": "python3 /usr/local/bin/riesgos_worker.py --fork",
+        "poolSize": 2
+    }
+
+The worker polls the spool directory (environment variable
+RIESGOS_WORKER_SPOOL) for request directories with a request.json.
+For every request it links the files of the configured working
+directory (the programs of the image) into the files directory of
+the request, runs the command there and writes stdout, stderr and
+finally the exitValue.
+
+Options:
+
+--preload MODULE  imports the module once on start (can be repeated),
+                  so that forked runs don't have to load it again
+--fork            runs python scripts ("python3 script.py ...") in a
+                  forked child of the worker instead of a new
+                  interpreter; all other commands are started as
+                  normal processes
+"""
+
+import argparse
+import importlib
+import json
+import os
+import runpy
+import subprocess
+import sys
+import time
+import traceback
+
+SPOOL_ENV_VARIABLE = "RIESGOS_WORKER_SPOOL"
+REQUEST_FILE = "request.json"
+STDIN_FILE = "stdin"
+STDOUT_FILE = "stdout"
+STDERR_FILE = "stderr"
+EXIT_VALUE_FILE = "exitValue"
+TEMP_SUFFIX = ".tmp"
+POLL_SECONDS = 0.02
+PYTHON_EXECUTABLES = ("python", "python3")
+
+
+def main():
+    """
+    Runs the request loop until the worker is stopped.
+    """
+    parser = argparse.ArgumentParser(
+        description="Request loop for the persistent worker mode")
+    parser.add_argument("--preload", action="append", default=[])
+    parser.add_argument("--fork", action="store_true")
+    args = parser.parse_args()
+
+    spool = os.environ[SPOOL_ENV_VARIABLE]
+    for module in args.preload:
+        importlib.import_module(module)
+
+    handled = set()
+    while True:
+        names = set(os.listdir(spool))
+        for name in sorted(names - handled):
+            request_dir = os.path.join(spool, name)
+            if os.path.isfile(os.path.join(request_dir, REQUEST_FILE)):
+                handled.add(name)
+                handle_request(request_dir, args.fork)
+        # the server removes the directories after the run
+        handled &= names
+        time.sleep(POLL_SECONDS)
+
+
+def handle_request(request_dir, fork):
+    """
+    Runs one request and writes the exit value in any case,
+    so that the server never waits for a request that failed here.
+    """
+    exit_value = 1
+    with open(os.path.join(request_dir, STDIN_FILE), "rb") as stdin, \
+            open(os.path.join(request_dir, STDOUT_FILE), "wb") as stdout, \
+            open(os.path.join(request_dir, STDERR_FILE), "wb") as stderr:
+        try:
+            with open(os.path.join(request_dir, REQUEST_FILE)) as request_file:
+                request = json.load(request_file)
+            command = request["command"]
+            directory = request["directory"]
+            working_directory = request.get("workingDirectory")
+            if working_directory:
+                mirror(working_directory, directory)
+            if fork and is_python_script(command):
+                exit_value = run_forked(
+                    command, directory, stdin, stdout, stderr)
+            else:
+                exit_value = run_process(
+                    command, directory, stdin, stdout, stderr)
+        except Exception:
+            stderr.write(traceback.format_exc().encode())
+    write_exit_value(request_dir, exit_value)
+
+
+def mirror(source, target):
+    """
+    Links all the files of the source directory into the target.
+    Directories are created (not linked), so that the outputs of the
+    run end up in the target. Files that are already in the target
+    (the inputs of the request) are kept.
+    """
+    if not os.path.isdir(source):
+        return
+    spool = os.path.realpath(os.environ[SPOOL_ENV_VARIABLE])
+    for current, directories, files in os.walk(source):
+        # never walk into the spool itself
+        directories[:] = [
+            d for d in directories
+            if os.path.realpath(os.path.join(current, d)) != spool
+        ]
+        relative = os.path.relpath(current, source)
+        target_dir = os.path.normpath(os.path.join(target, relative))
+        os.makedirs(target_dir, exist_ok=True)
+        for name in files:
+            link = os.path.join(target_dir, name)
+            if not os.path.lexists(link):
+                os.symlink(os.path.join(current, name), link)
+
+
+def is_python_script(command):
+    """
+    Checks if the command is "python3 script.py ..." (without any
+    options for the interpreter), so that it can run in a fork.
+    """
+    return (len(command) > 1
+            and os.path.basename(command[0]) in PYTHON_EXECUTABLES
+            and command[1].endswith(".py"))
+
+
+def run_process(command, directory, stdin, stdout, stderr):
+    """
+    Runs the command as a new process.
+    """
+    try:
+        process = subprocess.run(
+            command, cwd=directory,
+            stdin=stdin, stdout=stdout, stderr=stderr)
+    except OSError as exception:
+        stderr.write((str(exception) + "\n").encode())
+        return 127
+    return to_exit_value(process.returncode)
+
+
+def run_forked(command, directory, stdin, stdout, stderr):
+    """
+    Runs the python script in a forked child of the worker, so that
+    neither the interpreter nor the preloaded modules are loaded again.
+    """
+    sys.stdout.flush()
+    sys.stderr.flush()
+    pid = os.fork()
+    if pid == 0:
+        code = 1
+        try:
+            os.chdir(directory)
+            os.dup2(stdin.fileno(), 0)
+            os.dup2(stdout.fileno(), 1)
+            os.dup2(stderr.fileno(), 2)
+            sys.stdin = open(0, closefd=False)
+            script = command[1]
+            sys.argv = command[1:]
+            # like the interpreter does for a script
+            sys.path.insert(0, os.path.dirname(os.path.realpath(script)))
+            try:
+                runpy.run_path(script, run_name="__main__")
+                code = 0
+            except SystemExit as exit_request:
+                code = exit_code(exit_request.code)
+            except BaseException:
+                traceback.print_exc()
+            sys.stdout.flush()
+            sys.stderr.flush()
+        finally:
+            os._exit(code)
+    _, status = os.waitpid(pid, 0)
+    if os.WIFSIGNALED(status):
+        return 128 + os.WTERMSIG(status)
+    return os.WEXITSTATUS(status)
+
+
+def exit_code(code):
+    """
+    Converts the argument of sys.exit to an exit value.
+    """
+    if code is None:
+        return 0
+    if isinstance(code, int):
+        return code
+    print(code, file=sys.stderr)
+    return 1
+
+
+def to_exit_value(returncode):
+    """
+    Converts the returncode of subprocess to an exit value
+    the same way as a shell does (128 + signal).
+    """
+    if returncode < 0:
+        return 128 - returncode
+    return returncode
+
+
+def write_exit_value(request_dir, exit_value):
+    """
+    Writes the exit value to a temporary file first, so that the
+    server never reads an incomplete value.
+    """
+    target = os.path.join(request_dir, EXIT_VALUE_FILE)
+    with open(target + TEMP_SUFFIX, "w") as exit_value_file:
+        exit_value_file.write(str(exit_value))
+    os.replace(target + TEMP_SUFFIX, target)
+
+
+if __name__ == "__main__":
+    main()
@@ -16,10 +16,17 @@ package org.n52.gfz.riesgos.bytetoidataconverter;
  *  limitations under the Licence.
  */
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
+import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
 import org.n52.wps.io.data.binding.complex.GenericFileDataBinding;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
@@ -47,4 +54,26 @@ public class TestConvertBytesToGenericFileDataBinding {
         assertNotEquals("The converter4 is different", converter1, converter4);
 
     }
+
+    /**
+     * Tests the conversion of a stream (that is copied into the file
+     * without reading it into a byte array).
+     * @throws ConvertToIDataException not expected
+     * @throws IOException not expected
+     */
+    @Test
+    public void testConvertStream()
+            throws ConvertToIDataException, IOException {
+        final byte[] content = "some content".getBytes(StandardCharsets.UTF_8);
+        final GenericFileDataBinding binding =
+                new ConvertBytesToGenericFileDataBinding("text/plain")
+                        .convertToIData(new ByteArrayInputStream(content));
+
+        try (InputStream stream = binding.getPayload().getDataStream()) {
+            assertEquals("The content is in the file",
+                    "some content",
+                    new String(IOUtils.toByteArray(stream),
+                            StandardCharsets.UTF_8));
+        }
+    }
 }
@@ -256,6 +256,58 @@ public class TestCacheImpl {
         }
     }
 
+    /**
+     * Tests that the files on disk have their own limit and don't
+     * count against the memory limit of the cache.
+     */
+    @Test
+    public void testDiskBudget() {
+        final CacheImpl cache = new CacheImpl(10, 100);
+
+        for (int i = 0; i < 3; i++) {
+            cache.insertResultIntoCache("file" + i,
+                    Collections.singletonMap("output", new DiskRecreator(40)));
+        }
+
+        assertEquals("The files don't count against the memory", 2, cache.getCacheSizeMb());
+        assertEquals("Two results fit on disk", 80, cache.getCacheDiskSizeMb());
+        assertFalse("The oldest result was removed", cache.getCachedResult("file0").isPresent());
+        assertTrue("The newer results are still there", cache.getCachedResult("file1").isPresent());
+        assertTrue("The newer results are still there", cache.getCachedResult("file2").isPresent());
+    }
+
+    /**
+     * Recreator that keeps a file of a given size.
+     */
+    private static class DiskRecreator implements IDataRecreator {
+
+        private final int sizeOnDiskMb;
+
+        DiskRecreator(final int aSizeOnDiskMb) {
+            this.sizeOnDiskMb = aSizeOnDiskMb;
+        }
+
+        @Override
+        public IData recreate() {
+            return new LiteralStringBinding("");
+        }
+
+        @Override
+        public Class<? extends IData> getBindingClassToRecreate() {
+            return LiteralStringBinding.class;
+        }
+
+        @Override
+        public int getSizeInBytes() {
+            return 100;
+        }
+
+        @Override
+        public long getSizeOnDiskInBytes() {
+            return sizeOnDiskMb * 1024L * 1024L;
+        }
+    }
+
     private class TestConfiguration implements IConfiguration {
 
         private final String identifier;
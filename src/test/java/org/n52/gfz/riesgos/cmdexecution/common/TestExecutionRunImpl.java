@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.common;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the ExecutionRunImpl.
+ */
+public class TestExecutionRunImpl {
+
+    /**
+     * Maximum time to wait until the killed child is gone.
+     */
+    private static final long CHILD_GONE_MILLIS = 5000;
+
+    /**
+     * Tests that a child process of a script that hangs is killed
+     * together with the script after the timeout.
+     * @throws IOException exception on starting the process
+     * @throws InterruptedException exception on waiting
+     */
+    @Test
+    public void testKillAfterTimeoutKillsTheChildren()
+            throws IOException, InterruptedException {
+        assumeTrue("There must be a /proc filesystem",
+                new File("/proc/self/stat").exists());
+
+        final File folder = Files.createTempDirectory("run").toFile();
+        try {
+            final File pidFile = new File(folder, "child.pid");
+            // like a shell script that calls a python program
+            // that never ends
+            final Process process = new ProcessBuilder(
+                    "sh", "-c", "sleep 300 & echo $! > child.pid; wait")
+                    .directory(folder)
+                    .start();
+            final IExecutionRun run = new ExecutionRunImpl(process);
+
+            boolean timedOut = false;
+            try {
+                run.waitForCompletion(1, TimeUnit.SECONDS);
+            } catch (final TimeoutException exception) {
+                timedOut = true;
+            }
+            assertTrue("The script must still run", timedOut);
+
+            final long childPid = Long.parseLong(new String(
+                    Files.readAllBytes(pidFile.toPath()),
+                    StandardCharsets.UTF_8).trim());
+            assertTrue("The child runs before the kill",
+                    isRunning(childPid));
+
+            run.kill();
+            run.waitForCompletion();
+
+            final long end = System.currentTimeMillis() + CHILD_GONE_MILLIS;
+            while (isRunning(childPid)
+                    && System.currentTimeMillis() < end) {
+                Thread.sleep(50);
+            }
+            assertFalse("The child is gone after the kill",
+                    isRunning(childPid));
+        } finally {
+            FileUtils.deleteDirectory(folder);
+        }
+    }
+
+    /**
+     * Tests that the message of the timeout contains the timeout
+     * as it was given (and not rounded to seconds).
+     * @throws IOException exception on starting the process
+     * @throws InterruptedException exception on waiting
+     */
+    @Test
+    public void testTimeoutMessage()
+            throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder("sleep", "300").start();
+        final IExecutionRun run = new ExecutionRunImpl(process);
+        try {
+            run.waitForCompletion(200, TimeUnit.MILLISECONDS);
+            fail("The process must time out");
+        } catch (final TimeoutException exception) {
+            assertEquals(
+                    "The process did not finish within 200 milliseconds",
+                    exception.getMessage());
+        } finally {
+            run.kill();
+            run.waitForCompletion();
+        }
+    }
+
+    /**
+     * Checks if the process is still running.
+     * A zombie (that only waits for its parent) counts as gone.
+     * @param pid pid of the process
+     * @return true if the process is running
+     */
+    private static boolean isRunning(final long pid) {
+        final File stat = new File("/proc/" + pid + "/stat");
+        try {
+            final String content = new String(
+                    Files.readAllBytes(stat.toPath()),
+                    StandardCharsets.UTF_8);
+            final String state = content
+                    .substring(content.lastIndexOf(')') + 2)
+                    .split(" ")[0];
+            return !"Z".equals(state);
+        } catch (final IOException exception) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package org.n52.gfz.riesgos.cmdexecution.docker;
+
+import org.junit.Test;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests for the background removal of docker containers
+ * (with a fake command runner, so that there is no need for docker).
+ */
+public class TestDockerContainerReaper {
+
+    /**
+     * Label of the containers for the tests.
+     */
+    private static final String LABEL =
+            DockerContainerReaper.CONTAINER_LABEL_KEY + "=test";
+
+    /**
+     * Grace period for the tests.
+     */
+    private static final long GRACE_MILLIS = 60_000;
+
+    /**
+     * Tests that the containers are removed in one batch and
+     * that failed ones are retried in the next round.
+     */
+    @Test
+    public void testBatchAndRetry() {
+        final List<List<String>> commands = new ArrayList<>();
+        final DockerContainerReaper reaper = new DockerContainerReaper(
+                (command) -> {
+                    commands.add(command);
+                    if (commands.size() == 1) {
+                        return result(1,
+                                "Error: No such container: aaa\n"
+                                        + "Error: container bbb is busy\n",
+                                "");
+                    }
+                    return result(0, "", "");
+                }, 0);
+
+        reaper.scheduleRemoval("aaa");
+        reaper.scheduleRemoval("bbb");
+
+        reaper.removePendingContainers();
+        assertEquals("There is one command for both containers",
+                Arrays.asList("docker", "container", "rm", "--force",
+                        "aaa", "bbb"),
+                commands.get(0));
+        assertEquals("Only the busy container is retried", 1,
+                reaper.getPendingCount());
+
+        reaper.removePendingContainers();
+        assertEquals("The retry is a second command",
+                Arrays.asList("docker", "container", "rm", "--force", "bbb"),
+                commands.get(1));
+        assertEquals("Nothing is pending any more", 0,
+                reaper.getPendingCount());
+    }
+
+    /**
+     * Tests that the sweep does not touch containers that are in use.
+     */
+    @Test
+    public void testSweepSkipsActiveContainers() {
+        final List<List<String>> commands = new ArrayList<>();
+        final DockerContainerReaper reaper = new DockerContainerReaper(
+                (command) -> {
+                    commands.add(command);
+                    if (command.contains("ls")) {
+                        return result(0, "", "active\norphan\n");
+                    }
+                    if (command.contains("inspect")) {
+                        return result(0, "",
+                                "orphan 2020-01-01T00:00:00.123456789Z\n");
+                    }
+                    return result(0, "", "");
+                }, 0, LABEL, GRACE_MILLIS);
+
+        reaper.registerContainer("active");
+        reaper.sweepOrphanedContainers();
+        reaper.removePendingContainers();
+
+        assertTrue("Only our containers are listed",
+                commands.get(0).contains("label=" + LABEL));
+        assertFalse("Only the creation time of the orphan is needed",
+                commands.get(1).contains("active"));
+        final List<String> removal = commands.get(commands.size() - 1);
+        assertTrue("The orphan is removed", removal.contains("orphan"));
+        assertFalse("The active container is not removed",
+                removal.contains("active"));
+    }
+
+    /**
+     * Tests that the sweep does not touch containers that were just
+     * created (and may not be registered yet).
+     */
+    @Test
+    public void testSweepSkipsYoungContainers() {
+        final String justCreated = Instant.now().toString();
+        final DockerContainerReaper reaper = new DockerContainerReaper(
+                (command) -> {
+                    if (command.contains("ls")) {
+                        return result(0, "", "young\nold\ngone\n");
+                    }
+                    if (command.contains("inspect")) {
+                        return result(1, "Error: No such object: gone\n",
+                                "young " + justCreated + "\n"
+                                        + "old 2020-01-01T00:00:00Z\n");
+                    }
+                    return result(0, "", "");
+                }, 0, LABEL, GRACE_MILLIS);
+
+        reaper.sweepOrphanedContainers();
+        assertEquals("Only the old container is pending",
+                1, reaper.getPendingCount());
+    }
+
+    /**
+     * Creates a result for the fake command runner.
+     * @param exitValue exit value
+     * @param stderr text on stderr
+     * @param stdout text on stdout
+     * @return result
+     */
+    private static IExecutionRunResult result(
+            final int exitValue,
+            final String stderr,
+            final String stdout) {
+        return new IExecutionRunResult() {
+            @Override
+            public int getExitValue() {
+                return exitValue;
+            }
+
+            @Override
+            public String getStderrResult() {
+                return stderr;
+            }
+
+            @Override
+            public String getStdoutResult() {
+                return stdout;
+            }
+        };
+    }
+}
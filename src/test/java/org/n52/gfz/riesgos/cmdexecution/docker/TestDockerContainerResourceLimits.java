@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package org.n52.gfz.riesgos.cmdexecution.docker;
+
+import org.junit.Test;
+import org.n52.gfz.riesgos.configuration.ContainerResourceLimits;
+
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests for the docker flags of the resource limits.
+ */
+public class TestDockerContainerResourceLimits {
+
+    /**
+     * Without limits there are no flags.
+     */
+    @Test
+    public void testNoLimits() {
+        final DockerContainerExecutionContextManagerImpl manager =
+                new DockerContainerExecutionContextManagerImpl("image");
+        assertTrue("There are no flags",
+                manager.createFlagsForResourceLimits().isEmpty());
+    }
+
+    /**
+     * All the limits are translated to the docker flags.
+     */
+    @Test
+    public void testAllLimits() {
+        final ContainerResourceLimits limits =
+                new ContainerResourceLimits.Builder()
+                        .withCpus(1.5)
+                        .withMemory("2g")
+                        .withCpusetCpus("0-3")
+                        .withPidsLimit(256)
+                        .build();
+        final DockerContainerExecutionContextManagerImpl manager =
+                new DockerContainerExecutionContextManagerImpl(
+                        "image", limits);
+        assertEquals("The flags are as expected",
+                Arrays.asList(
+                        "--cpus", "1.5",
+                        "--memory", "2g",
+                        "--memory-swap", "2g",
+                        "--cpuset-cpus", "0-3",
+                        "--pids-limit", "256"),
+                manager.createFlagsForResourceLimits());
+    }
+}
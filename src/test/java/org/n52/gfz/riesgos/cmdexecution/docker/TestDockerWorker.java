@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.docker;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the docker worker (without docker).
+ */
+public class TestDockerWorker {
+
+    /**
+     * Tests that the container runs with the user and group
+     * that own the spool directory.
+     * @throws IOException not expected
+     */
+    @Test
+    public void testUserFlags() throws IOException {
+        final Path spool = Files.createTempDirectory("spool");
+        try {
+            final List<String> flags = DockerWorker.createUserFlags(spool);
+            assumeTrue("There must be a unix file system", !flags.isEmpty());
+
+            assertEquals("The container runs as the owner of the spool",
+                    Arrays.asList("--user",
+                            Files.getAttribute(spool, "unix:uid")
+                                    + ":"
+                                    + Files.getAttribute(spool, "unix:gid")),
+                    flags);
+        } finally {
+            FileUtils.deleteDirectory(spool.toFile());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.host;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests for running programs directly on the host.
+ */
+public class TestHostExecutionContext {
+
+    /**
+     * Temporary folder for the working and the scratch directories.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Writes an input file, runs a program that reads it and
+     * writes an output file, and reads that output back.
+     * @throws Exception exception on the file handling or the run
+     */
+    @Test
+    public void testWriteRunAndRead() throws Exception {
+        final File workingDir = temporaryFolder.newFolder("workdir");
+        final File scratchBase = temporaryFolder.newFolder("scratch");
+        Files.write(new File(workingDir, "script.sh").toPath(),
+                "cat input.txt > output.txt\n"
+                        .getBytes(StandardCharsets.UTF_8));
+
+        final HostExecutionContextManagerImpl manager =
+                new HostExecutionContextManagerImpl(scratchBase.toPath());
+
+        final Path scratchDir;
+        try (IExecutionContext context = manager.createExecutionContext(
+                workingDir.getAbsolutePath(),
+                Arrays.asList("sh", "script.sh"))) {
+            scratchDir = ((HostExecutionContextImpl) context).getScratchDir();
+
+            context.writeToFile(
+                    "hello".getBytes(StandardCharsets.UTF_8),
+                    workingDir.getAbsolutePath(),
+                    "input.txt");
+            final IExecutionRunResult result =
+                    context.run().waitForCompletion();
+            assertEquals("The exit value is zero", 0, result.getExitValue());
+
+            final byte[] output = context.readFromFile(
+                    new File(workingDir, "output.txt").getAbsolutePath());
+            assertEquals("The output is the copied input", "hello",
+                    new String(output, StandardCharsets.UTF_8));
+        }
+
+        assertFalse("The scratch directory is removed",
+                Files.exists(scratchDir));
+        assertFalse("The working directory is not changed",
+                new File(workingDir, "output.txt").exists());
+        assertTrue("The script itself is still there",
+                new File(workingDir, "script.sh").exists());
+    }
+
+    /**
+     * Sub directories of the working directory are real directories
+     * in the scratch directory, so outputs in them don't end up in
+     * the working directory.
+     * @throws Exception exception on the file handling or the run
+     */
+    @Test
+    public void testSubdirectoriesAreNotLinked() throws Exception {
+        final File workingDir = temporaryFolder.newFolder("workdir");
+        final File dataDir = new File(workingDir, "data");
+        assertTrue("The data dir is created", dataDir.mkdir());
+        Files.write(new File(dataDir, "input.txt").toPath(),
+                "hello".getBytes(StandardCharsets.UTF_8));
+        final File scratchBase = temporaryFolder.newFolder("scratch");
+
+        final HostExecutionContextManagerImpl manager =
+                new HostExecutionContextManagerImpl(scratchBase.toPath());
+        try (IExecutionContext context = manager.createExecutionContext(
+                workingDir.getAbsolutePath(),
+                Arrays.asList("sh", "-c",
+                        "cat data/input.txt > data/output.txt"))) {
+            final Path scratchDir =
+                    ((HostExecutionContextImpl) context).getScratchDir();
+            assertFalse("The data dir is no link",
+                    Files.isSymbolicLink(scratchDir.resolve("data")));
+
+            final IExecutionRunResult result =
+                    context.run().waitForCompletion();
+            assertEquals("The exit value is zero", 0, result.getExitValue());
+            assertEquals("The output is in the scratch directory", "hello",
+                    new String(context.readFromFile("data/output.txt"),
+                            StandardCharsets.UTF_8));
+        }
+
+        assertFalse("The working directory is not changed",
+                new File(dataDir, "output.txt").exists());
+        assertTrue("The input is still there",
+                new File(dataDir, "input.txt").exists());
+    }
+
+    /**
+     * Input files are copied, so that the program can't change
+     * the original file.
+     * @throws Exception exception on the file handling or the run
+     */
+    @Test
+    public void testInputIsCopied() throws Exception {
+        final File scratchBase = temporaryFolder.newFolder("scratch");
+        final File source = temporaryFolder.newFile("large.bin");
+        Files.write(source.toPath(), new byte[1024 * 1024]);
+
+        final HostExecutionContextManagerImpl manager =
+                new HostExecutionContextManagerImpl(scratchBase.toPath());
+        try (IExecutionContext context = manager.createExecutionContext(
+                "/does/not/exist",
+                Arrays.asList("sh", "-c", "echo changed > input.bin"))) {
+            context.writeToFile(source, "/does/not/exist", "input.bin");
+
+            final Path target = ((HostExecutionContextImpl) context)
+                    .getScratchDir().resolve("input.bin");
+            assertEquals("The content has the same size",
+                    source.length(), Files.size(target));
+
+            context.run().waitForCompletion();
+        }
+        assertEquals("The source file is not changed",
+                1024 * 1024, source.length());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package org.n52.gfz.riesgos.cmdexecution.scheduling;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+
+/**
+ * Tests for the execution scheduler.
+ */
+public class TestExecutionSchedulerImpl {
+
+    /**
+     * Timeout for the single tests in milliseconds.
+     */
+    private static final long TIMEOUT = 10000;
+
+    /**
+     * Tests that a run waits until a slot is free.
+     * @throws Exception exception on waiting
+     */
+    @Test(timeout = TIMEOUT)
+    public void testGlobalLimit() throws Exception {
+        final ExecutionSchedulerImpl scheduler =
+                new ExecutionSchedulerImpl(1, ExecutionQueueOrder.FIFO);
+
+        final IExecutionSlot first = scheduler.acquire("a", 0, 0);
+        final Thread second = startAcquiring(
+                scheduler, "b", 0, Collections.synchronizedList(
+                        new ArrayList<>()));
+        waitForWaiting(scheduler, "b", 1);
+
+        first.close();
+        second.join();
+
+        assertEquals("The second run got a slot", 1,
+                scheduler.getStatistics().get("b").getStarted());
+        assertEquals("There is nothing running any more", 0,
+                scheduler.getStatistics().get("b").getRunning());
+    }
+
+    /**
+     * Tests that a process at its limit does not block other processes.
+     * @throws Exception exception on waiting
+     */
+    @Test(timeout = TIMEOUT)
+    public void testPerProcessLimit() throws Exception {
+        final ExecutionSchedulerImpl scheduler =
+                new ExecutionSchedulerImpl(2, ExecutionQueueOrder.FIFO);
+
+        final IExecutionSlot first = scheduler.acquire("a", 1, 0);
+        final Thread second = startAcquiring(
+                scheduler, "a", 0, Collections.synchronizedList(
+                        new ArrayList<>()));
+        waitForWaiting(scheduler, "a", 1);
+
+        // must not block even if the second run of a is waiting
+        try (IExecutionSlot other = scheduler.acquire("b", 0, 0)) {
+            assertEquals("The second run of a is still waiting", 1,
+                    scheduler.getStatistics().get("a").getWaiting());
+        }
+
+        first.close();
+        second.join();
+        assertEquals("Both runs of a got a slot", 2,
+                scheduler.getStatistics().get("a").getStarted());
+    }
+
+    /**
+     * Tests that runs with a higher priority get the slot first.
+     * @throws Exception exception on waiting
+     */
+    @Test(timeout = TIMEOUT)
+    public void testPriority() throws Exception {
+        final ExecutionSchedulerImpl scheduler =
+                new ExecutionSchedulerImpl(1, ExecutionQueueOrder.PRIORITY);
+        final List<String> order =
+                Collections.synchronizedList(new ArrayList<>());
+
+        final IExecutionSlot first = scheduler.acquire("a", 0, 0);
+        final Thread low = startAcquiring(scheduler, "low", 0, order);
+        waitForWaiting(scheduler, "low", 1);
+        final Thread high = startAcquiring(scheduler, "high", 1, order);
+        waitForWaiting(scheduler, "high", 1);
+
+        first.close();
+        low.join();
+        high.join();
+
+        assertEquals("The high priority run is first", "high", order.get(0));
+        assertEquals("The low priority run is second", "low", order.get(1));
+    }
+
+    /**
+     * Tests that the timeouts are counted per process.
+     * @throws Exception exception on waiting
+     */
+    @Test(timeout = TIMEOUT)
+    public void testRecordTimeout() throws Exception {
+        final ExecutionSchedulerImpl scheduler =
+                new ExecutionSchedulerImpl(1, ExecutionQueueOrder.FIFO);
+
+        try (IExecutionSlot slot = scheduler.acquire("a", 0, 0)) {
+            scheduler.recordTimeout("a");
+        }
+
+        assertEquals("There is one timeout", 1,
+                scheduler.getStatistics().get("a").getTimeouts());
+        assertEquals("The slot is free again", 0,
+                scheduler.getStatistics().get("a").getRunning());
+    }
+
+    /**
+     * Starts a thread that acquires a slot, notes the process identifier
+     * and releases the slot again.
+     * @param scheduler scheduler to use
+     * @param processIdentifier identifier of the process
+     * @param priority priority of the run
+     * @param order list to add the process identifier to
+     * @return started thread
+     */
+    private static Thread startAcquiring(
+            final IExecutionScheduler scheduler,
+            final String processIdentifier,
+            final int priority,
+            final List<String> order) {
+        final Thread thread = new Thread(() -> {
+            try (IExecutionSlot slot = scheduler.acquire(
+                    processIdentifier, 0, priority)) {
+                order.add(processIdentifier);
+            } catch (final InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Waits until the given number of runs waits for the process.
+     * @param scheduler scheduler to check
+     * @param processIdentifier identifier of the process
+     * @param expected number of waiting runs
+     * @throws InterruptedException exception on sleeping
+     */
+    private static void waitForWaiting(
+            final IExecutionScheduler scheduler,
+            final String processIdentifier,
+            final int expected) throws InterruptedException {
+        while (true) {
+            final ExecutionQueueStatistics statistics =
+                    scheduler.getStatistics().get(processIdentifier);
+            if (statistics != null && statistics.getWaiting() == expected) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.util;
+
+import org.junit.Test;
+import org.n52.gfz.riesgos.util.tempfiles.ITempFileArena;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests for the BoundedStreamCapture.
+ */
+public class TestBoundedStreamCapture {
+
+    /**
+     * Memory limit for the tests.
+     */
+    private static final int MEMORY_LIMIT = 16;
+
+    /**
+     * Tests that small outputs stay in memory and are kept byte exact.
+     * @throws IOException may be thrown on writing
+     */
+    @Test
+    public void testInMemory() throws IOException {
+        final ITempFileArena arena = new TempFileArenaImpl();
+        final BoundedStreamCapture capture =
+                new BoundedStreamCapture(MEMORY_LIMIT, arena);
+
+        // no newline at the end and some bytes that are no valid text
+        final byte[] content = {'a', '\r', '\n', (byte) 0xff, 0, 'b'};
+        capture.write(content);
+        capture.close();
+
+        assertFalse("Small output stays in memory", capture.isSpilled());
+        assertEquals(0, arena.getLiveTempFileCount());
+        assertEquals(content.length, capture.getSize());
+        assertTrue("Bytes are unchanged",
+                Arrays.equals(content, capture.toByteArray()));
+    }
+
+    /**
+     * Tests that larger outputs are moved to a temporary file.
+     * @throws InterruptedException may be thrown on waiting for the reader
+     * @throws IOException may be thrown on reading the content
+     */
+    @Test
+    public void testSpillToFile() throws InterruptedException, IOException {
+        final ITempFileArena arena = new TempFileArenaImpl();
+        final BoundedStreamCapture capture =
+                new BoundedStreamCapture(MEMORY_LIMIT, arena);
+
+        final byte[] content = new byte[MEMORY_LIMIT * 10];
+        for (int i = 0; i < content.length; i += 1) {
+            content[i] = (byte) i;
+        }
+
+        final ThreadedStreamCaptureReader reader =
+                new ThreadedStreamCaptureReader(
+                        new ByteArrayInputStream(content), capture);
+        reader.start();
+        reader.join();
+        reader.throwExceptionIfNecessary();
+
+        assertTrue("Large output is in a file", capture.isSpilled());
+        assertEquals(1, arena.getLiveTempFileCount());
+        assertEquals(content.length, arena.getLiveTempBytes());
+        assertTrue("Bytes are unchanged",
+                Arrays.equals(content, capture.toByteArray()));
+        // can be read more than once
+        assertTrue("Bytes are unchanged on the second read",
+                Arrays.equals(content, capture.toByteArray()));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.util;
+
+import org.junit.Test;
+import org.n52.gfz.riesgos.cmdexecution.IWriteOnlyFileAccessor;
+import org.n52.gfz.riesgos.util.tempfiles.ITempFileArena;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static junit.framework.TestCase.assertEquals;
+
+/**
+ * Tests for the StagedInputFiles.
+ */
+public class TestStagedInputFiles {
+
+    /**
+     * Tests that the staged files are written into the context
+     * once it exists and that the temporary files are released.
+     * @throws IOException may be thrown on writing the files
+     * @throws InterruptedException may be thrown on waiting for the pool
+     * @throws ExecutionException may be thrown by the conversion
+     */
+    @Test
+    public void testStageInto()
+            throws IOException, InterruptedException, ExecutionException {
+        final ITempFileArena arena = new TempFileArenaImpl();
+        final File existing = arena.createTempFile("existing", ".tif");
+        Files.write(existing.toPath(), "tif".getBytes(StandardCharsets.UTF_8));
+
+        // converted in the background like the inputs of a run
+        final InputConversionPool pool = new InputConversionPool(2);
+        final Future<StagedInputFiles> conversion = pool.submit(() -> {
+            final StagedInputFiles staging = new StagedInputFiles(arena, 4);
+            staging.writeToFile(
+                    "a".getBytes(StandardCharsets.UTF_8), "/work", "a.xml");
+            staging.writeToFile(
+                    "large".getBytes(StandardCharsets.UTF_8),
+                    "/work",
+                    "large.xml");
+            staging.writeToFile(existing, "/work", "b.tif");
+            return staging;
+        });
+        final StagedInputFiles staging = conversion.get();
+
+        assertEquals("There is one spilled file and the existing one",
+                2, arena.getLiveTempFileCount());
+        assertEquals("All files are counted", 9, staging.getStagedBytes());
+        assertEquals("Only the small content is in memory",
+                1, staging.getStagedMemoryBytes());
+
+        final RecordingFiles target = new RecordingFiles();
+        staging.stageInto(target);
+
+        assertEquals("All files are in the context",
+                3, target.getFiles().size());
+        assertEquals("a", target.getFiles().get("/work/a.xml"));
+        assertEquals("large", target.getFiles().get("/work/large.xml"));
+        assertEquals("tif", target.getFiles().get("/work/b.tif"));
+
+        staging.close();
+        // can be called again
+        staging.close();
+        assertEquals("Only the existing file is still there",
+                1, arena.getLiveTempFileCount());
+        arena.release(existing);
+    }
+
+    /**
+     * Target that keeps the written content in memory.
+     */
+    private static class RecordingFiles implements IWriteOnlyFileAccessor {
+
+        /**
+         * Content of the files by path.
+         */
+        private final Map<String, String> files = new LinkedHashMap<>();
+
+        /**
+         *
+         * @return content of the files by path
+         */
+        Map<String, String> getFiles() {
+            return files;
+        }
+
+        @Override
+        public void writeToFile(
+                final byte[] content,
+                final String workingDir,
+                final String fileName) {
+            files.put(workingDir + "/" + fileName,
+                    new String(content, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRun;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the reference implementation of the worker
+ * (riesgos_worker.py) together with the worker context.
+ * The worker runs as a process on the host, so there is no need
+ * for docker, but python3 must be installed.
+ */
+public class TestReferenceWorker {
+
+    /**
+     * Path of the reference worker.
+     */
+    private static final Path WORKER_SCRIPT = Paths.get(
+            "src", "main", "resources", "org", "n52", "gfz", "riesgos",
+            "cmdexecution", "worker", "riesgos_worker.py");
+
+    /**
+     * Maximum time for a single request.
+     */
+    private static final long TIMEOUT_SECONDS = 30;
+
+    /**
+     * Script of the "image": it uses a module next to it, reads
+     * the input file (given as argument) and stdin and writes
+     * an output file relative to the working directory.
+     */
+    private static final String SCRIPT = String.join("\n",
+            "import sys",
+            "import helper",
+            "with open(sys.argv[1]) as input_file:",
+            "    text = input_file.read()",
+            "with open('output.txt', 'w') as output_file:",
+            "    output_file.write(helper.shout(text))",
+            "print(sys.stdin.read() + ' on stdout')",
+            "sys.stderr.write('on stderr')",
+            "sys.exit(3)",
+            "");
+
+    /**
+     * Runs a request with a new interpreter for the script.
+     * @throws Exception not expected
+     */
+    @Test
+    public void testRunAsProcess() throws Exception {
+        runRequests();
+    }
+
+    /**
+     * Runs the requests in forked children of the worker.
+     * @throws Exception not expected
+     */
+    @Test
+    public void testRunForked() throws Exception {
+        runRequests("--fork", "--preload", "json");
+    }
+
+    /**
+     * Starts a worker with the options and runs two requests with it
+     * (so that the second one is handled by the same worker).
+     * @param options options for the worker
+     * @throws Exception not expected
+     */
+    private void runRequests(final String... options) throws Exception {
+        assumeTrue("python3 must be installed", isPythonInstalled());
+
+        final Path imageDirectory = Files.createTempDirectory("image");
+        final Path spool = Files.createTempDirectory("spool");
+        final List<LocalWorker> started = new ArrayList<>();
+        final WorkerPool pool = new WorkerPool(() -> {
+            final LocalWorker worker = new LocalWorker(spool, options);
+            started.add(worker);
+            return worker;
+        }, 1);
+        try {
+            Files.write(imageDirectory.resolve("script.py"),
+                    SCRIPT.getBytes(StandardCharsets.UTF_8));
+            Files.write(imageDirectory.resolve("helper.py"),
+                    "def shout(text):\n    return text.upper()\n"
+                            .getBytes(StandardCharsets.UTF_8));
+
+            final WorkerExecutionContextManagerImpl manager =
+                    new WorkerExecutionContextManagerImpl(pool);
+            for (final String text : Arrays.asList("first", "second")) {
+                final String workingDirectory = imageDirectory.toString();
+                try (IExecutionContext context =
+                             manager.createExecutionContext(
+                                     workingDirectory,
+                                     Arrays.asList(
+                                             "python3",
+                                             "script.py",
+                                             workingDirectory
+                                                     + "/input.txt"))) {
+                    context.writeToFile(
+                            text.getBytes(StandardCharsets.UTF_8),
+                            workingDirectory,
+                            "input.txt");
+                    final IExecutionRun run = context.run();
+                    run.getStdin().print(text);
+                    final IExecutionRunResult result =
+                            run.waitForCompletion(
+                                    TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+                    assertEquals("The exit value of the script",
+                            3, result.getExitValue());
+                    assertEquals(text + " on stdout",
+                            result.getStdoutResult().trim());
+                    assertEquals("on stderr", result.getStderrResult());
+                    assertEquals("The output is in the working directory",
+                            text.toUpperCase(),
+                            new String(context.readFromFile(
+                                    workingDirectory + "/output.txt"),
+                                    StandardCharsets.UTF_8));
+                }
+            }
+            assertEquals("Both requests used the same worker",
+                    1, started.size());
+            assertFalse("The output is not written into the image",
+                    Files.exists(imageDirectory.resolve("output.txt")));
+        } finally {
+            pool.shutDown();
+            FileUtils.deleteDirectory(imageDirectory.toFile());
+            FileUtils.deleteDirectory(spool.toFile());
+        }
+    }
+
+    /**
+     *
+     * @return true if python3 can be started
+     */
+    private static boolean isPythonInstalled() {
+        try {
+            return new ProcessBuilder("python3", "--version")
+                    .start()
+                    .waitFor() == 0;
+        } catch (final IOException | InterruptedException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Worker that runs the reference implementation as a process
+     * on the host.
+     */
+    private static final class LocalWorker implements IWorker {
+
+        /**
+         * Spool directory of the worker.
+         */
+        private final Path spool;
+
+        /**
+         * Process of the request loop.
+         */
+        private final Process process;
+
+        /**
+         * Starts the request loop.
+         * @param aSpool spool directory
+         * @param options options for the worker
+         * @throws IOException exception on starting the process
+         */
+        private LocalWorker(
+                final Path aSpool,
+                final String... options) throws IOException {
+            this.spool = aSpool;
+            final List<String> command = new ArrayList<>();
+            command.add("python3");
+            command.add(WORKER_SCRIPT.toAbsolutePath().toString());
+            command.addAll(Arrays.asList(options));
+            final ProcessBuilder processBuilder = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(spool.resolveSibling(
+                            spool.getFileName() + ".log").toFile());
+            processBuilder.environment().put(
+                    "RIESGOS_WORKER_SPOOL", spool.toString());
+            this.process = processBuilder.start();
+        }
+
+        @Override
+        public Path getSpoolDirectory() {
+            return spool;
+        }
+
+        @Override
+        public String getSpoolDirectoryInWorker() {
+            return spool.toString();
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return process.isAlive();
+        }
+
+        @Override
+        public void stop() {
+            process.destroyForcibly();
+            FileUtils.deleteQuietly(spool.resolveSibling(
+                    spool.getFileName() + ".log").toFile());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionContext;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the context manager of the persistent workers
+ * (with a fake worker, so that there is no need for docker).
+ */
+public class TestWorkerExecutionContextManagerImpl {
+
+    /**
+     * Tests that only the owner has access to the request directories,
+     * so that nobody else can put requests into the spool.
+     * @throws IOException not expected
+     */
+    @Test
+    public void testRequestDirectoriesAreOwnerOnly() throws IOException {
+        assumeTrue("There must be a posix file system",
+                FileSystems.getDefault().supportedFileAttributeViews()
+                        .contains("posix"));
+
+        final Path spool = Files.createTempDirectory("spool");
+        final WorkerPool pool = new WorkerPool(() -> new SpoolWorker(spool), 1);
+        try (IExecutionContext context =
+                     new WorkerExecutionContextManagerImpl(pool)
+                             .createExecutionContext(
+                                     "/usr/share/git/process",
+                                     Collections.singletonList("true"))) {
+            final List<Path> requestDirectories;
+            try (Stream<Path> list = Files.list(spool)) {
+                requestDirectories = list.collect(Collectors.toList());
+            }
+            assertEquals("There is one request", 1, requestDirectories.size());
+            final Path requestDirectory = requestDirectories.get(0);
+            assertEquals("Only the owner can use the request",
+                    "rwx------",
+                    PosixFilePermissions.toString(
+                            Files.getPosixFilePermissions(requestDirectory)));
+            assertEquals("Only the owner can use the files",
+                    "rwx------",
+                    PosixFilePermissions.toString(
+                            Files.getPosixFilePermissions(
+                                    requestDirectory.resolve(
+                                            WorkerExecutionContextImpl
+                                                    .FILES_DIRECTORY))));
+        } finally {
+            pool.shutDown();
+            FileUtils.deleteDirectory(spool.toFile());
+        }
+    }
+
+    /**
+     * Worker that only has a spool directory.
+     */
+    private static class SpoolWorker implements IWorker {
+        /**
+         * Spool directory of the worker.
+         */
+        private final Path spool;
+
+        /**
+         * Constructor with the spool directory.
+         * @param aSpool spool directory
+         */
+        SpoolWorker(final Path aSpool) {
+            this.spool = aSpool;
+        }
+
+        @Override
+        public Path getSpoolDirectory() {
+            return spool;
+        }
+
+        @Override
+        public String getSpoolDirectoryInWorker() {
+            return "/spool";
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+
+        @Override
+        public void stop() {
+            // nothing to stop
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.n52.gfz.riesgos.cmdexecution.IExecutionRunResult;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+/**
+ * Tests for the run in a worker (the test plays the role of the worker
+ * and writes the files into the request directory).
+ */
+public class TestWorkerExecutionRunImpl {
+
+    /**
+     * Tests that the lines of stderr are given to the watcher
+     * while the request is still running.
+     * @throws Exception not expected
+     */
+    @Test
+    public void testWatchStderrWhileRunning() throws Exception {
+        final Path requestDirectory = Files.createTempDirectory("request");
+        try {
+            final WorkerExecutionRunImpl run = createRun(
+                    requestDirectory, () -> { });
+            final List<String> lines = new CopyOnWriteArrayList<>();
+            run.watchStderr(lines::add);
+
+            write(requestDirectory, WorkerExecutionRunImpl.STDERR_FILE,
+                    "first\nsecond\nthi");
+            try {
+                run.waitForCompletion(100, TimeUnit.MILLISECONDS);
+                fail("The request is still running");
+            } catch (final TimeoutException timeoutException) {
+                assertEquals("The complete lines are already there",
+                        Arrays.asList("first", "second"), lines);
+            }
+
+            write(requestDirectory, WorkerExecutionRunImpl.STDERR_FILE,
+                    "first\nsecond\nthird");
+            write(requestDirectory, WorkerExecutionRunImpl.EXIT_VALUE_FILE,
+                    "2");
+            final IExecutionRunResult result = run.waitForCompletion(
+                    10, TimeUnit.SECONDS);
+            assertEquals("The exit value of the worker",
+                    2, result.getExitValue());
+            assertEquals("The last line is given on the end",
+                    Arrays.asList("first", "second", "third"), lines);
+        } finally {
+            FileUtils.deleteDirectory(requestDirectory.toFile());
+        }
+    }
+
+    /**
+     * Tests that killing the run stops the worker and ends the waiting.
+     * @throws Exception not expected
+     */
+    @Test
+    public void testKillStopsWorker() throws Exception {
+        final Path requestDirectory = Files.createTempDirectory("request");
+        try {
+            final AtomicBoolean stopped = new AtomicBoolean(false);
+            final WorkerExecutionRunImpl run = createRun(
+                    requestDirectory, () -> stopped.set(true));
+            run.kill();
+            assertTrue("The worker is stopped", stopped.get());
+
+            final IExecutionRunResult result = run.waitForCompletion(
+                    10, TimeUnit.SECONDS);
+            assertEquals("The exit value of a killed run",
+                    137, result.getExitValue());
+        } finally {
+            FileUtils.deleteDirectory(requestDirectory.toFile());
+        }
+    }
+
+    /**
+     * Creates a run for a worker that is always alive.
+     * @param requestDirectory request directory
+     * @param workerStop stops the worker
+     * @return run
+     * @throws Exception not expected
+     */
+    private static WorkerExecutionRunImpl createRun(
+            final Path requestDirectory,
+            final Runnable workerStop) throws Exception {
+        return new WorkerExecutionRunImpl(
+                requestDirectory,
+                "/spool/request/files",
+                "/usr/share/git/process",
+                Collections.singletonList("true"),
+                () -> true,
+                workerStop);
+    }
+
+    /**
+     * Writes a file as the worker does.
+     * @param directory request directory
+     * @param name name of the file
+     * @param content text of the file
+     * @throws Exception not expected
+     */
+    private static void write(
+            final Path directory,
+            final String name,
+            final String content) throws Exception {
+        Files.write(directory.resolve(name),
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+}
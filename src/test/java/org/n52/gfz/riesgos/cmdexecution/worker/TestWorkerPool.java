@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.cmdexecution.worker;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+/**
+ * Tests for the pool of the persistent workers
+ * (with fake workers, so that there is no need for docker).
+ */
+public class TestWorkerPool {
+
+    /**
+     * Tests that the workers are reused and that unhealthy
+     * ones are replaced.
+     * @throws IOException not expected
+     * @throws InterruptedException not expected
+     */
+    @Test
+    public void testReuseAndRestart() throws IOException,
+            InterruptedException {
+        final List<FakeWorker> started = new ArrayList<>();
+        final WorkerPool pool = new WorkerPool(() -> {
+            final FakeWorker worker = new FakeWorker();
+            started.add(worker);
+            return worker;
+        }, 1);
+
+        final IWorker first = pool.acquire();
+        pool.release(first, true);
+        assertSame("The worker is reused", first, pool.acquire());
+        assertEquals(1, started.size());
+
+        // the worker crashed between two requests
+        started.get(0).healthy = false;
+        pool.release(first, true);
+        final IWorker second = pool.acquire();
+        assertEquals(2, started.size());
+        assertSame(started.get(1), second);
+        assertTrue("The old worker is stopped", started.get(0).stopped);
+        assertEquals(1, pool.getRestartedWorkers());
+
+        // a failed request stops the worker directly
+        pool.release(second, false);
+        assertTrue("The failed worker is stopped", started.get(1).stopped);
+        assertEquals(0, pool.getStartedWorkers());
+
+        pool.shutDown();
+        try {
+            pool.acquire();
+            fail("There must be an exception after the shut down");
+        } catch (final IOException exception) {
+            assertFalse("No new worker is started",
+                    started.size() > 2);
+        }
+    }
+
+    /**
+     * Worker that only remembers its state.
+     */
+    private static class FakeWorker implements IWorker {
+        /**
+         * Result for the health check.
+         */
+        private boolean healthy = true;
+        /**
+         * Flag that the worker was stopped.
+         */
+        private boolean stopped = false;
+
+        @Override
+        public Path getSpoolDirectory() {
+            return Paths.get("spool");
+        }
+
+        @Override
+        public String getSpoolDirectoryInWorker() {
+            return "/spool";
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+    }
+}
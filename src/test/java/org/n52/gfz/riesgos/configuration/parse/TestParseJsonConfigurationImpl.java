@@ -18,11 +18,14 @@ package org.n52.gfz.riesgos.configuration.parse;
  */
 
 import org.junit.Test;
+import org.n52.gfz.riesgos.cmdexecution.host.HostExecutionContextManagerFactory;
+import org.n52.gfz.riesgos.configuration.ContainerResourceLimits;
 import org.n52.gfz.riesgos.configuration.IConfiguration;
 import org.n52.gfz.riesgos.configuration.IInputParameter;
 import org.n52.gfz.riesgos.configuration.IOutputParameter;
 import org.n52.gfz.riesgos.configuration.InputParameterFactory;
 import org.n52.gfz.riesgos.configuration.OutputParameterFactory;
+import org.n52.gfz.riesgos.configuration.WorkerConfiguration;
 import org.n52.gfz.riesgos.configuration.parse.formats.json.ParseJsonConfigurationImpl;
 import org.n52.gfz.riesgos.exceptions.ParseConfigurationException;
 import org.n52.gfz.riesgos.exitvaluehandler.LogExitValueHandler;
@@ -239,6 +242,120 @@ public class TestParseJsonConfigurationImpl {
         }
     }
 
+    /**
+     * Test with a configuration that runs directly on the host
+     * (so that there is no need for an image id)
+     */
+    @Test
+    public void testValidInputWithHostExecutionContext() {
+        final IParseConfiguration parser = new ParseJsonConfigurationImpl();
+
+        final String text = "{" +
+                "\"title\": \"Quakeledger\"," +
+                "\"executionContext\": \"host\"," +
+                "\"workingDirectory\": \"/usr/share/git/quakeledger\"," +
+                "\"commandToExecute\": \"python3 eventquery.py\"" +
+                "}";
+
+        try {
+            final IConfiguration conf = parser.parse(text);
+            assertEquals("There is no image id", null, conf.getImageId());
+            assertEquals("The execution context runs on the host",
+                    new HostExecutionContextManagerFactory(),
+                    conf.getExecutionContextManagerFactory().get());
+        } catch(final ParseConfigurationException exception) {
+            fail("There should be no exception");
+        }
+
+        try {
+            parser.parse(text.replace("host", "ssh"));
+            fail("There must be an exception");
+        } catch(final ParseConfigurationException exception) {
+            assertNotNull("There must be an exception", exception);
+        }
+    }
+
+    /**
+     * Test with resource limits for the container
+     */
+    @Test
+    public void testValidInputWithResourceLimits() {
+        final IParseConfiguration parser = new ParseJsonConfigurationImpl();
+
+        final String text = "{" +
+                "\"title\": \"Quakeledger\"," +
+                "\"imageId\": \"123456\"," +
+                "\"workingDirectory\": \"/usr/share/git/quakeledger\"," +
+                "\"commandToExecute\": \"python3 eventquery.py\"," +
+                "\"resourceLimits\": {\"cpus\": 2, \"memory\": \"512m\", " +
+                "\"cpusetCpus\": \"0,2\", \"pidsLimit\": 64}" +
+                "}";
+
+        try {
+            final IConfiguration conf = parser.parse(text);
+            assertEquals("The limits are as expected",
+                    new ContainerResourceLimits.Builder()
+                            .withCpus(2.0)
+                            .withMemory("512m")
+                            .withCpusetCpus("0,2")
+                            .withPidsLimit(64)
+                            .build(),
+                    conf.getContainerResourceLimits().get());
+        } catch(final ParseConfigurationException exception) {
+            fail("There should be no exception");
+        }
+
+        try {
+            parser.parse(text.replace("512m", "a lot"));
+            fail("There must be an exception");
+        } catch(final ParseConfigurationException exception) {
+            assertNotNull("There must be an exception", exception);
+        }
+    }
+
+    /**
+     * Test with a persistent worker
+     */
+    @Test
+    public void testValidInputWithWorker() {
+        final IParseConfiguration parser = new ParseJsonConfigurationImpl();
+
+        final String text = "{" +
+                "\"title\": \"Quakeledger\"," +
+                "\"imageId\": \"123456\"," +
+                "\"workingDirectory\": \"/usr/share/git/quakeledger\"," +
+                "\"commandToExecute\": \"python3 eventquery.py\"," +
+                "\"worker\": {\"command\": \"python3 worker.py\", \"poolSize\": 2}" +
+                "}";
+
+        try {
+            final IConfiguration conf = parser.parse(text);
+            assertEquals("The worker is as expected",
+                    new WorkerConfiguration.Builder(
+                            Arrays.asList("python3", "worker.py"))
+                            .withPoolSize(2)
+                            .build(),
+                    conf.getWorkerConfiguration().get());
+        } catch(final ParseConfigurationException exception) {
+            fail("There should be no exception");
+        }
+
+        try {
+            parser.parse(text.replace("\"poolSize\": 2", "\"poolSize\": 0"));
+            fail("There must be an exception");
+        } catch(final ParseConfigurationException exception) {
+            assertNotNull("There must be an exception", exception);
+        }
+
+        try {
+            parser.parse(text.replace("\"imageId\": \"123456\",",
+                    "\"executionContext\": \"host\","));
+            fail("There must be an exception");
+        } catch(final ParseConfigurationException exception) {
+            assertNotNull("There must be an exception", exception);
+        }
+    }
+
     /**
      * Test the quakeledger configuration
      */
@@ -0,0 +1,125 @@
+package org.n52.gfz.riesgos.configuration.parse;
+
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the Licence is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the Licence for the specific language governing permissions and
+ *  limitations under the Licence.
+ */
+
+import org.junit.Test;
+import org.n52.gfz.riesgos.configuration.PipelineConfiguration;
+import org.n52.gfz.riesgos.configuration.parse.formats.json.ParseJsonPipelineConfigurationImpl;
+import org.n52.gfz.riesgos.exceptions.ParseConfigurationException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Testcases for parsing of json pipeline configurations
+ */
+public class TestParseJsonPipelineConfigurationImpl {
+
+    /**
+     * Test to parse a valid pipeline
+     */
+    @Test
+    public void testValid() throws ParseConfigurationException {
+        final String text = "{\n" +
+                "    \"title\": \"QuakeAndShake\",\n" +
+                "    \"abstract\": \"Runs quakeledger and shakyground\",\n" +
+                "    \"steps\": [\n" +
+                "        { \"process\": \"QuakeledgerProcess\" },\n" +
+                "        {\n" +
+                "            \"process\": \"ShakygroundProcess\",\n" +
+                "            \"links\": {\n" +
+                "                \"quakeMLFile\": \"QuakeledgerProcess.selectedRows\"\n" +
+                "            }\n" +
+                "        }\n" +
+                "    ]\n" +
+                "}";
+
+        final ParseJsonPipelineConfigurationImpl parser =
+                new ParseJsonPipelineConfigurationImpl();
+
+        assertTrue("It is a pipeline", parser.isPipeline(text));
+
+        final Map<String, PipelineConfiguration.OutputReference> links =
+                new LinkedHashMap<>();
+        links.put("quakeMLFile", new PipelineConfiguration.OutputReference(
+                "QuakeledgerProcess", "selectedRows"));
+
+        final PipelineConfiguration expected =
+                new PipelineConfiguration.Builder(
+                        "QuakeAndShake",
+                        "Runs quakeledger and shakyground")
+                .withAddedStep(new PipelineConfiguration.Step(
+                        "QuakeledgerProcess", Collections.emptyMap()))
+                .withAddedStep(new PipelineConfiguration.Step(
+                        "ShakygroundProcess", links))
+                .build();
+
+        final PipelineConfiguration parsed = parser.parse(text);
+        assertEquals("The pipeline is as expected", expected, parsed);
+        assertEquals("The step count is as expected",
+                2, parsed.getSteps().size());
+    }
+
+    /**
+     * Test that the configuration of a single process is no pipeline
+     */
+    @Test
+    public void testNoPipeline() {
+        final ParseJsonPipelineConfigurationImpl parser =
+                new ParseJsonPipelineConfigurationImpl();
+
+        assertFalse("A process configuration is no pipeline",
+                parser.isPipeline("{\"title\": \"A\", \"input\": []}"));
+        assertFalse("Invalid json is no pipeline",
+                parser.isPipeline("{[}"));
+    }
+
+    /**
+     * Test that invalid steps are rejected
+     */
+    @Test
+    public void testInvalidSteps() {
+        final ParseJsonPipelineConfigurationImpl parser =
+                new ParseJsonPipelineConfigurationImpl();
+
+        for (final String steps : new String[] {
+                // no steps at all
+                "[]",
+                // unknown key in a step
+                "[{\"process\": \"A\", \"image\": \"a\"}]",
+                // the same process twice
+                "[{\"process\": \"A\"}, {\"process\": \"A\"}]",
+                // link without output
+                "[{\"process\": \"A\"}, "
+                        + "{\"process\": \"B\", \"links\": {\"x\": \"A\"}}]"
+        }) {
+            try {
+                parser.parse("{\"title\": \"P\", \"steps\": " + steps + "}");
+                fail("There must be an exception for " + steps);
+            } catch (final ParseConfigurationException exception) {
+                assertNotNull("There must be an exception", exception);
+            }
+        }
+    }
+}
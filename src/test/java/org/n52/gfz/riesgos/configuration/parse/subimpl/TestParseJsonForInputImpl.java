@@ -36,9 +36,9 @@ import org.n52.gfz.riesgos.functioninterfaces.IWriteIDataToFiles;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGTVectorDataBindingToBytes;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGenericFileDataBindingToBytes;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGenericXMLDataBindingToBytes;
-import org.n52.gfz.riesgos.idatatobyteconverter.ConvertGeotiffBindingToBytes;
 import org.n52.gfz.riesgos.idatatobyteconverter.ConvertLiteralStringToBytes;
 import org.n52.gfz.riesgos.validators.LiteralStringBindingWithAllowedValues;
+import org.n52.gfz.riesgos.writeidatatofiles.WriteGeotiffToPath;
 import org.n52.gfz.riesgos.writeidatatofiles.WriteShapeFileToPath;
 import org.n52.gfz.riesgos.writeidatatofiles.WriteSingleByteStreamToPath;
 import org.n52.wps.io.data.binding.bbox.BoundingBoxData;
@@ -702,7 +702,7 @@ public class TestParseJsonForInputImpl {
                 "\"type\": \"geotiff\"" +
                 "}";
         final ParseJsonForInputImpl parser = new ParseJsonForInputImpl();
-        final IWriteIDataToFiles writer = new WriteSingleByteStreamToPath<>(new ConvertGeotiffBindingToBytes());
+        final IWriteIDataToFiles writer = new WriteGeotiffToPath();
 
         try {
             final IInputParameter inputIdentifier = parser.parseInput(parseJson(text));
@@ -871,7 +871,7 @@ public class TestParseJsonForInputImpl {
                 "}";
 
         final ParseJsonForInputImpl parser = new ParseJsonForInputImpl();
-        final IWriteIDataToFiles writer = new WriteSingleByteStreamToPath<>(new ConvertGeotiffBindingToBytes());
+        final IWriteIDataToFiles writer = new WriteGeotiffToPath();
 
         try {
             final IInputParameter inputIdentifier = parser.parseInput(parseJson(text));
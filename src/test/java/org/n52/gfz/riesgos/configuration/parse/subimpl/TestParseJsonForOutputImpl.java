@@ -20,10 +20,8 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.junit.Test;
-import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGTVectorDataBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGenericFileDataBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGenericXMLDataBinding;
-import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToGeotiffBinding;
 import org.n52.gfz.riesgos.bytetoidataconverter.ConvertBytesToLiteralStringBinding;
 import org.n52.gfz.riesgos.configuration.IOutputParameter;
 import org.n52.gfz.riesgos.configuration.parse.formats.json.subimpl.ParseJsonForOutputImpl;
@@ -32,6 +30,8 @@ import org.n52.gfz.riesgos.exitvaluetoidataconverter.ConvertExitValueToLiteralIn
 import org.n52.gfz.riesgos.functioninterfaces.IConvertByteArrayToIData;
 import org.n52.gfz.riesgos.functioninterfaces.IConvertExitValueToIData;
 import org.n52.gfz.riesgos.functioninterfaces.IReadIDataFromFiles;
+import org.n52.gfz.riesgos.readidatafromfiles.ReadGeoJsonFromPath;
+import org.n52.gfz.riesgos.readidatafromfiles.ReadGeotiffFromPath;
 import org.n52.gfz.riesgos.readidatafromfiles.ReadShapeFileFromPath;
 import org.n52.gfz.riesgos.readidatafromfiles.ReadSingleByteStreamFromPath;
 import org.n52.wps.io.data.binding.complex.GTVectorDataBinding;
@@ -377,7 +377,7 @@ public class TestParseJsonForOutputImpl {
                 "}";
 
         final ParseJsonForOutputImpl parser = new ParseJsonForOutputImpl();
-        final IReadIDataFromFiles reader = new ReadSingleByteStreamFromPath<>(new ConvertBytesToGTVectorDataBinding(ConvertBytesToGTVectorDataBinding.Format.JSON), GTVectorDataBinding.class);
+        final IReadIDataFromFiles reader = new ReadGeoJsonFromPath();
 
         try {
             final IOutputParameter outputIdentifier = parser.parseOutput(parseJson(text));
@@ -408,7 +408,7 @@ public class TestParseJsonForOutputImpl {
                 "}";
 
         final ParseJsonForOutputImpl parser = new ParseJsonForOutputImpl();
-        final IReadIDataFromFiles reader = new ReadSingleByteStreamFromPath<>(new ConvertBytesToGeotiffBinding(), GeotiffBinding.class);
+        final IReadIDataFromFiles reader = new ReadGeotiffFromPath();
 
         try {
             final IOutputParameter outputIdentifier = parser.parseOutput(parseJson(text));
@@ -0,0 +1,179 @@
+package org.n52.gfz.riesgos.formats.flatgeobuf.functions;
+
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the Licence is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the Licence for the specific language governing permissions and
+ *  limitations under the Licence.
+ */
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Test class to write and read FlatGeobuf data.
+ */
+public class TestFlatGeobufFeatureWriterAndReader {
+
+    /**
+     * Writes some points with attributes and reads them again.
+     * @throws IOException should not happen
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        final SimpleFeatureTypeBuilder typeBuilder =
+                new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("points");
+        typeBuilder.add("geometry", Point.class);
+        typeBuilder.add("name", String.class);
+        typeBuilder.add("magnitude", Double.class);
+        typeBuilder.add("depth", Integer.class);
+        typeBuilder.setDefaultGeometry("geometry");
+        final SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        final GeometryFactory geometryFactory = new GeometryFactory();
+        final SimpleFeatureBuilder builder =
+                new SimpleFeatureBuilder(featureType);
+        final List<SimpleFeature> features = new ArrayList<>();
+
+        builder.add(geometryFactory.createPoint(new Coordinate(-71.5, -33.1)));
+        builder.add("first");
+        builder.add(8.1);
+        builder.add(30);
+        features.add(builder.buildFeature("1"));
+
+        builder.add(geometryFactory.createPoint(new Coordinate(-72.0, -34.2)));
+        builder.add("zweiter Ärger");
+        builder.add(6.5);
+        builder.add(12);
+        features.add(builder.buildFeature("2"));
+
+        final SimpleFeatureCollection input =
+                new ListFeatureCollection(featureType, features);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new FlatGeobufFeatureWriter().write(input, outputStream);
+
+        final SimpleFeatureCollection output =
+                new FlatGeobufFeatureReader().read(
+                        new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals("There are two features", 2, output.size());
+
+        try (SimpleFeatureIterator iterator = output.features()) {
+            final SimpleFeature first = iterator.next();
+            final Geometry firstGeometry =
+                    (Geometry) first.getDefaultGeometry();
+            assertEquals("x is the same", -71.5,
+                    firstGeometry.getCoordinate().x, 0.0);
+            assertEquals("y is the same", -33.1,
+                    firstGeometry.getCoordinate().y, 0.0);
+            assertEquals("name is the same", "first",
+                    first.getAttribute("name"));
+            assertEquals("magnitude is the same", 8.1,
+                    first.getAttribute("magnitude"));
+            assertEquals("depth is the same", 30,
+                    first.getAttribute("depth"));
+
+            final SimpleFeature second = iterator.next();
+            assertEquals("name with umlauts is the same", "zweiter Ärger",
+                    second.getAttribute("name"));
+        }
+    }
+
+    /**
+     * Writes a plain polygon into a multi polygon schema.
+     * The polygon must be promoted, so that the file fits the header.
+     * @throws IOException should not happen
+     */
+    @Test
+    public void testPolygonInMultiPolygonSchema() throws IOException {
+        final SimpleFeatureTypeBuilder typeBuilder =
+                new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("areas");
+        typeBuilder.add("geometry", MultiPolygon.class);
+        typeBuilder.setDefaultGeometry("geometry");
+        final SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        final GeometryFactory geometryFactory = new GeometryFactory();
+        final Polygon polygon = geometryFactory.createPolygon(
+                geometryFactory.createLinearRing(new Coordinate[] {
+                        new Coordinate(0, 0),
+                        new Coordinate(1, 0),
+                        new Coordinate(1, 1),
+                        new Coordinate(0, 0)
+                }), null);
+        final MultiPolygon multiPolygon = geometryFactory.createMultiPolygon(
+                new Polygon[] {
+                        polygon,
+                        geometryFactory.createPolygon(
+                                geometryFactory.createLinearRing(
+                                        new Coordinate[] {
+                                                new Coordinate(2, 2),
+                                                new Coordinate(3, 2),
+                                                new Coordinate(3, 3),
+                                                new Coordinate(2, 2)
+                                        }), null)
+                });
+
+        final SimpleFeatureBuilder builder =
+                new SimpleFeatureBuilder(featureType);
+        final List<SimpleFeature> features = new ArrayList<>();
+        builder.add(polygon);
+        features.add(builder.buildFeature("1"));
+        builder.add(multiPolygon);
+        features.add(builder.buildFeature("2"));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new FlatGeobufFeatureWriter().write(
+                new ListFeatureCollection(featureType, features),
+                outputStream);
+
+        final SimpleFeatureCollection output =
+                new FlatGeobufFeatureReader().read(
+                        new ByteArrayInputStream(outputStream.toByteArray()));
+
+        try (SimpleFeatureIterator iterator = output.features()) {
+            final Geometry first =
+                    (Geometry) iterator.next().getDefaultGeometry();
+            assertTrue("The polygon is a multi polygon now",
+                    first instanceof MultiPolygon);
+            assertTrue("Same polygon", polygon.equalsTopo(first));
+
+            final Geometry second =
+                    (Geometry) iterator.next().getDefaultGeometry();
+            assertEquals("Both parts are there",
+                    2, second.getNumGeometries());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.n52.gfz.riesgos.formats.geojson.functions;
+
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the Licence is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the Licence for the specific language governing permissions and
+ *  limitations under the Licence.
+ */
+
+import org.apache.commons.io.FileUtils;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.junit.Test;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileArenaSingleton;
+import org.n52.gfz.riesgos.util.tempfiles.TempFileScope;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+
+/**
+ * Test class for StreamingGeoJsonFeatureCollection.
+ */
+public class TestStreamingGeoJsonFeatureCollection {
+
+    /**
+     * GeoJSON with changing attribute types and an attribute that is
+     * only in the last feature.
+     */
+    private static final String GEOJSON = "{\"type\":\"FeatureCollection\","
+            + "\"features\":["
+            + "{\"type\":\"Feature\",\"id\":\"f1\","
+            + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[1.0,2.0]},"
+            + "\"properties\":{\"name\":\"a\",\"loss\":1}},"
+            + "{\"type\":\"Feature\",\"id\":\"f2\","
+            + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[3.0,4.0]},"
+            + "\"properties\":{\"name\":\"b\",\"loss\":2.5}},"
+            + "{\"type\":\"Feature\",\"id\":\"f3\","
+            + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[5.0,6.0]},"
+            + "\"properties\":{\"name\":\"c\",\"loss\":3,\"late\":\"x\"}}"
+            + "]}";
+
+    /**
+     * Reads the features with a prefix of two features for the schema.
+     * @throws IOException should not happen
+     */
+    @Test
+    public void testSchemaFromPrefix() throws IOException {
+        try (TempFileScope scope = TempFileArenaSingleton.INSTANCE
+                .openScope()) {
+            final File file = scope.createTempFile("test", ".geojson");
+            FileUtils.writeStringToFile(file, GEOJSON, StandardCharsets.UTF_8.name());
+
+            final StreamingGeoJsonFeatureCollection collection =
+                    StreamingGeoJsonFeatureCollection.fromFile(file, 2);
+            final SimpleFeatureType schema = collection.getSchema();
+
+            assertEquals("Integer and double values are read as double",
+                    Double.class,
+                    schema.getDescriptor("loss").getType().getBinding());
+            assertNull("Attributes after the prefix are not in the schema",
+                    schema.getDescriptor("late"));
+
+            assertEquals("There are 3 features", 3, collection.size());
+            assertEquals("The bounds are computed", 5.0,
+                    collection.getBounds().getMaxX(), 0.0);
+
+            try (SimpleFeatureIterator iterator = collection.features()) {
+                final SimpleFeature first = iterator.next();
+                assertEquals("The id is kept", "f1", first.getID());
+                assertEquals("The value is converted", 1.0,
+                        first.getAttribute("loss"));
+                iterator.next();
+                final SimpleFeature third = iterator.next();
+                assertEquals("The name is the same", "c",
+                        third.getAttribute("name"));
+            }
+        }
+    }
+}
@@ -18,12 +18,15 @@ package org.n52.gfz.riesgos.formats.json;
 
 import org.json.simple.JSONObject;
 import org.junit.Test;
+import org.n52.gfz.riesgos.exceptions.ConvertToIDataException;
 import org.n52.gfz.riesgos.formats.json.binding.JsonDataBinding;
 import org.n52.gfz.riesgos.formats.json.binding.JsonObjectOrArray;
 import org.n52.gfz.riesgos.formats.json.parsers.JsonParserLogic;
 import org.n52.wps.io.data.IData;
 
 import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
@@ -32,7 +35,7 @@ import static org.junit.Assert.assertFalse;
 public class TestJavaParserLogic {
 
     @Test
-    public void testParse() {
+    public void testParse() throws ConvertToIDataException {
         final String inputText = "{\"keyone\": \"value1\"}";
 
         final JsonParserLogic jsonParser = new JsonParserLogic();
@@ -59,4 +62,30 @@ public class TestJavaParserLogic {
 
 
     }
+
+    @Test
+    public void testParseIsLazy() throws ConvertToIDataException {
+        final byte[] input = "[1, 2, {\"a\": [true, null]}]".getBytes(StandardCharsets.UTF_8);
+
+        final JsonDataBinding result = new JsonParserLogic().parse(new ByteArrayInputStream(input));
+        final JsonObjectOrArray payload = result.getPayload();
+
+        assertFalse("There is no tree after parsing", payload.isMaterialized());
+        assertTrue("The raw bytes are passed through", Arrays.equals(input, payload.toBytes()));
+        assertFalse("Still no tree", payload.isMaterialized());
+
+        assertFalse("It is no object", payload.getJsonObject().isPresent());
+        assertEquals("It is an array with 3 elements", 3, payload.getJsonArray().get().size());
+        assertTrue("Now there is a tree", payload.isMaterialized());
+    }
+
+    @Test(expected = ConvertToIDataException.class)
+    public void testParseInvalid() throws ConvertToIDataException {
+        new JsonParserLogic().parse(new ByteArrayInputStream("{\"a\": ".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = ConvertToIDataException.class)
+    public void testParsePrimitive() throws ConvertToIDataException {
+        new JsonParserLogic().parse(new ByteArrayInputStream("42".getBytes(StandardCharsets.UTF_8)));
+    }
 }
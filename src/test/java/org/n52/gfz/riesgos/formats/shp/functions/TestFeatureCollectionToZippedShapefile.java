@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.shp.functions;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import org.apache.commons.io.IOUtils;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Test class for FeatureCollectionToZippedShapefile.
+ */
+public class TestFeatureCollectionToZippedShapefile {
+
+    /**
+     * Writes two points & reads them again from the zip entries.
+     * @throws IOException exception on writing or reading
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        final SimpleFeatureCollection features = createFeatures();
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new FeatureCollectionToZippedShapefile("points")
+                .write(features, outputStream);
+
+        final Map<String, byte[]> entries = unzip(outputStream.toByteArray());
+        assertEquals(
+                "There are 4 parts of the shapefile", 4, entries.size());
+        assertTrue(entries.containsKey("points.shx"));
+
+        final SimpleFeatureCollection readFeatures =
+                new ShapefileBuffersToFeatureCollection("points").read(
+                        ByteBuffer.wrap(entries.get("points.shp")),
+                        ByteBuffer.wrap(entries.get("points.dbf")),
+                        new String(
+                                entries.get("points.prj"),
+                                StandardCharsets.UTF_8)
+                );
+
+        assertEquals("Same number of features", 2, readFeatures.size());
+        try (SimpleFeatureIterator iterator = readFeatures.features()) {
+            final SimpleFeature first = iterator.next();
+            final Point point = (Point) first.getDefaultGeometry();
+            assertEquals("Same x", 1.0, point.getX());
+            assertEquals("Same y", 2.0, point.getY());
+            assertEquals("Same name", "a", first.getAttribute("name"));
+        }
+    }
+
+    /**
+     * The same features must result in the same bytes.
+     * @throws IOException exception on writing
+     */
+    @Test
+    public void testDeterministic() throws IOException {
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        new FeatureCollectionToZippedShapefile("points")
+                .write(createFeatures(), first);
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        new FeatureCollectionToZippedShapefile("points")
+                .write(createFeatures(), second);
+
+        assertTrue(
+                "Same bytes",
+                Arrays.equals(first.toByteArray(), second.toByteArray()));
+    }
+
+    /**
+     * Creates a small feature collection with points.
+     * @return feature collection
+     */
+    private static SimpleFeatureCollection createFeatures() {
+        final SimpleFeatureTypeBuilder typeBuilder =
+                new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("points");
+        typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
+        typeBuilder.add("the_geom", Point.class);
+        typeBuilder.add("name", String.class);
+        final SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        final GeometryFactory geometryFactory = new GeometryFactory();
+        final SimpleFeatureBuilder builder =
+                new SimpleFeatureBuilder(featureType);
+
+        final ListFeatureCollection result =
+                new ListFeatureCollection(featureType);
+        builder.add(geometryFactory.createPoint(new Coordinate(1.0, 2.0)));
+        builder.add("a");
+        result.add(builder.buildFeature("points.1"));
+        builder.add(geometryFactory.createPoint(new Coordinate(3.0, 4.0)));
+        builder.add("b");
+        result.add(builder.buildFeature("points.2"));
+        return result;
+    }
+
+    /**
+     * Extracts all the entries of the zip.
+     * @param zipped zip content
+     * @return map with the entry names & the content
+     * @throws IOException exception on reading the zip
+     */
+    private static Map<String, byte[]> unzip(final byte[] zipped)
+            throws IOException {
+        final Map<String, byte[]> result = new HashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(
+                new ByteArrayInputStream(zipped))) {
+            ZipEntry entry = zipInputStream.getNextEntry();
+            while (entry != null) {
+                result.put(entry.getName(), IOUtils.toByteArray(zipInputStream));
+                entry = zipInputStream.getNextEntry();
+            }
+        }
+        return result;
+    }
+}
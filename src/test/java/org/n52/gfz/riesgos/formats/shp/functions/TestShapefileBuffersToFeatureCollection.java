@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.formats.shp.functions;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Polygon;
+import org.apache.commons.io.FileUtils;
+import org.geotools.data.FeatureWriter;
+import org.geotools.data.Transaction;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Test class for ShapefileBuffersToFeatureCollection.
+ *
+ * The shapefiles are written with the ShapefileDataStore and the
+ * result of the buffer reader is compared with the result of
+ * reading them with the ShapefileDataStore.
+ */
+public class TestShapefileBuffersToFeatureCollection {
+
+    /**
+     * Base name of the shapefile.
+     */
+    private static final String NAME = "areas";
+
+    /**
+     * Factory for the test geometries.
+     */
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    /**
+     * Reads polygons with holes, multi part polygons, null attributes
+     * and all the dbf column types.
+     * @throws IOException exception on writing or reading the shapefile
+     */
+    @Test
+    public void testRoundTripAgainstDataStore() throws IOException {
+        final SimpleFeatureTypeBuilder typeBuilder =
+                new SimpleFeatureTypeBuilder();
+        typeBuilder.setName(NAME);
+        typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
+        typeBuilder.add("the_geom", MultiPolygon.class);
+        // C, N (int & long), F / N (double), D and L columns in the dbf
+        typeBuilder.add("name", String.class);
+        typeBuilder.add("count", Integer.class);
+        typeBuilder.add("total", Long.class);
+        typeBuilder.add("ratio", Double.class);
+        typeBuilder.add("date", Date.class);
+        typeBuilder.add("valid", Boolean.class);
+        final SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        final Polygon withHole = geometryFactory.createPolygon(
+                ring(0, 0, 10, 10),
+                new LinearRing[] {ring(2, 2, 4, 4), ring(6, 6, 8, 8)});
+        final MultiPolygon singlePart = geometryFactory.createMultiPolygon(
+                new Polygon[] {withHole});
+        final MultiPolygon multiPart = geometryFactory.createMultiPolygon(
+                new Polygon[] {
+                        geometryFactory.createPolygon(
+                                ring(20, 20, 30, 30), null),
+                        geometryFactory.createPolygon(
+                                ring(40, 40, 50, 50),
+                                new LinearRing[] {ring(42, 42, 44, 44)})
+                });
+
+        final List<List<Object>> rows = Arrays.asList(
+                Arrays.asList(singlePart, "first", 1, 10_000_000_000L, 0.5,
+                        new Date(0), true),
+                Arrays.asList(multiPart, "second", -2, -3L, -1.25,
+                        new Date(86_400_000L), false),
+                // all attributes null
+                Arrays.asList(multiPart, null, null, null, null, null, null)
+        );
+
+        final File folder = Files.createTempDirectory("shp").toFile();
+        try {
+            final File shpFile = new File(folder, NAME + ".shp");
+            final ShapefileDataStore dataStore =
+                    new ShapefileDataStore(shpFile.toURI().toURL());
+            final List<SimpleFeature> expected;
+            try {
+                dataStore.createSchema(featureType);
+                write(dataStore, rows);
+                expected = toList(dataStore.getFeatureSource().getFeatures());
+            } finally {
+                dataStore.dispose();
+            }
+
+            final SimpleFeatureCollection read =
+                    new ShapefileBuffersToFeatureCollection(NAME).read(
+                            ByteBuffer.wrap(readPart(folder, ".shp")),
+                            ByteBuffer.wrap(readPart(folder, ".dbf")),
+                            new String(
+                                    readPart(folder, ".prj"),
+                                    StandardCharsets.UTF_8));
+            final List<SimpleFeature> actual = toList(read);
+
+            assertEquals("Same number of features",
+                    expected.size(), actual.size());
+            assertEquals("Same attribute count",
+                    expected.get(0).getAttributeCount(),
+                    actual.get(0).getAttributeCount());
+
+            for (int i = 0; i < expected.size(); i += 1) {
+                final SimpleFeature expectedFeature = expected.get(i);
+                final SimpleFeature actualFeature = actual.get(i);
+
+                final Geometry expectedGeometry =
+                        (Geometry) expectedFeature.getDefaultGeometry();
+                final Geometry actualGeometry =
+                        (Geometry) actualFeature.getDefaultGeometry();
+                assertTrue("Same geometry as the data store",
+                        expectedGeometry.equalsExact(actualGeometry));
+                assertTrue("Same geometry as written",
+                        ((Geometry) rows.get(i).get(0))
+                                .equalsTopo(actualGeometry));
+
+                for (int j = 1; j < expectedFeature.getAttributeCount();
+                     j += 1) {
+                    final String attribute = expectedFeature.getFeatureType()
+                            .getDescriptor(j).getLocalName();
+                    assertEquals("Same value for " + attribute,
+                            expectedFeature.getAttribute(attribute),
+                            actualFeature.getAttribute(attribute));
+                    assertEquals("Same binding for " + attribute,
+                            expectedFeature.getFeatureType()
+                                    .getDescriptor(attribute).getType()
+                                    .getBinding(),
+                            actualFeature.getFeatureType()
+                                    .getDescriptor(attribute).getType()
+                                    .getBinding());
+                }
+            }
+
+            final Polygon firstPolygon = (Polygon)
+                    ((Geometry) actual.get(0).getDefaultGeometry())
+                            .getGeometryN(0);
+            assertEquals("Both holes are there",
+                    2, firstPolygon.getNumInteriorRing());
+            assertEquals("Both parts are there", 2,
+                    ((Geometry) actual.get(1).getDefaultGeometry())
+                            .getNumGeometries());
+            assertNull("Null number stays null",
+                    actual.get(2).getAttribute("count"));
+        } finally {
+            FileUtils.deleteDirectory(folder);
+        }
+    }
+
+    /**
+     * Creates a rectangular ring.
+     * @param minX minimal x value
+     * @param minY minimal y value
+     * @param maxX maximal x value
+     * @param maxY maximal y value
+     * @return closed ring
+     */
+    private LinearRing ring(
+            final double minX,
+            final double minY,
+            final double maxX,
+            final double maxY) {
+        return geometryFactory.createLinearRing(new Coordinate[] {
+                new Coordinate(minX, minY),
+                new Coordinate(maxX, minY),
+                new Coordinate(maxX, maxY),
+                new Coordinate(minX, maxY),
+                new Coordinate(minX, minY)
+        });
+    }
+
+    /**
+     * Writes all the rows with the data store.
+     * @param dataStore data store with the schema
+     * @param rows rows with the geometry and the attributes
+     * @throws IOException exception on writing
+     */
+    private static void write(
+            final ShapefileDataStore dataStore,
+            final List<List<Object>> rows) throws IOException {
+        final FeatureWriter<SimpleFeatureType, SimpleFeature> writer =
+                dataStore.getFeatureWriterAppend(Transaction.AUTO_COMMIT);
+        try {
+            for (final List<Object> row : rows) {
+                final SimpleFeature feature = writer.next();
+                feature.setAttributes(row);
+                writer.write();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Reads one part of the shapefile.
+     * @param folder folder with the shapefile
+     * @param extension extension of the part
+     * @return content of the part
+     * @throws IOException exception on reading
+     */
+    private static byte[] readPart(
+            final File folder,
+            final String extension) throws IOException {
+        return Files.readAllBytes(
+                new File(folder, NAME + extension).toPath());
+    }
+
+    /**
+     * Copies the features into a list.
+     * @param featureCollection feature collection to copy
+     * @return list with the features
+     */
+    private static List<SimpleFeature> toList(
+            final SimpleFeatureCollection featureCollection) {
+        final List<SimpleFeature> result = new ArrayList<>();
+        try (SimpleFeatureIterator iterator = featureCollection.features()) {
+            while (iterator.hasNext()) {
+                result.add(iterator.next());
+            }
+        }
+        return result;
+    }
+}
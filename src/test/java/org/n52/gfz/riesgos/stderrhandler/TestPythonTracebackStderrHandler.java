@@ -19,8 +19,13 @@ package org.n52.gfz.riesgos.stderrhandler;
 import org.junit.Test;
 import org.n52.gfz.riesgos.exceptions.NonEmptyStderrException;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
+import org.n52.gfz.riesgos.functioninterfaces.IStderrMonitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNotNull;
 import static junit.framework.TestCase.assertTrue;
 import static junit.framework.TestCase.fail;
@@ -114,6 +119,25 @@ public class TestPythonTracebackStderrHandler {
         }
     }
 
+    /**
+     * Test that the monitor detects the traceback once the
+     * line with the exception is there
+     */
+    @Test
+    public void testMonitor() {
+        final IStderrHandler stderrHandler = new PythonTracebackStderrHandler();
+        final IStderrMonitor monitor = stderrHandler.createMonitor().get();
+
+        assertFalse("A warning is not fatal",
+                monitor.isFatal("Warning: Please care about some of the stuff."));
+        assertFalse("The traceback is not complete yet",
+                monitor.isFatal("Traceback (most recent call last):"));
+        assertFalse("The traceback is not complete yet",
+                monitor.isFatal("  File \"<stdin>\", line 1, in <module>"));
+        assertTrue("The traceback is complete",
+                monitor.isFatal("ZeroDivisionError: division by zero"));
+    }
+
     /**
      * Tests equality
      */
@@ -126,4 +150,32 @@ public class TestPythonTracebackStderrHandler {
         assertEquals("The handlers are the same", handler1, handler2);
 
     }
+
+    /**
+     * Test that the traceback is found at the end of a lot of logging
+     * if stderr is given as stream
+     */
+    @Test
+    public void testTracebackAfterLongLoggingAsStream() throws IOException {
+        final StringBuilder stderrText = new StringBuilder();
+        while (stderrText.length() < 3 * 1024 * 1024) {
+            stderrText.append("INFO: still working\n");
+        }
+        stderrText.append("Traceback (most recent call last):\n" +
+                "File \"<stdin>\", line 1, in <module>\n" +
+                "ZeroDivisionError: division by zero");
+
+        final IStderrHandler stderrHandler = new PythonTracebackStderrHandler();
+
+        try {
+            stderrHandler.handleStderr(
+                    new ByteArrayInputStream(
+                            stderrText.toString().getBytes()),
+                    text -> { });
+            fail("There must be a exception");
+        } catch(final NonEmptyStderrException exception) {
+            assertTrue("The exception contains the traceback",
+                    exception.getMessage().contains("ZeroDivisionError"));
+        }
+    }
 }
@@ -19,7 +19,9 @@ package org.n52.gfz.riesgos.stderrhandler;
 import org.junit.Test;
 import org.n52.gfz.riesgos.exceptions.NonEmptyStderrException;
 import org.n52.gfz.riesgos.functioninterfaces.IStderrHandler;
+import org.n52.gfz.riesgos.functioninterfaces.IStderrMonitor;
 
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNotNull;
 import static junit.framework.TestCase.assertTrue;
 import static junit.framework.TestCase.fail;
@@ -134,4 +136,23 @@ public class TestRErrorMessageStderrHandler {
             assertNotNull("There is a exception because of the error", exception);
         }
     }
+
+    /**
+     * Test that the monitor detects the error once the
+     * message is complete
+     */
+    @Test
+    public void testMonitor() {
+        final IStderrHandler stderrHandler = new RErrorMessageStderrHandler();
+        final IStderrMonitor monitor = stderrHandler.createMonitor().get();
+
+        assertFalse("A warning is not fatal",
+                monitor.isFatal("This may can cause an Error: Be careful! It is NO error!"));
+        assertFalse("The error message is not complete yet",
+                monitor.isFatal("Error in read.csv(\"input.csv\") : "));
+        assertFalse("The error message is not complete yet",
+                monitor.isFatal("  cannot open the connection"));
+        assertTrue("The error message is complete",
+                monitor.isFatal("Execution halted"));
+    }
 }
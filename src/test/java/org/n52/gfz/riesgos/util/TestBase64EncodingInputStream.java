@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+
+package org.n52.gfz.riesgos.util;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertEquals;
+
+/**
+ * Test class for the Base64EncodingInputStream.
+ */
+public class TestBase64EncodingInputStream {
+
+    /**
+     * The output must be the same as the one of the java encoder
+     * for lengths around the chunk size.
+     * @throws IOException exception on reading
+     */
+    @Test
+    public void testSameAsEncoder() throws IOException {
+        final Random random = new Random(42);
+        final int[] lengths = {0, 1, 2, 3, 4, 12287, 12288, 12289, 100000};
+        for (final int length : lengths) {
+            final byte[] raw = new byte[length];
+            random.nextBytes(raw);
+
+            final String expected = Base64.getEncoder().encodeToString(raw);
+            final String encoded;
+            try (InputStream stream = new Base64EncodingInputStream(
+                    new ByteArrayInputStream(raw))) {
+                encoded = new String(
+                        IOUtils.toByteArray(stream), StandardCharsets.US_ASCII);
+            }
+
+            assertEquals("Same encoding for " + length + " bytes",
+                    expected, encoded);
+        }
+    }
+
+    /**
+     * Reading byte by byte gives the same result.
+     * @throws IOException exception on reading
+     */
+    @Test
+    public void testSingleByteRead() throws IOException {
+        final byte[] raw = "riesgos".getBytes(StandardCharsets.US_ASCII);
+        final StringBuilder builder = new StringBuilder();
+        try (InputStream stream = new Base64EncodingInputStream(
+                new ByteArrayInputStream(raw))) {
+            int value = stream.read();
+            while (value >= 0) {
+                builder.append((char) value);
+                value = stream.read();
+            }
+        }
+
+        assertEquals("Same encoding", "cmllc2dvcw==", builder.toString());
+    }
+}
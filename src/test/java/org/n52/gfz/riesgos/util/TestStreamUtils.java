@@ -19,6 +19,7 @@ package org.n52.gfz.riesgos.util;
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -28,6 +29,7 @@ import java.util.Map;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNotSame;
+import static junit.framework.TestCase.assertTrue;
 
 
 /**
@@ -141,4 +143,26 @@ public class TestStreamUtils {
             }
         }
     }
+
+    /**
+     * Tests that only the end of a long stream is kept.
+     * @throws IOException exception on reading the stream
+     */
+    @Test
+    public void testReadTail() throws IOException {
+        final byte[] content = new byte[10_000];
+        for (int i = 0; i < content.length; i += 1) {
+            content[i] = (byte) i;
+        }
+
+        final byte[] tail = StreamUtils.readTail(
+                new ByteArrayInputStream(content), 100);
+        assertEquals("Only the last bytes are kept", 100, tail.length);
+        assertTrue("These are the last bytes", Arrays.equals(
+                Arrays.copyOfRange(content, 9_900, 10_000), tail));
+
+        assertEquals("A short stream is read completely", "abc",
+                new String(StreamUtils.readTail(
+                        new ByteArrayInputStream("abc".getBytes()), 100)));
+    }
 }
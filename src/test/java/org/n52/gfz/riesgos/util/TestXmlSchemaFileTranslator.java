@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Test class for the XmlSchemaFileTranslator & the XmlSchemaCatalog.
+ */
+public class TestXmlSchemaFileTranslator {
+
+    /**
+     * Folder for the catalog directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The QuakeML schema uri must be resolved to the bundled file.
+     * @throws IOException exception on loading the catalog
+     */
+    @Test
+    public void testBundledQuakeml() throws IOException {
+        final XmlSchemaFileTranslator translator =
+                new XmlSchemaFileTranslator(XmlSchemaCatalog.bundled(), true);
+
+        final URL url = translator.translateUri(
+                "http://quakeml.org/xmlns/quakeml/1.2/QuakeML-1.2.xsd");
+
+        assertEquals("Bundled schema is used",
+                getClass().getResource(
+                        XmlSchemaFileTranslator.QUAKEML_SCHEMA_RES),
+                url);
+    }
+
+    /**
+     * In offline mode unknown remote schemas are not resolved.
+     * @throws IOException exception on loading the catalog
+     */
+    @Test
+    public void testOfflineUnknownRemoteSchema() throws IOException {
+        final XmlSchemaFileTranslator translator =
+                new XmlSchemaFileTranslator(XmlSchemaCatalog.bundled(), true);
+
+        assertNull("No resolution in offline mode",
+                translator.translateUri("http://example.org/unknown.xsd"));
+    }
+
+    /**
+     * Without the offline mode the remote url is given back without
+     * testing the connection.
+     * @throws IOException exception on loading the catalog
+     */
+    @Test
+    public void testOnlineUnknownRemoteSchema() throws IOException {
+        final XmlSchemaFileTranslator translator =
+                new XmlSchemaFileTranslator(XmlSchemaCatalog.bundled(), false);
+
+        assertEquals("Remote url is used",
+                new URL("http://example.org/unknown.xsd"),
+                translator.translateUri("http://example.org/unknown.xsd"));
+    }
+
+    /**
+     * The catalog of a directory overrides the bundled one
+     * and its relative uris refer to files in the directory.
+     * @throws IOException exception on writing or loading the catalog
+     */
+    @Test
+    public void testCatalogDirectory() throws IOException {
+        final File directory = folder.newFolder("catalog");
+        Files.write(
+                new File(directory, XmlSchemaCatalog.CATALOG_FILE_NAME)
+                        .toPath(),
+                ("<catalog xmlns=\"" + XmlSchemaCatalog.CATALOG_NAMESPACE
+                        + "\">"
+                        + "<uri name=\"http://example.org/schema\" "
+                        + "uri=\"schema.xsd\"/>"
+                        + "<system systemId=\"http://example.org/s.xsd\" "
+                        + "uri=\"sub/s.xsd\"/>"
+                        + "</catalog>").getBytes(StandardCharsets.UTF_8));
+
+        final XmlSchemaCatalog catalog = XmlSchemaCatalog.bundled()
+                .overriddenBy(XmlSchemaCatalog.fromDirectory(directory));
+
+        assertEquals("Uri entry",
+                new File(directory, "schema.xsd").toURI().toURL(),
+                catalog.resolve("http://example.org/schema").get());
+        assertEquals("System entry",
+                new File(directory, "sub/s.xsd").toURI().toURL(),
+                catalog.resolve("http://example.org/s.xsd").get());
+        assertTrue("Bundled entries are still there",
+                catalog.resolve(
+                        "http://earthquake.usgs.gov/eqcenter/shakemap")
+                        .isPresent());
+    }
+
+    /**
+     * A directory without catalog file gives an empty catalog.
+     * @throws IOException exception on loading the catalog
+     */
+    @Test
+    public void testDirectoryWithoutCatalog() throws IOException {
+        final XmlSchemaCatalog catalog =
+                XmlSchemaCatalog.fromDirectory(folder.newFolder("empty"));
+
+        assertEquals("No entries", 0, catalog.size());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+
+package org.n52.gfz.riesgos.util.compression;
+
+import org.junit.Test;
+import org.n52.gfz.riesgos.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Test class for CompressedBytes & the CompressionPolicy.
+ */
+public class TestCompressedBytes {
+
+    /**
+     * Policy for the tests.
+     */
+    private final CompressionPolicy policy = new CompressionPolicy(
+            true, StreamUtils.FAST_COMPRESSION, 1024, 2.0);
+
+    /**
+     * Json like content is compressed & can be restored.
+     * @throws IOException exception on compression
+     */
+    @Test
+    public void testCompressible() throws IOException {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 10000; i += 1) {
+            builder.append("{\"id\": ").append(i)
+                    .append(", \"damage_state\": \"D1\"},");
+        }
+        builder.append("{}]");
+        final byte[] payload =
+                builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        final CompressedBytes stored = CompressedBytes.store(payload, policy);
+
+        assertTrue("It is compressed", stored.isCompressed());
+        assertTrue("It is much smaller",
+                stored.getStoredSize() * 5 < payload.length);
+        assertTrue("Same content",
+                Arrays.equals(payload, stored.getBytes()));
+    }
+
+    /**
+     * Random content doesn't reach the ratio and is stored as it is.
+     * @throws IOException exception on compression
+     */
+    @Test
+    public void testIncompressible() throws IOException {
+        final byte[] payload = new byte[200000];
+        new Random(42).nextBytes(payload);
+
+        final CompressedBytes stored = CompressedBytes.store(payload, policy);
+
+        assertFalse("It is not compressed", stored.isCompressed());
+        assertTrue("Same content",
+                Arrays.equals(payload, stored.getBytes()));
+    }
+
+    /**
+     * Small payloads and disabled policies don't compress.
+     * @throws IOException exception on compression
+     */
+    @Test
+    public void testSmallAndDisabled() throws IOException {
+        final byte[] small = new byte[100];
+        final byte[] large = new byte[100000];
+
+        assertFalse("Small payload is not compressed",
+                CompressedBytes.store(small, policy).isCompressed());
+        assertFalse("Disabled policy does not compress",
+                CompressedBytes.store(large, CompressionPolicy.disabled())
+                        .isCompressed());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver;
+
+import org.junit.Test;
+import org.n52.gfz.riesgos.util.geoserver.impl.GeoserverRestApiClient;
+import org.n52.gfz.riesgos.util.geoserver.impl.StubGeoserver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests for the GeoserverLayerIndex.
+ */
+public class TestGeoserverLayerIndex {
+
+    /**
+     * Time to live for the test.
+     */
+    private static final long TTL = 1000;
+
+    /**
+     * Tests that the same content is only published once
+     * and that unused layers are removed.
+     * @throws Exception should not happen
+     */
+    @Test
+    public void testPublishOnceAndExpire() throws Exception {
+        try (StubGeoserver stub = new StubGeoserver();
+             GeoserverRestApiClient client = new GeoserverRestApiClient(
+                     stub.getBaseUrl(), "admin", "geoserver")) {
+            final GeoserverLayerIndex index =
+                    new GeoserverLayerIndex(client, TTL);
+            final AtomicInteger publishCounter = new AtomicInteger();
+
+            final GeoserverLayerIndex.ILayerPublisher publisher = () -> {
+                publishCounter.incrementAndGet();
+                return new PublishedLayer(
+                        "http://localhost/wms?layers=riesgos:layer",
+                        "riesgos",
+                        "store",
+                        PublishedLayer.StoreType.DATASTORE);
+            };
+
+            final String url1 = index.getOrPublish("abc", publisher);
+            final String url2 = index.getOrPublish("abc", publisher);
+
+            assertEquals("Both urls are the same", url1, url2);
+            assertEquals("There was only one upload",
+                    1, publishCounter.get());
+
+            index.expireUnusedLayers(System.currentTimeMillis());
+            assertEquals("The layer is still in use", 1, index.size());
+
+            index.expireUnusedLayers(System.currentTimeMillis() + 2 * TTL);
+            assertEquals("The layer is removed from the index",
+                    0, index.size());
+            assertTrue("The store is removed on the geoserver",
+                    stub.getRequests().contains(
+                            "DELETE /geoserver/rest/workspaces/riesgos/datastores/store"));
+
+            index.getOrPublish("abc", publisher);
+            assertEquals("After the expiry it will be published again",
+                    2, publishCounter.get());
+        }
+    }
+}
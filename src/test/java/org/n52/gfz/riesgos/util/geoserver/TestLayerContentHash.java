@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import org.apache.commons.io.FileUtils;
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+
+/**
+ * Tests for the LayerContentHash.
+ */
+public class TestLayerContentHash {
+
+    /**
+     * The same features have the same hash, other values
+     * or a null value change it.
+     */
+    @Test
+    public void testOfFeatures() {
+        final String hash = LayerContentHash.ofFeatures(
+                createFeatures("a", 1.0));
+
+        assertEquals("Same features, same hash",
+                hash, LayerContentHash.ofFeatures(createFeatures("a", 1.0)));
+        assertFalse("Other attribute, other hash", hash.equals(
+                LayerContentHash.ofFeatures(createFeatures("b", 1.0))));
+        assertFalse("Null attribute, other hash", hash.equals(
+                LayerContentHash.ofFeatures(createFeatures(null, 1.0))));
+        assertFalse("Other geometry, other hash", hash.equals(
+                LayerContentHash.ofFeatures(createFeatures("a", 2.0))));
+    }
+
+    /**
+     * The date in the header of the dbf file doesn't change the hash,
+     * but the rest of the content does.
+     * @throws IOException exception on writing the files
+     */
+    @Test
+    public void testOfShapefileIgnoresDbfDate() throws IOException {
+        final File folder = Files.createTempDirectory("hash").toFile();
+        try {
+            final File shp = write(folder, "a.shp", new byte[] {1, 2, 3});
+            final File shx = write(folder, "a.shx", new byte[] {4, 5});
+            final File prj = new File(folder, "a.prj");
+
+            // version, date (yy mm dd), content
+            final File dbf = write(folder, "a.dbf",
+                    new byte[] {3, 122, 1, 1, 42, 43});
+            final String hash =
+                    LayerContentHash.ofShapefile(shp, shx, dbf, prj);
+
+            write(folder, "a.dbf", new byte[] {3, 126, 10, 19, 42, 43});
+            assertEquals("Other date, same hash",
+                    hash, LayerContentHash.ofShapefile(shp, shx, dbf, prj));
+
+            write(folder, "a.dbf", new byte[] {3, 122, 1, 1, 42, 44});
+            assertFalse("Other content, other hash", hash.equals(
+                    LayerContentHash.ofShapefile(shp, shx, dbf, prj)));
+        } finally {
+            FileUtils.deleteDirectory(folder);
+        }
+    }
+
+    /**
+     * Writes a file.
+     * @param folder folder for the file
+     * @param name name of the file
+     * @param content content of the file
+     * @return the file
+     * @throws IOException exception on writing
+     */
+    private static File write(
+            final File folder,
+            final String name,
+            final byte[] content) throws IOException {
+        final File file = new File(folder, name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    /**
+     * Creates a feature collection with one point.
+     * @param name value of the name attribute
+     * @param x x value of the point
+     * @return feature collection
+     */
+    private static SimpleFeatureCollection createFeatures(
+            final String name,
+            final double x) {
+        final SimpleFeatureTypeBuilder typeBuilder =
+                new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("points");
+        typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
+        typeBuilder.add("the_geom", Point.class);
+        typeBuilder.add("name", String.class);
+        final SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        final SimpleFeatureBuilder builder =
+                new SimpleFeatureBuilder(featureType);
+        builder.add(new GeometryFactory().createPoint(new Coordinate(x, 2)));
+        builder.add(name);
+
+        final ListFeatureCollection features =
+                new ListFeatureCollection(featureType);
+        features.add(builder.buildFeature("1"));
+        return features;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Small http server that mimics the rest endpoints of the geoserver
+ * that we use.
+ */
+public class StubGeoserver implements AutoCloseable {
+
+    /**
+     * The server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Workspaces that exist on the stub.
+     */
+    private final Set<String> workspaces = ConcurrentHashMap.newKeySet();
+
+    /**
+     * All requests as "METHOD path".
+     */
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sizes of the uploaded shapefiles (zip).
+     */
+    private final List<Integer> uploadSizes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts the stub on a free port.
+     * @throws IOException if the server can't be started
+     */
+    public StubGeoserver() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/geoserver/rest/workspaces", this::handle);
+        server.start();
+    }
+
+    /**
+     *
+     * @return base url of the stub (like http://localhost:1234/geoserver)
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort()
+                + "/geoserver";
+    }
+
+    /**
+     *
+     * @return list with all the requests as "METHOD path"
+     */
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    /**
+     *
+     * @return sizes of the uploaded shapefiles
+     */
+    public List<Integer> getUploadSizes() {
+        return uploadSizes;
+    }
+
+    /**
+     * Handles the requests similar to the geoserver.
+     * @param exchange http exchange
+     * @throws IOException if the communication fails
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().getPath();
+        requests.add(method + " " + path);
+
+        final byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+        if (exchange.getRequestHeaders().getFirst("Authorization") == null) {
+            respond(exchange, 401, "");
+            return;
+        }
+
+        final String[] parts = path.split("/");
+        // /geoserver/rest/workspaces/{workspace}/datastores/{store}/...
+        if ("POST".equals(method) && parts.length == 4) {
+            final String text = new String(body, StandardCharsets.UTF_8);
+            final String name = text.replaceAll(".*<name>(.*)</name>.*", "$1");
+            if (workspaces.add(name)) {
+                respond(exchange, 201, name);
+            } else {
+                respond(exchange, 409,
+                        "Workspace named '" + name + "' already exists.");
+            }
+        } else if ("PUT".equals(method) && path.endsWith("/file.shp")) {
+            uploadSizes.add(body.length);
+            respond(exchange, 201, "");
+        } else if ("PUT".equals(method) && path.endsWith("/external.geotiff")) {
+            respond(exchange, 201, "");
+        } else if ("DELETE".equals(method)) {
+            respond(exchange, 200, "");
+        } else if ("GET".equals(method) && path.endsWith("/featuretypes")) {
+            final String store = parts[parts.length - 2];
+            respond(exchange, 200,
+                    "{\"featureTypes\":{\"featureType\":[{\"name\":\""
+                            + store + "_layer\"}]}}");
+        } else {
+            respond(exchange, 404, "");
+        }
+    }
+
+    /**
+     * Sends the response.
+     * @param exchange http exchange
+     * @param status status code
+     * @param text response body
+     * @throws IOException if the communication fails
+     */
+    private static void respond(
+            final HttpExchange exchange,
+            final int status,
+            final String text) throws IOException {
+        final byte[] content = text.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, content.length == 0 ? -1 : content.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(content);
+        }
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.geoserver.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.n52.gfz.riesgos.util.geoserver.exceptions.WorkspaceAlreadyExistsException;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests for the GeoserverRestApiClient against a stub server.
+ */
+public class TestGeoserverRestApiClient {
+
+    /**
+     * Tests that the workspace is only created once.
+     * @throws Exception should not happen
+     */
+    @Test
+    public void testWorkspaceCache() throws Exception {
+        try (StubGeoserver stub = new StubGeoserver();
+             GeoserverRestApiClient client = new GeoserverRestApiClient(
+                     stub.getBaseUrl(), "admin", "geoserver")) {
+
+            client.ensureWorkspaceExists("riesgos");
+            client.ensureWorkspaceExists("riesgos");
+            client.ensureWorkspaceExists("riesgos");
+
+            assertEquals("There is only one request",
+                    1, stub.getRequests().size());
+
+            boolean alreadyExists = false;
+            try {
+                client.createWorkspace("riesgos");
+            } catch (final WorkspaceAlreadyExistsException exception) {
+                alreadyExists = true;
+            }
+            assertTrue("The explicit creation still reports the conflict",
+                    alreadyExists);
+        }
+    }
+
+    /**
+     * Tests that the workspace cache expires.
+     * @throws Exception should not happen
+     */
+    @Test
+    public void testWorkspaceCacheExpires() throws Exception {
+        try (StubGeoserver stub = new StubGeoserver();
+             GeoserverRestApiClient client = new GeoserverRestApiClient(
+                     stub.getBaseUrl(), "admin", "geoserver", 2, 0)) {
+
+            client.ensureWorkspaceExists("riesgos");
+            // already existing workspaces are fine
+            client.ensureWorkspaceExists("riesgos");
+
+            assertEquals("Both calls asked the geoserver",
+                    2, stub.getRequests().size());
+        }
+    }
+
+    /**
+     * Tests parallel uploads of shapefiles.
+     * @throws Exception should not happen
+     */
+    @Test
+    public void testAsyncUpload() throws Exception {
+        final File zip = File.createTempFile("test", ".zip");
+        try (StubGeoserver stub = new StubGeoserver();
+             GeoserverRestApiClient client = new GeoserverRestApiClient(
+                     stub.getBaseUrl(), "admin", "geoserver")) {
+            FileUtils.writeByteArrayToFile(zip, new byte[12345]);
+
+            final List<CompletableFuture<String>> uploads = IntStream
+                    .range(0, 10)
+                    .mapToObj(i -> client.uploadShpAsync(
+                            zip, "riesgos", "store" + i))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(
+                    uploads.toArray(new CompletableFuture[0])).get();
+
+            assertEquals("All uploads are done",
+                    10, stub.getUploadSizes().size());
+            for (final Integer size : stub.getUploadSizes()) {
+                assertEquals("The whole file was sent", 12345, size.intValue());
+            }
+
+            final List<String> layerNames =
+                    client.getLayerNamesForDataStore("riesgos", "store1");
+            assertEquals("The layer name is extracted",
+                    "store1_layer", layerNames.get(0));
+        } finally {
+            FileUtils.deleteQuietly(zip);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2019 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.util.tempfiles;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+/**
+ * Tests for the TempFileArenaImpl.
+ */
+public class TestTempFileArenaImpl {
+
+    /**
+     * Tests that the file is deleted once the last owner releases it.
+     * @throws IOException may be thrown on creating the file
+     */
+    @Test
+    public void testReferenceCounting() throws IOException {
+        final ITempFileArena arena = new TempFileArenaImpl();
+
+        final File file = arena.createTempFile("test", ".tmp");
+        final Object owner = new Object();
+        arena.retain(file, owner);
+
+        assertEquals(1, arena.getLiveTempFileCount());
+
+        arena.release(file);
+        assertTrue("The owner still holds the file", file.exists());
+
+        arena.release(file);
+        assertFalse("The file must be deleted", file.exists());
+        assertEquals(0, arena.getLiveTempFileCount());
+        assertEquals(0, arena.getLiveTempBytes());
+    }
+
+    /**
+     * Tests that closing the scope deletes the files.
+     * @throws IOException may be thrown on creating the file
+     */
+    @Test
+    public void testScope() throws IOException {
+        final ITempFileArena arena = new TempFileArenaImpl();
+
+        final File file;
+        try (TempFileScope scope = arena.openScope()) {
+            file = scope.createTempFile("test", ".tmp");
+            assertTrue("The file exists within the scope", file.exists());
+            assertEquals(1, arena.getLiveTempFileCount());
+        }
+        assertFalse("The file must be deleted", file.exists());
+        assertEquals(0, arena.getLiveTempFileCount());
+    }
+
+    /**
+     * Tests that the handle keeps the file as long as it is reachable
+     * (even without the binding that got it first).
+     * @throws IOException may be thrown on creating the file
+     * @throws InterruptedException may be thrown on waiting for the gc
+     */
+    @Test
+    public void testHandle() throws IOException, InterruptedException {
+        final ITempFileArena arena = new TempFileArenaImpl();
+
+        final File file = arena.createTempFile("test", ".tmp");
+        File handle = arena.createHandle(file);
+        arena.release(file);
+
+        assertEquals("Same path", file.getPath(), handle.getPath());
+        System.gc();
+        assertTrue("The handle still holds the file", handle.exists());
+
+        handle = null;
+        for (int i = 0; i < 100 && file.exists(); i += 1) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertFalse("The file is deleted after the handle is collected",
+                file.exists());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2022 GFZ German Research Centre for Geosciences
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package org.n52.gfz.riesgos.validators;
+
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertEquals;
+
+/**
+ * Test class for the ValidationResultMemo.
+ */
+public class TestValidationResultMemo {
+
+    /**
+     * The same rule & digest is only validated once - also if
+     * the result was an error.
+     */
+    @Test
+    public void testValidatesOnlyOnce() {
+        final ValidationResultMemo memo = new ValidationResultMemo(10);
+        final AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i += 1) {
+            final Optional<String> result = memo.getOrValidate(
+                    "schema", "abc", () -> {
+                        calls.incrementAndGet();
+                        return Optional.of("error");
+                    });
+            assertEquals("Same result", Optional.of("error"), result);
+        }
+        for (int i = 0; i < 3; i += 1) {
+            final Optional<String> result = memo.getOrValidate(
+                    "schema", "def", () -> {
+                        calls.incrementAndGet();
+                        return Optional.empty();
+                    });
+            assertEquals("Same result", Optional.empty(), result);
+        }
+
+        assertEquals("One validation per content", 2, calls.get());
+    }
+
+    /**
+     * The memo is bounded and removes the least recently used results.
+     */
+    @Test
+    public void testBounded() {
+        final ValidationResultMemo memo = new ValidationResultMemo(2);
+        final AtomicInteger calls = new AtomicInteger();
+
+        for (final String digest : new String[] {"a", "b", "a", "c", "a"}) {
+            memo.getOrValidate("schema", digest, () -> {
+                calls.incrementAndGet();
+                return Optional.empty();
+            });
+        }
+
+        assertEquals("Only two results are kept", 2, memo.size());
+        assertEquals("a was used recently and was not removed",
+                3, calls.get());
+    }
+}
@@ -21,15 +21,25 @@ import org.apache.xmlbeans.XmlObject;
 
 import org.junit.Test;
 import org.n52.gfz.riesgos.functioninterfaces.ICheckDataAndGetErrorMessage;
+import org.n52.gfz.riesgos.util.XmlSchemaCache;
 import org.n52.wps.io.data.binding.complex.GenericXMLDataBinding;
+import org.xml.sax.SAXException;
 
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.xml.validation.Schema;
+
+import static junit.framework.TestCase.assertSame;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assume.assumeTrue;
@@ -168,4 +178,45 @@ public class TestXmlBindingWithAllowedSchema {
         assertTrue("There is a message indicating that there is a problem with the data", errorMessage.isPresent());
     }
 
+    /**
+     * Valid and invalid values are checked at the same time with the same
+     * validator. Every check must only see its own errors.
+     */
+    @Test
+    public void testConcurrentValidation() throws Exception {
+        final ICheckDataAndGetErrorMessage<GenericXMLDataBinding> validator = new XmlBindingWithAllowedSchema<>(schemaQuakeml);
+        final String filecontent = new String(Files.readAllBytes(quakemlfile));
+        final GenericXMLDataBinding validValue = new GenericXMLDataBinding(XmlObject.Factory.parse(filecontent));
+        final GenericXMLDataBinding invalidValue = new GenericXMLDataBinding(XmlObject.Factory.parse("<test></test>"));
+
+        final int numberOfChecks = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Optional<String>>> validResults = new ArrayList<>();
+            final List<Future<Optional<String>>> invalidResults = new ArrayList<>();
+            for (int i = 0; i < numberOfChecks; i += 1) {
+                validResults.add(executor.submit(() -> validator.check(validValue)));
+                invalidResults.add(executor.submit(() -> validator.check(invalidValue)));
+            }
+            for (final Future<Optional<String>> result : validResults) {
+                assertFalse("The valid input must not see errors of other checks", result.get().isPresent());
+            }
+            for (final Future<Optional<String>> result : invalidResults) {
+                assertTrue("The invalid input must have an error message", result.get().isPresent());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The schema is compiled only once and then reused.
+     */
+    @Test
+    public void testSchemaIsCached() throws SAXException {
+        final Schema first = XmlSchemaCache.INSTANCE.getSchema(schemaShakemap);
+        final Schema second = XmlSchemaCache.INSTANCE.getSchema(schemaShakemap);
+
+        assertSame("The compiled schema is reused", first, second);
+    }
 }